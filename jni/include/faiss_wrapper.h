@@ -34,12 +34,56 @@ namespace knn_jni {
         // Return a pointer to the loaded index
         jlong LoadIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jstring indexPathJ);
 
+        // Load an index from indexPathJ, memory mapping the parts of it that faiss can map instead of reading them.
+        // The inverted lists of IVF indices are mapped, while other index types are read into memory as usual.
+        //
+        // Return a pointer to the loaded index
+        jlong LoadIndexMmap(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jstring indexPathJ);
+
+        // Return the number of bytes of the index located in memory at indexPointerJ that are mapped from its file
+        // rather than held in memory
+        jlong GetMappedSizeInBytes(jlong indexPointerJ);
+
+        // Return the number of bytes the index located in memory at indexPointerJ holds in memory, counting the
+        // vectors, graph links, inverted lists and codebooks of the index and its sub-indices. Inverted lists mapped
+        // from the index file are not counted. Return -1 if the index contains a type whose size is not known.
+        jlong GetIndexSizeInBytes(jlong indexPointerJ);
+
         // Execute a query against the index located in memory at indexPointerJ.
         //
         // Return an array of KNNQueryResults
         jobjectArray QueryIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
                                 jfloatArray queryVectorJ, jint kJ);
 
+        // Execute a query against the index located in memory at indexPointerJ, writing the ids and distances of the
+        // neighbors to idsJ and distancesJ instead of allocating a KNNQueryResult per neighbor. Both arrays need to
+        // hold at least kJ elements. If filterJ is not null, it holds the words of a Lucene FixedBitSet and only ids
+        // whose bit is set are considered during the search. If methodParamsJ is not null,
+        // its ef_search and nprobes entries override the index's search parameters for this query only.
+        //
+        // Return the number of neighbors written
+        jint QueryIndexInto(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                            jfloatArray queryVectorJ, jint kJ, jlongArray filterJ, jobject methodParamsJ,
+                            jintArray idsJ, jfloatArray distancesJ);
+
+        // Find every neighbor of the query vector within radiusJ in the index located in memory at indexPointerJ. For
+        // l2, the radius is a squared distance and neighbors closer than it are returned. For inner product, neighbors
+        // whose inner product is larger than the radius are returned. filterJ is handled the same way as in
+        // QueryIndex. The ids and distances are written to idsJ and distancesJ. When more neighbors than the arrays
+        // can hold are found, only the closest ones are kept.
+        //
+        // Return the number of neighbors written
+        jint RangeSearchIndexInto(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                                  jfloatArray queryVectorJ, jfloat radiusJ, jlongArray filterJ, jintArray idsJ,
+                                  jfloatArray distancesJ);
+
+        // Execute a query for each of the vectors in queryVectorsJ against the index located in memory at
+        // indexPointerJ. All queries are run with a single search call so that faiss can process them in parallel.
+        //
+        // Return an array holding an array of KNNQueryResults for each query vector
+        jobjectArray QueryIndexBatch(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                                     jobjectArray queryVectorsJ, jint kJ);
+
         // Free the index located in memory at indexPointerJ
         void Free(jlong indexPointer);
 
@@ -39,6 +39,23 @@ namespace knn_jni {
         jobjectArray QueryIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
                                 jfloatArray queryVectorJ, jint kJ);
 
+        // Execute a query against the index located in memory at indexPointerJ, writing the ids and distances of the
+        // neighbors to idsJ and distancesJ instead of allocating a KNNQueryResult per neighbor. Both arrays need to
+        // hold at least kJ elements. If filterJ is not null, it holds the words of a Lucene FixedBitSet and only ids
+        // whose bit is set are considered during the search.
+        //
+        // Return the number of neighbors written
+        jint QueryIndexInto(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                            jfloatArray queryVectorJ, jint kJ, jlongArray filterJ, jintArray idsJ,
+                            jfloatArray distancesJ);
+
+        // Execute a query for each of the vectors in queryVectorsJ against the index located in memory at
+        // indexPointerJ.
+        //
+        // Return an array holding an array of KNNQueryResults for each query vector
+        jobjectArray QueryIndexBatch(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                                     jobjectArray queryVectorsJ, jint kJ);
+
         // Free the index located in memory at indexPointerJ
         void Free(jlong indexPointer);
 
@@ -42,6 +42,30 @@ JNIEXPORT void JNICALL Java_org_opensearch_knn_jni_FaissService_createIndexFromT
 JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_loadIndex
   (JNIEnv *, jclass, jstring);
 
+/*
+ * Class:     org_opensearch_knn_jni_FaissService
+ * Method:    loadIndexMmap
+ * Signature: (Ljava/lang/String;)J
+ */
+JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_loadIndexMmap
+  (JNIEnv *, jclass, jstring);
+
+/*
+ * Class:     org_opensearch_knn_jni_FaissService
+ * Method:    getMappedSizeInBytes
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_getMappedSizeInBytes
+  (JNIEnv *, jclass, jlong);
+
+/*
+ * Class:     org_opensearch_knn_jni_FaissService
+ * Method:    getIndexSizeInBytes
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_getIndexSizeInBytes
+  (JNIEnv *, jclass, jlong);
+
 /*
  * Class:     org_opensearch_knn_jni_FaissService
  * Method:    queryIndex
@@ -50,6 +74,30 @@ JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_loadIndex
 JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_FaissService_queryIndex
   (JNIEnv *, jclass, jlong, jfloatArray, jint);
 
+/*
+ * Class:     org_opensearch_knn_jni_FaissService
+ * Method:    queryIndexInto
+ * Signature: (J[FI[JLjava/util/Map;[I[F)I
+ */
+JNIEXPORT jint JNICALL Java_org_opensearch_knn_jni_FaissService_queryIndexInto
+  (JNIEnv *, jclass, jlong, jfloatArray, jint, jlongArray, jobject, jintArray, jfloatArray);
+
+/*
+ * Class:     org_opensearch_knn_jni_FaissService
+ * Method:    rangeSearchIndexInto
+ * Signature: (J[FF[J[I[F)I
+ */
+JNIEXPORT jint JNICALL Java_org_opensearch_knn_jni_FaissService_rangeSearchIndexInto
+  (JNIEnv *, jclass, jlong, jfloatArray, jfloat, jlongArray, jintArray, jfloatArray);
+
+/*
+ * Class:     org_opensearch_knn_jni_FaissService
+ * Method:    queryIndexBatch
+ * Signature: (J[[FI)[[Lorg/opensearch/knn/index/KNNQueryResult;
+ */
+JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_FaissService_queryIndexBatch
+  (JNIEnv *, jclass, jlong, jobjectArray, jint);
+
 /*
  * Class:     org_opensearch_knn_jni_FaissService
  * Method:    free
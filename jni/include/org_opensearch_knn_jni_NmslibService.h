@@ -42,6 +42,22 @@ JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_NmslibService_loadIndex
 JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_NmslibService_queryIndex
   (JNIEnv *, jclass, jlong, jfloatArray, jint);
 
+/*
+ * Class:     org_opensearch_knn_jni_NmslibService
+ * Method:    queryIndexInto
+ * Signature: (J[FI[J[I[F)I
+ */
+JNIEXPORT jint JNICALL Java_org_opensearch_knn_jni_NmslibService_queryIndexInto
+  (JNIEnv *, jclass, jlong, jfloatArray, jint, jlongArray, jintArray, jfloatArray);
+
+/*
+ * Class:     org_opensearch_knn_jni_NmslibService
+ * Method:    queryIndexBatch
+ * Signature: (J[[FI)[[Lorg/opensearch/knn/index/KNNQueryResult;
+ */
+JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_NmslibService_queryIndexBatch
+  (JNIEnv *, jclass, jlong, jobjectArray, jint);
+
 /*
  * Class:     org_opensearch_knn_jni_NmslibService
  * Method:    free
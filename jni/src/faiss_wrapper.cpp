@@ -15,15 +15,26 @@
 #include "faiss/impl/io.h"
 #include "faiss/index_factory.h"
 #include "faiss/index_io.h"
+#include "faiss/IndexFlatCodes.h"
 #include "faiss/IndexHNSW.h"
 #include "faiss/IndexIVFFlat.h"
+#include "faiss/IndexIVFPQ.h"
 #include "faiss/MetaIndexes.h"
+#include "faiss/impl/AuxIndexStructures.h"
+#include "faiss/impl/IDSelector.h"
+#include "faiss/invlists/OnDiskInvertedLists.h"
 
 #include <algorithm>
 #include <jni.h>
 #include <string>
 #include <vector>
 
+// Filtered search passes an IDSelector through faiss::SearchParameters, which were added in faiss 1.7.3
+#if FAISS_VERSION_MAJOR < 1 || (FAISS_VERSION_MAJOR == 1 && (FAISS_VERSION_MINOR < 7 || \
+        (FAISS_VERSION_MINOR == 7 && FAISS_VERSION_PATCH < 3)))
+#error "faiss 1.7.3 or later is required"
+#endif
+
 
 // Translate space type to faiss metric
 faiss::MetricType TranslateSpaceToMetric(const std::string& spaceType);
@@ -35,6 +46,47 @@ void SetExtraParameters(knn_jni::JNIUtilInterface * jniUtil, JNIEnv *env,
 // Train an index with data provided
 void InternalTrainIndex(faiss::Index * index, faiss::Index::idx_t n, const float* x);
 
+// Selects the ids whose bit is set in the words of a Lucene FixedBitSet. Bit i lives in word i >> 6 at position i & 63.
+struct FixedBitSetIDSelector : faiss::IDSelector {
+    const jlong * words;
+    int numWords;
+
+    FixedBitSetIDSelector(const jlong * words, int numWords): words(words), numWords(numWords) {}
+
+    bool is_member(faiss::Index::idx_t id) const override {
+        faiss::Index::idx_t wordIndex = id >> 6;
+        if (id < 0 || wordIndex >= numWords) {
+            return false;
+        }
+        return (((uint64_t) words[wordIndex]) >> (id & 63)) & 1;
+    }
+};
+
+// Search the index at indexPointerJ for the k nearest neighbors of the query vector, writing them to distances and
+// ids. If filterJ is not null, only ids whose bit is set in it are considered. If methodParamsJ is not null, it is a
+// Java Map whose ef_search and nprobes entries override the index's search parameters for this query only.
+void InternalQueryIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                        jfloatArray queryVectorJ, jint kJ, jlongArray filterJ, jobject methodParamsJ,
+                        float* distances, faiss::Index::idx_t* ids);
+
+// Return the number of bytes index holds in memory, recursing into its sub-indices. Inverted lists mapped from the
+// index file are not counted. Return -1 if index or one of its sub-indices is of a type whose size is not known.
+int64_t InternalGetIndexSizeInBytes(const faiss::Index * index);
+
+// Return the number of bytes inverted lists hold in memory, or -1 if their type is not known
+int64_t InternalGetInvertedListsSizeInBytes(const faiss::InvertedLists * invlists);
+
+// Convert the k ids and distances of a single query into an array of KNNQueryResults. Faiss pads missing results
+// with -1 ids, so the array stops at the first one.
+jobjectArray BuildQueryResults(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, const faiss::Index::idx_t* ids,
+                               const float* dis, int k);
+
+// Search the index with per query search parameters. Results are restricted to the ids selected by selector, unless it
+// is null. efSearch and nprobes override the values the index was loaded with when they are positive. The search
+// parameters are typed after the underlying index so that the parameters that are not overridden are preserved.
+void InternalSearch(faiss::Index * index, const float* query, int k, float* distances, faiss::Index::idx_t* ids,
+                    faiss::IDSelector * selector, int efSearch, int nprobes);
+
 void knn_jni::faiss_wrapper::CreateIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jintArray idsJ,
                                          jobjectArray vectorsJ, jstring indexPathJ, jobject parametersJ) {
 
@@ -179,49 +231,175 @@ jlong knn_jni::faiss_wrapper::LoadIndex(knn_jni::JNIUtilInterface * jniUtil, JNI
     return (jlong) indexReader;
 }
 
+jlong knn_jni::faiss_wrapper::LoadIndexMmap(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jstring indexPathJ) {
+    if (indexPathJ == nullptr) {
+        throw std::runtime_error("Index path cannot be null");
+    }
+
+    std::string indexPathCpp(jniUtil->ConvertJavaStringToCppString(env, indexPathJ));
+    faiss::Index* indexReader = faiss::read_index(indexPathCpp.c_str(),
+                                                  faiss::IO_FLAG_MMAP | faiss::IO_FLAG_READ_ONLY);
+    return (jlong) indexReader;
+}
+
+jlong knn_jni::faiss_wrapper::GetMappedSizeInBytes(jlong indexPointerJ) {
+    auto index = reinterpret_cast<faiss::Index*>(indexPointerJ);
+    auto idMap = dynamic_cast<faiss::IndexIDMap*>(index);
+    if (idMap != nullptr) {
+        index = idMap->index;
+    }
+
+    auto ivfIndex = dynamic_cast<faiss::IndexIVF*>(index);
+    if (ivfIndex == nullptr) {
+        return 0;
+    }
+
+    auto onDiskInvertedLists = dynamic_cast<faiss::OnDiskInvertedLists*>(ivfIndex->invlists);
+    return onDiskInvertedLists == nullptr ? 0 : (jlong) onDiskInvertedLists->totsize;
+}
+
+jlong knn_jni::faiss_wrapper::GetIndexSizeInBytes(jlong indexPointerJ) {
+    return (jlong) InternalGetIndexSizeInBytes(reinterpret_cast<faiss::Index*>(indexPointerJ));
+}
+
 jobjectArray knn_jni::faiss_wrapper::QueryIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
                                                 jfloatArray queryVectorJ, jint kJ) {
 
+    std::vector<float> dis(kJ);
+    std::vector<faiss::Index::idx_t> ids(kJ);
+    InternalQueryIndex(jniUtil, env, indexPointerJ, queryVectorJ, kJ, nullptr, nullptr, dis.data(), ids.data());
+
+    return BuildQueryResults(jniUtil, env, ids.data(), dis.data(), kJ);
+}
+
+jint knn_jni::faiss_wrapper::QueryIndexInto(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                                            jfloatArray queryVectorJ, jint kJ, jlongArray filterJ,
+                                            jobject methodParamsJ, jintArray idsJ, jfloatArray distancesJ) {
+
+    if (idsJ == nullptr || distancesJ == nullptr) {
+        throw std::runtime_error("Result arrays cannot be null");
+    }
+
+    if (jniUtil->GetJavaIntArrayLength(env, idsJ) < kJ || jniUtil->GetJavaFloatArrayLength(env, distancesJ) < kJ) {
+        throw std::runtime_error("Result arrays need to hold at least k elements");
+    }
+
+    std::vector<float> dis(kJ);
+    std::vector<faiss::Index::idx_t> ids(kJ);
+    InternalQueryIndex(jniUtil, env, indexPointerJ, queryVectorJ, kJ, filterJ, methodParamsJ, dis.data(),
+                       ids.data());
+
+    // If there are not k results, the results will be padded with -1. Only copy up to the first -1
+    int resultSize = std::find(ids.begin(), ids.end(), -1) - ids.begin();
+
+    std::vector<jint> docIds(ids.begin(), ids.begin() + resultSize);
+    jniUtil->SetIntArrayRegion(env, idsJ, 0, resultSize, docIds.data());
+    jniUtil->SetFloatArrayRegion(env, distancesJ, 0, resultSize, dis.data());
+    return resultSize;
+}
+
+jint knn_jni::faiss_wrapper::RangeSearchIndexInto(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env,
+                                                  jlong indexPointerJ, jfloatArray queryVectorJ, jfloat radiusJ,
+                                                  jlongArray filterJ, jintArray idsJ, jfloatArray distancesJ) {
+
     if (queryVectorJ == nullptr) {
         throw std::runtime_error("Query Vector cannot be null");
     }
 
+    if (idsJ == nullptr || distancesJ == nullptr) {
+        throw std::runtime_error("Result arrays cannot be null");
+    }
+
     auto *indexReader = reinterpret_cast<faiss::Index*>(indexPointerJ);
 
     if (indexReader == nullptr) {
         throw std::runtime_error("Invalid pointer to index");
     }
 
-    int dim	= jniUtil->GetJavaFloatArrayLength(env, queryVectorJ);
-    std::vector<float> dis(kJ * dim);
-    std::vector<faiss::Index::idx_t> ids(kJ * dim);
-    float* rawQueryvector = jniUtil->GetFloatArrayElements(env, queryVectorJ, nullptr);
+    int maxResults = std::min(jniUtil->GetJavaIntArrayLength(env, idsJ),
+                              jniUtil->GetJavaFloatArrayLength(env, distancesJ));
 
+    faiss::RangeSearchResult result(1);
+    float* rawQueryvector = jniUtil->GetFloatArrayElements(env, queryVectorJ, nullptr);
+    jlong* filterWords = nullptr;
     try {
-        indexReader->search(1, rawQueryvector, kJ, dis.data(), ids.data());
+        faiss::SearchParameters params;
+        std::unique_ptr<FixedBitSetIDSelector> selector;
+        if (filterJ != nullptr) {
+            int numWords = jniUtil->GetJavaLongArrayLength(env, filterJ);
+            filterWords = jniUtil->GetLongArrayElements(env, filterJ, nullptr);
+            selector.reset(new FixedBitSetIDSelector(filterWords, numWords));
+            params.sel = selector.get();
+        }
+        indexReader->range_search(1, rawQueryvector, radiusJ, &result, filterJ != nullptr ? &params : nullptr);
     } catch (...) {
+        if (filterWords != nullptr) {
+            jniUtil->ReleaseLongArrayElements(env, filterJ, filterWords, JNI_ABORT);
+        }
         jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
         throw;
     }
+    if (filterWords != nullptr) {
+        jniUtil->ReleaseLongArrayElements(env, filterJ, filterWords, JNI_ABORT);
+    }
     jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
 
-    // If there are not k results, the results will be padded with -1. Find the first -1, and set result size to that
-    // index
-    int resultSize = kJ;
-    auto it = std::find(ids.begin(), ids.end(), -1);
-    if (it != ids.end()) {
-        resultSize = it - ids.begin();
+    // Results come back in no particular order. When there are more than fit in the arrays, keep the closest ones.
+    int numResults = result.lims[1];
+    std::vector<int> order(numResults);
+    for (int i = 0; i < numResults; ++i) {
+        order[i] = i;
+    }
+    int resultSize = std::min(numResults, maxResults);
+    if (resultSize < numResults) {
+        bool largerIsCloser = indexReader->metric_type == faiss::METRIC_INNER_PRODUCT;
+        std::partial_sort(order.begin(), order.begin() + resultSize, order.end(), [&](int a, int b) {
+            return largerIsCloser ? result.distances[a] > result.distances[b]
+                                  : result.distances[a] < result.distances[b];
+        });
+    }
+
+    std::vector<jint> ids(resultSize);
+    std::vector<jfloat> distances(resultSize);
+    for (int i = 0; i < resultSize; ++i) {
+        ids[i] = result.labels[order[i]];
+        distances[i] = result.distances[order[i]];
+    }
+    jniUtil->SetIntArrayRegion(env, idsJ, 0, resultSize, ids.data());
+    jniUtil->SetFloatArrayRegion(env, distancesJ, 0, resultSize, distances.data());
+    return resultSize;
+}
+
+jobjectArray knn_jni::faiss_wrapper::QueryIndexBatch(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env,
+                                                     jlong indexPointerJ, jobjectArray queryVectorsJ, jint kJ) {
+
+    if (queryVectorsJ == nullptr) {
+        throw std::runtime_error("Query Vectors cannot be null");
     }
 
-    jclass resultClass = jniUtil->FindClass(env,"org/opensearch/knn/index/KNNQueryResult");
-    jmethodID allArgs = jniUtil->FindMethod(env, "org/opensearch/knn/index/KNNQueryResult", "<init>");
+    auto *indexReader = reinterpret_cast<faiss::Index*>(indexPointerJ);
 
-    jobjectArray results = jniUtil->NewObjectArray(env, resultSize, resultClass, nullptr);
+    if (indexReader == nullptr) {
+        throw std::runtime_error("Invalid pointer to index");
+    }
 
-    jobject result;
-    for(int i = 0; i < resultSize; ++i) {
-        result = jniUtil->NewObject(env, resultClass, allArgs, ids[i], dis[i]);
-        jniUtil->SetObjectArrayElement(env, results, i, result);
+    int numQueries = jniUtil->GetJavaObjectArrayLength(env, queryVectorsJ);
+    int dim = jniUtil->GetInnerDimensionOf2dJavaFloatArray(env, queryVectorsJ);
+    auto queries = jniUtil->Convert2dJavaObjectArrayToCppFloatVector(env, queryVectorsJ, dim);
+
+    // A single call lets faiss parallelize the search over the queries
+    std::vector<float> dis(numQueries * kJ);
+    std::vector<faiss::Index::idx_t> ids(numQueries * kJ);
+    indexReader->search(numQueries, queries.data(), kJ, dis.data(), ids.data());
+
+    jclass resultArrayClass = jniUtil->FindClass(env, "[Lorg/opensearch/knn/index/KNNQueryResult;");
+    jobjectArray results = jniUtil->NewObjectArray(env, numQueries, resultArrayClass, nullptr);
+
+    jobjectArray queryResults;
+    for (int i = 0; i < numQueries; ++i) {
+        queryResults = BuildQueryResults(jniUtil, env, ids.data() + i * kJ, dis.data() + i * kJ, kJ);
+        jniUtil->SetObjectArrayElement(env, results, i, queryResults);
+        jniUtil->DeleteLocalRef(env, queryResults);
     }
     return results;
 }
@@ -355,3 +533,198 @@ void InternalTrainIndex(faiss::Index * index, faiss::Index::idx_t n, const float
         index->train(n, x);
     }
 }
+
+void InternalSearch(faiss::Index * index, const float* query, int k, float* distances, faiss::Index::idx_t* ids,
+                    faiss::IDSelector * selector, int efSearch, int nprobes) {
+    // Indices are wrapped in an IndexIDMap, which translates the selector to internal ids before delegating. The
+    // parameter type still has to match the wrapped index.
+    faiss::Index * innerIndex = index;
+    if (auto * indexIdMap = dynamic_cast<faiss::IndexIDMap*>(index)) {
+        innerIndex = indexIdMap->index;
+    }
+
+    if (auto * indexHnsw = dynamic_cast<faiss::IndexHNSW*>(innerIndex)) {
+        faiss::SearchParametersHNSW hnswParams;
+        hnswParams.efSearch = efSearch > 0 ? efSearch : indexHnsw->hnsw.efSearch;
+        hnswParams.sel = selector;
+        index->search(1, query, k, distances, ids, &hnswParams);
+        return;
+    }
+
+    if (auto * indexIvf = dynamic_cast<faiss::IndexIVF*>(innerIndex)) {
+        faiss::SearchParametersIVF ivfParams;
+        ivfParams.nprobe = nprobes > 0 ? nprobes : indexIvf->nprobe;
+        ivfParams.max_codes = indexIvf->max_codes;
+        ivfParams.sel = selector;
+        index->search(1, query, k, distances, ids, &ivfParams);
+        return;
+    }
+
+    faiss::SearchParameters params;
+    params.sel = selector;
+    index->search(1, query, k, distances, ids, &params);
+}
+
+jobjectArray BuildQueryResults(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, const faiss::Index::idx_t* ids,
+                               const float* dis, int k) {
+    // If there are not k results, the results will be padded with -1. Find the first -1, and set result size to that
+    // index
+    int resultSize = std::find(ids, ids + k, -1) - ids;
+
+    jclass resultClass = jniUtil->FindClass(env,"org/opensearch/knn/index/KNNQueryResult");
+    jmethodID allArgs = jniUtil->FindMethod(env, "org/opensearch/knn/index/KNNQueryResult", "<init>");
+
+    jobjectArray results = jniUtil->NewObjectArray(env, resultSize, resultClass, nullptr);
+
+    jobject result;
+    for(int i = 0; i < resultSize; ++i) {
+        result = jniUtil->NewObject(env, resultClass, allArgs, ids[i], dis[i]);
+        jniUtil->SetObjectArrayElement(env, results, i, result);
+    }
+    return results;
+}
+
+void InternalQueryIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                        jfloatArray queryVectorJ, jint kJ, jlongArray filterJ, jobject methodParamsJ,
+                        float* distances, faiss::Index::idx_t* ids) {
+
+    if (queryVectorJ == nullptr) {
+        throw std::runtime_error("Query Vector cannot be null");
+    }
+
+    auto *indexReader = reinterpret_cast<faiss::Index*>(indexPointerJ);
+
+    if (indexReader == nullptr) {
+        throw std::runtime_error("Invalid pointer to index");
+    }
+
+    // Values that are not positive leave the parameters the index was loaded with in place
+    int efSearch = -1;
+    int nprobes = -1;
+    if (methodParamsJ != nullptr) {
+        auto methodParamsCpp = jniUtil->ConvertJavaMapToCppMap(env, methodParamsJ);
+        if (methodParamsCpp.find(knn_jni::EF_SEARCH) != methodParamsCpp.end()) {
+            efSearch = jniUtil->ConvertJavaObjectToCppInteger(env, methodParamsCpp[knn_jni::EF_SEARCH]);
+        }
+        if (methodParamsCpp.find(knn_jni::NPROBES) != methodParamsCpp.end()) {
+            nprobes = jniUtil->ConvertJavaObjectToCppInteger(env, methodParamsCpp[knn_jni::NPROBES]);
+        }
+    }
+
+    float* rawQueryvector = jniUtil->GetFloatArrayElements(env, queryVectorJ, nullptr);
+
+    if (filterJ == nullptr) {
+        try {
+            if (efSearch > 0 || nprobes > 0) {
+                InternalSearch(indexReader, rawQueryvector, kJ, distances, ids, nullptr, efSearch, nprobes);
+            } else {
+                indexReader->search(1, rawQueryvector, kJ, distances, ids);
+            }
+        } catch (...) {
+            jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
+            throw;
+        }
+    } else {
+        int numWords = jniUtil->GetJavaLongArrayLength(env, filterJ);
+        jlong* filterWords;
+        try {
+            filterWords = jniUtil->GetLongArrayElements(env, filterJ, nullptr);
+        } catch (...) {
+            jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
+            throw;
+        }
+
+        FixedBitSetIDSelector selector(filterWords, numWords);
+        try {
+            InternalSearch(indexReader, rawQueryvector, kJ, distances, ids, &selector, efSearch, nprobes);
+        } catch (...) {
+            jniUtil->ReleaseLongArrayElements(env, filterJ, filterWords, JNI_ABORT);
+            jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
+            throw;
+        }
+        jniUtil->ReleaseLongArrayElements(env, filterJ, filterWords, JNI_ABORT);
+    }
+    jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
+}
+
+int64_t InternalGetIndexSizeInBytes(const faiss::Index * index) {
+    if (index == nullptr) {
+        return 0;
+    }
+
+    auto idMap = dynamic_cast<const faiss::IndexIDMap*>(index);
+    if (idMap != nullptr) {
+        int64_t subIndexSize = InternalGetIndexSizeInBytes(idMap->index);
+        if (subIndexSize < 0) {
+            return -1;
+        }
+        return subIndexSize + idMap->id_map.capacity() * sizeof(faiss::Index::idx_t);
+    }
+
+    // Flat, PQ and scalar quantizer indices keep one code per vector
+    auto flatCodesIndex = dynamic_cast<const faiss::IndexFlatCodes*>(index);
+    if (flatCodesIndex != nullptr) {
+        return flatCodesIndex->codes.capacity();
+    }
+
+    // HNSW keeps the links of every level of every vector on top of its storage
+    auto hnswIndex = dynamic_cast<const faiss::IndexHNSW*>(index);
+    if (hnswIndex != nullptr) {
+        int64_t storageSize = InternalGetIndexSizeInBytes(hnswIndex->storage);
+        if (storageSize < 0) {
+            return -1;
+        }
+        const faiss::HNSW& hnsw = hnswIndex->hnsw;
+        return storageSize
+               + hnsw.assign_probas.capacity() * sizeof(double)
+               + hnsw.cum_nneighbor_per_level.capacity() * sizeof(int)
+               + hnsw.levels.capacity() * sizeof(int)
+               + hnsw.offsets.capacity() * sizeof(size_t)
+               + hnsw.neighbors.capacity() * sizeof(faiss::HNSW::storage_idx_t);
+    }
+
+    // IVF keeps its coarse quantizer and inverted lists, and IVF-PQ its codebooks and precomputed tables too
+    auto ivfIndex = dynamic_cast<const faiss::IndexIVF*>(index);
+    if (ivfIndex != nullptr) {
+        int64_t quantizerSize = InternalGetIndexSizeInBytes(ivfIndex->quantizer);
+        int64_t invertedListsSize = InternalGetInvertedListsSizeInBytes(ivfIndex->invlists);
+        if (quantizerSize < 0 || invertedListsSize < 0) {
+            return -1;
+        }
+
+        int64_t size = quantizerSize + invertedListsSize
+                       + ivfIndex->direct_map.array.capacity() * sizeof(faiss::Index::idx_t);
+        auto ivfPqIndex = dynamic_cast<const faiss::IndexIVFPQ*>(index);
+        if (ivfPqIndex != nullptr) {
+            size += ivfPqIndex->pq.centroids.capacity() * sizeof(float)
+                    + ivfPqIndex->precomputed_table.size() * sizeof(float);
+        }
+        return size;
+    }
+
+    return -1;
+}
+
+int64_t InternalGetInvertedListsSizeInBytes(const faiss::InvertedLists * invlists) {
+    if (invlists == nullptr) {
+        return 0;
+    }
+
+    // The lists themselves are mapped from the index file, so only their offsets are held in memory
+    auto onDiskInvertedLists = dynamic_cast<const faiss::OnDiskInvertedLists*>(invlists);
+    if (onDiskInvertedLists != nullptr) {
+        return onDiskInvertedLists->lists.capacity() * sizeof(onDiskInvertedLists->lists[0]);
+    }
+
+    auto arrayInvertedLists = dynamic_cast<const faiss::ArrayInvertedLists*>(invlists);
+    if (arrayInvertedLists == nullptr) {
+        return -1;
+    }
+
+    int64_t size = 0;
+    for (size_t i = 0; i < arrayInvertedLists->nlist; i++) {
+        size += arrayInvertedLists->codes[i].capacity()
+                + arrayInvertedLists->ids[i].capacity() * sizeof(faiss::Index::idx_t);
+    }
+    return size;
+}
@@ -27,6 +27,45 @@
 
 std::string TranslateSpaceType(const std::string& spaceType);
 
+// Search the index at indexPointerJ for the k nearest neighbors of the query vector. If filterJ is not null, only ids
+// whose bit is set in it are collected. The caller owns the returned queue.
+similarity::KNNQueue<float>* InternalQueryIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                                                jfloatArray queryVectorJ, jint kJ, jlongArray filterJ);
+
+// Convert the neighbors of a query into an array of KNNQueryResults. The queue is emptied in the process.
+jobjectArray BuildQueryResults(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env,
+                               similarity::KNNQueue<float>* neighbors);
+
+// KNNQuery that only collects objects whose id is set in the words of a Lucene FixedBitSet. nmslib's hnsw does not
+// support filtering during graph traversal, so the filter is applied when candidates are added to the result queue.
+class FilteredKNNQuery : public similarity::KNNQuery<float> {
+public:
+    FilteredKNNQuery(const similarity::Space<float>& space, const similarity::Object* queryObject, unsigned k,
+                     const jlong* words, int numWords)
+            : similarity::KNNQuery<float>(space, queryObject, k), words(words), numWords(numWords) {}
+
+    using similarity::KNNQuery<float>::CheckAndAddToResult;
+
+    bool CheckAndAddToResult(const float distance, const similarity::Object* object) override {
+        if (!IsMember(object->id())) {
+            return false;
+        }
+        return similarity::KNNQuery<float>::CheckAndAddToResult(distance, object);
+    }
+
+private:
+    bool IsMember(similarity::IdType id) const {
+        int wordIndex = id >> 6;
+        if (id < 0 || wordIndex >= numWords) {
+            return false;
+        }
+        return (((uint64_t) words[wordIndex]) >> (id & 63)) & 1;
+    }
+
+    const jlong* words;
+    int numWords;
+};
+
 void knn_jni::nmslib_wrapper::CreateIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jintArray idsJ,
                                           jobjectArray vectorsJ, jstring indexPathJ, jobject parametersJ) {
 
@@ -179,9 +218,44 @@ jlong knn_jni::nmslib_wrapper::LoadIndex(knn_jni::JNIUtilInterface * jniUtil, JN
 
 jobjectArray knn_jni::nmslib_wrapper::QueryIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
                                                  jfloatArray queryVectorJ, jint kJ) {
+    std::unique_ptr<similarity::KNNQueue<float>> neighbors(
+            InternalQueryIndex(jniUtil, env, indexPointerJ, queryVectorJ, kJ, nullptr));
+    return BuildQueryResults(jniUtil, env, neighbors.get());
+}
 
-    if (queryVectorJ == nullptr) {
-        throw std::runtime_error("Query Vector cannot be null");
+jint knn_jni::nmslib_wrapper::QueryIndexInto(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                                             jfloatArray queryVectorJ, jint kJ, jlongArray filterJ,
+                                             jintArray idsJ, jfloatArray distancesJ) {
+
+    if (idsJ == nullptr || distancesJ == nullptr) {
+        throw std::runtime_error("Result arrays cannot be null");
+    }
+
+    if (jniUtil->GetJavaIntArrayLength(env, idsJ) < kJ || jniUtil->GetJavaFloatArrayLength(env, distancesJ) < kJ) {
+        throw std::runtime_error("Result arrays need to hold at least k elements");
+    }
+
+    std::unique_ptr<similarity::KNNQueue<float>> neighbors(
+            InternalQueryIndex(jniUtil, env, indexPointerJ, queryVectorJ, kJ, filterJ));
+
+    int resultSize = neighbors->Size();
+    std::vector<jint> ids(resultSize);
+    std::vector<jfloat> distances(resultSize);
+    for (int i = 0; i < resultSize; ++i) {
+        distances[i] = neighbors->TopDistance();
+        ids[i] = neighbors->Pop()->id();
+    }
+
+    jniUtil->SetIntArrayRegion(env, idsJ, 0, resultSize, ids.data());
+    jniUtil->SetFloatArrayRegion(env, distancesJ, 0, resultSize, distances.data());
+    return resultSize;
+}
+
+jobjectArray knn_jni::nmslib_wrapper::QueryIndexBatch(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env,
+                                                      jlong indexPointerJ, jobjectArray queryVectorsJ, jint kJ) {
+
+    if (queryVectorsJ == nullptr) {
+        throw std::runtime_error("Query Vectors cannot be null");
     }
 
     if (indexPointerJ == 0) {
@@ -190,23 +264,41 @@ jobjectArray knn_jni::nmslib_wrapper::QueryIndex(knn_jni::JNIUtilInterface * jni
 
     auto *indexWrapper = reinterpret_cast<knn_jni::nmslib_wrapper::IndexWrapper*>(indexPointerJ);
 
-    int dim	= jniUtil->GetJavaFloatArrayLength(env, queryVectorJ);
-
-    float* rawQueryvector = jniUtil->GetFloatArrayElements(env, queryVectorJ, nullptr); // Have to call release on this
-
-    std::unique_ptr<const similarity::Object> queryObject;
-    try {
-        queryObject.reset(new similarity::Object(-1, -1, dim*sizeof(float), rawQueryvector));
-    } catch (...) {
-        jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
-        throw;
+    int numQueries = jniUtil->GetJavaObjectArrayLength(env, queryVectorsJ);
+    int dim = jniUtil->GetInnerDimensionOf2dJavaFloatArray(env, queryVectorsJ);
+    auto queries = jniUtil->Convert2dJavaObjectArrayToCppFloatVector(env, queryVectorsJ, dim);
+
+    jclass resultArrayClass = jniUtil->FindClass(env, "[Lorg/opensearch/knn/index/KNNQueryResult;");
+    jobjectArray results = jniUtil->NewObjectArray(env, numQueries, resultArrayClass, nullptr);
+
+    // nmslib's hnsw searches one query at a time, so the queries are run in a loop. They still share a single JNI
+    // crossing and index lookup.
+    jobjectArray queryResults;
+    for (int i = 0; i < numQueries; ++i) {
+        std::unique_ptr<const similarity::Object> queryObject(
+                new similarity::Object(-1, -1, dim*sizeof(float), queries.data() + i * dim));
+        similarity::KNNQuery<float> knnQuery(*(indexWrapper->space), queryObject.get(), kJ);
+        indexWrapper->index->Search(&knnQuery);
+
+        std::unique_ptr<similarity::KNNQueue<float>> neighbors(knnQuery.Result()->Clone());
+        queryResults = BuildQueryResults(jniUtil, env, neighbors.get());
+        jniUtil->SetObjectArrayElement(env, results, i, queryResults);
+        jniUtil->DeleteLocalRef(env, queryResults);
     }
-    jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
+    return results;
+}
+
+void knn_jni::nmslib_wrapper::Free(jlong indexPointerJ) {
+    auto *indexWrapper = reinterpret_cast<knn_jni::nmslib_wrapper::IndexWrapper*>(indexPointerJ);
+    delete indexWrapper;
+}
 
-    similarity::KNNQuery<float> knnQuery(*(indexWrapper->space), queryObject.get(), kJ);
-    indexWrapper->index->Search(&knnQuery);
+void knn_jni::nmslib_wrapper::InitLibrary() {
+    similarity::initLibrary();
+}
 
-    std::unique_ptr<similarity::KNNQueue<float>> neighbors(knnQuery.Result()->Clone());
+jobjectArray BuildQueryResults(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env,
+                               similarity::KNNQueue<float>* neighbors) {
     int resultSize = neighbors->Size();
 
     jclass resultClass = jniUtil->FindClass(env,"org/opensearch/knn/index/KNNQueryResult");
@@ -226,15 +318,6 @@ jobjectArray knn_jni::nmslib_wrapper::QueryIndex(knn_jni::JNIUtilInterface * jni
     return results;
 }
 
-void knn_jni::nmslib_wrapper::Free(jlong indexPointerJ) {
-    auto *indexWrapper = reinterpret_cast<knn_jni::nmslib_wrapper::IndexWrapper*>(indexPointerJ);
-    delete indexWrapper;
-}
-
-void knn_jni::nmslib_wrapper::InitLibrary() {
-    similarity::initLibrary();
-}
-
 std::string TranslateSpaceType(const std::string& spaceType) {
     if (spaceType == knn_jni::L2) {
         return spaceType;
@@ -258,3 +341,50 @@ std::string TranslateSpaceType(const std::string& spaceType) {
 
     throw std::runtime_error("Invalid spaceType");
 }
+
+similarity::KNNQueue<float>* InternalQueryIndex(knn_jni::JNIUtilInterface * jniUtil, JNIEnv * env, jlong indexPointerJ,
+                                                jfloatArray queryVectorJ, jint kJ, jlongArray filterJ) {
+
+    if (queryVectorJ == nullptr) {
+        throw std::runtime_error("Query Vector cannot be null");
+    }
+
+    if (indexPointerJ == 0) {
+        throw std::runtime_error("Invalid pointer to index");
+    }
+
+    auto *indexWrapper = reinterpret_cast<knn_jni::nmslib_wrapper::IndexWrapper*>(indexPointerJ);
+
+    int dim	= jniUtil->GetJavaFloatArrayLength(env, queryVectorJ);
+
+    float* rawQueryvector = jniUtil->GetFloatArrayElements(env, queryVectorJ, nullptr); // Have to call release on this
+
+    std::unique_ptr<const similarity::Object> queryObject;
+    try {
+        queryObject.reset(new similarity::Object(-1, -1, dim*sizeof(float), rawQueryvector));
+    } catch (...) {
+        jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
+        throw;
+    }
+    jniUtil->ReleaseFloatArrayElements(env, queryVectorJ, rawQueryvector, JNI_ABORT);
+
+    std::unique_ptr<similarity::KNNQueue<float>> neighbors;
+    if (filterJ == nullptr) {
+        similarity::KNNQuery<float> knnQuery(*(indexWrapper->space), queryObject.get(), kJ);
+        indexWrapper->index->Search(&knnQuery);
+        neighbors.reset(knnQuery.Result()->Clone());
+    } else {
+        int numWords = jniUtil->GetJavaLongArrayLength(env, filterJ);
+        jlong* filterWords = jniUtil->GetLongArrayElements(env, filterJ, nullptr);
+        try {
+            FilteredKNNQuery knnQuery(*(indexWrapper->space), queryObject.get(), kJ, filterWords, numWords);
+            indexWrapper->index->Search(&knnQuery);
+            neighbors.reset(knnQuery.Result()->Clone());
+        } catch (...) {
+            jniUtil->ReleaseLongArrayElements(env, filterJ, filterWords, JNI_ABORT);
+            throw;
+        }
+        jniUtil->ReleaseLongArrayElements(env, filterJ, filterWords, JNI_ABORT);
+    }
+    return neighbors.release();
+}
@@ -75,6 +75,39 @@ JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_loadIndex(JNIEn
     return NULL;
 }
 
+JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_loadIndexMmap(JNIEnv * env, jclass cls,
+                                                                              jstring indexPathJ)
+{
+    try {
+        return knn_jni::faiss_wrapper::LoadIndexMmap(&jniUtil, env, indexPathJ);
+    } catch (...) {
+        jniUtil.CatchCppExceptionAndThrowJava(env);
+    }
+    return NULL;
+}
+
+JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_getMappedSizeInBytes(JNIEnv * env, jclass cls,
+                                                                                     jlong indexPointerJ)
+{
+    try {
+        return knn_jni::faiss_wrapper::GetMappedSizeInBytes(indexPointerJ);
+    } catch (...) {
+        jniUtil.CatchCppExceptionAndThrowJava(env);
+    }
+    return 0;
+}
+
+JNIEXPORT jlong JNICALL Java_org_opensearch_knn_jni_FaissService_getIndexSizeInBytes(JNIEnv * env, jclass cls,
+                                                                                    jlong indexPointerJ)
+{
+    try {
+        return knn_jni::faiss_wrapper::GetIndexSizeInBytes(indexPointerJ);
+    } catch (...) {
+        jniUtil.CatchCppExceptionAndThrowJava(env);
+    }
+    return -1;
+}
+
 JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_FaissService_queryIndex(JNIEnv * env, jclass cls,
                                                                                    jlong indexPointerJ,
                                                                                    jfloatArray queryVectorJ, jint kJ)
@@ -88,6 +121,50 @@ JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_FaissService_queryInd
     return nullptr;
 }
 
+JNIEXPORT jint JNICALL Java_org_opensearch_knn_jni_FaissService_queryIndexInto(JNIEnv * env, jclass cls,
+                                                                               jlong indexPointerJ,
+                                                                               jfloatArray queryVectorJ, jint kJ,
+                                                                               jlongArray filterJ, jobject methodParamsJ,
+                                                                               jintArray idsJ, jfloatArray distancesJ)
+{
+    try {
+        return knn_jni::faiss_wrapper::QueryIndexInto(&jniUtil, env, indexPointerJ, queryVectorJ, kJ, filterJ,
+                                                      methodParamsJ, idsJ, distancesJ);
+    } catch (...) {
+        jniUtil.CatchCppExceptionAndThrowJava(env);
+    }
+    return 0;
+}
+
+JNIEXPORT jint JNICALL Java_org_opensearch_knn_jni_FaissService_rangeSearchIndexInto(JNIEnv * env, jclass cls,
+                                                                                     jlong indexPointerJ,
+                                                                                     jfloatArray queryVectorJ,
+                                                                                     jfloat radiusJ,
+                                                                                     jlongArray filterJ,
+                                                                                     jintArray idsJ,
+                                                                                     jfloatArray distancesJ)
+{
+    try {
+        return knn_jni::faiss_wrapper::RangeSearchIndexInto(&jniUtil, env, indexPointerJ, queryVectorJ, radiusJ,
+                                                            filterJ, idsJ, distancesJ);
+    } catch (...) {
+        jniUtil.CatchCppExceptionAndThrowJava(env);
+    }
+    return 0;
+}
+
+JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_FaissService_queryIndexBatch(JNIEnv * env, jclass cls,
+                                                                                        jlong indexPointerJ,
+                                                                                        jobjectArray queryVectorsJ, jint kJ)
+{
+    try {
+        return knn_jni::faiss_wrapper::QueryIndexBatch(&jniUtil, env, indexPointerJ, queryVectorsJ, kJ);
+    } catch (...) {
+        jniUtil.CatchCppExceptionAndThrowJava(env);
+    }
+    return nullptr;
+}
+
 JNIEXPORT void JNICALL Java_org_opensearch_knn_jni_FaissService_free(JNIEnv * env, jclass cls, jlong indexPointerJ)
 {
     try {
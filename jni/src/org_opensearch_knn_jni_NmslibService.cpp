@@ -71,6 +71,33 @@ JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_NmslibService_queryIn
     return nullptr;
 }
 
+JNIEXPORT jint JNICALL Java_org_opensearch_knn_jni_NmslibService_queryIndexInto(JNIEnv * env, jclass cls,
+                                                                                jlong indexPointerJ,
+                                                                                jfloatArray queryVectorJ, jint kJ,
+                                                                                jlongArray filterJ, jintArray idsJ,
+                                                                                jfloatArray distancesJ)
+{
+    try {
+        return knn_jni::nmslib_wrapper::QueryIndexInto(&jniUtil, env, indexPointerJ, queryVectorJ, kJ, filterJ, idsJ,
+                                                distancesJ);
+    } catch (...) {
+        jniUtil.CatchCppExceptionAndThrowJava(env);
+    }
+    return 0;
+}
+
+JNIEXPORT jobjectArray JNICALL Java_org_opensearch_knn_jni_NmslibService_queryIndexBatch(JNIEnv * env, jclass cls,
+                                                                                         jlong indexPointerJ,
+                                                                                         jobjectArray queryVectorsJ, jint kJ)
+{
+    try {
+        return knn_jni::nmslib_wrapper::QueryIndexBatch(&jniUtil, env, indexPointerJ, queryVectorsJ, kJ);
+    } catch (...) {
+        jniUtil.CatchCppExceptionAndThrowJava(env);
+    }
+    return nullptr;
+}
+
 JNIEXPORT void JNICALL Java_org_opensearch_knn_jni_NmslibService_free(JNIEnv * env, jclass cls, jlong indexPointerJ)
 {
     try {
@@ -11,8 +11,12 @@
 
 #include "faiss_wrapper.h"
 
+#include <algorithm>
+#include <unordered_map>
 #include <vector>
 
+#include "faiss/IndexIVF.h"
+
 #include "gmock/gmock.h"
 #include "gtest/gtest.h"
 #include "jni_util.h"
@@ -172,6 +176,114 @@ TEST(FaissLoadIndexTest, BasicAssertions) {
     std::remove(indexPath.c_str());
 }
 
+TEST(FaissLoadIndexMmapTest, BasicAssertions) {
+    // Define the data
+    faiss::Index::idx_t numIds = 200;
+    std::vector<faiss::Index::idx_t> ids;
+    std::vector<float> vectors;
+    int dim = 16;
+    for (int64_t i = 0; i < numIds; i++) {
+        ids.push_back(i);
+        for (int j = 0; j < dim; j++) {
+            vectors.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+    }
+
+    std::string ivfIndexPath = test_util::RandomString(10, "tmp/", ".faiss");
+    std::string flatIndexPath = test_util::RandomString(10, "tmp/", ".faiss");
+    faiss::MetricType metricType = faiss::METRIC_L2;
+
+    // Create an IVF index, whose inverted lists can be mapped, and a flat index, which has nothing to map
+    std::unique_ptr<faiss::Index> ivfIndex(test_util::FaissCreateIndex(dim, "IVF4,Flat", metricType));
+    ivfIndex->train(numIds, vectors.data());
+    auto ivfIndexWithData = test_util::FaissAddData(ivfIndex.get(), ids, vectors);
+    test_util::FaissWriteIndex(&ivfIndexWithData, ivfIndexPath);
+
+    std::unique_ptr<faiss::Index> flatIndex(test_util::FaissCreateIndex(dim, "Flat", metricType));
+    auto flatIndexWithData = test_util::FaissAddData(flatIndex.get(), ids, vectors);
+    test_util::FaissWriteIndex(&flatIndexWithData, flatIndexPath);
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    std::unique_ptr<faiss::Index> mappedIvfIndex(reinterpret_cast<faiss::Index *>(
+            knn_jni::faiss_wrapper::LoadIndexMmap(&mockJNIUtil, jniEnv, (jstring)&ivfIndexPath)));
+    std::unique_ptr<faiss::Index> mappedFlatIndex(reinterpret_cast<faiss::Index *>(
+            knn_jni::faiss_wrapper::LoadIndexMmap(&mockJNIUtil, jniEnv, (jstring)&flatIndexPath)));
+
+    ASSERT_LT(0, knn_jni::faiss_wrapper::GetMappedSizeInBytes(reinterpret_cast<jlong>(mappedIvfIndex.get())));
+    ASSERT_EQ(0, knn_jni::faiss_wrapper::GetMappedSizeInBytes(reinterpret_cast<jlong>(mappedFlatIndex.get())));
+    ASSERT_EQ(0, knn_jni::faiss_wrapper::GetMappedSizeInBytes(reinterpret_cast<jlong>(&ivfIndexWithData)));
+
+    // The mapped index returns the same neighbors as the one built in memory
+    int k = 10;
+    std::vector<float> query;
+    for (int j = 0; j < dim; j++) {
+        query.push_back(test_util::RandomFloat(-500.0, 500.0));
+    }
+    std::vector<float> expectedDistances(k);
+    std::vector<faiss::Index::idx_t> expectedIds(k);
+    std::vector<float> mappedDistances(k);
+    std::vector<faiss::Index::idx_t> mappedIds(k);
+    ivfIndexWithData.search(1, query.data(), k, expectedDistances.data(), expectedIds.data());
+    mappedIvfIndex->search(1, query.data(), k, mappedDistances.data(), mappedIds.data());
+    for (int i = 0; i < k; i++) {
+        ASSERT_EQ(expectedIds[i], mappedIds[i]);
+    }
+
+    // Clean up
+    std::remove(ivfIndexPath.c_str());
+    std::remove(flatIndexPath.c_str());
+}
+
+TEST(FaissGetIndexSizeInBytesTest, BasicAssertions) {
+    // Define the data
+    faiss::Index::idx_t numIds = 200;
+    std::vector<faiss::Index::idx_t> ids;
+    std::vector<float> vectors;
+    int dim = 16;
+    for (int64_t i = 0; i < numIds; i++) {
+        ids.push_back(i);
+        for (int j = 0; j < dim; j++) {
+            vectors.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+    }
+
+    std::string ivfIndexPath = test_util::RandomString(10, "tmp/", ".faiss");
+    faiss::MetricType metricType = faiss::METRIC_L2;
+    int64_t vectorsSize = numIds * dim * sizeof(float);
+
+    // Flat storage holds the vectors, and HNSW holds its links on top of them
+    std::unique_ptr<faiss::Index> flatIndex(test_util::FaissCreateIndex(dim, "Flat", metricType));
+    auto flatIndexWithData = test_util::FaissAddData(flatIndex.get(), ids, vectors);
+    jlong flatSize = knn_jni::faiss_wrapper::GetIndexSizeInBytes(reinterpret_cast<jlong>(&flatIndexWithData));
+    ASSERT_LE(vectorsSize, flatSize);
+
+    std::unique_ptr<faiss::Index> hnswIndex(test_util::FaissCreateIndex(dim, "HNSW32,Flat", metricType));
+    auto hnswIndexWithData = test_util::FaissAddData(hnswIndex.get(), ids, vectors);
+    ASSERT_LT(flatSize, knn_jni::faiss_wrapper::GetIndexSizeInBytes(reinterpret_cast<jlong>(&hnswIndexWithData)));
+
+    // Mapped inverted lists are not held in memory
+    std::unique_ptr<faiss::Index> ivfIndex(test_util::FaissCreateIndex(dim, "IVF4,Flat", metricType));
+    ivfIndex->train(numIds, vectors.data());
+    auto ivfIndexWithData = test_util::FaissAddData(ivfIndex.get(), ids, vectors);
+    test_util::FaissWriteIndex(&ivfIndexWithData, ivfIndexPath);
+    jlong ivfSize = knn_jni::faiss_wrapper::GetIndexSizeInBytes(reinterpret_cast<jlong>(&ivfIndexWithData));
+    ASSERT_LE(vectorsSize, ivfSize);
+
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+    std::unique_ptr<faiss::Index> mappedIvfIndex(reinterpret_cast<faiss::Index *>(
+            knn_jni::faiss_wrapper::LoadIndexMmap(&mockJNIUtil, jniEnv, (jstring)&ivfIndexPath)));
+    jlong mappedIvfSize = knn_jni::faiss_wrapper::GetIndexSizeInBytes(reinterpret_cast<jlong>(mappedIvfIndex.get()));
+    ASSERT_LE(0, mappedIvfSize);
+    ASSERT_GT(vectorsSize, mappedIvfSize);
+
+    // Clean up
+    std::remove(ivfIndexPath.c_str());
+}
+
 TEST(FaissQueryIndexTest, BasicAssertions) {
     // Define the index data
     faiss::Index::idx_t numIds = 100;
@@ -229,6 +341,360 @@ TEST(FaissQueryIndexTest, BasicAssertions) {
     }
 }
 
+TEST(FaissQueryIndexIntoWithFilterTest, BasicAssertions) {
+    // Define the index data
+    faiss::Index::idx_t numIds = 100;
+    std::vector<faiss::Index::idx_t> ids;
+    std::vector<float> vectors;
+    int dim = 16;
+    for (int64_t i = 0; i < numIds; i++) {
+        ids.push_back(i);
+        for (int j = 0; j < dim; j++) {
+            vectors.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+    }
+
+    faiss::MetricType metricType = faiss::METRIC_L2;
+    std::string method = "Flat";
+
+    // Only allow even ids. Words are laid out the same way as a Lucene FixedBitSet
+    std::vector<int64_t> filter((numIds + 63) / 64, 0);
+    for (int64_t i = 0; i < numIds; i += 2) {
+        filter[i >> 6] |= 1L << (i & 63);
+    }
+
+    // Define query data
+    int k = 10;
+    int numQueries = 100;
+    std::vector<std::vector<float>> queries;
+
+    for (int i = 0; i < numQueries; i++) {
+        std::vector<float> query;
+        query.reserve(dim);
+        for (int j = 0; j < dim; j++) {
+            query.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+        queries.push_back(query);
+    }
+
+    // Create the index
+    std::unique_ptr<faiss::Index> createdIndex(
+            test_util::FaissCreateIndex(dim, method, metricType));
+    auto createdIndexWithData =
+            test_util::FaissAddData(createdIndex.get(), ids, vectors);
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    std::vector<int> resultIds(k);
+    std::vector<float> resultDistances(k);
+    EXPECT_CALL(mockJNIUtil,
+                GetJavaIntArrayLength(
+                        jniEnv, reinterpret_cast<jintArray>(&resultIds)))
+            .WillRepeatedly(Return(resultIds.size()));
+
+    for (auto query : queries) {
+        int resultSize = knn_jni::faiss_wrapper::QueryIndexInto(
+                &mockJNIUtil, jniEnv, reinterpret_cast<jlong>(&createdIndexWithData),
+                reinterpret_cast<jfloatArray>(&query), k,
+                reinterpret_cast<jlongArray>(&filter), nullptr,
+                reinterpret_cast<jintArray>(&resultIds),
+                reinterpret_cast<jfloatArray>(&resultDistances));
+
+        ASSERT_EQ(k, resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            ASSERT_EQ(0, resultIds[i] % 2);
+        }
+    }
+}
+
+TEST(FaissQueryIndexIntoTest, BasicAssertions) {
+    // Define the index data
+    faiss::Index::idx_t numIds = 100;
+    std::vector<faiss::Index::idx_t> ids;
+    std::vector<float> vectors;
+    int dim = 16;
+    for (int64_t i = 0; i < numIds; i++) {
+        ids.push_back(i);
+        for (int j = 0; j < dim; j++) {
+            vectors.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+    }
+
+    faiss::MetricType metricType = faiss::METRIC_L2;
+    std::string method = "HNSW32,Flat";
+
+    // Define query data
+    int k = 10;
+    std::vector<float> query;
+    query.reserve(dim);
+    for (int j = 0; j < dim; j++) {
+        query.push_back(test_util::RandomFloat(-500.0, 500.0));
+    }
+
+    // Create the index
+    std::unique_ptr<faiss::Index> createdIndex(
+            test_util::FaissCreateIndex(dim, method, metricType));
+    auto createdIndexWithData =
+            test_util::FaissAddData(createdIndex.get(), ids, vectors);
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    std::vector<int> resultIds(k);
+    std::vector<float> resultDistances(k);
+    EXPECT_CALL(mockJNIUtil,
+                GetJavaIntArrayLength(
+                        jniEnv, reinterpret_cast<jintArray>(&resultIds)))
+            .WillRepeatedly(Return(resultIds.size()));
+
+    int resultSize = knn_jni::faiss_wrapper::QueryIndexInto(
+            &mockJNIUtil, jniEnv, reinterpret_cast<jlong>(&createdIndexWithData),
+            reinterpret_cast<jfloatArray>(&query), k, nullptr, nullptr,
+            reinterpret_cast<jintArray>(&resultIds),
+            reinterpret_cast<jfloatArray>(&resultDistances));
+
+    // The primitive results have to match the object ones
+    std::unique_ptr<std::vector<std::pair<int, float> *>> results(
+            reinterpret_cast<std::vector<std::pair<int, float> *> *>(
+                    knn_jni::faiss_wrapper::QueryIndex(
+                            &mockJNIUtil, jniEnv,
+                            reinterpret_cast<jlong>(&createdIndexWithData),
+                            reinterpret_cast<jfloatArray>(&query), k)));
+
+    ASSERT_EQ(k, resultSize);
+    ASSERT_EQ(results->size(), resultSize);
+    for (int i = 0; i < resultSize; i++) {
+        ASSERT_EQ((*results)[i]->first, resultIds[i]);
+        ASSERT_FLOAT_EQ((*results)[i]->second, resultDistances[i]);
+        delete (*results)[i];
+    }
+}
+
+TEST(FaissQueryIndexWithMethodParamsTest, BasicAssertions) {
+    // Define the index data
+    faiss::Index::idx_t numIds = 200;
+    std::vector<faiss::Index::idx_t> ids;
+    std::vector<float> vectors;
+    int dim = 16;
+    for (int64_t i = 0; i < numIds; i++) {
+        ids.push_back(i);
+        for (int j = 0; j < dim; j++) {
+            vectors.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+    }
+
+    faiss::MetricType metricType = faiss::METRIC_L2;
+    int nlist = 4;
+
+    // Create an IVF index and a flat index holding the exact neighbors
+    std::unique_ptr<faiss::Index> ivfIndex(
+            test_util::FaissCreateIndex(dim, "IVF" + std::to_string(nlist) + ",Flat", metricType));
+    ivfIndex->train(numIds, vectors.data());
+    auto ivfIndexWithData = test_util::FaissAddData(ivfIndex.get(), ids, vectors);
+
+    std::unique_ptr<faiss::Index> flatIndex(test_util::FaissCreateIndex(dim, "Flat", metricType));
+    auto flatIndexWithData = test_util::FaissAddData(flatIndex.get(), ids, vectors);
+
+    // Probing every list makes the IVF search exact
+    std::unordered_map<std::string, jobject> methodParams;
+    methodParams[knn_jni::NPROBES] = (jobject) &nlist;
+
+    // Define query data
+    int k = 10;
+    std::vector<float> query;
+    query.reserve(dim);
+    for (int j = 0; j < dim; j++) {
+        query.push_back(test_util::RandomFloat(-500.0, 500.0));
+    }
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    std::vector<int> ivfIds(k);
+    std::vector<float> ivfDistances(k);
+    std::vector<int> flatIds(k);
+    std::vector<float> flatDistances(k);
+    EXPECT_CALL(mockJNIUtil, GetJavaIntArrayLength(jniEnv, testing::_))
+            .WillRepeatedly(Return(k));
+
+    int ivfResultSize = knn_jni::faiss_wrapper::QueryIndexInto(
+            &mockJNIUtil, jniEnv, reinterpret_cast<jlong>(&ivfIndexWithData),
+            reinterpret_cast<jfloatArray>(&query), k, nullptr, (jobject) &methodParams,
+            reinterpret_cast<jintArray>(&ivfIds), reinterpret_cast<jfloatArray>(&ivfDistances));
+    int flatResultSize = knn_jni::faiss_wrapper::QueryIndexInto(
+            &mockJNIUtil, jniEnv, reinterpret_cast<jlong>(&flatIndexWithData),
+            reinterpret_cast<jfloatArray>(&query), k, nullptr, nullptr,
+            reinterpret_cast<jintArray>(&flatIds), reinterpret_cast<jfloatArray>(&flatDistances));
+
+    ASSERT_EQ(k, ivfResultSize);
+    ASSERT_EQ(k, flatResultSize);
+    for (int i = 0; i < k; i++) {
+        ASSERT_EQ(flatIds[i], ivfIds[i]);
+    }
+
+    // The override only applies to the query it was passed with
+    ASSERT_EQ(1, dynamic_cast<faiss::IndexIVF*>(ivfIndex.get())->nprobe);
+}
+
+TEST(FaissRangeSearchIndexIntoTest, BasicAssertions) {
+    // Define the index data
+    faiss::Index::idx_t numIds = 100;
+    std::vector<faiss::Index::idx_t> ids;
+    std::vector<float> vectors;
+    int dim = 16;
+    for (int64_t i = 0; i < numIds; i++) {
+        ids.push_back(i);
+        for (int j = 0; j < dim; j++) {
+            vectors.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+    }
+
+    faiss::MetricType metricType = faiss::METRIC_L2;
+    std::string method = "Flat";
+
+    // Define query data
+    std::vector<float> query;
+    query.reserve(dim);
+    for (int j = 0; j < dim; j++) {
+        query.push_back(test_util::RandomFloat(-500.0, 500.0));
+    }
+
+    // Place the radius between the 10th and 11th closest vectors
+    std::vector<float> exactDistances;
+    for (int64_t i = 0; i < numIds; i++) {
+        float distance = 0;
+        for (int j = 0; j < dim; j++) {
+            float diff = vectors[i * dim + j] - query[j];
+            distance += diff * diff;
+        }
+        exactDistances.push_back(distance);
+    }
+    std::vector<float> sortedDistances(exactDistances);
+    std::sort(sortedDistances.begin(), sortedDistances.end());
+    int expectedSize = 10;
+    float radius = (sortedDistances[expectedSize - 1] + sortedDistances[expectedSize]) / 2;
+
+    // Create the index
+    std::unique_ptr<faiss::Index> createdIndex(
+            test_util::FaissCreateIndex(dim, method, metricType));
+    auto createdIndexWithData =
+            test_util::FaissAddData(createdIndex.get(), ids, vectors);
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    std::vector<int> resultIds(numIds);
+    std::vector<float> resultDistances(numIds);
+    EXPECT_CALL(mockJNIUtil,
+                GetJavaIntArrayLength(
+                        jniEnv, reinterpret_cast<jintArray>(&resultIds)))
+            .WillRepeatedly(Return(resultIds.size()));
+
+    int resultSize = knn_jni::faiss_wrapper::RangeSearchIndexInto(
+            &mockJNIUtil, jniEnv, reinterpret_cast<jlong>(&createdIndexWithData),
+            reinterpret_cast<jfloatArray>(&query), radius, nullptr,
+            reinterpret_cast<jintArray>(&resultIds),
+            reinterpret_cast<jfloatArray>(&resultDistances));
+
+    ASSERT_EQ(expectedSize, resultSize);
+    for (int i = 0; i < resultSize; i++) {
+        ASSERT_LT(resultDistances[i], radius);
+        ASSERT_FLOAT_EQ(exactDistances[resultIds[i]], resultDistances[i]);
+    }
+
+    // When the arrays cannot hold every neighbor, the closest ones are kept
+    int cap = 5;
+    std::vector<int> cappedIds(cap);
+    std::vector<float> cappedDistances(cap);
+    EXPECT_CALL(mockJNIUtil,
+                GetJavaIntArrayLength(
+                        jniEnv, reinterpret_cast<jintArray>(&cappedIds)))
+            .WillRepeatedly(Return(cappedIds.size()));
+
+    resultSize = knn_jni::faiss_wrapper::RangeSearchIndexInto(
+            &mockJNIUtil, jniEnv, reinterpret_cast<jlong>(&createdIndexWithData),
+            reinterpret_cast<jfloatArray>(&query), radius, nullptr,
+            reinterpret_cast<jintArray>(&cappedIds),
+            reinterpret_cast<jfloatArray>(&cappedDistances));
+
+    ASSERT_EQ(cap, resultSize);
+    for (int i = 0; i < resultSize; i++) {
+        ASSERT_LE(cappedDistances[i], sortedDistances[cap - 1]);
+    }
+}
+
+TEST(FaissQueryIndexBatchTest, BasicAssertions) {
+    // Define the index data
+    faiss::Index::idx_t numIds = 100;
+    std::vector<faiss::Index::idx_t> ids;
+    std::vector<float> vectors;
+    int dim = 16;
+    for (int64_t i = 0; i < numIds; i++) {
+        ids.push_back(i);
+        for (int j = 0; j < dim; j++) {
+            vectors.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+    }
+
+    faiss::MetricType metricType = faiss::METRIC_L2;
+    std::string method = "HNSW32,Flat";
+
+    // Define query data
+    int k = 10;
+    int numQueries = 20;
+    std::vector<std::vector<float>> queries;
+
+    for (int i = 0; i < numQueries; i++) {
+        std::vector<float> query;
+        query.reserve(dim);
+        for (int j = 0; j < dim; j++) {
+            query.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+        queries.push_back(query);
+    }
+
+    // Create the index
+    std::unique_ptr<faiss::Index> createdIndex(
+            test_util::FaissCreateIndex(dim, method, metricType));
+    auto createdIndexWithData =
+            test_util::FaissAddData(createdIndex.get(), ids, vectors);
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    EXPECT_CALL(mockJNIUtil,
+                GetJavaObjectArrayLength(
+                        jniEnv, reinterpret_cast<jobjectArray>(&queries)))
+            .WillRepeatedly(Return(queries.size()));
+
+    std::unique_ptr<std::vector<std::pair<int, float> *>> batchResults(
+            reinterpret_cast<std::vector<std::pair<int, float> *> *>(
+                    knn_jni::faiss_wrapper::QueryIndexBatch(
+                            &mockJNIUtil, jniEnv,
+                            reinterpret_cast<jlong>(&createdIndexWithData),
+                            reinterpret_cast<jobjectArray>(&queries), k)));
+
+    ASSERT_EQ(numQueries, batchResults->size());
+
+    // Each element of the outer array is the result array of one query
+    for (auto queryResults : *batchResults) {
+        std::unique_ptr<std::vector<std::pair<int, float> *>> results(
+                reinterpret_cast<std::vector<std::pair<int, float> *> *>(queryResults));
+        ASSERT_EQ(k, results->size());
+
+        // Need to free up each result
+        for (auto it : *results) {
+            delete it;
+        }
+    }
+}
+
 TEST(FaissFreeTest, BasicAssertions) {
     // Define the data
     int dim = 2;
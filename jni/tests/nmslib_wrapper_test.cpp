@@ -208,6 +208,239 @@ TEST(NmslibQueryIndexTest, BasicAssertions) {
     }
 }
 
+TEST(NmslibQueryIndexIntoWithFilterTest, BasicAssertions) {
+    // Initialize nmslib
+    similarity::initLibrary();
+
+    // Define index data
+    int numIds = 100;
+    std::vector<int> ids;
+    std::vector<std::vector<float>> vectors;
+    int dim = 2;
+    for (int i = 0; i < numIds; ++i) {
+        ids.push_back(i);
+
+        std::vector<float> vect;
+        vect.reserve(dim);
+        for (int j = 0; j < dim; ++j) {
+            vect.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+        vectors.push_back(vect);
+    }
+
+    // Only allow even ids. Words are laid out the same way as a Lucene FixedBitSet
+    std::vector<int64_t> filter((numIds + 63) / 64, 0);
+    for (int64_t i = 0; i < numIds; i += 2) {
+        filter[i >> 6] |= 1L << (i & 63);
+    }
+
+    std::string spaceType = knn_jni::L2;
+    std::unique_ptr<similarity::Space<float>> space(
+            similarity::SpaceFactoryRegistry<float>::Instance().CreateSpace(
+                    spaceType, similarity::AnyParams()));
+
+    std::vector<std::string> indexParameters;
+
+    // Create index
+    std::unique_ptr<knn_jni::nmslib_wrapper::IndexWrapper> indexWrapper(
+            new knn_jni::nmslib_wrapper::IndexWrapper(spaceType));
+    indexWrapper->index.reset(test_util::NmslibCreateIndex(
+            ids.data(), vectors, space.get(), spaceType, indexParameters));
+
+    // Define query data
+    int k = 10;
+    int numQueries = 100;
+    std::vector<std::vector<float>> queries;
+
+    for (int i = 0; i < numQueries; i++) {
+        std::vector<float> query;
+        query.reserve(dim);
+        for (int j = 0; j < dim; j++) {
+            query.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+        queries.push_back(query);
+    }
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    std::vector<int> resultIds(k);
+    std::vector<float> resultDistances(k);
+    EXPECT_CALL(mockJNIUtil,
+                GetJavaIntArrayLength(
+                        jniEnv, reinterpret_cast<jintArray>(&resultIds)))
+            .WillRepeatedly(Return(resultIds.size()));
+
+    // Run queries
+    for (auto query : queries) {
+        int resultSize = knn_jni::nmslib_wrapper::QueryIndexInto(
+                &mockJNIUtil, jniEnv, reinterpret_cast<jlong>(indexWrapper.get()),
+                reinterpret_cast<jfloatArray>(&query), k,
+                reinterpret_cast<jlongArray>(&filter),
+                reinterpret_cast<jintArray>(&resultIds),
+                reinterpret_cast<jfloatArray>(&resultDistances));
+
+        ASSERT_GE(k, resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            ASSERT_EQ(0, resultIds[i] % 2);
+        }
+    }
+}
+
+TEST(NmslibQueryIndexIntoTest, BasicAssertions) {
+    // Initialize nmslib
+    similarity::initLibrary();
+
+    // Define index data
+    int numIds = 100;
+    std::vector<int> ids;
+    std::vector<std::vector<float>> vectors;
+    int dim = 2;
+    for (int i = 0; i < numIds; ++i) {
+        ids.push_back(i);
+
+        std::vector<float> vect;
+        vect.reserve(dim);
+        for (int j = 0; j < dim; ++j) {
+            vect.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+        vectors.push_back(vect);
+    }
+
+    std::string spaceType = knn_jni::L2;
+    std::unique_ptr<similarity::Space<float>> space(
+            similarity::SpaceFactoryRegistry<float>::Instance().CreateSpace(
+                    spaceType, similarity::AnyParams()));
+
+    std::vector<std::string> indexParameters;
+
+    // Create index
+    std::unique_ptr<knn_jni::nmslib_wrapper::IndexWrapper> indexWrapper(
+            new knn_jni::nmslib_wrapper::IndexWrapper(spaceType));
+    indexWrapper->index.reset(test_util::NmslibCreateIndex(
+            ids.data(), vectors, space.get(), spaceType, indexParameters));
+
+    // Define query data
+    int k = 10;
+    std::vector<float> query;
+    query.reserve(dim);
+    for (int j = 0; j < dim; j++) {
+        query.push_back(test_util::RandomFloat(-500.0, 500.0));
+    }
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    std::vector<int> resultIds(k);
+    std::vector<float> resultDistances(k);
+    EXPECT_CALL(mockJNIUtil,
+                GetJavaIntArrayLength(
+                        jniEnv, reinterpret_cast<jintArray>(&resultIds)))
+            .WillRepeatedly(Return(resultIds.size()));
+
+    int resultSize = knn_jni::nmslib_wrapper::QueryIndexInto(
+            &mockJNIUtil, jniEnv, reinterpret_cast<jlong>(indexWrapper.get()),
+            reinterpret_cast<jfloatArray>(&query), k, nullptr,
+            reinterpret_cast<jintArray>(&resultIds),
+            reinterpret_cast<jfloatArray>(&resultDistances));
+
+    // The primitive results have to match the object ones
+    std::unique_ptr<std::vector<std::pair<int, float> *>> results(
+            reinterpret_cast<std::vector<std::pair<int, float> *> *>(
+                    knn_jni::nmslib_wrapper::QueryIndex(
+                            &mockJNIUtil, jniEnv,
+                            reinterpret_cast<jlong>(indexWrapper.get()),
+                            reinterpret_cast<jfloatArray>(&query), k)));
+
+    ASSERT_EQ(k, resultSize);
+    ASSERT_EQ(results->size(), resultSize);
+    for (int i = 0; i < resultSize; i++) {
+        ASSERT_EQ((*results)[i]->first, resultIds[i]);
+        ASSERT_FLOAT_EQ((*results)[i]->second, resultDistances[i]);
+        delete (*results)[i];
+    }
+}
+
+TEST(NmslibQueryIndexBatchTest, BasicAssertions) {
+    // Initialize nmslib
+    similarity::initLibrary();
+
+    // Define index data
+    int numIds = 100;
+    std::vector<int> ids;
+    std::vector<std::vector<float>> vectors;
+    int dim = 2;
+    for (int i = 0; i < numIds; ++i) {
+        ids.push_back(i);
+
+        std::vector<float> vect;
+        vect.reserve(dim);
+        for (int j = 0; j < dim; ++j) {
+            vect.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+        vectors.push_back(vect);
+    }
+
+    std::string spaceType = knn_jni::L2;
+    std::unique_ptr<similarity::Space<float>> space(
+            similarity::SpaceFactoryRegistry<float>::Instance().CreateSpace(
+                    spaceType, similarity::AnyParams()));
+
+    std::vector<std::string> indexParameters;
+
+    // Create index
+    std::unique_ptr<knn_jni::nmslib_wrapper::IndexWrapper> indexWrapper(
+            new knn_jni::nmslib_wrapper::IndexWrapper(spaceType));
+    indexWrapper->index.reset(test_util::NmslibCreateIndex(
+            ids.data(), vectors, space.get(), spaceType, indexParameters));
+
+    // Define query data
+    int k = 10;
+    int numQueries = 20;
+    std::vector<std::vector<float>> queries;
+
+    for (int i = 0; i < numQueries; i++) {
+        std::vector<float> query;
+        query.reserve(dim);
+        for (int j = 0; j < dim; j++) {
+            query.push_back(test_util::RandomFloat(-500.0, 500.0));
+        }
+        queries.push_back(query);
+    }
+
+    // Setup jni
+    JNIEnv *jniEnv = nullptr;
+    NiceMock<test_util::MockJNIUtil> mockJNIUtil;
+
+    EXPECT_CALL(mockJNIUtil,
+                GetJavaObjectArrayLength(
+                        jniEnv, reinterpret_cast<jobjectArray>(&queries)))
+            .WillRepeatedly(Return(queries.size()));
+
+    std::unique_ptr<std::vector<std::pair<int, float> *>> batchResults(
+            reinterpret_cast<std::vector<std::pair<int, float> *> *>(
+                    knn_jni::nmslib_wrapper::QueryIndexBatch(
+                            &mockJNIUtil, jniEnv,
+                            reinterpret_cast<jlong>(indexWrapper.get()),
+                            reinterpret_cast<jobjectArray>(&queries), k)));
+
+    ASSERT_EQ(numQueries, batchResults->size());
+
+    // Each element of the outer array is the result array of one query
+    for (auto queryResults : *batchResults) {
+        std::unique_ptr<std::vector<std::pair<int, float> *>> results(
+                reinterpret_cast<std::vector<std::pair<int, float> *> *>(queryResults));
+        ASSERT_EQ(k, results->size());
+
+        // Need to free up each result
+        for (auto it : *results) {
+            delete it;
+        }
+    }
+}
+
 TEST(NmslibFreeTest, BasicAssertions) {
     // Initialize nmslib
     similarity::initLibrary();
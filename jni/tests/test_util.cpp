@@ -13,6 +13,7 @@
 
 #include <jni.h>
 
+#include <algorithm>
 #include <random>
 #include <utility>
 
@@ -124,6 +125,14 @@ test_util::MockJNIUtil::MockJNIUtil() {
                         reinterpret_cast<std::vector<float> *>(arrayJ)->data());
             });
 
+    // arrayJ is re-interpreted as a std::vector<int64_t> * and then the data is
+    // re-interpreted as a jlong *
+    ON_CALL(*this, GetLongArrayElements)
+            .WillByDefault([this](JNIEnv *env, jlongArray arrayJ, jboolean *isCopy) {
+                return reinterpret_cast<jlong *>(
+                        reinterpret_cast<std::vector<int64_t> *>(arrayJ)->data());
+            });
+
     // array2dJ is re-interpreted as a std::vector<std::vector<float>> * and then
     // the size of the first element is returned
     ON_CALL(*this, GetInnerDimensionOf2dJavaFloatArray)
@@ -146,6 +155,13 @@ test_util::MockJNIUtil::MockJNIUtil() {
                 return reinterpret_cast<std::vector<int64_t> *>(arrayJ)->size();
             });
 
+    // arrayJ is re-interpreted as a std::vector<int64_t> * and then the size is
+    // returned
+    ON_CALL(*this, GetJavaLongArrayLength)
+            .WillByDefault([this](JNIEnv *env, jlongArray arrayJ) {
+                return reinterpret_cast<std::vector<int64_t> *>(arrayJ)->size();
+            });
+
     // arrayJ is re-interpreted as a std::vector<std::vector<float>> * and then
     // the 'index' element is re-interpreted as a jobject
     ON_CALL(*this, GetObjectArrayElement)
@@ -193,6 +209,11 @@ test_util::MockJNIUtil::MockJNIUtil() {
             .WillByDefault(
                     [this](JNIEnv *env, jintArray array, jint *elems, int mode) {});
 
+    // This function should not do anything meaningful in the unit tests
+    ON_CALL(*this, ReleaseLongArrayElements)
+            .WillByDefault(
+                    [this](JNIEnv *env, jlongArray array, jlong *elems, jint mode) {});
+
     // array is re-interpreted as a std::vector<uint8_t> * and then the bytes from
     // buf are copied to it
     ON_CALL(*this, SetByteArrayRegion)
@@ -204,6 +225,30 @@ test_util::MockJNIUtil::MockJNIUtil() {
                 }
             });
 
+    // array is re-interpreted as a std::vector<float> * and then the floats from
+    // buf are copied to it, starting at start
+    ON_CALL(*this, SetFloatArrayRegion)
+            .WillByDefault([this](JNIEnv *env, jfloatArray array, jsize start,
+                                  jsize len, const jfloat *buf) {
+                auto floatBuffer = reinterpret_cast<std::vector<float> *>(array);
+                if (floatBuffer->size() < start + len) {
+                    floatBuffer->resize(start + len);
+                }
+                std::copy(buf, buf + len, floatBuffer->begin() + start);
+            });
+
+    // array is re-interpreted as a std::vector<int> * and then the ints from
+    // buf are copied to it, starting at start
+    ON_CALL(*this, SetIntArrayRegion)
+            .WillByDefault([this](JNIEnv *env, jintArray array, jsize start,
+                                  jsize len, const jint *buf) {
+                auto intBuffer = reinterpret_cast<std::vector<int> *>(array);
+                if (intBuffer->size() < start + len) {
+                    intBuffer->resize(start + len);
+                }
+                std::copy(buf, buf + len, intBuffer->begin() + start);
+            });
+
     // array is re-interpreted as a std::vector<std::pair<int, float> *> * and
     // then val is re-interpreted as a std::pair<int, float> * and added to the
     // vector
@@ -38,6 +38,14 @@ public class KNNConstants {
 
     public static final String KNN_THREAD_POOL_PREFIX = "knn";
     public static final String TRAIN_THREAD_POOL = "training";
+    public static final String SEARCH_THREAD_POOL = "knn_search";
+    public static final String KNN_SEARCH_THREAD_POOL_PREFIX = "knn.search";
+    public static final String LOAD_THREAD_POOL = "knn_load";
+    public static final String KNN_LOAD_THREAD_POOL_PREFIX = "knn.load";
+    public static final String WARMUP_THREAD_POOL = "knn_warmup";
+    public static final String KNN_WARMUP_THREAD_POOL_PREFIX = "knn.warmup";
+    public static final String CLOSE_THREAD_POOL = "knn_close";
+    public static final String KNN_CLOSE_THREAD_POOL_PREFIX = "knn.close";
 
     public static final String TRAINING_JOB_COUNT_FIELD_NAME = "training_job_count";
     public static final String NODES_KEY = "nodes";
@@ -53,6 +61,12 @@ public class KNNConstants {
     public static final String HNSW_ALGO_M = "M";
     public static final String HNSW_ALGO_EF_CONSTRUCTION = "efConstruction";
     public static final String HNSW_ALGO_EF_SEARCH = "efSearch";
+    public static final String LOAD_MODE = "load_mode";
+    public static final String LOAD_MODE_MEMORY = "memory";
+    public static final String LOAD_MODE_MMAP = "mmap";
+    public static final String CACHE_PRIORITY_LOW = "low";
+    public static final String CACHE_PRIORITY_NORMAL = "normal";
+    public static final String CACHE_PRIORITY_HIGH = "high";
     public static final String INDEX_THREAD_QTY = "indexThreadQty";
 
     // Faiss specific constants
@@ -0,0 +1,116 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SegmentReader;
+import org.opensearch.knn.index.util.KNNEngine;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registry of the native index file of each knn field of each segment, along with the engine and space type it was
+ * built with. Segments are immutable, so this only has to be resolved once per segment and field instead of on every
+ * query. Entries are keyed by the segment's core cache key and dropped when the segment's core is closed.
+ */
+public class EngineFileRegistry {
+
+    private static EngineFileRegistry INSTANCE;
+
+    private final Map<IndexReader.CacheKey, Map<String, Optional<EngineFile>>> segments = new ConcurrentHashMap<>();
+
+    EngineFileRegistry() {}
+
+    /**
+     * Make sure we just have one instance of the registry
+     *
+     * @return EngineFileRegistry instance
+     */
+    public static synchronized EngineFileRegistry getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new EngineFileRegistry();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Get the native index file of a field in a segment, resolving it the first time the segment and field are seen.
+     * An exception thrown by the resolver is propagated and nothing is registered, so resolution is retried on the
+     * next call.
+     *
+     * @param reader segment reader
+     * @param field name of the knn_vector field
+     * @param resolver resolves the engine file of the field in the segment, returning null if there is none
+     * @return engine file of the field, or null if the segment does not have a native index for the field
+     */
+    public EngineFile get(SegmentReader reader, String field, Function<SegmentReader, EngineFile> resolver) {
+        IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+        Map<String, Optional<EngineFile>> fields = segments.computeIfAbsent(cacheHelper.getKey(), key -> {
+            cacheHelper.addClosedListener(segments::remove);
+            return new ConcurrentHashMap<>();
+        });
+        return fields.computeIfAbsent(field, f -> Optional.ofNullable(resolver.apply(reader))).orElse(null);
+    }
+
+    /**
+     * @return number of segments with at least one registered field
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Resolved native index file of a field in a segment
+     */
+    public static class EngineFile {
+        private final KNNEngine knnEngine;
+        private final SpaceType spaceType;
+        private final Path indexPath;
+        private final Integer efSearch;
+
+        /**
+         * @param knnEngine engine the index was built with
+         * @param spaceType space type the index was built with
+         * @param indexPath absolute path of the native index file
+         */
+        public EngineFile(KNNEngine knnEngine, SpaceType spaceType, Path indexPath) {
+            this(knnEngine, spaceType, indexPath, null);
+        }
+
+        /**
+         * @param knnEngine engine the index was built with
+         * @param spaceType space type the index was built with
+         * @param indexPath absolute path of the native index file
+         * @param efSearch ef_search the index was built with, or null if the field does not record one
+         */
+        public EngineFile(KNNEngine knnEngine, SpaceType spaceType, Path indexPath, Integer efSearch) {
+            this.knnEngine = knnEngine;
+            this.spaceType = spaceType;
+            this.indexPath = indexPath;
+            this.efSearch = efSearch;
+        }
+
+        public KNNEngine getKnnEngine() {
+            return knnEngine;
+        }
+
+        public SpaceType getSpaceType() {
+            return spaceType;
+        }
+
+        public Path getIndexPath() {
+            return indexPath;
+        }
+
+        public Integer getEfSearch() {
+            return efSearch;
+        }
+    }
+}
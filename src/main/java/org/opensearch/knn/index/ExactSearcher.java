@@ -0,0 +1,115 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.BytesRef;
+import org.opensearch.knn.index.codec.util.KNNVectorSerializer;
+import org.opensearch.knn.index.codec.util.KNNVectorSerializerFactory;
+import org.opensearch.knn.index.util.KNNEngine;
+import org.opensearch.knn.plugin.script.KNNScoringUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Brute force k-NN search over the vectors stored in a segment's doc values. Distances are computed in the same
+ * convention as the engine that built the segment's native index, so scores are interchangeable with the ones
+ * produced by an approximate search.
+ */
+public class ExactSearcher {
+
+    /**
+     * Find the k nearest neighbors of the query vector among the candidate documents of a segment
+     *
+     * @param reader segment reader
+     * @param field name of the knn_vector field
+     * @param candidates documents to be scored
+     * @param queryVector query vector
+     * @param k number of neighbors to return
+     * @param knnEngine engine used to build the segment's native index
+     * @param spaceType space type of the field
+     * @return map of doc id to Lucene score for at most k documents
+     * @throws IOException if the doc values cannot be read
+     */
+    public static Map<Integer, Float> searchLeaf(LeafReader reader, String field, DocIdSetIterator candidates,
+                                                 float[] queryVector, int k, KNNEngine knnEngine,
+                                                 SpaceType spaceType) throws IOException {
+        BinaryDocValues values = reader.getBinaryDocValues(field);
+        if (values == null) {
+            return new HashMap<>();
+        }
+
+        // Min heap on score so that the worst of the current top k is evicted first
+        PriorityQueue<ScoreDoc> topDocs = new PriorityQueue<>(k, (a, b) -> {
+            int cmp = Float.compare(a.score, b.score);
+            return cmp != 0 ? cmp : Integer.compare(b.doc, a.doc);
+        });
+
+        for (int doc = candidates.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = candidates.nextDoc()) {
+            if (!values.advanceExact(doc)) {
+                continue;
+            }
+
+            float score = knnEngine.score(rawScore(knnEngine, spaceType, queryVector, readVector(values.binaryValue())),
+                    spaceType);
+            if (topDocs.size() < k) {
+                topDocs.add(new ScoreDoc(doc, score));
+            } else if (score > topDocs.peek().score) {
+                topDocs.poll();
+                topDocs.add(new ScoreDoc(doc, score));
+            }
+        }
+
+        Map<Integer, Float> scores = new HashMap<>();
+        for (ScoreDoc scoreDoc : topDocs) {
+            scores.put(scoreDoc.doc, scoreDoc.score);
+        }
+        return scores;
+    }
+
+    /**
+     * Compute the distance between two vectors the way the engine reports it, before score translation. For example,
+     * nmslib returns the negative dot product for the inner product space while faiss returns the dot product itself.
+     *
+     * @param knnEngine engine whose convention should be followed
+     * @param spaceType space type to compute the distance in
+     * @param queryVector query vector
+     * @param docVector document vector
+     * @return raw score to be passed to {@link KNNEngine#score(float, SpaceType)}
+     */
+    public static float rawScore(KNNEngine knnEngine, SpaceType spaceType, float[] queryVector, float[] docVector) {
+        switch (spaceType) {
+            case L2:
+                float l2Squared = KNNScoringUtil.l2Squared(queryVector, docVector);
+                return knnEngine == KNNEngine.FAISS ? l2Squared : (float) Math.sqrt(l2Squared);
+            case COSINESIMIL:
+                return 1 - KNNScoringUtil.cosinesimil(queryVector, docVector);
+            case L1:
+                return KNNScoringUtil.l1Norm(queryVector, docVector);
+            case LINF:
+                return KNNScoringUtil.lInfNorm(queryVector, docVector);
+            case INNER_PRODUCT:
+                float innerProduct = KNNScoringUtil.innerProduct(queryVector, docVector);
+                return knnEngine == KNNEngine.FAISS ? innerProduct : -innerProduct;
+            default:
+                throw new IllegalArgumentException("Exact search is not supported for space type: "
+                        + spaceType.getValue());
+        }
+    }
+
+    private static float[] readVector(BytesRef value) {
+        ByteArrayInputStream byteStream = new ByteArrayInputStream(value.bytes, value.offset, value.length);
+        final KNNVectorSerializer vectorSerializer = KNNVectorSerializerFactory.getSerializerByStreamContent(byteStream);
+        return vectorSerializer.byteToFloatArray(byteStream);
+    }
+}
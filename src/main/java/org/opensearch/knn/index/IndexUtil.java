@@ -27,6 +27,8 @@ import java.util.Map;
 
 import static org.opensearch.knn.common.KNNConstants.BYTES_PER_KILOBYTES;
 import static org.opensearch.knn.common.KNNConstants.HNSW_ALGO_EF_SEARCH;
+import static org.opensearch.knn.common.KNNConstants.LOAD_MODE;
+import static org.opensearch.knn.common.KNNConstants.LOAD_MODE_MMAP;
 import static org.opensearch.knn.common.KNNConstants.SPACE_TYPE;
 
 public class IndexUtil {
@@ -182,6 +184,11 @@ public class IndexUtil {
             loadParameters.put(HNSW_ALGO_EF_SEARCH, KNNSettings.getEfSearchParam(indexName));
         }
 
+        // Only faiss is able to memory map an index, nmslib indices are always read into memory
+        if (KNNEngine.FAISS.equals(knnEngine) && LOAD_MODE_MMAP.equals(KNNSettings.getLoadMode(indexName))) {
+            loadParameters.put(LOAD_MODE, LOAD_MODE_MMAP);
+        }
+
         return Collections.unmodifiableMap(loadParameters);
     }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * State shared by the per-vector queries of a batch k-NN query. The first query to reach a segment searches the
+ * segment's native index with all of the vectors at once and the results are kept here for the remaining queries.
+ * The results are keyed by segment only, so they are never filtered.
+ */
+public class KNNBatchContext {
+
+    private final float[][] queryVectors;
+    private final int k;
+    private final Map<String, KNNQueryResult[][]> segmentResults;
+
+    /**
+     * Constructor
+     *
+     * @param queryVectors vectors of the batch
+     * @param k number of neighbors to return for each vector
+     */
+    public KNNBatchContext(float[][] queryVectors, int k) {
+        this.queryVectors = queryVectors;
+        this.k = k;
+        this.segmentResults = new ConcurrentHashMap<>();
+    }
+
+    public float[][] getQueryVectors() {
+        return queryVectors;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Get the results of the batch for a segment, running the search if no query of the batch has done so yet. The
+     * search runs at most once per segment, even if several queries of the batch reach the segment concurrently.
+     *
+     * @param indexPath path of the segment's native index
+     * @param search function searching the native index with all of the query vectors
+     * @return results of each query vector, in the order of the query vectors
+     */
+    public KNNQueryResult[][] getSegmentResults(String indexPath, Function<float[][], KNNQueryResult[][]> search) {
+        return segmentResults.computeIfAbsent(indexPath, key -> search.apply(queryVectors));
+    }
+}
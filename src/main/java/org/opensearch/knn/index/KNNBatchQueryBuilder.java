@@ -0,0 +1,260 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.Query;
+import org.opensearch.common.ParseField;
+import org.opensearch.common.ParsingException;
+import org.opensearch.common.Strings;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.common.xcontent.XContentBuilder;
+import org.opensearch.common.xcontent.XContentParser;
+import org.opensearch.index.mapper.NumberFieldMapper;
+import org.opensearch.index.query.AbstractQueryBuilder;
+import org.opensearch.index.query.QueryShardContext;
+import org.opensearch.knn.plugin.stats.KNNCounter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Helper class to build a batch KNN query. A batch query searches the same field with several vectors. Each segment's
+ * native index is searched once for all of the vectors, and the union of the neighbors of each vector is returned. A
+ * document is scored by the closest vector it is a neighbor of.
+ *
+ * The query of each vector is registered as a named query called "&lt;name&gt;_&lt;position&gt;", where name is the
+ * query's _name, or the field name if the query is unnamed. The matched_queries of a hit tell which vectors it is a
+ * neighbor of.
+ *
+ * The batch search is shared by all of the vectors, so it cannot take a filter or the exact search planning of a
+ * filtered knn query. A filter is rejected, as is a nested context, whose documents the shared results are not
+ * restricted to. Filtering a batch query from an enclosing bool query only filters the neighbors found.
+ */
+public class KNNBatchQueryBuilder extends AbstractQueryBuilder<KNNBatchQueryBuilder> {
+
+    public static final ParseField VECTORS_FIELD = new ParseField("vectors");
+    public static final ParseField K_FIELD = KNNQueryBuilder.K_FIELD;
+    public static int VECTORS_MAX = 100;
+    /**
+     * The name for the knn batch query
+     */
+    public static final String NAME = "knn_batch";
+
+    private final String fieldName;
+    private final float[][] vectors;
+    private final int k;
+
+    /**
+     * Constructs a new knn batch query
+     *
+     * @param fieldName Name of the field
+     * @param vectors   Query vectors
+     * @param k         K nearest neighbours for each of the vectors
+     */
+    public KNNBatchQueryBuilder(String fieldName, float[][] vectors, int k) {
+        if (Strings.isNullOrEmpty(fieldName)) {
+            throw new IllegalArgumentException("[" + NAME + "] requires fieldName");
+        }
+        if (vectors == null || vectors.length == 0) {
+            throw new IllegalArgumentException("[" + NAME + "] requires query vectors");
+        }
+        if (vectors.length > VECTORS_MAX) {
+            throw new IllegalArgumentException("[" + NAME + "] requires at most " + VECTORS_MAX + " query vectors");
+        }
+        for (float[] vector : vectors) {
+            if (vector == null || vector.length == 0) {
+                throw new IllegalArgumentException("[" + NAME + "] query vector is empty");
+            }
+            if (vector.length != vectors[0].length) {
+                throw new IllegalArgumentException("[" + NAME + "] query vectors need to have the same dimension");
+            }
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("[" + NAME + "] requires k > 0");
+        }
+        if (k > KNNQueryBuilder.K_MAX) {
+            throw new IllegalArgumentException("[" + NAME + "] requires k <= " + KNNQueryBuilder.K_MAX);
+        }
+
+        this.fieldName = fieldName;
+        this.vectors = vectors;
+        this.k = k;
+    }
+
+    /**
+     * @param in Reads from stream
+     * @throws IOException Throws IO Exception
+     */
+    public KNNBatchQueryBuilder(StreamInput in) throws IOException {
+        super(in);
+        fieldName = in.readString();
+        vectors = new float[in.readVInt()][];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = in.readFloatArray();
+        }
+        k = in.readInt();
+    }
+
+    public static KNNBatchQueryBuilder fromXContent(XContentParser parser) throws IOException {
+        String fieldName = null;
+        List<Object> vectors = null;
+        float boost = AbstractQueryBuilder.DEFAULT_BOOST;
+        int k = 0;
+        String queryName = null;
+        String currentFieldName = null;
+        XContentParser.Token token;
+        KNNCounter.KNN_QUERY_REQUESTS.increment();
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                currentFieldName = parser.currentName();
+            } else if (token == XContentParser.Token.START_OBJECT) {
+                throwParsingExceptionOnMultipleFields(NAME, parser.getTokenLocation(), fieldName, currentFieldName);
+                fieldName = currentFieldName;
+                while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                    if (token == XContentParser.Token.FIELD_NAME) {
+                        currentFieldName = parser.currentName();
+                    } else if (KNNQueryBuilder.FILTER_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                        throw new ParsingException(parser.getTokenLocation(), "[" + NAME + "] does not support ["
+                                + currentFieldName + "]. Use a [" + KNNQueryBuilder.NAME + "] query per vector to "
+                                + "filter while searching");
+                    } else if (token.isValue() || token == XContentParser.Token.START_ARRAY) {
+                        if (VECTORS_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                            vectors = parser.list();
+                        } else if (AbstractQueryBuilder.BOOST_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                            boost = parser.floatValue();
+                        } else if (K_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                            k = (Integer) NumberFieldMapper.NumberType.INTEGER.parse(parser.objectBytes(), false);
+                        } else if (AbstractQueryBuilder.NAME_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                            queryName = parser.text();
+                        } else {
+                            throw new ParsingException(parser.getTokenLocation(),
+                                    "[" + NAME + "] query does not support [" + currentFieldName + "]");
+                        }
+                    } else {
+                        throw new ParsingException(parser.getTokenLocation(),
+                                "[" + NAME + "] unknown token [" + token + "] after [" + currentFieldName + "]");
+                    }
+                }
+            } else {
+                throw new ParsingException(parser.getTokenLocation(),
+                        "[" + NAME + "] unknown token [" + token + "] after [" + currentFieldName + "]");
+            }
+        }
+
+        KNNBatchQueryBuilder knnBatchQuery = new KNNBatchQueryBuilder(fieldName, objectsToVectors(parser, vectors), k);
+        knnBatchQuery.queryName(queryName);
+        knnBatchQuery.boost(boost);
+        return knnBatchQuery;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static float[][] objectsToVectors(XContentParser parser, List<Object> objs) {
+        if (objs == null) {
+            return null;
+        }
+
+        float[][] vectors = new float[objs.size()][];
+        for (int i = 0; i < objs.size(); i++) {
+            if (!(objs.get(i) instanceof List)) {
+                throw new ParsingException(parser.getTokenLocation(),
+                        "[" + NAME + "] [" + VECTORS_FIELD.getPreferredName() + "] needs to be an array of arrays");
+            }
+            vectors[i] = KNNQueryBuilder.ObjectsToFloats((List<Object>) objs.get(i));
+        }
+        return vectors;
+    }
+
+    @Override
+    protected void doWriteTo(StreamOutput out) throws IOException {
+        out.writeString(fieldName);
+        out.writeVInt(vectors.length);
+        for (float[] vector : vectors) {
+            out.writeFloatArray(vector);
+        }
+        out.writeInt(k);
+    }
+
+    /**
+     * @return The field name used in this query
+     */
+    public String fieldName() {
+        return this.fieldName;
+    }
+
+    /**
+     * @return Returns the vectors used in this query.
+     */
+    public float[][] vectors() {
+        return this.vectors;
+    }
+
+    public int getK() {
+        return this.k;
+    }
+
+    @Override
+    public void doXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(NAME);
+        builder.startObject(fieldName);
+
+        builder.startArray(VECTORS_FIELD.getPreferredName());
+        for (float[] vector : vectors) {
+            builder.value(vector);
+        }
+        builder.endArray();
+        builder.field(K_FIELD.getPreferredName(), k);
+        printBoostAndQueryName(builder);
+        builder.endObject();
+        builder.endObject();
+    }
+
+    @Override
+    protected Query doToQuery(QueryShardContext context) throws IOException {
+        int dimension = KNNQueryBuilder.getFieldDimension(context, this.fieldName);
+
+        if (dimension != vectors[0].length) {
+            throw new IllegalArgumentException("Query vectors have invalid dimension: " + vectors[0].length +
+                    ". Dimension should be: " + dimension);
+        }
+
+        if (context.nestedScope().getObjectMapper() != null) {
+            throw new IllegalArgumentException("[" + NAME + "] cannot be used inside a nested query. Use a ["
+                    + KNNQueryBuilder.NAME + "] query per vector instead");
+        }
+
+        KNNBatchContext batchContext = new KNNBatchContext(vectors, k);
+        String namePrefix = queryName() == null ? fieldName : queryName();
+        List<Query> vectorQueries = new ArrayList<>(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            Query vectorQuery = new KNNQuery(this.fieldName, batchContext, i, context.index().getName());
+            context.addNamedQuery(namePrefix + "_" + i, vectorQuery);
+            vectorQueries.add(vectorQuery);
+        }
+        return new DisjunctionMaxQuery(vectorQueries, 0.0f);
+    }
+
+    @Override
+    protected boolean doEquals(KNNBatchQueryBuilder other) {
+        return Objects.equals(fieldName, other.fieldName) &&
+                       Arrays.deepEquals(vectors, other.vectors) &&
+                       Objects.equals(k, other.k);
+    }
+
+    @Override
+    protected int doHashCode() {
+        return Objects.hash(fieldName, Arrays.deepHashCode(vectors), k);
+    }
+
+    @Override
+    public String getWriteableName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.env.NodeEnvironment;
+import org.opensearch.index.shard.IndexEventListener;
+import org.opensearch.index.shard.IndexShard;
+import org.opensearch.knn.index.memory.NativeMemoryCacheManager;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.opensearch.knn.common.KNNConstants.LOAD_THREAD_POOL;
+
+/**
+ * Keeps the graphs that were in the cache across node restarts. The graphs in the cache and how often they were
+ * accessed, the hot set, are periodically written to the node's data path. When the node starts, the recorded hot set
+ * is read back, and each k-NN shard reloads its recorded graphs, most accessed first, once it is started.
+ */
+public class KNNCacheWarmer implements IndexEventListener {
+    private static Logger logger = LogManager.getLogger(KNNCacheWarmer.class);
+    public static int HOT_SET_PERSIST_INTERVAL = 60; // seconds
+    static final String HOT_SET_FILE_NAME = "knn_hot_set";
+
+    private static KNNCacheWarmer INSTANCE;
+    private ThreadPool threadPool;
+    private Path hotSetFile;
+
+    // Graphs recorded before the node started that have not been considered for re-warming yet
+    private final Map<String, Long> recordedHotSet = new ConcurrentHashMap<>();
+
+    KNNCacheWarmer() {}
+
+    public static synchronized KNNCacheWarmer getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new KNNCacheWarmer();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Read the hot set recorded before the node started and schedule recording it periodically
+     *
+     * @param threadPool thread pool to record the hot set and warm up shards on
+     * @param nodeEnvironment environment of the node, whose first data path holds the hot set
+     */
+    public void initialize(ThreadPool threadPool, NodeEnvironment nodeEnvironment) {
+        this.threadPool = threadPool;
+        if (!nodeEnvironment.hasNodeFile()) {
+            return;
+        }
+        this.hotSetFile = nodeEnvironment.nodeDataPaths()[0].resolve(HOT_SET_FILE_NAME);
+
+        try {
+            recordedHotSet.putAll(readHotSet(hotSetFile));
+        } catch (IOException e) {
+            logger.warn("[KNN] Unable to read the hot set of the cache from " + hotSetFile, e);
+        }
+
+        threadPool.scheduleWithFixedDelay(() -> {
+            if (!KNNSettings.isRewarmEnabled()) {
+                return;
+            }
+            try {
+                writeHotSet(hotSetFile, getHotSet());
+            } catch (IOException e) {
+                logger.warn("[KNN] Unable to write the hot set of the cache to " + hotSetFile, e);
+            }
+        }, TimeValue.timeValueSeconds(HOT_SET_PERSIST_INTERVAL), ThreadPool.Names.GENERIC);
+    }
+
+    @Override
+    public void afterIndexShardStarted(IndexShard indexShard) {
+        if (recordedHotSet.isEmpty() || !KNNSettings.isRewarmEnabled()
+                || !indexShard.indexSettings().getValue(KNNSettings.IS_KNN_INDEX_SETTING)) {
+            return;
+        }
+
+        // Shards are started on the cluster applier thread, so loading happens on the load thread pool instead
+        String shardIndexPath = indexShard.shardPath().resolveIndex().toString();
+        threadPool.executor(LOAD_THREAD_POOL).execute(() -> {
+            KNNIndexShard knnIndexShard = new KNNIndexShard(indexShard);
+            try {
+                int loaded = knnIndexShard.warmup(new HashMap<>(recordedHotSet));
+                logger.info("[KNN] Re-warmed {} graphs of shard {}", loaded, indexShard.shardId());
+            } catch (Exception e) {
+                logger.warn("[KNN] Unable to re-warm shard " + indexShard.shardId(), e);
+            } finally {
+                recordedHotSet.keySet().removeIf(key -> key.startsWith(shardIndexPath));
+            }
+        });
+    }
+
+    /**
+     * The hot set is the graphs in the cache along with the recorded graphs that have not been considered for
+     * re-warming yet and still exist, so that recording it while shards are still starting does not lose them.
+     */
+    private Map<String, Long> getHotSet() {
+        Map<String, Long> hotSet = new HashMap<>();
+        recordedHotSet.forEach((key, accessCount) -> {
+            if (Files.exists(Paths.get(key))) {
+                hotSet.put(key, accessCount);
+            }
+        });
+        hotSet.putAll(NativeMemoryCacheManager.getInstance().getAccessCounts());
+        return hotSet;
+    }
+
+    /**
+     * Read a hot set written by writeHotSet. A missing file is an empty hot set.
+     *
+     * @param file file holding the hot set
+     * @return number of accesses of each recorded graph, keyed by the graph's path
+     * @throws IOException if the file cannot be read
+     */
+    static Map<String, Long> readHotSet(Path file) throws IOException {
+        Map<String, Long> hotSet = new HashMap<>();
+        if (!Files.exists(file)) {
+            return hotSet;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                if (separator <= 0) {
+                    continue;
+                }
+                try {
+                    hotSet.put(line.substring(separator + 1), Long.parseLong(line.substring(0, separator)));
+                } catch (NumberFormatException e) {
+                    logger.debug("[KNN] Skipping malformed hot set entry: {}", line);
+                }
+            }
+        }
+        return hotSet;
+    }
+
+    /**
+     * Write a hot set, one graph per line as its access count followed by its path. The file is replaced atomically,
+     * so a node stopping while it is written keeps the previous hot set.
+     *
+     * @param file file to hold the hot set
+     * @param hotSet number of accesses of each graph, keyed by the graph's path
+     * @throws IOException if the file cannot be written
+     */
+    static void writeHotSet(Path file, Map<String, Long> hotSet) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : hotSet.entrySet()) {
+                writer.write(entry.getValue() + " " + entry.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -5,13 +5,17 @@
 
 package org.opensearch.knn.index;
 
+import org.opensearch.action.ActionListener;
+import org.opensearch.cluster.ClusterChangedEvent;
+import org.opensearch.cluster.ClusterStateListener;
 import org.opensearch.knn.index.memory.NativeMemoryCacheManager;
 import org.opensearch.knn.plugin.stats.KNNStatsConfig;
 import org.opensearch.knn.plugin.stats.StatNames;
+import org.opensearch.knn.plugin.transport.CacheCapacityFreedAction;
+import org.opensearch.knn.plugin.transport.CacheCapacityFreedRequest;
 import org.opensearch.knn.plugin.transport.KNNStatsAction;
 import org.opensearch.knn.plugin.transport.KNNStatsNodeResponse;
 import org.opensearch.knn.plugin.transport.KNNStatsRequest;
-import org.opensearch.knn.plugin.transport.KNNStatsResponse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.client.Client;
@@ -21,18 +25,26 @@ import org.opensearch.threadpool.ThreadPool;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Runs the circuit breaker logic and updates the settings
+ * Runs the circuit breaker logic and updates the settings. Each node trips the circuit breaker as soon as its cache
+ * capacity is reached, and retries until the flag is set if the update fails. Only the elected master untrips it:
+ * each node tells the master as soon as its cache capacity is freed, and the master then gathers the nodes' cache
+ * capacity stats and untrips the circuit breaker once no node is at capacity anymore. While the flag stays set, the
+ * master checks again every {@link #CB_TIME_INTERVAL} seconds, in case a notification was lost.
  */
-public class KNNCircuitBreaker {
+public class KNNCircuitBreaker implements ClusterStateListener {
     private static Logger logger = LogManager.getLogger(KNNCircuitBreaker.class);
-    public static int CB_TIME_INTERVAL = 2*60; // seconds
+    public static int CB_TIME_INTERVAL = 2*60; // seconds, delay between untrip checks and between trip retries
 
     private static KNNCircuitBreaker INSTANCE;
     private ThreadPool threadPool;
     private ClusterService clusterService;
     private Client client;
+    // Every untrip check that is started outside of the scheduled chain starts a new generation. Checks of older
+    // generations that are still running or scheduled end there, so that the master runs a single chain of checks.
+    private final AtomicLong untripCheckGeneration = new AtomicLong();
 
     private KNNCircuitBreaker() {
     }
@@ -57,51 +69,139 @@ public class KNNCircuitBreaker {
         this.threadPool = threadPool;
         this.clusterService = clusterService;
         this.client = client;
-        NativeMemoryCacheManager nativeMemoryCacheManager = NativeMemoryCacheManager.getInstance();
-        Runnable runnable = () -> {
-            if (nativeMemoryCacheManager.isCacheCapacityReached() && clusterService.localNode().isDataNode()) {
-                long currentSizeKiloBytes =  nativeMemoryCacheManager.getCacheSizeInKilobytes();
-                long circuitBreakerLimitSizeKiloBytes = KNNSettings.getCircuitBreakerLimit().getKb();
-                long circuitBreakerUnsetSizeKiloBytes = (long) ((KNNSettings.getCircuitBreakerUnsetPercentage()/100)
-                        * circuitBreakerLimitSizeKiloBytes);
-                /**
-                 * Unset capacityReached flag if currentSizeBytes is less than circuitBreakerUnsetSizeBytes
-                 */
-                if (currentSizeKiloBytes <= circuitBreakerUnsetSizeKiloBytes) {
-                    nativeMemoryCacheManager.setCacheCapacityReached(false);
-                }
+        NativeMemoryCacheManager.getInstance().setCacheCapacityListener(this::onCacheCapacityChanged);
+        clusterService.addListener(this);
+    }
+
+    private void onCacheCapacityChanged(boolean cacheCapacityReached) {
+        if (!clusterService.localNode().isDataNode()) {
+            return;
+        }
+
+        if (cacheCapacityReached) {
+            if (!KNNSettings.isCircuitBreakerTriggered()) {
+                logger.info("[KNN] Cache capacity reached. Setting knn.circuit_breaker.triggered flag.");
+                trip();
             }
+        } else if (KNNSettings.isCircuitBreakerTriggered()) {
+            if (clusterService.state().nodes().isLocalNodeElectedMaster()) {
+                startUntripCheck();
+            } else {
+                notifyCacheCapacityFreed();
+            }
+        }
+    }
 
-            // Leader node untriggers CB if all nodes have not reached their max capacity
-            if (KNNSettings.isCircuitBreakerTriggered() && clusterService.state().nodes().isLocalNodeElectedMaster()) {
-                KNNStatsRequest knnStatsRequest = new KNNStatsRequest(KNNStatsConfig.KNN_STATS.keySet());
-                knnStatsRequest.addStat(StatNames.CACHE_CAPACITY_REACHED.getName());
-                knnStatsRequest.timeout(new TimeValue(1000*10)); // 10 second timeout
-
-                try {
-                    KNNStatsResponse knnStatsResponse = client.execute(KNNStatsAction.INSTANCE, knnStatsRequest).get();
-                    List<KNNStatsNodeResponse> nodeResponses = knnStatsResponse.getNodes();
-
-                    List<String> nodesAtMaxCapacity = new ArrayList<>();
-                    for (KNNStatsNodeResponse nodeResponse : nodeResponses) {
-                        if ((Boolean) nodeResponse.getStatsMap().get(StatNames.CACHE_CAPACITY_REACHED.getName())) {
-                            nodesAtMaxCapacity.add(nodeResponse.getNode().getId());
-                        }
-                    }
+    /**
+     * Tells the elected master that the local cache capacity was freed. If the notification fails, the master's
+     * scheduled check picks the change up instead.
+     */
+    private void notifyCacheCapacityFreed() {
+        String nodeId = clusterService.localNode().getId();
+        client.execute(CacheCapacityFreedAction.INSTANCE, new CacheCapacityFreedRequest(nodeId),
+                ActionListener.wrap(response -> {}, e -> logger.warn("[KNN] Failed to notify the elected master that"
+                        + " the cache capacity of node " + nodeId + " was freed: " + e)));
+    }
+
+    /**
+     * Called on the elected master when a node reports that its cache capacity was freed. The circuit breaker is
+     * untripped right away if no other node is at capacity.
+     *
+     * @param nodeId id of the node whose cache capacity was freed
+     */
+    public void onNodeCacheCapacityFreed(String nodeId) {
+        if (KNNSettings.isCircuitBreakerTriggered() && clusterService.state().nodes().isLocalNodeElectedMaster()) {
+            logger.debug("[KNN] Cache capacity of node {} freed. Checking whether to unset"
+                    + " knn.circuit_breaker.triggered flag.", nodeId);
+            startUntripCheck();
+        }
+    }
 
-                    if (!nodesAtMaxCapacity.isEmpty()) {
-                        logger.info("[KNN] knn.circuit_breaker.triggered stays set. Nodes at max cache capacity: "
-                                + String.join(",", nodesAtMaxCapacity) + ".");
-                    } else {
-                        logger.info("[KNN] Cache capacity below 75% of the circuit breaker limit for all nodes." +
-                                " Unsetting knn.circuit_breaker.triggered flag.");
-                        KNNSettings.state().updateCircuitBreakerSettings(false);
+    /**
+     * Sets the circuit breaker flag. If the update fails, it is retried as long as the local cache is at capacity and
+     * the flag is not set.
+     */
+    private void trip() {
+        KNNSettings.state().updateCircuitBreakerSettings(true, ActionListener.wrap(response -> {}, e ->
+                threadPool.schedule(() -> {
+                    if (NativeMemoryCacheManager.getInstance().isCacheCapacityReached()
+                            && !KNNSettings.isCircuitBreakerTriggered()) {
+                        logger.info("[KNN] Retrying to set knn.circuit_breaker.triggered flag.");
+                        trip();
                     }
-                } catch (Exception e) {
-                    logger.error("[KNN] Exception getting stats: " + e);
+                }, TimeValue.timeValueSeconds(CB_TIME_INTERVAL), ThreadPool.Names.GENERIC)));
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        boolean triggered = KNNSettings.KNN_CIRCUIT_BREAKER_TRIGGERED_SETTING.get(event.state().metadata().settings());
+        boolean wasTriggered = KNNSettings.KNN_CIRCUIT_BREAKER_TRIGGERED_SETTING.get(
+                event.previousState().metadata().settings());
+
+        // The flag can be unset by a check that ran just before this node reached its capacity, so set it again
+        if (wasTriggered && !triggered && NativeMemoryCacheManager.getInstance().isCacheCapacityReached()
+                && clusterService.localNode().isDataNode()) {
+            logger.info("[KNN] Cache capacity still reached. Setting knn.circuit_breaker.triggered flag again.");
+            trip();
+            return;
+        }
+
+        // The elected master starts checking the nodes once the flag is set, including by hand, and when it takes
+        // over a flag that was already set. Nodes leaving while at capacity are checked right away.
+        if (triggered && event.localNodeMaster() && (!wasTriggered || event.nodesRemoved()
+                || !event.previousState().nodes().isLocalNodeElectedMaster())) {
+            startUntripCheck();
+        }
+    }
+
+    private void startUntripCheck() {
+        untripIfNoNodeAtCapacity(untripCheckGeneration.incrementAndGet());
+    }
+
+    /**
+     * Schedules the next untrip check of the chain. The chain ends once the flag is unset, the local node is no
+     * longer the elected master or a newer check was started.
+     */
+    private void scheduleUntripCheck(long generation) {
+        threadPool.schedule(() -> {
+            if (generation == untripCheckGeneration.get() && KNNSettings.isCircuitBreakerTriggered()
+                    && clusterService.state().nodes().isLocalNodeElectedMaster()) {
+                untripIfNoNodeAtCapacity(generation);
+            }
+        }, TimeValue.timeValueSeconds(CB_TIME_INTERVAL), ThreadPool.Names.GENERIC);
+    }
+
+    private void untripIfNoNodeAtCapacity(long generation) {
+        KNNStatsRequest knnStatsRequest = new KNNStatsRequest(KNNStatsConfig.KNN_STATS.keySet());
+        knnStatsRequest.addStat(StatNames.CACHE_CAPACITY_REACHED.getName());
+        knnStatsRequest.timeout(new TimeValue(1000*10)); // 10 second timeout
+
+        client.execute(KNNStatsAction.INSTANCE, knnStatsRequest, ActionListener.wrap(knnStatsResponse -> {
+            if (generation != untripCheckGeneration.get()) {
+                return;
+            }
+
+            List<String> nodesAtMaxCapacity = new ArrayList<>();
+            for (KNNStatsNodeResponse nodeResponse : knnStatsResponse.getNodes()) {
+                if ((Boolean) nodeResponse.getStatsMap().get(StatNames.CACHE_CAPACITY_REACHED.getName())) {
+                    nodesAtMaxCapacity.add(nodeResponse.getNode().getId());
                 }
             }
-        };
-        this.threadPool.scheduleWithFixedDelay(runnable, TimeValue.timeValueSeconds(CB_TIME_INTERVAL), ThreadPool.Names.GENERIC);
+
+            if (!nodesAtMaxCapacity.isEmpty()) {
+                logger.info("[KNN] knn.circuit_breaker.triggered stays set. Nodes at max cache capacity: "
+                        + String.join(",", nodesAtMaxCapacity) + ".");
+                scheduleUntripCheck(generation);
+            } else {
+                logger.info("[KNN] Cache capacity below " + KNNSettings.getCircuitBreakerUnsetPercentage()
+                        + "% of the serving memory limit for all nodes."
+                        + " Unsetting knn.circuit_breaker.triggered flag.");
+                KNNSettings.state().updateCircuitBreakerSettings(false, ActionListener.wrap(
+                        response -> {}, e -> scheduleUntripCheck(generation)));
+            }
+        }, e -> {
+            logger.error("[KNN] Exception getting stats, retrying in " + CB_TIME_INTERVAL + " seconds: " + e);
+            scheduleUntripCheck(generation);
+        }));
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexReaderContext;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Query matching a fixed set of documents of a shard with precomputed scores. A KNNQuery rewrites into it when its
+ * segments are searched up front, for example to merge the neighbors of all segments into the top k of the shard.
+ */
+public class KNNDocAndScoreQuery extends Query {
+
+    private final int[] docIds;
+    private final float[] scores;
+    private final IndexReaderContext readerContext;
+
+    /**
+     * Constructor
+     *
+     * @param docIds shard level doc ids of the matching documents, sorted in increasing order
+     * @param scores scores of the matching documents, in the same order as docIds
+     * @param readerContext top level reader context the doc ids belong to
+     */
+    public KNNDocAndScoreQuery(int[] docIds, float[] scores, IndexReaderContext readerContext) {
+        this.docIds = docIds;
+        this.scores = scores;
+        this.readerContext = readerContext;
+    }
+
+    /**
+     * The doc ids only identify documents of the reader the query was created for. Against any other reader, for
+     * example when a searcher over a different point in time explains the rewritten query, the weight matches nothing.
+     */
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) {
+        final boolean sameReader = searcher.getTopReaderContext() == readerContext;
+
+        return new Weight(this) {
+            @Override
+            public void extractTerms(Set<Term> terms) {
+            }
+
+            @Override
+            public Explanation explain(LeafReaderContext context, int doc) {
+                if (!sameReader) {
+                    return Explanation.noMatch("Query was created for a different reader");
+                }
+                int index = Arrays.binarySearch(docIds, context.docBase + doc);
+                if (index < 0) {
+                    return Explanation.noMatch("Not a nearest neighbor");
+                }
+                return Explanation.match(scores[index], "Nearest neighbor");
+            }
+
+            @Override
+            public Scorer scorer(LeafReaderContext context) {
+                if (!sameReader) {
+                    return null;
+                }
+
+                // Doc ids are sorted, so the documents of a segment form a contiguous range
+                int start = lowerBound(context.docBase);
+                int end = lowerBound(context.docBase + context.reader().maxDoc());
+                if (start == end) {
+                    return null;
+                }
+
+                int[] segmentDocIds = new int[end - start];
+                for (int i = start; i < end; i++) {
+                    segmentDocIds[i - start] = docIds[i] - context.docBase;
+                }
+                return new KNNScorer(this, segmentDocIds, Arrays.copyOfRange(scores, start, end),
+                        segmentDocIds.length, boost);
+            }
+
+            @Override
+            public boolean isCacheable(LeafReaderContext context) {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param docId shard level doc id
+     * @return position of the first document at or after docId
+     */
+    private int lowerBound(int docId) {
+        int index = Arrays.binarySearch(docIds, docId);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    @Override
+    public Query rewrite(IndexReader reader) {
+        return this;
+    }
+
+    @Override
+    public String toString(String field) {
+        return "KNNDocAndScoreQuery[" + docIds.length + " docs]";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return sameClassAs(other) && equalsTo(getClass().cast(other));
+    }
+
+    private boolean equalsTo(KNNDocAndScoreQuery other) {
+        return readerContext == other.readerContext && Arrays.equals(docIds, other.docIds)
+                && Arrays.equals(scores, other.scores);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), System.identityHashCode(readerContext), Arrays.hashCode(docIds),
+                Arrays.hashCode(scores));
+    }
+}
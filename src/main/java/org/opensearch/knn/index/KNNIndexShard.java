@@ -16,15 +16,20 @@ import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.FilterDirectory;
 import org.opensearch.index.engine.Engine;
 import org.opensearch.index.shard.IndexShard;
+import org.opensearch.knn.common.exception.OutOfNativeMemoryException;
 import org.opensearch.knn.index.memory.NativeMemoryCacheManager;
 import org.opensearch.knn.index.memory.NativeMemoryEntryContext;
 import org.opensearch.knn.index.memory.NativeMemoryLoadStrategy;
 import org.opensearch.knn.index.util.KNNEngine;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
@@ -74,31 +79,98 @@ public class KNNIndexShard {
     }
 
     /**
-     * Load all of the k-NN segments for this shard into the cache.
+     * Load all of the k-NN segments for this shard into the cache, and wait until they are loaded.
      *
      * @throws IOException Thrown when getting the HNSW Paths to be loaded in
      */
     public void warmup() throws IOException {
+        startWarmup().awaitCompletion();
+    }
+
+    /**
+     * Start loading all of the k-NN segments for this shard into the cache in parallel. The segments stay referenced
+     * until the returned task completes.
+     *
+     * @return task loading the segments, which reports its progress and can be cancelled
+     * @throws IOException Thrown when getting the HNSW Paths to be loaded in
+     */
+    public KNNWarmupTask startWarmup() throws IOException {
         logger.info("[KNN] Warming up index: " + getIndexName());
+        Engine.Searcher searcher = indexShard.acquireSearcher("knn-warmup");
+        try {
+            Map<String, SpaceType> enginePaths = getAllEnginePaths(searcher.getIndexReader());
+            Map<String, Long> graphSizes = new HashMap<>();
+            for (String enginePath : enginePaths.keySet()) {
+                graphSizes.put(enginePath, Files.size(Paths.get(enginePath)));
+            }
+
+            KNNWarmupTask task = new KNNWarmupTask(getIndexName(), graphSizes,
+                enginePath -> load(enginePath, enginePaths.get(enginePath), true));
+            task.onCompletion(searcher::close);
+            task.start();
+            return task;
+        } catch (IOException | RuntimeException e) {
+            searcher.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Load the k-NN segments of this shard that appear in the given access counts into the cache, most accessed
+     * first. Other entries are never evicted to make room, so warming up stops at the first segment that does not
+     * fit in the cache.
+     *
+     * @param accessCounts number of accesses of each engine path
+     * @return number of segments loaded
+     * @throws IOException Thrown when getting the HNSW Paths to be loaded in
+     */
+    public int warmup(Map<String, Long> accessCounts) throws IOException {
         try (Engine.Searcher searcher = indexShard.acquireSearcher("knn-warmup")) {
-            getAllEnginePaths(searcher.getIndexReader()).forEach((key, value) -> {
+            List<Map.Entry<String, SpaceType>> enginePaths = getAllEnginePaths(searcher.getIndexReader()).entrySet()
+                .stream()
+                .filter(entry -> accessCounts.containsKey(entry.getKey()))
+                .sorted(Comparator.comparingLong(entry -> -accessCounts.get(entry.getKey())))
+                .collect(Collectors.toList());
+
+            int loaded = 0;
+            for (Map.Entry<String, SpaceType> enginePath : enginePaths) {
                 try {
-                    nativeMemoryCacheManager.get(
-                        new NativeMemoryEntryContext.IndexEntryContext(
-                            key,
-                            NativeMemoryLoadStrategy.IndexLoadStrategy.getInstance(),
-                            getParametersAtLoading(value, KNNEngine.getEngineNameFromPath(key), getIndexName()),
-                            getIndexName()
-                        ),
-                        true
-                    );
+                    load(enginePath.getKey(), enginePath.getValue(), false);
+                } catch (OutOfNativeMemoryException ex) {
+                    logger.info("[KNN] Stopped warming up index {} because the cache is full", getIndexName());
+                    break;
                 } catch (ExecutionException ex) {
                     throw new RuntimeException(ex);
                 }
-            });
+                loaded++;
+            }
+            return loaded;
         }
     }
 
+    private void load(String enginePath, SpaceType spaceType, boolean isAbleToTriggerEviction)
+        throws ExecutionException {
+        load(nativeMemoryCacheManager, getIndexName(), enginePath, spaceType, isAbleToTriggerEviction);
+    }
+
+    static void load(
+        NativeMemoryCacheManager nativeMemoryCacheManager,
+        String indexName,
+        String enginePath,
+        SpaceType spaceType,
+        boolean isAbleToTriggerEviction
+    ) throws ExecutionException {
+        nativeMemoryCacheManager.get(
+            new NativeMemoryEntryContext.IndexEntryContext(
+                enginePath,
+                NativeMemoryLoadStrategy.IndexLoadStrategy.getInstance(),
+                getParametersAtLoading(spaceType, KNNEngine.getEngineNameFromPath(enginePath), indexName),
+                indexName
+            ),
+            isAbleToTriggerEviction
+        );
+    }
+
     /**
      * For the given shard, get all of its engine paths
      *
@@ -119,29 +191,51 @@ public class KNNIndexShard {
 
         for (LeafReaderContext leafReaderContext : indexReader.leaves()) {
             SegmentReader reader = (SegmentReader) FilterLeafReader.unwrap(leafReaderContext.reader());
-            Path shardPath = ((FSDirectory) FilterDirectory.unwrap(reader.directory())).getDirectory();
-            String fileExtension = reader.getSegmentInfo().info.getUseCompoundFile()
-                ? knnEngine.getCompoundExtension()
-                : knnEngine.getExtension();
-
-            for (FieldInfo fieldInfo : reader.getFieldInfos()) {
-                if (fieldInfo.attributes().containsKey(KNNVectorFieldMapper.KNN_FIELD)) {
-                    // Space Type will not be present on ES versions 7.1 and 7.4 because the only available space type
-                    // was L2. So, if Space Type is not present, just fall back to L2
-                    String spaceTypeName = fieldInfo.attributes().getOrDefault(SPACE_TYPE, SpaceType.L2.getValue());
-                    SpaceType spaceType = SpaceType.getSpace(spaceTypeName);
-
-                    engineFiles.putAll(
-                        getEnginePaths(
-                            reader.getSegmentInfo().files(),
-                            reader.getSegmentInfo().info.name,
-                            fieldInfo.name,
-                            fileExtension,
-                            shardPath,
-                            spaceType
-                        )
-                    );
-                }
+            engineFiles.putAll(getSegmentEnginePaths(reader, knnEngine));
+        }
+        return engineFiles;
+    }
+
+    /**
+     * For the given segment, get all of its engine paths
+     *
+     * @param reader SegmentReader to read the file paths for the segment
+     * @return Map of engine file paths to the space type they were built with
+     * @throws IOException Thrown when the SegmentReader is attempting to read the segments files
+     */
+    static Map<String, SpaceType> getSegmentEnginePaths(SegmentReader reader) throws IOException {
+        Map<String, SpaceType> engineFiles = new HashMap<>();
+        for (KNNEngine knnEngine : KNNEngine.values()) {
+            engineFiles.putAll(getSegmentEnginePaths(reader, knnEngine));
+        }
+        return engineFiles;
+    }
+
+    private static Map<String, SpaceType> getSegmentEnginePaths(SegmentReader reader, KNNEngine knnEngine)
+        throws IOException {
+        Map<String, SpaceType> engineFiles = new HashMap<>();
+        Path shardPath = ((FSDirectory) FilterDirectory.unwrap(reader.directory())).getDirectory();
+        String fileExtension = reader.getSegmentInfo().info.getUseCompoundFile()
+            ? knnEngine.getCompoundExtension()
+            : knnEngine.getExtension();
+
+        for (FieldInfo fieldInfo : reader.getFieldInfos()) {
+            if (fieldInfo.attributes().containsKey(KNNVectorFieldMapper.KNN_FIELD)) {
+                // Space Type will not be present on ES versions 7.1 and 7.4 because the only available space type
+                // was L2. So, if Space Type is not present, just fall back to L2
+                String spaceTypeName = fieldInfo.attributes().getOrDefault(SPACE_TYPE, SpaceType.L2.getValue());
+                SpaceType spaceType = SpaceType.getSpace(spaceTypeName);
+
+                engineFiles.putAll(
+                    filterEnginePaths(
+                        reader.getSegmentInfo().files(),
+                        reader.getSegmentInfo().info.name,
+                        fieldInfo.name,
+                        fileExtension,
+                        shardPath,
+                        spaceType
+                    )
+                );
             }
         }
         return engineFiles;
@@ -154,6 +248,17 @@ public class KNNIndexShard {
         String fileExtension,
         Path shardPath,
         SpaceType spaceType
+    ) {
+        return filterEnginePaths(files, segmentName, fieldName, fileExtension, shardPath, spaceType);
+    }
+
+    private static Map<String, SpaceType> filterEnginePaths(
+        Collection<String> files,
+        String segmentName,
+        String fieldName,
+        String fileExtension,
+        Path shardPath,
+        SpaceType spaceType
     ) {
         String prefix = buildEngineFilePrefix(segmentName);
         String suffix = buildEngineFileSuffix(fieldName, fileExtension);
@@ -5,28 +5,150 @@
 
 package org.opensearch.knn.index;
 
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.opensearch.knn.common.KNNConstants.SEARCH_THREAD_POOL;
 
 /**
  * Class for representing the KNN query
  */
 public class KNNQuery extends Query {
 
+    private static ThreadPool threadPool;
+
     private final String field;
     private final float[] queryVector;
     private final int k;
     private final String indexName;
+    private final Query filterQuery;
+    private final Map<String, ?> methodParameters;
+    private final Float oversampleFactor;
+    private final Float maxDistance;
+    private final Float minScore;
+    private final KNNBatchContext batchContext;
+    private final int batchIndex;
 
     public KNNQuery(String field, float[] queryVector, int k, String indexName) {
+        this(field, queryVector, k, indexName, null);
+    }
+
+    public KNNQuery(String field, float[] queryVector, int k, String indexName, Query filterQuery) {
+        this(field, queryVector, k, indexName, filterQuery, null);
+    }
+
+    /**
+     * @param field name of the knn_vector field
+     * @param queryVector query vector
+     * @param k number of neighbors to return per segment
+     * @param indexName name of the index being searched
+     * @param filterQuery query restricting the documents that can be returned, or null
+     * @param methodParameters search time overrides of the method's parameters, or null to use the index's own
+     */
+    public KNNQuery(String field, float[] queryVector, int k, String indexName, Query filterQuery,
+                    Map<String, ?> methodParameters) {
+        this(field, queryVector, k, indexName, filterQuery, methodParameters, null);
+    }
+
+    /**
+     * @param field name of the knn_vector field
+     * @param queryVector query vector
+     * @param k number of neighbors to return per segment
+     * @param indexName name of the index being searched
+     * @param filterQuery query restricting the documents that can be returned, or null
+     * @param methodParameters search time overrides of the method's parameters, or null to use the index's own
+     * @param oversampleFactor factor the number of candidates fetched from the native index is multiplied by before
+     *                         they are rescored exactly, or null to use the native index's distances
+     */
+    public KNNQuery(String field, float[] queryVector, int k, String indexName, Query filterQuery,
+                    Map<String, ?> methodParameters, Float oversampleFactor) {
         this.field = field;
         this.queryVector = queryVector;
         this.k = k;
         this.indexName = indexName;
+        this.filterQuery = filterQuery;
+        this.methodParameters = methodParameters;
+        this.oversampleFactor = oversampleFactor;
+        this.maxDistance = null;
+        this.minScore = null;
+        this.batchContext = null;
+        this.batchIndex = -1;
+    }
+
+    /**
+     * Constructs a radial query, matching every neighbor within a distance instead of the k nearest ones. Exactly one
+     * of maxDistance and minScore is expected to be set.
+     *
+     * @param field name of the knn_vector field
+     * @param queryVector query vector
+     * @param indexName name of the index being searched
+     * @param filterQuery query restricting the documents that can be returned, or null
+     * @param maxDistance maximum distance, in the field's space, of the neighbors to return, or null
+     * @param minScore minimum score of the neighbors to return, or null
+     */
+    public KNNQuery(String field, float[] queryVector, String indexName, Query filterQuery, Float maxDistance,
+                    Float minScore) {
+        this.field = field;
+        this.queryVector = queryVector;
+        this.k = 0;
+        this.indexName = indexName;
+        this.filterQuery = filterQuery;
+        this.methodParameters = null;
+        this.oversampleFactor = null;
+        this.maxDistance = maxDistance;
+        this.minScore = minScore;
+        this.batchContext = null;
+        this.batchIndex = -1;
+    }
+
+    /**
+     * Constructs the query for one of the vectors of a batch query
+     *
+     * @param field name of the knn_vector field
+     * @param batchContext state shared by all queries of the batch
+     * @param batchIndex position of this query's vector in the batch
+     * @param indexName name of the index being searched
+     */
+    public KNNQuery(String field, KNNBatchContext batchContext, int batchIndex, String indexName) {
+        this.field = field;
+        this.queryVector = batchContext.getQueryVectors()[batchIndex];
+        this.k = batchContext.getK();
+        this.indexName = indexName;
+        this.filterQuery = null;
+        this.methodParameters = null;
+        this.oversampleFactor = null;
+        this.maxDistance = null;
+        this.minScore = null;
+        this.batchContext = batchContext;
+        this.batchIndex = batchIndex;
+    }
+
+    /**
+     * @param threadPool thread pool holding the executor segments are searched on concurrently
+     */
+    public static void initialize(ThreadPool threadPool) {
+        KNNQuery.threadPool = threadPool;
     }
 
     public String getField() {
@@ -43,6 +165,63 @@ public class KNNQuery extends Query {
 
     public String getIndexName() { return this.indexName; }
 
+    /**
+     * @return query restricting the documents that can be returned, or null if the search is not filtered
+     */
+    public Query getFilterQuery() {
+        return this.filterQuery;
+    }
+
+    /**
+     * @return search time overrides of the method's parameters, such as ef_search, or null if there are none
+     */
+    public Map<String, ?> getMethodParameters() {
+        return this.methodParameters;
+    }
+
+    /**
+     * @return factor the number of candidates is multiplied by before they are rescored, or null if the native
+     * index's distances are used as they are
+     */
+    public Float getOversampleFactor() {
+        return this.oversampleFactor;
+    }
+
+    /**
+     * @return maximum distance of the neighbors to return, or null if this is not a max_distance query
+     */
+    public Float getMaxDistance() {
+        return this.maxDistance;
+    }
+
+    /**
+     * @return minimum score of the neighbors to return, or null if this is not a min_score query
+     */
+    public Float getMinScore() {
+        return this.minScore;
+    }
+
+    /**
+     * @return true if the query matches every neighbor within a distance instead of the k nearest ones
+     */
+    public boolean isRadialSearch() {
+        return this.maxDistance != null || this.minScore != null;
+    }
+
+    /**
+     * @return state shared with the other queries of the batch, or null if this query is not part of a batch
+     */
+    public KNNBatchContext getBatchContext() {
+        return this.batchContext;
+    }
+
+    /**
+     * @return position of this query's vector in the batch, or -1 if this query is not part of a batch
+     */
+    public int getBatchIndex() {
+        return this.batchIndex;
+    }
+
     /**
      * Constructs Weight implementation for this query
      *
@@ -56,7 +235,140 @@ public class KNNQuery extends Query {
         if (!KNNSettings.isKNNPluginEnabled()) {
             throw new IllegalStateException("KNN plugin is disabled. To enable update knn.plugin.enabled to true");
         }
-        return new KNNWeight(this, boost);
+        if (filterQuery == null) {
+            return new KNNWeight(this, boost);
+        }
+
+        // The filter only restricts the candidate set, so its scores are never needed
+        Weight filterWeight = searcher.createWeight(searcher.rewrite(filterQuery), ScoreMode.COMPLETE_NO_SCORES, 1f);
+        return new KNNWeight(this, boost, filterWeight);
+    }
+
+    /**
+     * Searches every segment up front when shard level top k or concurrent segment search is enabled, and rewrites
+     * into a query matching the neighbors that were found.
+     *
+     * With shard level top k, the per segment results are merged into a single heap bounded to k, so documents that
+     * cannot make the top k of the shard are never scored by the collectors. Each segment is still searched in full
+     * for its own k nearest neighbors: the k-th best distance found so far is not passed down to the graph searches,
+     * which have no way to stop early on a bound. Shard level top k therefore only saves the scoring and collection of
+     * the neighbors beyond the shard's top k, not the native search work. With concurrent segment search, the
+     * segments are searched in parallel on the knn_search thread pool. The calling thread searches the first segment
+     * itself, and falls back to searching any segment the pool rejects.
+     *
+     * @param reader top level reader of the shard
+     * @return query matching the neighbors found in the shard, or this query if neither mode is enabled
+     * @throws IOException if a segment cannot be searched
+     */
+    @Override
+    public Query rewrite(IndexReader reader) throws IOException {
+        // A radial query has no k to bound the shard's results to
+        boolean shardLevelTopK = !isRadialSearch() && indexName != null
+                && KNNSettings.isShardLevelTopKEnabled(indexName);
+        boolean concurrentSearch = threadPool != null && reader.leaves().size() > 1
+                && KNNSettings.isConcurrentSegmentSearchEnabled();
+        if (!shardLevelTopK && !concurrentSearch) {
+            return super.rewrite(reader);
+        }
+
+        IndexSearcher searcher = new IndexSearcher(reader);
+        searcher.setQueryCache(null);
+        Weight weight = createWeight(searcher, ScoreMode.COMPLETE, 1.0f);
+
+        List<LeafReaderContext> leaves = reader.leaves();
+        List<ScoreDoc[]> leafResults = new ArrayList<>(leaves.size());
+        if (concurrentSearch) {
+            List<Future<ScoreDoc[]>> futures = new ArrayList<>(leaves.size() - 1);
+            for (LeafReaderContext leafReaderContext : leaves.subList(1, leaves.size())) {
+                futures.add(submitLeafSearch(weight, leafReaderContext));
+            }
+            leafResults.add(searchLeaf(weight, leaves.get(0)));
+            for (Future<ScoreDoc[]> future : futures) {
+                leafResults.add(getLeafResults(future));
+            }
+        } else {
+            for (LeafReaderContext leafReaderContext : leaves) {
+                leafResults.add(searchLeaf(weight, leafReaderContext));
+            }
+        }
+
+        ScoreDoc[] scoreDocs = shardLevelTopK ? mergeTopK(leafResults) : leafResults.stream()
+                .flatMap(Arrays::stream).toArray(ScoreDoc[]::new);
+        Arrays.sort(scoreDocs, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+        int[] docIds = new int[scoreDocs.length];
+        float[] scores = new float[scoreDocs.length];
+        for (int i = 0; i < scoreDocs.length; i++) {
+            docIds[i] = scoreDocs[i].doc;
+            scores[i] = scoreDocs[i].score;
+        }
+        return new KNNDocAndScoreQuery(docIds, scores, reader.getContext());
+    }
+
+    private Future<ScoreDoc[]> submitLeafSearch(Weight weight, LeafReaderContext leafReaderContext) {
+        FutureTask<ScoreDoc[]> task = new FutureTask<>(() -> searchLeaf(weight, leafReaderContext));
+        try {
+            threadPool.executor(SEARCH_THREAD_POOL).execute(task);
+        } catch (RejectedExecutionException e) {
+            // The pool is saturated, so the segment is searched on the calling thread instead
+            task.run();
+        }
+        return task;
+    }
+
+    private ScoreDoc[] getLeafResults(Future<ScoreDoc[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * @param weight weight of this query
+     * @param leafReaderContext segment to search
+     * @return neighbors found in the segment, with shard level doc ids
+     * @throws IOException if the segment cannot be searched
+     */
+    private ScoreDoc[] searchLeaf(Weight weight, LeafReaderContext leafReaderContext) throws IOException {
+        Scorer scorer = weight.scorer(leafReaderContext);
+        if (scorer == null) {
+            return new ScoreDoc[0];
+        }
+
+        List<ScoreDoc> scoreDocs = new ArrayList<>();
+        DocIdSetIterator iterator = scorer.iterator();
+        for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+            scoreDocs.add(new ScoreDoc(leafReaderContext.docBase + doc, scorer.score()));
+        }
+        return scoreDocs.toArray(new ScoreDoc[0]);
+    }
+
+    private ScoreDoc[] mergeTopK(List<ScoreDoc[]> leafResults) {
+        // Min heap on score so that the worst of the current top k is evicted first
+        PriorityQueue<ScoreDoc> topDocs = new PriorityQueue<>(k, (a, b) -> {
+            int cmp = Float.compare(a.score, b.score);
+            return cmp != 0 ? cmp : Integer.compare(b.doc, a.doc);
+        });
+        for (ScoreDoc[] scoreDocs : leafResults) {
+            for (ScoreDoc scoreDoc : scoreDocs) {
+                if (topDocs.size() < k) {
+                    topDocs.add(scoreDoc);
+                } else if (scoreDoc.score > topDocs.peek().score) {
+                    topDocs.poll();
+                    topDocs.add(scoreDoc);
+                }
+            }
+        }
+        return topDocs.toArray(new ScoreDoc[0]);
     }
 
     @Override
@@ -66,7 +378,9 @@ public class KNNQuery extends Query {
 
     @Override
     public int hashCode() {
-        return field.hashCode() ^ queryVector.hashCode() ^ k;
+        return field.hashCode() ^ queryVector.hashCode() ^ k ^ Objects.hashCode(filterQuery)
+                ^ Objects.hashCode(methodParameters) ^ Objects.hashCode(oversampleFactor)
+                ^ Objects.hashCode(maxDistance) ^ Objects.hashCode(minScore);
     }
 
     @Override
@@ -76,6 +390,11 @@ public class KNNQuery extends Query {
     }
 
     private boolean equalsTo(KNNQuery other) {
-        return this.field.equals(other.getField()) && this.queryVector.equals(other.getQueryVector()) && this.k == other.getK();
+        return this.field.equals(other.getField()) && this.queryVector.equals(other.getQueryVector()) && this.k == other.getK()
+                && Objects.equals(this.filterQuery, other.getFilterQuery())
+                && Objects.equals(this.methodParameters, other.getMethodParameters())
+                && Objects.equals(this.oversampleFactor, other.getOversampleFactor())
+                && Objects.equals(this.maxDistance, other.getMaxDistance())
+                && Objects.equals(this.minScore, other.getMinScore());
     }
 };
@@ -6,12 +6,14 @@
 package org.opensearch.knn.index;
 
 import org.opensearch.index.mapper.NumberFieldMapper;
+import org.opensearch.knn.index.util.KNNEngine;
 import org.opensearch.knn.indices.ModelDao;
 import org.opensearch.knn.indices.ModelMetadata;
 import org.opensearch.knn.plugin.stats.KNNCounter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.Query;
+import org.opensearch.Version;
 import org.opensearch.common.ParseField;
 import org.opensearch.common.ParsingException;
 import org.opensearch.common.Strings;
@@ -21,12 +23,21 @@ import org.opensearch.common.xcontent.XContentBuilder;
 import org.opensearch.common.xcontent.XContentParser;
 import org.opensearch.index.mapper.MappedFieldType;
 import org.opensearch.index.query.AbstractQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryRewriteContext;
 import org.opensearch.index.query.QueryShardContext;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
+import static org.opensearch.knn.common.KNNConstants.METHOD_HNSW;
+import static org.opensearch.knn.common.KNNConstants.METHOD_IVF;
+import static org.opensearch.knn.common.KNNConstants.METHOD_PARAMETER_EF_SEARCH;
+import static org.opensearch.knn.common.KNNConstants.METHOD_PARAMETER_NPROBES;
+
 /**
  * Helper class to build the KNN query
  */
@@ -36,6 +47,23 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
 
     public static final ParseField VECTOR_FIELD = new ParseField("vector");
     public static final ParseField K_FIELD = new ParseField("k");
+    public static final ParseField FILTER_FIELD = new ParseField("filter");
+    public static final ParseField METHOD_PARAMS_FIELD = new ParseField("method_parameters");
+    public static final ParseField RESCORE_FIELD = new ParseField("rescore");
+    public static final ParseField OVERSAMPLE_FACTOR_FIELD = new ParseField("oversample_factor");
+    public static final float OVERSAMPLE_FACTOR_DEFAULT = 2.0f;
+    public static final float OVERSAMPLE_FACTOR_MAX = 100.0f;
+    public static final ParseField MAX_DISTANCE_FIELD = new ParseField("max_distance");
+    public static final ParseField MIN_SCORE_FIELD = new ParseField("min_score");
+    /**
+     * Maximum number of neighbors a radial search returns per segment
+     */
+    public static int MAX_RADIAL_RESULTS = 10000;
+    /**
+     * Method parameters that can be overridden for a single query
+     */
+    public static final List<String> SEARCH_METHOD_PARAMETERS = Arrays.asList(METHOD_PARAMETER_EF_SEARCH,
+            METHOD_PARAMETER_NPROBES);
     public static int K_MAX = 10000;
     /**
      * The name for the knn query
@@ -47,6 +75,11 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
     private final String fieldName;
     private final float[] vector;
     private int k = 0;
+    private QueryBuilder filter;
+    private Map<String, Object> methodParameters;
+    private Float oversampleFactor;
+    private Float maxDistance;
+    private Float minScore;
 
     /**
      * Constructs a new knn query
@@ -56,6 +89,24 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
      * @param k         K nearest neighbours for the given vector
      */
     public KNNQueryBuilder(String fieldName, float[] vector, int k) {
+        this(fieldName, vector);
+        if (k <= 0) {
+            throw new IllegalArgumentException("[" + NAME + "] requires k > 0");
+        }
+        if (k > K_MAX) {
+            throw new IllegalArgumentException("[" + NAME + "] requires k <= " + K_MAX);
+        }
+        this.k = k;
+    }
+
+    /**
+     * Constructs a new radial knn query, returning every neighbor within a distance instead of the k nearest ones. One
+     * of {@link #maxDistance(Float)} or {@link #minScore(Float)} has to be set before the query is executed.
+     *
+     * @param fieldName Name of the field
+     * @param vector    Array of floating points
+     */
+    public KNNQueryBuilder(String fieldName, float[] vector) {
         if (Strings.isNullOrEmpty(fieldName)) {
             throw new IllegalArgumentException("[" + NAME + "] requires fieldName");
         }
@@ -65,23 +116,121 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
         if (vector.length == 0) {
             throw new IllegalArgumentException("[" + NAME + "] query vector is empty");
         }
-        if (k <= 0) {
-            throw new IllegalArgumentException("[" + NAME + "] requires k > 0");
-        }
-        if (k > K_MAX) {
-            throw new IllegalArgumentException("[" + NAME + "] requires k <= " + K_MAX);
-        }
 
         this.fieldName = fieldName;
         this.vector = vector;
-        this.k = k;
+    }
+
+    /**
+     * Restricts the documents that can be returned to the ones matching the filter. The filter is applied while the
+     * native index is searched, so up to k matching neighbors are returned per segment.
+     *
+     * @param filter query the returned documents need to match
+     * @return this query builder
+     */
+    public KNNQueryBuilder filter(QueryBuilder filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * Overrides search time parameters of the field's method for this query only, for example a larger ef_search to
+     * trade latency for recall
+     *
+     * @param methodParameters map of parameter name to positive integer value
+     * @return this query builder
+     */
+    public KNNQueryBuilder methodParameters(Map<String, Object> methodParameters) {
+        if (methodParameters != null) {
+            for (Map.Entry<String, Object> parameter : methodParameters.entrySet()) {
+                if (!SEARCH_METHOD_PARAMETERS.contains(parameter.getKey())) {
+                    throw new IllegalArgumentException("[" + NAME + "] method parameter [" + parameter.getKey()
+                            + "] is not supported. Supported parameters are " + SEARCH_METHOD_PARAMETERS);
+                }
+                if (!(parameter.getValue() instanceof Integer) || (Integer) parameter.getValue() <= 0) {
+                    throw new IllegalArgumentException("[" + NAME + "] method parameter [" + parameter.getKey()
+                            + "] requires a positive integer");
+                }
+            }
+        }
+        this.methodParameters = methodParameters;
+        return this;
+    }
+
+    /**
+     * Fetches k * oversampleFactor candidates from the native index and recomputes their distances against the
+     * full precision vectors stored in doc values, so that only the true top k of the candidates are returned. This
+     * recovers the recall lost to lossy encoders, such as product quantization.
+     *
+     * @param oversampleFactor factor the number of candidates is multiplied by, between 1 and
+     *                         {@link #OVERSAMPLE_FACTOR_MAX}, or null to return the native index's results directly
+     * @return this query builder
+     */
+    public KNNQueryBuilder rescore(Float oversampleFactor) {
+        if (oversampleFactor != null && (oversampleFactor < 1.0f || oversampleFactor > OVERSAMPLE_FACTOR_MAX)) {
+            throw new IllegalArgumentException("[" + NAME + "] requires " + OVERSAMPLE_FACTOR_FIELD.getPreferredName()
+                    + " between 1 and " + OVERSAMPLE_FACTOR_MAX);
+        }
+        this.oversampleFactor = oversampleFactor;
+        return this;
+    }
+
+    /**
+     * Returns every neighbor within the distance instead of the k nearest ones, up to {@link #MAX_RADIAL_RESULTS} per
+     * segment. The distance is measured in the field's space: euclidean distance for l2, 1 - cosine similarity for
+     * cosinesimil. It is not supported for innerproduct, where {@link #minScore(Float)} should be used instead.
+     *
+     * @param maxDistance maximum distance of the returned neighbors, or null
+     * @return this query builder
+     */
+    public KNNQueryBuilder maxDistance(Float maxDistance) {
+        if (maxDistance != null) {
+            validateRadialSearch(MAX_DISTANCE_FIELD);
+            if (maxDistance < 0) {
+                throw new IllegalArgumentException("[" + NAME + "] requires " + MAX_DISTANCE_FIELD.getPreferredName()
+                        + " >= 0");
+            }
+        }
+        this.maxDistance = maxDistance;
+        return this;
+    }
+
+    /**
+     * Returns every neighbor scoring at least the given score instead of the k nearest ones, up to
+     * {@link #MAX_RADIAL_RESULTS} per segment
+     *
+     * @param minScore minimum score of the returned neighbors, or null
+     * @return this query builder
+     */
+    public KNNQueryBuilder minScore(Float minScore) {
+        if (minScore != null) {
+            validateRadialSearch(MIN_SCORE_FIELD);
+            if (minScore <= 0) {
+                throw new IllegalArgumentException("[" + NAME + "] requires " + MIN_SCORE_FIELD.getPreferredName()
+                        + " > 0");
+            }
+        }
+        this.minScore = minScore;
+        return this;
+    }
+
+    private void validateRadialSearch(ParseField field) {
+        if (k > 0 || maxDistance != null || minScore != null) {
+            throw new IllegalArgumentException("[" + NAME + "] " + field.getPreferredName() + " cannot be combined with "
+                    + K_FIELD.getPreferredName() + ", " + MAX_DISTANCE_FIELD.getPreferredName() + " or "
+                    + MIN_SCORE_FIELD.getPreferredName());
+        }
+    }
+
+    private boolean isRadialSearch() {
+        return maxDistance != null || minScore != null;
     }
 
     public static void initialize(ModelDao modelDao) {
         KNNQueryBuilder.modelDao = modelDao;
     }
 
-    private static float[] ObjectsToFloats(List<Object> objs) {
+    static float[] ObjectsToFloats(List<Object> objs) {
         float[] vec = new float[objs.size()];
         for (int i = 0; i < objs.size(); i++) {
             vec[i] = ((Number) objs.get(i)).floatValue();
@@ -99,6 +248,15 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
             fieldName = in.readString();
             vector = in.readFloatArray();
             k = in.readInt();
+            if (in.getVersion().onOrAfter(Version.V_2_0_0)) {
+                filter = in.readOptionalNamedWriteable(QueryBuilder.class);
+                if (in.readBoolean()) {
+                    methodParameters = in.readMap();
+                }
+                oversampleFactor = in.readOptionalFloat();
+                maxDistance = in.readOptionalFloat();
+                minScore = in.readOptionalFloat();
+            }
         } catch (IOException ex) {
             throw new RuntimeException("[KNN] Unable to create KNNQueryBuilder: " + ex);
         }
@@ -109,6 +267,11 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
         List<Object> vector = null;
         float boost = AbstractQueryBuilder.DEFAULT_BOOST;
         int k = 0;
+        QueryBuilder filter = null;
+        Map<String, Object> methodParameters = null;
+        Float oversampleFactor = null;
+        Float maxDistance = null;
+        Float minScore = null;
         String queryName = null;
         String currentFieldName = null;
         XContentParser.Token token;
@@ -129,12 +292,25 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
                             boost = parser.floatValue();
                         } else if (K_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
                             k = (Integer) NumberFieldMapper.NumberType.INTEGER.parse(parser.objectBytes(), false);
+                        } else if (MAX_DISTANCE_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                            maxDistance = parser.floatValue();
+                        } else if (MIN_SCORE_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                            minScore = parser.floatValue();
                         } else if (AbstractQueryBuilder.NAME_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
                             queryName = parser.text();
                         } else {
                             throw new ParsingException(parser.getTokenLocation(),
                                     "[" + NAME + "] query does not support [" + currentFieldName + "]");
                         }
+                    } else if (token == XContentParser.Token.START_OBJECT
+                            && FILTER_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                        filter = parseInnerQueryBuilder(parser);
+                    } else if (token == XContentParser.Token.START_OBJECT
+                            && METHOD_PARAMS_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                        methodParameters = parser.map();
+                    } else if (token == XContentParser.Token.START_OBJECT
+                            && RESCORE_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                        oversampleFactor = parseRescore(parser);
                     } else {
                         throw new ParsingException(parser.getTokenLocation(),
                                 "[" + NAME + "] unknown token [" + token + "] after [" + currentFieldName + "]");
@@ -147,17 +323,59 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
             }
         }
 
-        KNNQueryBuilder knnQuery = new KNNQueryBuilder(fieldName, ObjectsToFloats(vector), k);
+        // A radial query does not take k, so it is only validated when neither max_distance nor min_score is given
+        KNNQueryBuilder knnQuery = k == 0 && (maxDistance != null || minScore != null)
+                ? new KNNQueryBuilder(fieldName, ObjectsToFloats(vector))
+                : new KNNQueryBuilder(fieldName, ObjectsToFloats(vector), k);
+        knnQuery.maxDistance(maxDistance).minScore(minScore).filter(filter).methodParameters(methodParameters)
+                .rescore(oversampleFactor);
         knnQuery.queryName(queryName);
         knnQuery.boost(boost);
         return knnQuery;
     }
 
+    private static Float parseRescore(XContentParser parser) throws IOException {
+        float oversampleFactor = OVERSAMPLE_FACTOR_DEFAULT;
+        String currentFieldName = null;
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                currentFieldName = parser.currentName();
+            } else if (token.isValue()
+                    && OVERSAMPLE_FACTOR_FIELD.match(currentFieldName, parser.getDeprecationHandler())) {
+                oversampleFactor = parser.floatValue();
+            } else {
+                throw new ParsingException(parser.getTokenLocation(),
+                        "[" + NAME + "] " + RESCORE_FIELD.getPreferredName() + " does not support ["
+                                + currentFieldName + "]");
+            }
+        }
+        return oversampleFactor;
+    }
+
     @Override
     protected void doWriteTo(StreamOutput out) throws IOException {
         out.writeString(fieldName);
         out.writeFloatArray(vector);
         out.writeInt(k);
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            out.writeOptionalNamedWriteable(filter);
+            out.writeBoolean(methodParameters != null);
+            if (methodParameters != null) {
+                out.writeMap(methodParameters);
+            }
+            out.writeOptionalFloat(oversampleFactor);
+            out.writeOptionalFloat(maxDistance);
+            out.writeOptionalFloat(minScore);
+        } else if (filter != null || methodParameters != null || oversampleFactor != null || maxDistance != null
+                || minScore != null) {
+            // Dropping them would make the older node run an unfiltered, unbounded top k search and return wrong hits
+            throw new IllegalArgumentException("[" + NAME + "] " + FILTER_FIELD.getPreferredName() + ", "
+                    + METHOD_PARAMS_FIELD.getPreferredName() + ", " + RESCORE_FIELD.getPreferredName() + ", "
+                    + MAX_DISTANCE_FIELD.getPreferredName() + " and " + MIN_SCORE_FIELD.getPreferredName()
+                    + " are not supported by nodes before version " + Version.V_2_0_0 + ", but the query is sent to a "
+                    + "node on version " + out.getVersion());
+        }
     }
 
     /**
@@ -178,13 +396,66 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
         return this.k;
     }
 
+    /**
+     * @return The filter restricting the returned documents, or null if the query is not filtered
+     */
+    public QueryBuilder getFilter() {
+        return this.filter;
+    }
+
+    /**
+     * @return The search time overrides of the method's parameters, or null if the index's own values are used
+     */
+    public Map<String, Object> getMethodParameters() {
+        return this.methodParameters;
+    }
+
+    /**
+     * @return The factor the number of candidates is multiplied by before rescoring, or null if results are not
+     * rescored
+     */
+    public Float getOversampleFactor() {
+        return this.oversampleFactor;
+    }
+
+    /**
+     * @return The maximum distance of the returned neighbors, or null if the query is not a max_distance query
+     */
+    public Float getMaxDistance() {
+        return this.maxDistance;
+    }
+
+    /**
+     * @return The minimum score of the returned neighbors, or null if the query is not a min_score query
+     */
+    public Float getMinScore() {
+        return this.minScore;
+    }
+
     @Override
     public void doXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(NAME);
         builder.startObject(fieldName);
 
         builder.field(VECTOR_FIELD.getPreferredName(), vector);
-        builder.field(K_FIELD.getPreferredName(), k);
+        if (maxDistance != null) {
+            builder.field(MAX_DISTANCE_FIELD.getPreferredName(), maxDistance);
+        } else if (minScore != null) {
+            builder.field(MIN_SCORE_FIELD.getPreferredName(), minScore);
+        } else {
+            builder.field(K_FIELD.getPreferredName(), k);
+        }
+        if (filter != null) {
+            builder.field(FILTER_FIELD.getPreferredName(), filter);
+        }
+        if (methodParameters != null) {
+            builder.field(METHOD_PARAMS_FIELD.getPreferredName(), methodParameters);
+        }
+        if (oversampleFactor != null) {
+            builder.startObject(RESCORE_FIELD.getPreferredName());
+            builder.field(OVERSAMPLE_FACTOR_FIELD.getPreferredName(), oversampleFactor);
+            builder.endObject();
+        }
         printBoostAndQueryName(builder);
         builder.endObject();
         builder.endObject();
@@ -193,10 +464,88 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
     @Override
     protected Query doToQuery(QueryShardContext context) throws IOException {
 
-        MappedFieldType mappedFieldType = context.fieldMapper(this.fieldName);
+        int dimension = getFieldDimension(context, this.fieldName);
+
+        if (dimension != vector.length) {
+            throw new IllegalArgumentException("Query vector has invalid dimension: " + vector.length +
+                    ". Dimension should be: " + dimension);
+        }
+
+        Query filterQuery = filter == null ? null : filter.toQuery(context);
+        if (isRadialSearch()) {
+            if (methodParameters != null || oversampleFactor != null) {
+                throw new IllegalArgumentException("[" + NAME + "] " + METHOD_PARAMS_FIELD.getPreferredName() + " and "
+                        + RESCORE_FIELD.getPreferredName() + " are not supported for radial search");
+            }
+            return new KNNQuery(this.fieldName, vector, context.index().getName(), filterQuery, maxDistance,
+                    minScore);
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("[" + NAME + "] requires one of " + K_FIELD.getPreferredName() + ", "
+                    + MAX_DISTANCE_FIELD.getPreferredName() + " or " + MIN_SCORE_FIELD.getPreferredName());
+        }
+        if (methodParameters != null) {
+            validateMethodParameters(context);
+        }
+        return new KNNQuery(this.fieldName, vector, k, context.index().getName(), filterQuery, methodParameters,
+                oversampleFactor);
+    }
+
+    /**
+     * Check that the method parameters of the query apply to the field. Only faiss reads parameters at search time,
+     * ef_search for HNSW and nprobes for IVF. The method of a field built from a model is not known here, so only
+     * its engine is checked.
+     *
+     * @param context shard context to look the field up in
+     */
+    private void validateMethodParameters(QueryShardContext context) {
+        KNNVectorFieldMapper.KNNVectorFieldType fieldType =
+                (KNNVectorFieldMapper.KNNVectorFieldType) context.fieldMapper(fieldName);
+
+        KNNEngine knnEngine;
+        String methodName = null;
+        if (fieldType.getModelId() != null) {
+            ModelMetadata modelMetadata = modelDao.getMetadata(fieldType.getModelId());
+            if (modelMetadata == null) {
+                throw new IllegalArgumentException("Model ID \"" + fieldType.getModelId() + "\" does not exist.");
+            }
+            knnEngine = modelMetadata.getKnnEngine();
+        } else if (fieldType.getKnnMethodContext() != null) {
+            knnEngine = fieldType.getKnnMethodContext().getEngine();
+            methodName = fieldType.getKnnMethodContext().getMethodComponent().getName();
+        } else {
+            // Fields without a method are built by nmslib from the index settings
+            knnEngine = KNNEngine.NMSLIB;
+            methodName = METHOD_HNSW;
+        }
+
+        for (String parameter : methodParameters.keySet()) {
+            if (knnEngine != KNNEngine.FAISS) {
+                throw new IllegalArgumentException("[" + NAME + "] method parameter [" + parameter
+                        + "] is not supported by the [" + knnEngine.getName() + "] engine of field [" + fieldName
+                        + "]");
+            }
+
+            String parameterMethod = METHOD_PARAMETER_EF_SEARCH.equals(parameter) ? METHOD_HNSW : METHOD_IVF;
+            if (methodName != null && !parameterMethod.equals(methodName)) {
+                throw new IllegalArgumentException("[" + NAME + "] method parameter [" + parameter
+                        + "] is not supported by the [" + methodName + "] method of field [" + fieldName + "]");
+            }
+        }
+    }
+
+    /**
+     * Get the dimension of a knn_vector field, falling back to the model's dimension for fields that use a model
+     *
+     * @param context shard context to look the field up in
+     * @param fieldName name of the field
+     * @return dimension of the field
+     */
+    static int getFieldDimension(QueryShardContext context, String fieldName) {
+        MappedFieldType mappedFieldType = context.fieldMapper(fieldName);
 
         if (!(mappedFieldType instanceof KNNVectorFieldMapper.KNNVectorFieldType)) {
-            throw new IllegalArgumentException("Field '" + this.fieldName + "' is not knn_vector type.");
+            throw new IllegalArgumentException("Field '" + fieldName + "' is not knn_vector type.");
         }
 
         int dimension = ((KNNVectorFieldMapper.KNNVectorFieldType) mappedFieldType).getDimension();
@@ -206,7 +555,7 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
             String modelId = ((KNNVectorFieldMapper.KNNVectorFieldType) mappedFieldType).getModelId();
 
             if (modelId == null) {
-                throw new IllegalArgumentException("Field '" + this.fieldName + "' does not have dimension set.");
+                throw new IllegalArgumentException("Field '" + fieldName + "' does not have dimension set.");
             }
 
             ModelMetadata modelMetadata = modelDao.getMetadata(modelId);
@@ -216,25 +565,45 @@ public class KNNQueryBuilder extends AbstractQueryBuilder<KNNQueryBuilder> {
             }
             dimension = modelMetadata.getDimension();
         }
+        return dimension;
+    }
 
-        if (dimension != vector.length) {
-            throw new IllegalArgumentException("Query vector has invalid dimension: " + vector.length +
-                    ". Dimension should be: " + dimension);
+    @Override
+    protected QueryBuilder doRewrite(QueryRewriteContext queryRewriteContext) throws IOException {
+        if (filter == null) {
+            return this;
+        }
+
+        QueryBuilder rewrittenFilter = filter.rewrite(queryRewriteContext);
+        if (rewrittenFilter == filter) {
+            return this;
         }
 
-        return new KNNQuery(this.fieldName, vector, k, context.index().getName());
+        KNNQueryBuilder rewritten = isRadialSearch() ? new KNNQueryBuilder(fieldName, vector)
+                : new KNNQueryBuilder(fieldName, vector, k);
+        rewritten.maxDistance(maxDistance).minScore(minScore).filter(rewrittenFilter)
+                .methodParameters(methodParameters).rescore(oversampleFactor);
+        rewritten.queryName(queryName());
+        rewritten.boost(boost());
+        return rewritten;
     }
 
     @Override
     protected boolean doEquals(KNNQueryBuilder other) {
         return Objects.equals(fieldName, other.fieldName) &&
                        Objects.equals(vector, other.vector) &&
-                       Objects.equals(k, other.k);
+                       Objects.equals(k, other.k) &&
+                       Objects.equals(filter, other.filter) &&
+                       Objects.equals(methodParameters, other.methodParameters) &&
+                       Objects.equals(oversampleFactor, other.oversampleFactor) &&
+                       Objects.equals(maxDistance, other.maxDistance) &&
+                       Objects.equals(minScore, other.minScore);
     }
 
     @Override
     protected int doHashCode() {
-        return Objects.hash(fieldName, vector, k);
+        return Objects.hash(fieldName, vector, k, filter, methodParameters, oversampleFactor, maxDistance,
+                minScore);
     }
 
     @Override
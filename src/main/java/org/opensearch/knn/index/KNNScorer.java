@@ -9,9 +9,6 @@ import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
 
-import java.io.IOException;
-import java.util.Map;
-
 /**
  * <p>
  * <code>KNNScorer</code> exposes an {@link #iterator()} over documents
@@ -20,18 +17,38 @@ import java.util.Map;
  * <p>
  * Document scores are computed using nmslib via JNI implementation.
  * </p>
+ * <p>
+ * Matches are held in parallel arrays of doc ids, sorted in increasing order, and scores, so iterating and scoring
+ * does not allocate or box.
+ * </p>
  */
 public class KNNScorer extends Scorer {
 
-    private final DocIdSetIterator docIdsIter;
-    private final Map<Integer, Float> scores;
+    private final int[] docIds;
+    private final float[] scores;
+    private final int size;
     private final float boost;
+    private final DocIdSetIterator docIdsIter;
+
+    private int index = -1;
+    private float[] suffixMaxScores;
 
-    public KNNScorer(Weight weight, DocIdSetIterator docIdsIter, Map<Integer, Float> scores, float boost) {
+    /**
+     * Constructor
+     *
+     * @param weight weight that created the scorer
+     * @param docIds ids of the matching documents, sorted in increasing order
+     * @param scores scores of the matching documents, in the same order as docIds
+     * @param size number of matching documents held in docIds and scores
+     * @param boost boost of the query
+     */
+    public KNNScorer(Weight weight, int[] docIds, float[] scores, int size, float boost) {
         super(weight);
-        this.docIdsIter = docIdsIter;
+        this.docIds = docIds;
         this.scores = scores;
+        this.size = size;
         this.boost = boost;
+        this.docIdsIter = new SortedDocIdSetIterator();
     }
 
     @Override
@@ -39,23 +56,84 @@ public class KNNScorer extends Scorer {
         return docIdsIter;
     }
 
+    /**
+     * Returns the highest score of the documents from the current one onwards, which bounds the score of every
+     * document up to upTo. The maxima are computed once, the first time they are asked for, so each call is constant
+     * time.
+     *
+     * @param upTo last doc id of the range, inclusive
+     * @return upper bound of the scores in the range, or 0 if no document falls in it
+     */
     @Override
-    public float getMaxScore(int upTo) throws IOException {
-        return Float.MAX_VALUE;
+    public float getMaxScore(int upTo) {
+        int start = Math.max(index, 0);
+        if (start >= size || docIds[start] > upTo) {
+            return 0;
+        }
+
+        if (suffixMaxScores == null) {
+            suffixMaxScores = new float[size];
+            float maxScore = Float.NEGATIVE_INFINITY;
+            for (int i = size - 1; i >= 0; i--) {
+                maxScore = Math.max(maxScore, scores[i]);
+                suffixMaxScores[i] = maxScore;
+            }
+        }
+        return suffixMaxScores[start];
     }
 
     @Override
     public float score() {
         assert docID() != DocIdSetIterator.NO_MORE_DOCS;
-        Float score = scores.get(docID());
-        if (score == null)
-            throw new RuntimeException("Null score for the docID: " + docID());
-        return score;
+        return scores[index];
     }
 
     @Override
     public int docID() {
-        return docIdsIter.docID();
+        if (index < 0) {
+            return -1;
+        }
+        return index < size ? docIds[index] : DocIdSetIterator.NO_MORE_DOCS;
     }
-}
 
+    /**
+     * Iterates over the sorted doc ids of the scorer, moving the position the scores are read from along with it
+     */
+    private class SortedDocIdSetIterator extends DocIdSetIterator {
+
+        @Override
+        public int docID() {
+            return KNNScorer.this.docID();
+        }
+
+        @Override
+        public int nextDoc() {
+            if (index < size) {
+                index++;
+            }
+            return docID();
+        }
+
+        @Override
+        public int advance(int target) {
+            // Doc ids are sorted, so the first doc at or after the target can be found with a binary search
+            int low = index + 1;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (docIds[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            index = Math.min(low, size);
+            return docID();
+        }
+
+        @Override
+        public long cost() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentReader;
+import org.opensearch.common.lucene.index.OpenSearchDirectoryReader;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.engine.Engine;
+import org.opensearch.knn.common.exception.OutOfNativeMemoryException;
+import org.opensearch.knn.index.memory.NativeMemoryCacheManager;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.opensearch.knn.common.KNNConstants.WARMUP_THREAD_POOL;
+
+/**
+ * Engine warmer that loads the graphs of new segments into the cache when index.knn.auto_warm is enabled. The engine
+ * warms every new reader on the refresh or merge thread, so the loads are only submitted to the knn_warmup thread pool
+ * and run in the background, instead of holding up the refresh. Queries reaching a segment before its graphs are
+ * loaded load them as usual. Each segment is only warmed the first time it appears in a reader.
+ *
+ * Loading never evicts other graphs: a graph that does not fit in the cache is left to be loaded by the first query
+ * reaching it.
+ */
+public class KNNSegmentWarmer implements Engine.Warmer {
+    private static Logger logger = LogManager.getLogger(KNNSegmentWarmer.class);
+    private static ThreadPool threadPool;
+
+    private final Engine.Warmer delegate;
+    private final IndexSettings indexSettings;
+    private final Set<IndexReader.CacheKey> warmedSegments = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param delegate warmer of the engine, run before the graphs are loaded
+     * @param indexSettings settings of the index the engine belongs to
+     */
+    public KNNSegmentWarmer(Engine.Warmer delegate, IndexSettings indexSettings) {
+        this.delegate = delegate;
+        this.indexSettings = indexSettings;
+    }
+
+    /**
+     * @param threadPool thread pool holding the executor graphs are loaded on
+     */
+    public static void initialize(ThreadPool threadPool) {
+        KNNSegmentWarmer.threadPool = threadPool;
+    }
+
+    @Override
+    public void warm(OpenSearchDirectoryReader reader) {
+        if (delegate != null) {
+            delegate.warm(reader);
+        }
+        if (!indexSettings.getValue(KNNSettings.INDEX_KNN_AUTO_WARM_SETTING)) {
+            return;
+        }
+
+        String indexName = indexSettings.getIndex().getName();
+        for (LeafReaderContext leafReaderContext : reader.leaves()) {
+            SegmentReader segmentReader = (SegmentReader) FilterLeafReader.unwrap(leafReaderContext.reader());
+            IndexReader.CacheHelper cacheHelper = segmentReader.getCoreCacheHelper();
+            if (!warmedSegments.add(cacheHelper.getKey())) {
+                continue;
+            }
+            cacheHelper.addClosedListener(warmedSegments::remove);
+
+            Map<String, SpaceType> enginePaths;
+            try {
+                enginePaths = KNNIndexShard.getSegmentEnginePaths(segmentReader);
+            } catch (Exception e) {
+                // Warming is best effort, and a failure here would fail the refresh
+                logger.warn("[KNN] Unable to warm up segment " + segmentReader.getSegmentName() + " of index "
+                        + indexName, e);
+                continue;
+            }
+            if (enginePaths.isEmpty()) {
+                continue;
+            }
+
+            Runnable load = () -> loadSegment(indexName, segmentReader.getSegmentName(), cacheHelper.getKey(),
+                    enginePaths);
+            if (threadPool == null) {
+                // Without a thread pool, such as in unit tests, the graphs are loaded on the calling thread
+                load.run();
+                continue;
+            }
+            try {
+                threadPool.executor(WARMUP_THREAD_POOL).execute(load);
+            } catch (RejectedExecutionException e) {
+                // The segment is warmed again by the next reader it appears in
+                warmedSegments.remove(cacheHelper.getKey());
+                logger.debug("[KNN] Skipped warming up segment {} of index {} because the warmup queue is full",
+                        segmentReader.getSegmentName(), indexName);
+            }
+        }
+    }
+
+    private void loadSegment(String indexName, String segmentName, IndexReader.CacheKey segmentKey,
+                             Map<String, SpaceType> enginePaths) {
+        try {
+            for (Map.Entry<String, SpaceType> enginePath : enginePaths.entrySet()) {
+                // A segment that was merged away in the meantime is not worth loading anymore
+                if (!warmedSegments.contains(segmentKey)) {
+                    return;
+                }
+                KNNIndexShard.load(NativeMemoryCacheManager.getInstance(), indexName, enginePath.getKey(),
+                        enginePath.getValue(), false);
+            }
+        } catch (OutOfNativeMemoryException e) {
+            logger.debug("[KNN] Stopped warming up index {} because the cache is full", indexName);
+        } catch (Exception e) {
+            logger.warn("[KNN] Unable to warm up segment " + segmentName + " of index " + indexName, e);
+        }
+    }
+}
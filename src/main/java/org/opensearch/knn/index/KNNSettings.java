@@ -12,6 +12,7 @@ import org.opensearch.action.ActionListener;
 import org.opensearch.action.admin.cluster.settings.ClusterUpdateSettingsRequest;
 import org.opensearch.action.admin.cluster.settings.ClusterUpdateSettingsResponse;
 import org.opensearch.client.Client;
+import org.opensearch.cluster.metadata.IndexMetadata;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
@@ -38,6 +39,11 @@ import static org.opensearch.common.settings.Setting.Property.IndexScope;
 import static org.opensearch.common.settings.Setting.Property.NodeScope;
 import static org.opensearch.common.unit.ByteSizeValue.parseBytesSizeValue;
 import static org.opensearch.common.unit.MemorySizeValue.parseBytesSizeValueOrHeapRatio;
+import static org.opensearch.knn.common.KNNConstants.CACHE_PRIORITY_HIGH;
+import static org.opensearch.knn.common.KNNConstants.CACHE_PRIORITY_LOW;
+import static org.opensearch.knn.common.KNNConstants.CACHE_PRIORITY_NORMAL;
+import static org.opensearch.knn.common.KNNConstants.LOAD_MODE_MEMORY;
+import static org.opensearch.knn.common.KNNConstants.LOAD_MODE_MMAP;
 
 /**
  * This class defines
@@ -64,6 +70,8 @@ public class KNNSettings {
     public static final String KNN_ALGO_PARAM_INDEX_THREAD_QTY = "knn.algo_param.index_thread_qty";
     public static final String KNN_MEMORY_CIRCUIT_BREAKER_ENABLED = "knn.memory.circuit_breaker.enabled";
     public static final String KNN_MEMORY_CIRCUIT_BREAKER_LIMIT = "knn.memory.circuit_breaker.limit";
+    public static final String KNN_MEMORY_SERVING_LIMIT = "knn.memory.serving.limit";
+    public static final String KNN_MEMORY_TRAINING_LIMIT = "knn.memory.training.limit";
     public static final String KNN_CIRCUIT_BREAKER_TRIGGERED = "knn.circuit_breaker.triggered";
     public static final String KNN_CACHE_ITEM_EXPIRY_ENABLED = "knn.cache.item.expiry.enabled";
     public static final String KNN_CACHE_ITEM_EXPIRY_TIME_MINUTES = "knn.cache.item.expiry.minutes";
@@ -73,6 +81,19 @@ public class KNNSettings {
     public static final String MODEL_INDEX_NUMBER_OF_SHARDS = "knn.model.index.number_of_shards";
     public static final String MODEL_INDEX_NUMBER_OF_REPLICAS = "knn.model.index.number_of_replicas";
     public static final String MODEL_CACHE_SIZE_LIMIT = "knn.model.cache.size.limit";
+    public static final String KNN_EXACT_SEARCH_COST_FACTOR = "knn.exact_search.cost_factor";
+    public static final String KNN_SEARCH_SHARD_LEVEL_TOP_K = "index.knn.search.shard_level_top_k";
+    public static final String KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED = "knn.search.concurrent_segments.enabled";
+    public static final String KNN_LOAD_MODE = "index.knn.load_mode";
+    public static final String KNN_MEMORY_QUOTA = "index.knn.memory.quota";
+    public static final String KNN_CACHE_PRIORITY = "index.knn.cache.priority";
+    public static final String KNN_AUTO_WARM = "index.knn.auto_warm";
+    public static final String KNN_CACHE_ASYNC_LOAD_ENABLED = "knn.cache.async_load.enabled";
+    public static final String KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT = "knn.cache.async_load.wait_timeout";
+    public static final String KNN_CACHE_REWARM_ENABLED = "knn.cache.rewarm.enabled";
+    public static final String KNN_WARMUP_MAX_BYTES_PER_SEC = "knn.warmup.max_bytes_per_sec";
+    public static final String KNN_CACHE_THRASH_WINDOW = "knn.cache.thrash.window";
+    public static final String KNN_CACHE_THRASH_RELOAD_THRESHOLD = "knn.cache.thrash.reload_threshold";
 
     /**
      * Default setting values
@@ -85,6 +106,7 @@ public class KNNSettings {
     public static final Integer KNN_DEFAULT_CIRCUIT_BREAKER_UNSET_PERCENTAGE = 75;
     public static final Integer KNN_DEFAULT_MODEL_CACHE_SIZE_LIMIT_PERCENTAGE = 10; // By default, set aside 10% of the JVM for the limit
     public static final Integer KNN_MAX_MODEL_CACHE_SIZE_LIMIT_PERCENTAGE = 25; // Model cache limit cannot exceed 25% of the JVM heap
+    public static final Double KNN_DEFAULT_EXACT_SEARCH_COST_FACTOR = 1.0;
 
     /**
      * Settings Definition
@@ -167,6 +189,60 @@ public class KNNSettings {
             Setting.Property.Dynamic
     );
 
+    /**
+     * shard_level_top_k - when enabled, the neighbors found in each segment are merged into the top k of the shard
+     * before scoring, so that a knn query matches at most k documents per shard instead of k documents per segment.
+     * Every segment is still searched for its own k neighbors, so this reduces scoring and collection work only.
+     */
+    public static final Setting<Boolean> INDEX_KNN_SEARCH_SHARD_LEVEL_TOP_K_SETTING = Setting.boolSetting(
+            KNN_SEARCH_SHARD_LEVEL_TOP_K,
+            false,
+            IndexScope,
+            Dynamic);
+
+    /**
+     * load_mode - how the native indices of the index are loaded. "memory" reads them into native memory. "mmap" memory
+     * maps the parts faiss supports mapping, which are the inverted lists of IVF indices, so that they live in the OS
+     * page cache and only the rest is charged to the cache. Other faiss index types and nmslib indices are always read
+     * into memory.
+     */
+    public static final Setting<String> INDEX_KNN_LOAD_MODE_SETTING = Setting.simpleString(KNN_LOAD_MODE,
+            LOAD_MODE_MEMORY,
+            new LoadModeValidator(),
+            IndexScope);
+
+    /**
+     * memory.quota - maximum size of the native indices of the index in the cache. When loading a graph of the index
+     * would exceed it, the least recently used graphs of the same index are evicted first. -1 means no quota.
+     */
+    public static final Setting<ByteSizeValue> INDEX_KNN_MEMORY_QUOTA_SETTING = Setting.byteSizeSetting(
+            KNN_MEMORY_QUOTA,
+            new ByteSizeValue(-1),
+            IndexScope,
+            Dynamic);
+
+    /**
+     * cache.priority - eviction priority of the native indices of the index, one of "low", "normal" and "high". When
+     * the cache is full, graphs of lower priority indices are evicted before graphs of higher priority ones, and a
+     * graph that would only fit by evicting graphs of higher priority is not loaded. The priority of a graph is the one
+     * of its index when it was loaded.
+     */
+    public static final Setting<String> INDEX_KNN_CACHE_PRIORITY_SETTING = Setting.simpleString(KNN_CACHE_PRIORITY,
+            CACHE_PRIORITY_NORMAL,
+            new CachePriorityValidator(),
+            IndexScope,
+            Dynamic);
+
+    /**
+     * auto_warm - when enabled, the graphs of new segments, whether created by refreshes or by merges, are loaded into
+     * the cache before searches can reach them, instead of by the first query reaching them.
+     */
+    public static final Setting<Boolean> INDEX_KNN_AUTO_WARM_SETTING = Setting.boolSetting(
+            KNN_AUTO_WARM,
+            false,
+            IndexScope,
+            Dynamic);
+
     /**
      * This setting identifies KNN index.
      */
@@ -199,6 +275,90 @@ public class KNNSettings {
             100,
             NodeScope,
             Dynamic);
+    /**
+     * exact_search.cost_factor - weighs the estimated cost of a graph search against brute force scoring of the
+     * documents matching a filter. A filtered segment is searched exactly when the number of matching documents is at
+     * most cost_factor * max(k, ef_search) * log2(segment size). Setting it to 0 only searches exactly when the filter
+     * matches k documents or less.
+     */
+    public static final Setting<Double> KNN_EXACT_SEARCH_COST_FACTOR_SETTING = Setting.doubleSetting(
+            KNN_EXACT_SEARCH_COST_FACTOR,
+            KNN_DEFAULT_EXACT_SEARCH_COST_FACTOR,
+            0,
+            NodeScope,
+            Dynamic);
+
+    /**
+     * concurrent_segments.enabled - when enabled, the segments of a shard are searched in parallel on the knn_search
+     * thread pool, and their results are merged before scoring.
+     */
+    public static final Setting<Boolean> KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED_SETTING = Setting.boolSetting(
+            KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED,
+            false,
+            NodeScope,
+            Dynamic);
+
+    /**
+     * async_load.enabled - when enabled, graphs are loaded into the cache on the knn_load thread pool instead of on the
+     * searching thread. A query reaching a segment whose graph is still loading waits for at most
+     * async_load.wait_timeout, and then scores the segment exactly from its doc values.
+     */
+    public static final Setting<Boolean> KNN_CACHE_ASYNC_LOAD_ENABLED_SETTING = Setting.boolSetting(
+            KNN_CACHE_ASYNC_LOAD_ENABLED,
+            false,
+            NodeScope,
+            Dynamic);
+
+    public static final Setting<TimeValue> KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT_SETTING = Setting.timeSetting(
+            KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT,
+            TimeValue.timeValueMillis(0),
+            TimeValue.timeValueMillis(0),
+            NodeScope,
+            Dynamic);
+
+    /**
+     * rewarm.enabled - when enabled, the node periodically records which graphs are in the cache and how often they
+     * were accessed. After a restart, the recorded graphs of each shard are loaded again, most accessed first, once
+     * the shard is started, as long as they fit in the cache without evicting anything.
+     */
+    public static final Setting<Boolean> KNN_CACHE_REWARM_ENABLED_SETTING = Setting.boolSetting(
+            KNN_CACHE_REWARM_ENABLED,
+            false,
+            NodeScope,
+            Dynamic);
+
+    /**
+     * warmup.max_bytes_per_sec - maximum rate at which the warmup API reads graph files from disk, shared by all the
+     * warmups running on the node. 0 means no limit.
+     */
+    public static final Setting<ByteSizeValue> KNN_WARMUP_MAX_BYTES_PER_SEC_SETTING = Setting.byteSizeSetting(
+            KNN_WARMUP_MAX_BYTES_PER_SEC,
+            new ByteSizeValue(0),
+            NodeScope,
+            Dynamic);
+
+    /**
+     * thrash.window - a graph loaded again within this time of being evicted for space counts as a reload, which is
+     * a sign that the working set does not fit in the cache.
+     */
+    public static final Setting<TimeValue> KNN_CACHE_THRASH_WINDOW_SETTING = Setting.timeSetting(
+            KNN_CACHE_THRASH_WINDOW,
+            TimeValue.timeValueMinutes(1),
+            TimeValue.timeValueMillis(0),
+            NodeScope,
+            Dynamic);
+
+    /**
+     * thrash.reload_threshold - number of reloads within the thrash window above which the cache is considered to be
+     * thrashing. While it is, loads that would evict other graphs are rejected instead. 0 disables the rejection.
+     */
+    public static final Setting<Integer> KNN_CACHE_THRASH_RELOAD_THRESHOLD_SETTING = Setting.intSetting(
+            KNN_CACHE_THRASH_RELOAD_THRESHOLD,
+            0,
+            0,
+            NodeScope,
+            Dynamic);
+
     /**
      * Dynamic settings
      */
@@ -217,6 +377,14 @@ public class KNNSettings {
             put(KNN_MEMORY_CIRCUIT_BREAKER_LIMIT, knnMemoryCircuitBreakerSetting(KNN_MEMORY_CIRCUIT_BREAKER_LIMIT, "50%",
                     NodeScope, Dynamic));
 
+            /**
+             * Memory pool settings. Graphs served to queries and training allocations are cached in separate pools,
+             * so that training cannot evict the graphs. If the limits add up to more than the circuit breaker limit,
+             * the training pool is reduced to what the serving pool leaves.
+             */
+            put(KNN_MEMORY_SERVING_LIMIT, knnMemoryPoolSetting(KNN_MEMORY_SERVING_LIMIT, "90%", NodeScope, Dynamic));
+            put(KNN_MEMORY_TRAINING_LIMIT, knnMemoryPoolSetting(KNN_MEMORY_TRAINING_LIMIT, "10%", NodeScope, Dynamic));
+
             /**
              * Cache expiry time settings
              */
@@ -275,6 +443,54 @@ public class KNNSettings {
                     latestSettings.put(KNN_ALGO_PARAM_INDEX_THREAD_QTY, newVal);
                 }
         );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+                KNN_EXACT_SEARCH_COST_FACTOR_SETTING,
+                newVal -> {
+                    latestSettings.put(KNN_EXACT_SEARCH_COST_FACTOR, newVal);
+                }
+        );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+                KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED_SETTING,
+                newVal -> {
+                    latestSettings.put(KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED, newVal);
+                }
+        );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+                KNN_CACHE_ASYNC_LOAD_ENABLED_SETTING,
+                newVal -> {
+                    latestSettings.put(KNN_CACHE_ASYNC_LOAD_ENABLED, newVal);
+                }
+        );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+                KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT_SETTING,
+                newVal -> {
+                    latestSettings.put(KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT, newVal);
+                }
+        );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+                KNN_CACHE_REWARM_ENABLED_SETTING,
+                newVal -> {
+                    latestSettings.put(KNN_CACHE_REWARM_ENABLED, newVal);
+                }
+        );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+                KNN_WARMUP_MAX_BYTES_PER_SEC_SETTING,
+                newVal -> {
+                    latestSettings.put(KNN_WARMUP_MAX_BYTES_PER_SEC, newVal);
+                }
+        );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+                KNN_CACHE_THRASH_WINDOW_SETTING,
+                newVal -> {
+                    latestSettings.put(KNN_CACHE_THRASH_WINDOW, newVal);
+                }
+        );
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+                KNN_CACHE_THRASH_RELOAD_THRESHOLD_SETTING,
+                newVal -> {
+                    latestSettings.put(KNN_CACHE_THRASH_RELOAD_THRESHOLD, newVal);
+                }
+        );
     }
 
     /**
@@ -306,6 +522,38 @@ public class KNNSettings {
             return KNN_ALGO_PARAM_INDEX_THREAD_QTY_SETTING;
         }
 
+        if (KNN_EXACT_SEARCH_COST_FACTOR.equals(key)) {
+            return KNN_EXACT_SEARCH_COST_FACTOR_SETTING;
+        }
+
+        if (KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED.equals(key)) {
+            return KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED_SETTING;
+        }
+
+        if (KNN_CACHE_ASYNC_LOAD_ENABLED.equals(key)) {
+            return KNN_CACHE_ASYNC_LOAD_ENABLED_SETTING;
+        }
+
+        if (KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT.equals(key)) {
+            return KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT_SETTING;
+        }
+
+        if (KNN_CACHE_REWARM_ENABLED.equals(key)) {
+            return KNN_CACHE_REWARM_ENABLED_SETTING;
+        }
+
+        if (KNN_WARMUP_MAX_BYTES_PER_SEC.equals(key)) {
+            return KNN_WARMUP_MAX_BYTES_PER_SEC_SETTING;
+        }
+
+        if (KNN_CACHE_THRASH_WINDOW.equals(key)) {
+            return KNN_CACHE_THRASH_WINDOW_SETTING;
+        }
+
+        if (KNN_CACHE_THRASH_RELOAD_THRESHOLD.equals(key)) {
+            return KNN_CACHE_THRASH_RELOAD_THRESHOLD_SETTING;
+        }
+
         throw new IllegalArgumentException("Cannot find setting by key [" + key + "]");
     }
 
@@ -314,13 +562,26 @@ public class KNNSettings {
                 INDEX_KNN_ALGO_PARAM_M_SETTING,
                 INDEX_KNN_ALGO_PARAM_EF_CONSTRUCTION_SETTING,
                 INDEX_KNN_ALGO_PARAM_EF_SEARCH_SETTING,
+                INDEX_KNN_SEARCH_SHARD_LEVEL_TOP_K_SETTING,
+                INDEX_KNN_LOAD_MODE_SETTING,
+                INDEX_KNN_MEMORY_QUOTA_SETTING,
+                INDEX_KNN_CACHE_PRIORITY_SETTING,
+                INDEX_KNN_AUTO_WARM_SETTING,
                 KNN_ALGO_PARAM_INDEX_THREAD_QTY_SETTING,
                 KNN_CIRCUIT_BREAKER_TRIGGERED_SETTING,
                 KNN_CIRCUIT_BREAKER_UNSET_PERCENTAGE_SETTING,
                 IS_KNN_INDEX_SETTING,
                 MODEL_INDEX_NUMBER_OF_SHARDS_SETTING,
                 MODEL_INDEX_NUMBER_OF_REPLICAS_SETTING,
-                MODEL_CACHE_SIZE_LIMIT_SETTING);
+                MODEL_CACHE_SIZE_LIMIT_SETTING,
+                KNN_EXACT_SEARCH_COST_FACTOR_SETTING,
+                KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED_SETTING,
+                KNN_CACHE_ASYNC_LOAD_ENABLED_SETTING,
+                KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT_SETTING,
+                KNN_CACHE_REWARM_ENABLED_SETTING,
+                KNN_WARMUP_MAX_BYTES_PER_SEC_SETTING,
+                KNN_CACHE_THRASH_WINDOW_SETTING,
+                KNN_CACHE_THRASH_RELOAD_THRESHOLD_SETTING);
         return Stream.concat(settings.stream(), dynamicCacheSettings.values().stream())
                      .collect(Collectors.toList());
     }
@@ -337,10 +598,52 @@ public class KNNSettings {
         return KNNSettings.state().getSettingValue(KNNSettings.KNN_MEMORY_CIRCUIT_BREAKER_LIMIT);
     }
 
+    public static ByteSizeValue getServingMemoryLimit() {
+        return parseKnnMemoryPoolValue(KNNSettings.state().getSettingValue(KNNSettings.KNN_MEMORY_SERVING_LIMIT),
+                KNN_MEMORY_SERVING_LIMIT, getCircuitBreakerLimit());
+    }
+
+    public static ByteSizeValue getTrainingMemoryLimit() {
+        return parseKnnMemoryPoolValue(KNNSettings.state().getSettingValue(KNNSettings.KNN_MEMORY_TRAINING_LIMIT),
+                KNN_MEMORY_TRAINING_LIMIT, getCircuitBreakerLimit());
+    }
+
     public static double getCircuitBreakerUnsetPercentage() {
         return KNNSettings.state().getSettingValue(KNNSettings.KNN_CIRCUIT_BREAKER_UNSET_PERCENTAGE);
     }
 
+    public static double getExactSearchCostFactor() {
+        return KNNSettings.state().getSettingValue(KNNSettings.KNN_EXACT_SEARCH_COST_FACTOR);
+    }
+
+    public static boolean isConcurrentSegmentSearchEnabled() {
+        return KNNSettings.state().getSettingValue(KNNSettings.KNN_CONCURRENT_SEGMENT_SEARCH_ENABLED);
+    }
+
+    public static boolean isAsyncLoadEnabled() {
+        return KNNSettings.state().getSettingValue(KNNSettings.KNN_CACHE_ASYNC_LOAD_ENABLED);
+    }
+
+    public static TimeValue getAsyncLoadWaitTimeout() {
+        return KNNSettings.state().getSettingValue(KNNSettings.KNN_CACHE_ASYNC_LOAD_WAIT_TIMEOUT);
+    }
+
+    public static boolean isRewarmEnabled() {
+        return KNNSettings.state().getSettingValue(KNNSettings.KNN_CACHE_REWARM_ENABLED);
+    }
+
+    public static ByteSizeValue getWarmupMaxBytesPerSec() {
+        return KNNSettings.state().getSettingValue(KNNSettings.KNN_WARMUP_MAX_BYTES_PER_SEC);
+    }
+
+    public static TimeValue getCacheThrashWindow() {
+        return KNNSettings.state().getSettingValue(KNNSettings.KNN_CACHE_THRASH_WINDOW);
+    }
+
+    public static int getCacheThrashReloadThreshold() {
+        return KNNSettings.state().getSettingValue(KNNSettings.KNN_CACHE_THRASH_RELOAD_THRESHOLD);
+    }
+
     public void initialize(Client client, ClusterService clusterService) {
         this.client = client;
         this.clusterService = clusterService;
@@ -384,11 +687,58 @@ public class KNNSettings {
         }
     }
 
+    /**
+     * Creates a setting which specifies the memory limit of a pool of the cache. This can either be specified as an
+     * absolute bytes value or as a percentage of the circuit breaker limit. The value is kept as a string, as the
+     * circuit breaker limit it is relative to can change independently.
+     *
+     * @param key the key for the setting
+     * @param defaultValue the default value for this setting
+     * @param properties properties properties for this setting like scope, filtering...
+     * @return the setting object
+     */
+    public static Setting<String> knnMemoryPoolSetting(String key, String defaultValue,
+                                                       Setting.Property... properties) {
+        return new Setting<>(key, defaultValue, (s) -> {
+            parseKnnMemoryPoolValue(s, key, new ByteSizeValue(0));
+            return s;
+        }, properties);
+    }
+
+    public static ByteSizeValue parseKnnMemoryPoolValue(String sValue, String settingName,
+                                                        ByteSizeValue circuitBreakerLimit) {
+        settingName = Objects.requireNonNull(settingName);
+        if (sValue != null && sValue.endsWith("%")) {
+            final String percentAsString = sValue.substring(0, sValue.length() - 1);
+            try {
+                final double percent = Double.parseDouble(percentAsString);
+                if (percent < 0 || percent > 100) {
+                    throw new OpenSearchParseException("percentage should be in [0-100], got [{}]", percentAsString);
+                }
+                return new ByteSizeValue((long) ((percent / 100) * circuitBreakerLimit.getBytes()), ByteSizeUnit.BYTES);
+            } catch (NumberFormatException e) {
+                throw new OpenSearchParseException("failed to parse [{}] as a double", e, percentAsString);
+            }
+        } else {
+            return parseBytesSizeValue(sValue, settingName);
+        }
+    }
+
     /**
      * Updates knn.circuit_breaker.triggered setting to true/false
      * @param flag true/false
      */
     public synchronized void updateCircuitBreakerSettings(boolean flag) {
+        updateCircuitBreakerSettings(flag, ActionListener.wrap(response -> {}, e -> {}));
+    }
+
+    /**
+     * Updates knn.circuit_breaker.triggered setting to true/false
+     * @param flag true/false
+     * @param listener notified once the update is acknowledged or failed
+     */
+    public synchronized void updateCircuitBreakerSettings(boolean flag,
+                                                          ActionListener<ClusterUpdateSettingsResponse> listener) {
         ClusterUpdateSettingsRequest clusterUpdateSettingsRequest = new ClusterUpdateSettingsRequest();
         Settings circuitBreakerSettings = Settings.builder()
                                                   .put(KNNSettings.KNN_CIRCUIT_BREAKER_TRIGGERED, flag)
@@ -401,11 +751,13 @@ public class KNNSettings {
                 logger.debug("Cluster setting {}, acknowledged: {} ",
                         clusterUpdateSettingsRequest.persistentSettings(),
                         clusterUpdateSettingsResponse.isAcknowledged());
+                listener.onResponse(clusterUpdateSettingsResponse);
             }
             @Override
             public void onFailure(Exception e) {
                 logger.info("Exception while updating circuit breaker setting {} to {}",
                         clusterUpdateSettingsRequest.persistentSettings(), e.getMessage());
+                listener.onFailure(e);
             }
         });
     }
@@ -419,6 +771,47 @@ public class KNNSettings {
         return getIndexSettingValue(index, KNN_ALGO_PARAM_EF_SEARCH, 512);
     }
 
+    /**
+     *
+     * @param index Name of the index
+     * @return true if knn queries on the index should return the top k of the shard rather than of each segment
+     */
+    public static boolean isShardLevelTopKEnabled(String index) {
+        return KNNSettings.state().clusterService.state().getMetadata()
+                                                 .index(index).getSettings()
+                                                 .getAsBoolean(KNN_SEARCH_SHARD_LEVEL_TOP_K, false);
+    }
+
+    /**
+     *
+     * @param index Name of the index
+     * @return mode the native indices of the index are loaded with
+     */
+    public static String getLoadMode(String index) {
+        return KNNSettings.state().clusterService.state().getMetadata()
+                                                 .index(index).getSettings()
+                                                 .get(KNN_LOAD_MODE, LOAD_MODE_MEMORY);
+    }
+
+    /**
+     * The index may not exist anymore by the time its graphs are evicted, in which case it has no quota.
+     *
+     * @param index Name of the index
+     * @return maximum size of the native indices of the index in the cache, or -1 if there is none
+     */
+    public static ByteSizeValue getMemoryQuota(String index) {
+        return INDEX_KNN_MEMORY_QUOTA_SETTING.get(getIndexSettingsOrEmpty(index));
+    }
+
+    /**
+     *
+     * @param index Name of the index
+     * @return eviction priority of the native indices of the index
+     */
+    public static String getCachePriority(String index) {
+        return INDEX_KNN_CACHE_PRIORITY_SETTING.get(getIndexSettingsOrEmpty(index));
+    }
+
     /**
      *
      * @param index Name of the index
@@ -435,6 +828,15 @@ public class KNNSettings {
                                                  .getAsInt(settingName, defaultValue);
     }
 
+    private static Settings getIndexSettingsOrEmpty(String index) {
+        ClusterService clusterService = KNNSettings.state().clusterService;
+        if (clusterService == null) {
+            return Settings.EMPTY;
+        }
+        IndexMetadata indexMetadata = clusterService.state().getMetadata().index(index);
+        return indexMetadata == null ? Settings.EMPTY : indexMetadata.getSettings();
+    }
+
     public void setClusterService(ClusterService clusterService) {
         this.clusterService = clusterService;
     }
@@ -450,6 +852,27 @@ public class KNNSettings {
         }
     }
 
+    static class LoadModeValidator implements Setting.Validator<String> {
+
+        @Override public void validate(String value) {
+            if (!LOAD_MODE_MEMORY.equals(value) && !LOAD_MODE_MMAP.equals(value)) {
+                throw new InvalidParameterException("Invalid load mode: " + value + ". Supported load modes are "
+                        + LOAD_MODE_MEMORY + " and " + LOAD_MODE_MMAP);
+            }
+        }
+    }
+
+    static class CachePriorityValidator implements Setting.Validator<String> {
+
+        @Override public void validate(String value) {
+            if (!CACHE_PRIORITY_LOW.equals(value) && !CACHE_PRIORITY_NORMAL.equals(value)
+                    && !CACHE_PRIORITY_HIGH.equals(value)) {
+                throw new InvalidParameterException("Invalid cache priority: " + value + ". Supported priorities are "
+                        + CACHE_PRIORITY_LOW + ", " + CACHE_PRIORITY_NORMAL + " and " + CACHE_PRIORITY_HIGH);
+            }
+        }
+    }
+
     public void onIndexModule(IndexModule module) {
         module.addSettingsUpdateConsumer(
                 INDEX_KNN_ALGO_PARAM_EF_SEARCH_SETTING,
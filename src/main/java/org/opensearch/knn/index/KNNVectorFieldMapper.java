@@ -206,7 +206,8 @@ public abstract class KNNVectorFieldMapper extends ParametrizedFieldMapper {
             if (knnMethodContext != null) {
                 return new MethodFieldMapper(
                     name,
-                    new KNNVectorFieldType(buildFullName(context), meta.getValue(), dimension.getValue()),
+                    new KNNVectorFieldType(buildFullName(context), meta.getValue(), dimension.getValue(), null,
+                            knnMethodContext),
                     multiFieldsBuilder.build(this, context),
                     copyTo.build(),
                     ignoreMalformed(context),
@@ -300,15 +301,22 @@ public abstract class KNNVectorFieldMapper extends ParametrizedFieldMapper {
 
         int dimension;
         String modelId;
+        KNNMethodContext knnMethodContext;
 
         public KNNVectorFieldType(String name, Map<String, String> meta, int dimension) {
             this(name, meta, dimension, null);
         }
 
         public KNNVectorFieldType(String name, Map<String, String> meta, int dimension, String modelId) {
+            this(name, meta, dimension, modelId, null);
+        }
+
+        public KNNVectorFieldType(String name, Map<String, String> meta, int dimension, String modelId,
+                                  KNNMethodContext knnMethodContext) {
             super(name, false, false, true, TextSearchInfo.NONE, meta);
             this.dimension = dimension;
             this.modelId = modelId;
+            this.knnMethodContext = knnMethodContext;
         }
 
         @Override
@@ -342,6 +350,13 @@ public abstract class KNNVectorFieldMapper extends ParametrizedFieldMapper {
             return modelId;
         }
 
+        /**
+         * @return method the field is built with, or null for fields built from a model or from the index settings
+         */
+        public KNNMethodContext getKnnMethodContext() {
+            return knnMethodContext;
+        }
+
         @Override
         public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName, Supplier<SearchLookup> searchLookup) {
             failIfNoDocValues();
@@ -0,0 +1,272 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.store.RateLimiter;
+import org.opensearch.common.unit.ByteSizeValue;
+import org.opensearch.knn.index.memory.NativeMemoryCacheManager;
+import org.opensearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.opensearch.knn.common.KNNConstants.WARMUP_THREAD_POOL;
+
+/**
+ * Loads a set of graphs into the cache in parallel on the knn_warmup thread pool, and reports its progress. Graphs
+ * that are not cached yet are read at most at knn.warmup.max_bytes_per_sec across all the warmups of the node, so that
+ * warming up a large index does not saturate the disk. A warmup can be cancelled, in which case the graphs that are
+ * not being read or loaded yet are skipped.
+ */
+public class KNNWarmupTask {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static ThreadPool threadPool;
+    private static final Set<KNNWarmupTask> RUNNING_TASKS = ConcurrentHashMap.newKeySet();
+    private static RateLimiter.SimpleRateLimiter rateLimiter;
+
+    private final String indexName;
+    private final Queue<Map.Entry<String, Long>> pendingGraphs;
+    private final GraphLoader graphLoader;
+    private final int totalGraphs;
+    private final long totalBytes;
+    private final AtomicInteger graphsRemaining;
+    private final AtomicLong bytesLoaded = new AtomicLong();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Loads a graph into the cache
+     */
+    interface GraphLoader {
+        void load(String enginePath) throws ExecutionException;
+    }
+
+    /**
+     * @param threadPool thread pool holding the executor graphs are loaded on
+     */
+    public static void initialize(ThreadPool threadPool) {
+        KNNWarmupTask.threadPool = threadPool;
+    }
+
+    /**
+     * @param indexName name of the index the graphs belong to
+     * @param graphSizes size in bytes of each graph file to load, keyed by its path
+     * @param graphLoader loads a graph into the cache
+     */
+    KNNWarmupTask(String indexName, Map<String, Long> graphSizes, GraphLoader graphLoader) {
+        this.indexName = indexName;
+        this.pendingGraphs = new ConcurrentLinkedQueue<>(graphSizes.entrySet());
+        this.graphLoader = graphLoader;
+        this.totalGraphs = graphSizes.size();
+        this.totalBytes = graphSizes.values().stream().mapToLong(Long::longValue).sum();
+        this.graphsRemaining = new AtomicInteger(totalGraphs);
+    }
+
+    /**
+     * Start loading the graphs. As many graphs are loaded at once as the knn_warmup thread pool has threads, so that
+     * warmups never take the knn_load threads searches wait on. Without a thread pool, such as in unit tests, the
+     * graphs are loaded on the calling thread.
+     */
+    void start() {
+        RUNNING_TASKS.add(this);
+        int workers = threadPool == null ? 1 : Math.max(1, threadPool.info(WARMUP_THREAD_POOL).getMax());
+        workers = Math.max(1, Math.min(workers, totalGraphs));
+        Executor executor = threadPool == null ? Runnable::run : threadPool.executor(WARMUP_THREAD_POOL);
+
+        activeWorkers.set(workers);
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(this::work);
+            } catch (Exception e) {
+                fail(e);
+                finishWorker();
+            }
+        }
+    }
+
+    /**
+     * Run an action once the warmup completes, whether it succeeded, failed or was cancelled
+     *
+     * @param action action to run
+     */
+    void onCompletion(Runnable action) {
+        completion.whenComplete((result, e) -> action.run());
+    }
+
+    /**
+     * Cancel the warmup. Graphs that are being loaded finish loading, and the remaining ones are skipped.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Wait until all the graphs are loaded
+     *
+     * @throws CancellationException if the warmup was cancelled before all the graphs were loaded
+     */
+    public void awaitCompletion() {
+        try {
+            completion.get();
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while warming up index " + indexName);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public int getTotalGraphs() {
+        return totalGraphs;
+    }
+
+    public int getGraphsRemaining() {
+        return graphsRemaining.get();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesLoaded() {
+        return bytesLoaded.get();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * @return number of graphs left to load by the warmups running on this node
+     */
+    public static long getRunningGraphsRemaining() {
+        return RUNNING_TASKS.stream().mapToLong(KNNWarmupTask::getGraphsRemaining).sum();
+    }
+
+    /**
+     * @return number of bytes of graphs loaded so far by the warmups running on this node
+     */
+    public static long getRunningBytesLoaded() {
+        return RUNNING_TASKS.stream().mapToLong(KNNWarmupTask::getBytesLoaded).sum();
+    }
+
+    private void work() {
+        try {
+            Map.Entry<String, Long> graph;
+            while (!cancelled && (graph = pendingGraphs.poll()) != null) {
+                if (!NativeMemoryCacheManager.getInstance().contains(graph.getKey())) {
+                    readThrottled(graph.getKey());
+                }
+                if (cancelled) {
+                    break;
+                }
+                graphLoader.load(graph.getKey());
+                bytesLoaded.addAndGet(graph.getValue());
+                graphsRemaining.decrementAndGet();
+            }
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            finishWorker();
+        }
+    }
+
+    private void fail(Exception e) {
+        failure.compareAndSet(null, e);
+        // Stop the other workers, as the warmup already failed
+        cancelled = true;
+    }
+
+    private void finishWorker() {
+        if (activeWorkers.decrementAndGet() > 0) {
+            return;
+        }
+        RUNNING_TASKS.remove(this);
+        Exception e = failure.get();
+        if (e != null) {
+            completion.completeExceptionally(e instanceof ExecutionException ? new RuntimeException(e) : e);
+        } else if (graphsRemaining.get() > 0) {
+            completion.completeExceptionally(new CancellationException("Warmup of index " + indexName
+                    + " was cancelled with " + graphsRemaining.get() + " graphs remaining"));
+        } else {
+            completion.complete(null);
+        }
+    }
+
+    /**
+     * The engines read the graph file natively in one go, which cannot be throttled. So with a rate limit, the file is
+     * first read here chunk by chunk through the rate limiter, which paces the disk reads into the page cache, and the
+     * load then mostly reads from memory.
+     */
+    private void readThrottled(String enginePath) throws IOException {
+        RateLimiter.SimpleRateLimiter limiter = getRateLimiter();
+        if (limiter == null) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long unpausedBytes = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(enginePath), StandardOpenOption.READ)) {
+            int read;
+            while (!cancelled && (read = channel.read(buffer)) != -1) {
+                buffer.clear();
+                unpausedBytes += read;
+                if (unpausedBytes >= limiter.getMinPauseCheckBytes()) {
+                    limiter.pause(unpausedBytes);
+                    unpausedBytes = 0;
+                }
+            }
+        }
+        limiter.pause(unpausedBytes);
+    }
+
+    private static synchronized RateLimiter.SimpleRateLimiter getRateLimiter() {
+        ByteSizeValue maxBytesPerSec = KNNSettings.getWarmupMaxBytesPerSec();
+        if (maxBytesPerSec.getBytes() <= 0) {
+            rateLimiter = null;
+            return null;
+        }
+
+        double mbPerSec = maxBytesPerSec.getMbFrac();
+        if (rateLimiter == null) {
+            rateLimiter = new RateLimiter.SimpleRateLimiter(mbPerSec);
+        } else if (rateLimiter.getMBPerSec() != mbPerSec) {
+            rateLimiter.setMBPerSec(mbPerSec);
+        }
+        return rateLimiter;
+    }
+}
@@ -26,8 +26,15 @@ import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.FilterDirectory;
-import org.apache.lucene.util.DocIdSetBuilder;
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
 import org.opensearch.common.io.PathUtils;
+import org.opensearch.common.xcontent.DeprecationHandler;
+import org.opensearch.common.xcontent.NamedXContentRegistry;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.XContentParser;
+import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.knn.indices.ModelDao;
 import org.opensearch.knn.indices.ModelMetadata;
 import org.opensearch.knn.plugin.stats.KNNCounter;
@@ -35,16 +42,20 @@ import org.opensearch.knn.plugin.stats.KNNCounter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
 
 import static org.opensearch.knn.common.KNNConstants.KNN_ENGINE;
+import static org.opensearch.knn.common.KNNConstants.METHOD_PARAMETER_EF_SEARCH;
 import static org.opensearch.knn.common.KNNConstants.MODEL_ID;
+import static org.opensearch.knn.common.KNNConstants.PARAMETERS;
 import static org.opensearch.knn.common.KNNConstants.SPACE_TYPE;
 import static org.opensearch.knn.index.IndexUtil.getParametersAtLoading;
 import static org.opensearch.knn.plugin.stats.KNNCounter.GRAPH_QUERY_ERRORS;
@@ -58,14 +69,22 @@ public class KNNWeight extends Weight {
 
     private final KNNQuery knnQuery;
     private final float boost;
+    private final Weight filterWeight;
 
     private NativeMemoryCacheManager nativeMemoryCacheManager;
+    private EngineFileRegistry engineFileRegistry;
 
     public KNNWeight(KNNQuery query, float boost) {
+        this(query, boost, null);
+    }
+
+    public KNNWeight(KNNQuery query, float boost, Weight filterWeight) {
         super(query);
         this.knnQuery = query;
         this.boost = boost;
+        this.filterWeight = filterWeight;
         this.nativeMemoryCacheManager = NativeMemoryCacheManager.getInstance();
+        this.engineFileRegistry = EngineFileRegistry.getInstance();
     }
 
     public static void initialize(ModelDao modelDao) {
@@ -84,86 +103,65 @@ public class KNNWeight extends Weight {
     @Override
     public Scorer scorer(LeafReaderContext context) throws IOException {
             SegmentReader reader = (SegmentReader) FilterLeafReader.unwrap(context.reader());
-            String directory = ((FSDirectory) FilterDirectory.unwrap(reader.directory())).getDirectory().toString();
-
-            FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(knnQuery.getField());
 
-            if (fieldInfo == null) {
-                logger.debug("[KNN] Field info not found for {}:{}", knnQuery.getField(),
-                        reader.getSegmentName());
+            // The engine file of a segment never changes, so it is only resolved the first time a segment is searched
+            EngineFileRegistry.EngineFile engineFile = engineFileRegistry.get(reader, knnQuery.getField(),
+                    this::resolveEngineFile);
+            if (engineFile == null) {
                 return null;
             }
+            KNNEngine knnEngine = engineFile.getKnnEngine();
+            SpaceType spaceType = engineFile.getSpaceType();
 
-            KNNEngine knnEngine;
-            SpaceType spaceType;
+            // Evaluate the filter before touching the graph so that segments without matches never get loaded
+            FixedBitSet filterBitSet = null;
+            int filterCardinality = 0;
+            long[] filterBits = null;
+            if (filterWeight != null) {
+                filterBitSet = getFilterBitSet(context);
+                if (filterBitSet == null) {
+                    logger.debug("[KNN] Filter matched no documents for segment {}", reader.getSegmentName());
+                    return null;
+                }
 
-            // Check if a modelId exists. If so, the space type and engine will need to be picked up from the model's
-            // metadata.
-            String modelId = fieldInfo.getAttribute(MODEL_ID);
-            if (modelId != null) {
-                ModelMetadata modelMetadata = modelDao.getMetadata(modelId);
-                if (modelMetadata == null) {
-                    throw new RuntimeException("Model \"" + modelId + "\" does not exist.");
+                filterCardinality = filterBitSet.cardinality();
+                if (!knnQuery.isRadialSearch() && isExactSearchPreferred(filterCardinality, reader.maxDoc(),
+                        engineFile)) {
+                    KNNCounter.EXACT_SEARCH_REQUESTS.increment();
+                    return exactSearch(reader, filterBitSet, filterCardinality, knnEngine, spaceType);
                 }
 
-                knnEngine = modelMetadata.getKnnEngine();
-                spaceType = modelMetadata.getSpaceType();
-            } else {
-                String engineName = fieldInfo.attributes().getOrDefault(KNN_ENGINE, KNNEngine.NMSLIB.getName());
-                knnEngine = KNNEngine.getEngine(engineName);
-                String spaceTypeName = fieldInfo.attributes().getOrDefault(SPACE_TYPE, SpaceType.L2.getValue());
-                spaceType = SpaceType.getSpace(spaceTypeName);
+                KNNCounter.FILTERED_GRAPH_QUERY_REQUESTS.increment();
+                filterBits = filterBitSet.getBits();
             }
 
-            /*
-             * In case of compound file, extension would be <engine-extension> + c otherwise <engine-extension>
-             */
-            String engineExtension = reader.getSegmentInfo().info.getUseCompoundFile()
-                    ? knnEngine.getExtension() + KNNConstants.COMPOUND_EXTENSION : knnEngine.getExtension();
-            String engineSuffix = knnQuery.getField() + engineExtension;
-            List<String> engineFiles = reader.getSegmentInfo().files().stream()
-                    .filter(fileName -> fileName.endsWith(engineSuffix))
-                    .collect(Collectors.toList());
-
-            if(engineFiles.isEmpty()) {
-                logger.debug("[KNN] No engine index found for field {} for segment {}",
-                        knnQuery.getField(), reader.getSegmentName());
-                return null;
+            Path indexPath = engineFile.getIndexPath();
+            NativeMemoryAllocation indexAllocation = getIndexAllocation(indexPath, knnEngine, spaceType);
+            if (indexAllocation == null) {
+                // The graph is still loading in the background, so the segment is scored exactly in the meantime
+                KNNCounter.ASYNC_LOAD_FALLBACK_REQUESTS.increment();
+                return exactSearch(reader, filterBitSet, filterCardinality, knnEngine, spaceType);
             }
-
-            Path indexPath = PathUtils.get(directory, engineFiles.get(0));
-            final KNNQueryResult[] results;
             KNNCounter.GRAPH_QUERY_REQUESTS.increment();
 
-            // We need to first get index allocation
-            NativeMemoryAllocation indexAllocation;
-            try {
-                indexAllocation = nativeMemoryCacheManager.get(
-                        new NativeMemoryEntryContext.IndexEntryContext(
-                                indexPath.toString(),
-                                NativeMemoryLoadStrategy.IndexLoadStrategy.getInstance(),
-                                getParametersAtLoading(spaceType, knnEngine, knnQuery.getIndexName()),
-                                knnQuery.getIndexName()
-                        ), true);
-            } catch (ExecutionException e) {
-                GRAPH_QUERY_ERRORS.increment();
-                throw new RuntimeException(e);
-            }
-
-            // Now that we have the allocation, we need to readLock it
-            indexAllocation.readLock();
-
-            try {
-                if (indexAllocation.isClosed()) {
-                    throw new RuntimeException("Index has already been closed");
+            if (knnQuery.isRadialSearch()) {
+                final long[] radialFilterBits = filterBits;
+                final float radius = getRadius(knnQuery, knnEngine, spaceType);
+                int maxResults = Math.min(KNNQueryBuilder.MAX_RADIAL_RESULTS, reader.maxDoc());
+                int[] docIds = new int[maxResults];
+                float[] scores = new float[maxResults];
+                int resultSize = searchIndex(indexAllocation, memoryAddress ->
+                        JNIService.rangeSearchIndex(memoryAddress, knnQuery.getQueryVector(), radius,
+                                radialFilterBits, docIds, scores, knnEngine.getName()));
+                if (resultSize == 0) {
+                    logger.debug("[KNN] Radial query yielded 0 results");
+                    return null;
                 }
 
-                results = JNIService.queryIndex(indexAllocation.getMemoryAddress(), knnQuery.getQueryVector(), knnQuery.getK(), knnEngine.getName());
-            } catch (Exception e) {
-                GRAPH_QUERY_ERRORS.increment();
-                throw new RuntimeException(e);
-            } finally {
-                indexAllocation.readUnlock();
+                for (int i = 0; i < resultSize; i++) {
+                    scores[i] = knnEngine.score(scores[i], spaceType);
+                }
+                return buildScorer(docIds, scores, resultSize);
             }
 
             /*
@@ -172,24 +170,404 @@ public class KNNWeight extends Weight {
              * Since by default results are retrieved in the descending order of scores, to get the nearest
              * neighbors we are inverting the scores.
              */
-            if (results.length == 0) {
+            // The results of a batch are shared by all of its vectors and never filtered, so they are only used
+            // without a filter
+            KNNBatchContext batchContext = knnQuery.getBatchContext();
+            if (batchContext != null && filterBits == null) {
+                // Only the first query of the batch to reach this segment crosses into the native layer
+                KNNQueryResult[] results = batchContext.getSegmentResults(indexPath.toString(), queryVectors ->
+                        searchIndex(indexAllocation, memoryAddress ->
+                                JNIService.queryIndexBatch(memoryAddress, queryVectors, batchContext.getK(),
+                                        knnEngine.getName())))[knnQuery.getBatchIndex()];
+                if (results.length == 0) {
+                    logger.debug("[KNN] Query yielded 0 results");
+                    return null;
+                }
+
+                int[] docIds = new int[results.length];
+                float[] scores = new float[results.length];
+                for (int i = 0; i < results.length; i++) {
+                    docIds[i] = results[i].getId();
+                    scores[i] = knnEngine.score(results[i].getScore(), spaceType);
+                }
+                return buildScorer(docIds, scores, results.length);
+            }
+
+            // When rescoring, more candidates than needed are fetched because their distances are approximate
+            final int candidateK = getCandidateK(knnQuery);
+
+            // The neighbors are written straight into primitive arrays so that no object is created per neighbor
+            final long[] searchFilterBits = filterBits;
+            int[] docIds = new int[candidateK];
+            float[] scores = new float[candidateK];
+            int resultSize = searchIndex(indexAllocation, memoryAddress ->
+                    JNIService.queryIndex(memoryAddress, knnQuery.getQueryVector(), candidateK,
+                            searchFilterBits, knnQuery.getMethodParameters(), docIds, scores,
+                            knnEngine.getName()));
+
+            if (resultSize == 0) {
                 logger.debug("[KNN] Query yielded 0 results");
                 return null;
             }
 
-            Map<Integer, Float> scores = Arrays.stream(results).collect(
-                    Collectors.toMap(KNNQueryResult::getId, result -> knnEngine.score(result.getScore(), spaceType)));
-            int maxDoc = Collections.max(scores.keySet()) + 1;
-            DocIdSetBuilder docIdSetBuilder = new DocIdSetBuilder(maxDoc);
-            DocIdSetBuilder.BulkAdder setAdder = docIdSetBuilder.grow(maxDoc);
-            Arrays.stream(results).forEach(result -> setAdder.add(result.getId()));
-            DocIdSetIterator docIdSetIter = docIdSetBuilder.build().iterator();
-            return new KNNScorer(this, docIdSetIter, scores, boost);
+            if (knnQuery.getOversampleFactor() != null) {
+                KNNCounter.RESCORE_REQUESTS.increment();
+                FixedBitSet candidates = new FixedBitSet(reader.maxDoc());
+                for (int i = 0; i < resultSize; i++) {
+                    candidates.set(docIds[i]);
+                }
+                Map<Integer, Float> rescored = ExactSearcher.searchLeaf(reader, knnQuery.getField(),
+                        new BitSetIterator(candidates, resultSize), knnQuery.getQueryVector(), knnQuery.getK(),
+                        knnEngine, spaceType);
+                if (rescored.isEmpty()) {
+                    return null;
+                }
+                return buildScorer(rescored);
+            }
+
+            // Distances are translated into scores in place
+            for (int i = 0; i < resultSize; i++) {
+                scores[i] = knnEngine.score(scores[i], spaceType);
+            }
+            return buildScorer(docIds, scores, resultSize);
+    }
+
+    /**
+     * Get the number of candidates to fetch from the native index. Rescored queries fetch k times the oversample
+     * factor, bounded by the maximum k a query accepts.
+     *
+     * @param knnQuery query being executed
+     * @return number of candidates to fetch
+     */
+    static int getCandidateK(KNNQuery knnQuery) {
+        if (knnQuery.getOversampleFactor() == null) {
+            return knnQuery.getK();
+        }
+        int candidateK = (int) Math.ceil(knnQuery.getK() * knnQuery.getOversampleFactor());
+        return Math.max(knnQuery.getK(), Math.min(candidateK, KNNQueryBuilder.K_MAX));
+    }
+
+    /**
+     * Find the native index file of the queried field in a segment, along with the engine and space type it was built
+     * with. For fields built from a model, these come from the model's metadata.
+     *
+     * @param reader segment reader
+     * @return engine file of the field, or null if the segment does not have a native index for the field
+     */
+    private EngineFileRegistry.EngineFile resolveEngineFile(SegmentReader reader) {
+        FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(knnQuery.getField());
+
+        if (fieldInfo == null) {
+            logger.debug("[KNN] Field info not found for {}:{}", knnQuery.getField(),
+                    reader.getSegmentName());
+            return null;
+        }
+
+        KNNEngine knnEngine;
+        SpaceType spaceType;
+        Integer efSearch = null;
+
+        // Check if a modelId exists. If so, the space type and engine will need to be picked up from the model's
+        // metadata.
+        String modelId = fieldInfo.getAttribute(MODEL_ID);
+        if (modelId != null) {
+            ModelMetadata modelMetadata = modelDao.getMetadata(modelId);
+            if (modelMetadata == null) {
+                throw new RuntimeException("Model \"" + modelId + "\" does not exist.");
+            }
+
+            knnEngine = modelMetadata.getKnnEngine();
+            spaceType = modelMetadata.getSpaceType();
+        } else {
+            String engineName = fieldInfo.attributes().getOrDefault(KNN_ENGINE, KNNEngine.NMSLIB.getName());
+            knnEngine = KNNEngine.getEngine(engineName);
+            String spaceTypeName = fieldInfo.attributes().getOrDefault(SPACE_TYPE, SpaceType.L2.getValue());
+            spaceType = SpaceType.getSpace(spaceTypeName);
+            efSearch = getBuildEfSearch(fieldInfo);
+        }
+
+        /*
+         * In case of compound file, extension would be <engine-extension> + c otherwise <engine-extension>
+         */
+        String engineExtension = reader.getSegmentInfo().info.getUseCompoundFile()
+                ? knnEngine.getExtension() + KNNConstants.COMPOUND_EXTENSION : knnEngine.getExtension();
+        String engineSuffix = knnQuery.getField() + engineExtension;
+        List<String> engineFiles = reader.getSegmentInfo().files().stream()
+                .filter(fileName -> fileName.endsWith(engineSuffix))
+                .collect(Collectors.toList());
+
+        if(engineFiles.isEmpty()) {
+            logger.debug("[KNN] No engine index found for field {} for segment {}",
+                    knnQuery.getField(), reader.getSegmentName());
+            return null;
+        }
+
+        String directory = ((FSDirectory) FilterDirectory.unwrap(reader.directory())).getDirectory().toString();
+        return new EngineFileRegistry.EngineFile(knnEngine, spaceType, PathUtils.get(directory, engineFiles.get(0)),
+                efSearch);
+    }
+
+    /**
+     * Reads the ef_search a field's native index was built with from the method parameters recorded in its field
+     * attributes. Only faiss fields record one; nmslib reads ef_search from the index settings at query time.
+     *
+     * @param fieldInfo field info of the knn field
+     * @return build time ef_search, or null if the field does not record one
+     */
+    private static Integer getBuildEfSearch(FieldInfo fieldInfo) {
+        String parametersString = fieldInfo.getAttribute(PARAMETERS);
+        if (parametersString == null) {
+            return null;
+        }
+
+        try (XContentParser parser = XContentFactory.xContent(XContentType.JSON).createParser(
+                NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, parametersString)) {
+            Object parameters = parser.map().get(PARAMETERS);
+            if (parameters instanceof Map) {
+                Object efSearch = ((Map<?, ?>) parameters).get(METHOD_PARAMETER_EF_SEARCH);
+                if (efSearch instanceof Number) {
+                    return ((Number) efSearch).intValue();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            // The value only tunes the exact search cost estimate, so a field it cannot be read from still searches
+            logger.debug("[KNN] Unable to read the parameters of field {}", fieldInfo.name, e);
+            return null;
+        }
+    }
+
+    /**
+     * Translate the threshold of a radial query into the distance convention of the engine that built the segment. A
+     * min_score is inverted through the space's score translation. A max_distance is measured in the field's space,
+     * which only differs from the engine's convention for faiss l2, where distances are squared.
+     *
+     * @param knnQuery radial query being executed
+     * @param knnEngine engine that built the segment's native index
+     * @param spaceType space type of the field
+     * @return radius to pass to the engine
+     */
+    static float getRadius(KNNQuery knnQuery, KNNEngine knnEngine, SpaceType spaceType) {
+        if (knnQuery.getMinScore() != null) {
+            float distance = spaceType.scoreToDistanceTranslation(knnQuery.getMinScore());
+            // faiss reports the inner product itself, not its negation
+            return knnEngine == KNNEngine.FAISS && spaceType == SpaceType.INNER_PRODUCT ? -distance : distance;
+        }
+
+        if (spaceType == SpaceType.INNER_PRODUCT) {
+            throw new IllegalArgumentException("max_distance is not supported for space type "
+                    + spaceType.getValue() + ". Use min_score instead.");
+        }
+        float maxDistance = knnQuery.getMaxDistance();
+        return knnEngine == KNNEngine.FAISS && spaceType == SpaceType.L2 ? maxDistance * maxDistance : maxDistance;
+    }
+
+    /**
+     * Gets the native index of a segment from the cache, loading it if needed. With asynchronous loading enabled, the
+     * load runs on the knn_load thread pool and this waits for it for at most the configured timeout.
+     *
+     * @param indexPath path of the segment's native index
+     * @param knnEngine engine that built the index
+     * @param spaceType space type of the field
+     * @return allocation of the index, or null if it is still loading
+     */
+    private NativeMemoryAllocation getIndexAllocation(Path indexPath, KNNEngine knnEngine, SpaceType spaceType) {
+        NativeMemoryEntryContext.IndexEntryContext indexEntryContext = new NativeMemoryEntryContext.IndexEntryContext(
+                indexPath.toString(),
+                NativeMemoryLoadStrategy.IndexLoadStrategy.getInstance(),
+                getParametersAtLoading(spaceType, knnEngine, knnQuery.getIndexName()),
+                knnQuery.getIndexName()
+        );
+
+        try {
+            if (!KNNSettings.isAsyncLoadEnabled()) {
+                return nativeMemoryCacheManager.get(indexEntryContext, true);
+            }
+
+            CompletableFuture<NativeMemoryAllocation> indexAllocation =
+                    nativeMemoryCacheManager.getAsync(indexEntryContext);
+            try {
+                return indexAllocation.get(KNNSettings.getAsyncLoadWaitTimeout().millis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return null;
+            }
+        } catch (ExecutionException e) {
+            GRAPH_QUERY_ERRORS.increment();
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs a search against the native index of a segment. A reference to the index is held for the duration of the
+     * search so that it cannot be freed underneath it. Acquiring it never waits for an eviction of the index.
+     *
+     * @param indexAllocation allocation of the segment's native index
+     * @param search function searching the index at the given memory address
+     * @param <T> type of the search results
+     * @return search results
+     */
+    private <T> T searchIndex(NativeMemoryAllocation indexAllocation, LongFunction<T> search) {
+        indexAllocation.readLock();
+
+        try {
+            if (indexAllocation.isClosed()) {
+                throw new RuntimeException("Index has already been closed");
+            }
+
+            return search.apply(indexAllocation.getMemoryAddress());
+        } catch (Exception e) {
+            GRAPH_QUERY_ERRORS.increment();
+            throw new RuntimeException(e);
+        } finally {
+            indexAllocation.readUnlock();
+        }
+    }
+
+    /**
+     * Scores the candidate documents of a segment exactly from their doc values instead of searching the graph. For a
+     * radial query, the results beyond the radius are dropped.
+     *
+     * @param reader segment reader
+     * @param filterBitSet documents matching the filter, or null to score every document of the segment
+     * @param filterCardinality number of documents set in filterBitSet. Ignored when filterBitSet is null.
+     * @param knnEngine engine that built the segment's native index
+     * @param spaceType space type of the field
+     * @return scorer over the results, or null if there are none
+     * @throws IOException if the doc values cannot be read
+     */
+    private Scorer exactSearch(SegmentReader reader, FixedBitSet filterBitSet, int filterCardinality,
+                               KNNEngine knnEngine, SpaceType spaceType) throws IOException {
+        DocIdSetIterator candidates = filterBitSet == null ? DocIdSetIterator.all(reader.maxDoc())
+                : new BitSetIterator(filterBitSet, filterCardinality);
+
+        Map<Integer, Float> scores;
+        if (knnQuery.isRadialSearch()) {
+            // Scores decrease as distances grow, so the radius translates into a minimum score
+            float minScore = knnEngine.score(getRadius(knnQuery, knnEngine, spaceType), spaceType);
+            int maxResults = Math.min(KNNQueryBuilder.MAX_RADIAL_RESULTS, reader.maxDoc());
+            scores = ExactSearcher.searchLeaf(reader, knnQuery.getField(), candidates, knnQuery.getQueryVector(),
+                    maxResults, knnEngine, spaceType);
+            scores.values().removeIf(score -> score < minScore);
+        } else {
+            scores = ExactSearcher.searchLeaf(reader, knnQuery.getField(), candidates, knnQuery.getQueryVector(),
+                    knnQuery.getK(), knnEngine, spaceType);
+        }
+
+        if (scores.isEmpty()) {
+            return null;
+        }
+        return buildScorer(scores);
+    }
+
+    private KNNScorer buildScorer(Map<Integer, Float> scoresByDocId) {
+        int[] docIds = new int[scoresByDocId.size()];
+        float[] scores = new float[scoresByDocId.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Float> entry : scoresByDocId.entrySet()) {
+            docIds[i] = entry.getKey();
+            scores[i] = entry.getValue();
+            i++;
+        }
+        return buildScorer(docIds, scores, i);
+    }
+
+    /**
+     * Sorts the matches by doc id and wraps them in a scorer. Each doc id and the bits of its score are packed into a
+     * single long so that the pairs can be sorted with a primitive sort. Doc ids are non-negative, so ordering the
+     * longs orders the doc ids.
+     *
+     * @param docIds ids of the matching documents, in any order. Sorted in place.
+     * @param scores scores of the matching documents, in the same order as docIds. Sorted in place.
+     * @param size number of matches held in docIds and scores
+     * @return scorer over the matches
+     */
+    private KNNScorer buildScorer(int[] docIds, float[] scores, int size) {
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ((long) docIds[i] << 32) | (Float.floatToRawIntBits(scores[i]) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < size; i++) {
+            docIds[i] = (int) (packed[i] >>> 32);
+            scores[i] = Float.intBitsToFloat((int) packed[i]);
+        }
+        return new KNNScorer(this, docIds, scores, size, boost);
+    }
+
+    /**
+     * Decides whether a filtered segment should be searched by scoring every matching document instead of traversing
+     * the graph. A graph search visits roughly max(k, ef_search) * log2(n) nodes, so when the filter matches fewer
+     * documents than that, brute force is cheaper and exact. The estimate is weighted by
+     * {@link KNNSettings#KNN_EXACT_SEARCH_COST_FACTOR} so it can be tuned.
+     *
+     * @param filterCardinality number of live documents matching the filter
+     * @param maxDoc number of documents in the segment
+     * @param engineFile engine file of the segment
+     * @return true if exact search should be used
+     */
+    private boolean isExactSearchPreferred(int filterCardinality, int maxDoc,
+                                           EngineFileRegistry.EngineFile engineFile) {
+        if (filterCardinality <= knnQuery.getK()) {
+            return true;
+        }
+
+        int efSearch = Math.max(knnQuery.getK(), getEffectiveEfSearch(engineFile));
+        double graphSearchCost = efSearch * (Math.log(maxDoc) / Math.log(2));
+        return filterCardinality <= KNNSettings.getExactSearchCostFactor() * graphSearchCost;
+    }
+
+    /**
+     * Resolves the ef_search the graph search of a segment would run with. An ef_search passed in the query's method
+     * parameters wins. Otherwise nmslib uses the index setting and faiss the value the field was built with.
+     *
+     * @param engineFile engine file of the segment
+     * @return effective ef_search, or k if the engine does not use one
+     */
+    private int getEffectiveEfSearch(EngineFileRegistry.EngineFile engineFile) {
+        Map<String, ?> methodParameters = knnQuery.getMethodParameters();
+        if (methodParameters != null && methodParameters.get(METHOD_PARAMETER_EF_SEARCH) instanceof Number) {
+            return ((Number) methodParameters.get(METHOD_PARAMETER_EF_SEARCH)).intValue();
+        }
+
+        if (engineFile.getKnnEngine() == KNNEngine.NMSLIB) {
+            return KNNSettings.getEfSearchParam(knnQuery.getIndexName());
+        }
+        return engineFile.getEfSearch() == null ? knnQuery.getK() : engineFile.getEfSearch();
+    }
+
+    /**
+     * Collects the live documents of the segment that match the filter.
+     *
+     * @param context segment to evaluate the filter against
+     * @return bit set of matching documents, or null if no document matches
+     * @throws IOException if the filter cannot be evaluated
+     */
+    private FixedBitSet getFilterBitSet(LeafReaderContext context) throws IOException {
+        Scorer filterScorer = filterWeight.scorer(context);
+        if (filterScorer == null) {
+            return null;
+        }
+
+        Bits liveDocs = context.reader().getLiveDocs();
+        FixedBitSet filterBitSet = new FixedBitSet(context.reader().maxDoc());
+        DocIdSetIterator filterIterator = filterScorer.iterator();
+        boolean matched = false;
+        for (int doc = filterIterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = filterIterator.nextDoc()) {
+            if (liveDocs == null || liveDocs.get(doc)) {
+                filterBitSet.set(doc);
+                matched = true;
+            }
+        }
+
+        return matched ? filterBitSet : null;
     }
 
     @Override
     public boolean isCacheable(LeafReaderContext context) {
-        return true;
+        return filterWeight == null || filterWeight.isCacheable(context);
     }
 
     public static float normalizeScore(float score) {
@@ -61,6 +61,14 @@ public enum SpaceType {
       }
       return -rawScore + 1;
     }
+
+    @Override
+    public float scoreToDistanceTranslation(float score) {
+      if (score > 1) {
+        return 1 - score;
+      }
+      return 1 / score - 1;
+    }
   },
   HAMMING_BIT("hammingbit") {
     @Override
@@ -79,6 +87,17 @@ public enum SpaceType {
 
   public abstract float scoreTranslation(float rawScore);
 
+  /**
+   * Inverse of {@link #scoreTranslation(float)}. Scores decrease as distances grow, so documents scoring at least the
+   * given score are the ones within the returned distance.
+   *
+   * @param score Lucene scaled score, greater than 0
+   * @return score returned from underlying library that translates to the given score
+   */
+  public float scoreToDistanceTranslation(float score) {
+    return 1 / score - 1;
+  }
+
   /**
    * Get space type name in engine
    *
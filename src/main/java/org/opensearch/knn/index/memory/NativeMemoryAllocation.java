@@ -17,8 +17,10 @@ import org.opensearch.knn.index.util.KNNEngine;
 import org.opensearch.watcher.FileWatcher;
 import org.opensearch.watcher.WatcherHandle;
 
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -78,23 +80,30 @@ public interface NativeMemoryAllocation {
     /**
      * Represents native indices loaded into memory. Because these indices are backed by files, they should be
      * freed when file is deleted.
+     *
+     * Index allocations are reference counted rather than locked. The cache holds one reference, released when the
+     * allocation is closed, and each search holds one while it runs. The index is freed once the last reference is
+     * released, so searches never wait for an eviction and evictions never wait for searches.
      */
     class IndexAllocation implements NativeMemoryAllocation {
 
-        private final ExecutorService executor;
+        private final Executor executor;
         private final long memoryAddress;
         private final int size;
-        private volatile boolean closed;
+        private final int mappedSize;
+        private final int fileSize;
+        private final AtomicBoolean closed;
+        private final AtomicBoolean freed;
+        private final AtomicInteger refCount;
         private final KNNEngine knnEngine;
         private final String indexPath;
         private final String openSearchIndexName;
-        private final ReadWriteLock readWriteLock;
         private final WatcherHandle<FileWatcher> watcherHandle;
 
         /**
          * Constructor
          *
-         * @param executorService Executor service used to close the allocation
+         * @param executorService Executor used to close the allocation
          * @param memoryAddress Pointer in memory to the index
          * @param size Size this index consumes in kilobytes
          * @param knnEngine KNNEngine associated with the index allocation
@@ -102,35 +111,91 @@ public interface NativeMemoryAllocation {
          * @param openSearchIndexName Name of OpenSearch index this index is associated with
          * @param watcherHandle Handle for watching index file
          */
-        IndexAllocation(ExecutorService executorService, long memoryAddress, int size, KNNEngine knnEngine,
+        IndexAllocation(Executor executorService, long memoryAddress, int size, KNNEngine knnEngine,
                         String indexPath, String openSearchIndexName, WatcherHandle<FileWatcher> watcherHandle) {
+            this(executorService, memoryAddress, size, 0, knnEngine, indexPath, openSearchIndexName, watcherHandle);
+        }
+
+        /**
+         * Constructor
+         *
+         * @param executorService Executor used to close the allocation
+         * @param memoryAddress Pointer in memory to the index
+         * @param size Size this index consumes in native memory in kilobytes
+         * @param mappedSize Size of the parts of this index that are memory mapped from its file in kilobytes
+         * @param knnEngine KNNEngine associated with the index allocation
+         * @param indexPath File path to index
+         * @param openSearchIndexName Name of OpenSearch index this index is associated with
+         * @param watcherHandle Handle for watching index file
+         */
+        IndexAllocation(Executor executorService, long memoryAddress, int size, int mappedSize,
+                        KNNEngine knnEngine, String indexPath, String openSearchIndexName,
+                        WatcherHandle<FileWatcher> watcherHandle) {
+            this(executorService, memoryAddress, size, mappedSize, size + mappedSize, knnEngine, indexPath,
+                    openSearchIndexName, watcherHandle);
+        }
+
+        /**
+         * Constructor
+         *
+         * @param executorService Executor used to close the allocation
+         * @param memoryAddress Pointer in memory to the index
+         * @param size Size this index consumes in native memory in kilobytes
+         * @param mappedSize Size of the parts of this index that are memory mapped from its file in kilobytes
+         * @param fileSize Size of the file the index was loaded from in kilobytes
+         * @param knnEngine KNNEngine associated with the index allocation
+         * @param indexPath File path to index
+         * @param openSearchIndexName Name of OpenSearch index this index is associated with
+         * @param watcherHandle Handle for watching index file
+         */
+        IndexAllocation(Executor executorService, long memoryAddress, int size, int mappedSize, int fileSize,
+                        KNNEngine knnEngine, String indexPath, String openSearchIndexName,
+                        WatcherHandle<FileWatcher> watcherHandle) {
             this.executor = executorService;
-            this.closed = false;
+            this.closed = new AtomicBoolean(false);
+            this.freed = new AtomicBoolean(false);
+            // The reference held by the cache
+            this.refCount = new AtomicInteger(1);
             this.knnEngine = knnEngine;
             this.indexPath = indexPath;
             this.openSearchIndexName = openSearchIndexName;
             this.memoryAddress = memoryAddress;
-            this.readWriteLock = new ReentrantReadWriteLock();
             this.size = size;
+            this.mappedSize = mappedSize;
+            this.fileSize = fileSize;
             this.watcherHandle = watcherHandle;
         }
 
+        /**
+         * Releases the reference held by the cache. The index is freed once the searches running on it release theirs.
+         */
         @Override
         public void close() {
-            executor.execute(() -> {
-                writeLock();
-                cleanup();
-                writeUnlock();
-            });
+            if (closed.compareAndSet(false, true)) {
+                decRef();
+            }
         }
 
-        private void cleanup() {
-            if (this.closed) {
-                return;
-            }
+        /**
+         * Acquire a reference to the index, which keeps it from being freed until the reference is released with
+         * {@link #decRef()}. A reference can still be acquired once the allocation is closed, in which case
+         * {@link #isClosed()} returns true and the index must not be used.
+         */
+        public void incRef() {
+            refCount.incrementAndGet();
+        }
 
-            this.closed = true;
+        /**
+         * Release a reference to the index. Releasing the last reference frees the index on the executor, so that
+         * the thread of the last search does not pay for it.
+         */
+        public void decRef() {
+            if (refCount.decrementAndGet() == 0 && freed.compareAndSet(false, true)) {
+                executor.execute(this::cleanup);
+            }
+        }
 
+        private void cleanup() {
             watcherHandle.stop();
 
             // memoryAddress is sometimes initialized to 0. If this is ever the case, freeing will surely fail.
@@ -141,7 +206,7 @@ public interface NativeMemoryAllocation {
 
         @Override
         public boolean isClosed() {
-            return closed;
+            return closed.get();
         }
 
         @Override
@@ -150,40 +215,58 @@ public interface NativeMemoryAllocation {
         }
 
         /**
-         * The read lock will be obtained in the
+         * Acquires a reference to the index, see {@link #incRef()}. It is obtained in the
          * {@link org.opensearch.knn.index.KNNWeight#scorer(LeafReaderContext context) scorer} when a native index needs
-         * to be queried.
+         * to be queried, and never blocks.
          */
         @Override
         public void readLock() {
-            readWriteLock.readLock().lock();
+            incRef();
         }
 
         /**
-         * The write lock will be obtained in the
-         * {@link NativeMemoryCacheManager NativeMemoryManager's} onRemoval function when the Index Allocation is
-         * evicted from the cache. This prevents memory from being deallocated when it is being actively searched.
+         * Index allocations are freed once their last reference is released rather than under a write lock, so this
+         * does nothing.
          */
         @Override
-        public void writeLock() {
-            readWriteLock.writeLock().lock();
-        }
+        public void writeLock() {}
 
+        /**
+         * Releases a reference to the index, see {@link #decRef()}.
+         */
         @Override
         public void readUnlock() {
-            readWriteLock.readLock().unlock();
+            decRef();
         }
 
         @Override
-        public void writeUnlock() {
-            readWriteLock.writeLock().unlock();
-        }
+        public void writeUnlock() {}
 
         @Override
         public int getSizeInKB() {
             return size;
         }
 
+        /**
+         * Get the size of the parts of the index that are memory mapped from its file rather than held in native
+         * memory. They are backed by the OS page cache, so they are not included in {@link #getSizeInKB()}.
+         *
+         * @return size of the memory mapped parts of the index in kilobytes
+         */
+        public int getMappedSizeInKB() {
+            return mappedSize;
+        }
+
+        /**
+         * Get the size of the file the index was loaded from. The engine's overhead is the memory the index takes
+         * beyond its file, which is {@link #getSizeInKB()} plus {@link #getMappedSizeInKB()} minus the file size.
+         *
+         * @return size of the index file in kilobytes
+         */
+        public int getFileSizeInKB() {
+            return fileSize;
+        }
+
         /**
          * Getter for k-NN Engine associated with this index allocation.
          *
@@ -217,7 +300,7 @@ public interface NativeMemoryAllocation {
      */
     class TrainingDataAllocation implements NativeMemoryAllocation {
 
-        private final ExecutorService executor;
+        private final Executor executor;
 
         private volatile boolean closed;
         private long memoryAddress;
@@ -235,7 +318,7 @@ public interface NativeMemoryAllocation {
          * @param memoryAddress pointer in memory to the training data allocation
          * @param size amount memory needed for allocation in kilobytes
          */
-        TrainingDataAllocation(ExecutorService executor, long memoryAddress, int size) {
+        TrainingDataAllocation(Executor executor, long memoryAddress, int size) {
             this.executor = executor;
             this.closed = false;
             this.memoryAddress = memoryAddress;
@@ -376,12 +459,12 @@ public interface NativeMemoryAllocation {
      */
     class AnonymousAllocation implements NativeMemoryAllocation {
 
-        private final ExecutorService executor;
+        private final Executor executor;
         private volatile boolean closed;
         private final int size;
         private final ReadWriteLock readWriteLock;
 
-        AnonymousAllocation(ExecutorService executor, int size) {
+        AnonymousAllocation(Executor executor, int size) {
             this.executor = executor;
             this.closed = false;
             this.size = size;
@@ -0,0 +1,653 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index.memory;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.opensearch.knn.common.exception.OutOfNativeMemoryException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of native memory allocations, weighted by their size in kilobytes and evicted in least recently used order.
+ *
+ * A hit only reads a concurrent map and records the access time of the entry, so queries never contend on a lock.
+ * Loads are single flight: the first thread to miss a key loads it outside of any lock, and the other threads asking
+ * for the same key wait for that load. Eviction happens on the thread that completed a load, under a lock that is
+ * only taken on that path.
+ *
+ * An eviction policy can put allocations in groups whose total weight is capped, and can give them priorities:
+ * allocations of lower priority are evicted first, in least recently used order within a priority. A load only evicts
+ * allocations of its own priority or lower, and is rejected if that does not free enough memory.
+ *
+ * Every allocation leaving the cache, whether evicted, expired or invalidated, is passed to the removal listener on
+ * the thread that removed it. An allocation whose entry was invalidated while it was loading is closed directly.
+ */
+class NativeMemoryCache {
+
+    private static final int CLEAN_UP_READ_INTERVAL = 64;
+
+    private final Map<String, Node> map = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong weight = new AtomicLong();
+    private final Map<String, Long> groupWeights = new ConcurrentHashMap<>();
+
+    private final long maxWeight;
+    private final long expireAfterAccessNanos;
+    private final LoadListener loadListener;
+    private final RemovalListener removalListener;
+    private final EvictionListener evictionListener;
+    private final EvictionPolicy evictionPolicy;
+    private final LongSupplier ticker;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadExceptionCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    // Set once the cache is replaced, so that loads that were already running release what they load
+    private volatile boolean closed;
+
+    /**
+     * Listener notified of every allocation entering the cache. It is called before the allocation can be removed, so
+     * every call is matched by at most one later call to the removal listener.
+     */
+    interface LoadListener {
+        void onLoad(String key, NativeMemoryAllocation allocation);
+    }
+
+    /**
+     * Listener notified of every allocation leaving the cache
+     */
+    interface RemovalListener {
+        void onRemoval(String key, NativeMemoryAllocation allocation, RemovalCause cause);
+    }
+
+    /**
+     * Listener notified each time a load is done making room for its allocation, whether it had to evict or not
+     */
+    interface EvictionListener {
+        /**
+         * @param maxWeightReached true if the load evicted allocations to stay within the maximum weight of the cache,
+         *                         or was rejected because it could not. Evictions that only enforce a group quota do
+         *                         not count.
+         */
+        void onEvictionDone(boolean maxWeightReached);
+    }
+
+    /**
+     * Decides the group and the priority of each allocation when it is loaded
+     */
+    interface EvictionPolicy {
+        EvictionPolicy NONE = new EvictionPolicy() {
+            @Override
+            public String getGroup(NativeMemoryAllocation allocation) {
+                return null;
+            }
+
+            @Override
+            public long getGroupQuota(String group) {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public int getPriority(NativeMemoryAllocation allocation) {
+                return 0;
+            }
+        };
+
+        /**
+         * @param allocation allocation being loaded
+         * @return group of the allocation, or null if it does not belong to any
+         */
+        String getGroup(NativeMemoryAllocation allocation);
+
+        /**
+         * @param group group of allocations
+         * @return maximum total size of the allocations of the group in kilobytes
+         */
+        long getGroupQuota(String group);
+
+        /**
+         * @param allocation allocation being loaded
+         * @return priority of the allocation. Allocations of lower priority are evicted first.
+         */
+        int getPriority(NativeMemoryAllocation allocation);
+    }
+
+    /**
+     * @param maxWeight maximum total size of the cached allocations in kilobytes
+     * @param expireAfterAccessNanos time after which an entry that has not been accessed expires, or 0 to never expire
+     * @param loadListener listener notified of every allocation entering the cache
+     * @param removalListener listener notified of every allocation leaving the cache
+     * @param evictionPolicy decides the group quotas and the priorities of the allocations
+     */
+    NativeMemoryCache(long maxWeight, long expireAfterAccessNanos, LoadListener loadListener,
+                      RemovalListener removalListener, EvictionPolicy evictionPolicy) {
+        this(maxWeight, expireAfterAccessNanos, loadListener, removalListener, maxWeightReached -> {}, evictionPolicy,
+                System::nanoTime);
+    }
+
+    /**
+     * @param maxWeight maximum total size of the cached allocations in kilobytes
+     * @param expireAfterAccessNanos time after which an entry that has not been accessed expires, or 0 to never expire
+     * @param loadListener listener notified of every allocation entering the cache
+     * @param removalListener listener notified of every allocation leaving the cache
+     * @param evictionListener listener notified each time a load is done making room for its allocation
+     * @param evictionPolicy decides the group quotas and the priorities of the allocations
+     */
+    NativeMemoryCache(long maxWeight, long expireAfterAccessNanos, LoadListener loadListener,
+                      RemovalListener removalListener, EvictionListener evictionListener,
+                      EvictionPolicy evictionPolicy) {
+        this(maxWeight, expireAfterAccessNanos, loadListener, removalListener, evictionListener, evictionPolicy,
+                System::nanoTime);
+    }
+
+    NativeMemoryCache(long maxWeight, long expireAfterAccessNanos, RemovalListener removalListener) {
+        this(maxWeight, expireAfterAccessNanos, removalListener, System::nanoTime);
+    }
+
+    NativeMemoryCache(long maxWeight, long expireAfterAccessNanos, RemovalListener removalListener,
+                      LongSupplier ticker) {
+        this(maxWeight, expireAfterAccessNanos, (key, allocation) -> {}, removalListener, EvictionPolicy.NONE, ticker);
+    }
+
+    NativeMemoryCache(long maxWeight, long expireAfterAccessNanos, LoadListener loadListener,
+                      RemovalListener removalListener, EvictionPolicy evictionPolicy, LongSupplier ticker) {
+        this(maxWeight, expireAfterAccessNanos, loadListener, removalListener, maxWeightReached -> {}, evictionPolicy,
+                ticker);
+    }
+
+    NativeMemoryCache(long maxWeight, long expireAfterAccessNanos, LoadListener loadListener,
+                      RemovalListener removalListener, EvictionListener evictionListener,
+                      EvictionPolicy evictionPolicy, LongSupplier ticker) {
+        this.maxWeight = maxWeight;
+        this.expireAfterAccessNanos = expireAfterAccessNanos;
+        this.loadListener = loadListener;
+        this.removalListener = removalListener;
+        this.evictionListener = evictionListener;
+        this.evictionPolicy = evictionPolicy;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Get the allocation for a key, loading it if it is not cached. Exceptions thrown by the loader are wrapped the
+     * same way Guava's cache wraps them.
+     *
+     * @param key key of the allocation
+     * @param loader loads the allocation on a miss
+     * @return allocation for the key
+     * @throws ExecutionException if the loader threw a checked exception
+     * @throws OutOfNativeMemoryException if the allocation does not fit without evicting allocations of higher priority
+     */
+    NativeMemoryAllocation get(String key, Callable<? extends NativeMemoryAllocation> loader)
+            throws ExecutionException {
+        while (true) {
+            long now = ticker.getAsLong();
+            Node node = getNode(key, now);
+            if (node != null) {
+                hitCount.increment();
+                NativeMemoryAllocation value = node.value;
+                if (value == null) {
+                    return waitForLoad(node);
+                }
+                // Like Guava, sweep expired entries on a small fraction of the reads as well as on every miss
+                if (expireAfterAccessNanos > 0 && ThreadLocalRandom.current().nextInt(CLEAN_UP_READ_INTERVAL) == 0) {
+                    cleanUp();
+                }
+                return value;
+            }
+
+            Node loadingNode = new Node(key);
+            if (map.putIfAbsent(key, loadingNode) != null) {
+                // Another thread started loading the key first
+                continue;
+            }
+            missCount.increment();
+            cleanUp();
+            return load(loadingNode, loader);
+        }
+    }
+
+    /**
+     * Get the allocation for a key without blocking. If it is not cached, it is loaded on the given executor. Callers
+     * asking for a key that is already loading share the same future.
+     *
+     * @param key key of the allocation
+     * @param loader loads the allocation on a miss
+     * @param executor executor the load runs on
+     * @return future completed with the allocation, or with the exception thrown by the loader
+     */
+    CompletableFuture<NativeMemoryAllocation> getAsync(String key, Callable<? extends NativeMemoryAllocation> loader,
+                                                       Executor executor) {
+        while (true) {
+            Node node = getNode(key, ticker.getAsLong());
+            if (node != null) {
+                hitCount.increment();
+                NativeMemoryAllocation value = node.value;
+                return value == null ? node.future : CompletableFuture.completedFuture(value);
+            }
+
+            Node loadingNode = new Node(key);
+            if (map.putIfAbsent(key, loadingNode) != null) {
+                continue;
+            }
+            missCount.increment();
+            cleanUp();
+            try {
+                executor.execute(() -> {
+                    try {
+                        load(loadingNode, loader);
+                    } catch (Throwable t) {
+                        // The failure is reported to the callers through the future
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                map.remove(key, loadingNode);
+                loadingNode.future.completeExceptionally(e);
+            }
+            return loadingNode.future;
+        }
+    }
+
+    /**
+     * @param key key of the allocation
+     * @return true if an allocation is cached or being loaded for the key
+     */
+    boolean containsKey(String key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * Remove the allocation for a key
+     *
+     * @param key key of the allocation
+     */
+    void invalidate(String key) {
+        Node node = map.get(key);
+        if (node != null) {
+            remove(node, RemovalCause.EXPLICIT);
+        }
+    }
+
+    /**
+     * Remove all allocations
+     */
+    void invalidateAll() {
+        for (Node node : map.values()) {
+            remove(node, RemovalCause.EXPLICIT);
+        }
+    }
+
+    /**
+     * Remove all allocations, and release the allocations of the loads that are still running or that start later as
+     * soon as they are loaded, instead of caching them. Used once the cache was replaced by a new one, which callers
+     * holding on to this one may still load into.
+     */
+    void close() {
+        closed = true;
+        invalidateAll();
+    }
+
+    /**
+     * Remove the entries that expired
+     */
+    void cleanUp() {
+        if (expireAfterAccessNanos <= 0) {
+            return;
+        }
+        long now = ticker.getAsLong();
+        for (Node node : map.values()) {
+            if (node.value != null && isExpired(node, now)) {
+                remove(node, RemovalCause.EXPIRED);
+            }
+        }
+    }
+
+    /**
+     * @return snapshot of the loaded allocations, keyed by their key
+     */
+    Map<String, NativeMemoryAllocation> asMap() {
+        Map<String, NativeMemoryAllocation> snapshot = new HashMap<>();
+        for (Node node : map.values()) {
+            NativeMemoryAllocation value = node.value;
+            if (value != null) {
+                snapshot.put(node.key, value);
+            }
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * @return number of times each loaded allocation was accessed since it was loaded, keyed by their key
+     */
+    Map<String, Long> getAccessCounts() {
+        Map<String, Long> accessCounts = new HashMap<>();
+        for (Node node : map.values()) {
+            if (node.value != null) {
+                accessCounts.put(node.key, node.accessCount.sum());
+            }
+        }
+        return accessCounts;
+    }
+
+    /**
+     * @return total size of the cached allocations in kilobytes
+     */
+    long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * @param priority priority of an allocation about to be loaded
+     * @return total size in kilobytes of the cached allocations that a load of the given priority cannot evict
+     */
+    long getWeightAbovePriority(int priority) {
+        long weightAbovePriority = 0;
+        for (Node node : map.values()) {
+            if (node.value != null && node.priority > priority) {
+                weightAbovePriority += node.weight;
+            }
+        }
+        return weightAbovePriority;
+    }
+
+    /**
+     * @param group group of allocations
+     * @return total size of the cached allocations of the group in kilobytes
+     */
+    long getGroupWeight(String group) {
+        return group == null ? 0L : groupWeights.getOrDefault(group, 0L);
+    }
+
+    /**
+     * @return statistics of the cache
+     */
+    CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadExceptionCount.sum(),
+                totalLoadTime.sum(), evictionCount.sum());
+    }
+
+    /**
+     * Get the node of a key if it is loading, or loaded and not expired. An expired node is removed and its access
+     * time is refreshed otherwise.
+     */
+    private Node getNode(String key, long now) {
+        Node node = map.get(key);
+        if (node == null || node.value == null) {
+            return node;
+        }
+        if (isExpired(node, now)) {
+            remove(node, RemovalCause.EXPIRED);
+            return null;
+        }
+        node.accessTime = now;
+        node.accessCount.increment();
+        return node;
+    }
+
+    private NativeMemoryAllocation load(Node node, Callable<? extends NativeMemoryAllocation> loader)
+            throws ExecutionException {
+        long start = System.nanoTime();
+        NativeMemoryAllocation value;
+        try {
+            value = loader.call();
+            if (value == null) {
+                throw new NullPointerException("Loader returned null for key " + node.key);
+            }
+        } catch (Throwable t) {
+            loadExceptionCount.increment();
+            map.remove(node.key, node);
+            node.future.completeExceptionally(t);
+            throw wrap(t);
+        }
+        totalLoadTime.add(System.nanoTime() - start);
+        loadSuccessCount.increment();
+
+        String group = evictionPolicy.getGroup(value);
+        int priority = evictionPolicy.getPriority(value);
+        boolean invalidated;
+        synchronized (node) {
+            invalidated = node.removed || closed;
+            if (!invalidated) {
+                node.weight = value.getSizeInKB();
+                node.group = group;
+                node.priority = priority;
+                node.accessTime = ticker.getAsLong();
+                node.value = value;
+                weight.addAndGet(node.weight);
+                addGroupWeight(group, node.weight);
+                loadListener.onLoad(node.key, value);
+            }
+        }
+
+        if (invalidated) {
+            map.remove(node.key, node);
+            node.future.complete(value);
+            // Nothing else can reach the allocation, so it has to be released here
+            value.close();
+            return value;
+        }
+
+        Eviction eviction = evictIfNeeded(node);
+        if (eviction == Eviction.REJECTED) {
+            // The allocation is released through the removal listener, as it was reported to the load listener
+            remove(node, RemovalCause.SIZE);
+            evictionListener.onEvictionDone(true);
+            OutOfNativeMemoryException e = new OutOfNativeMemoryException(
+                    "Entry cannot be loaded into cache because it would have to evict entries of higher priority. " +
+                            "Entry size: " + node.weight + " KB " +
+                            "Current Cache Size: " + weight.get() + " KB " +
+                            "Max Cache Size: " + maxWeight + " KB");
+            node.future.completeExceptionally(e);
+            throw e;
+        }
+        evictionListener.onEvictionDone(eviction == Eviction.MAX_WEIGHT);
+        node.future.complete(value);
+        return value;
+    }
+
+    private NativeMemoryAllocation waitForLoad(Node node) throws ExecutionException {
+        try {
+            return Uninterruptibles.getUninterruptibly(node.future);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OutOfNativeMemoryException) {
+                throw (OutOfNativeMemoryException) e.getCause();
+            }
+            throw wrap(e.getCause());
+        }
+    }
+
+    /**
+     * Evict allocations until the group of the loaded node is within its quota and the cache is within its maximum
+     * weight. Within its group, the loaded node evicts in least recently used order. Across the cache, it only evicts
+     * allocations whose priority is at most its own. The evictions are planned before any allocation is removed, so a
+     * load that has to be rejected evicts nothing. The loaded node itself is never evicted here, as the thread that
+     * loaded it is about to use it, so an allocation larger than the cache on its own is still admitted.
+     *
+     * @param loaded node that was just loaded
+     * @return what the load had to do to make room for its allocation
+     */
+    private Eviction evictIfNeeded(Node loaded) {
+        long groupQuota = loaded.group == null ? Long.MAX_VALUE : evictionPolicy.getGroupQuota(loaded.group);
+        if (weight.get() <= maxWeight && getGroupWeight(loaded.group) <= groupQuota) {
+            return Eviction.NONE;
+        }
+
+        evictionLock.lock();
+        try {
+            // Hits keep updating the access times while the candidates are sorted, so they are sorted on a snapshot
+            List<Candidate> candidates = new ArrayList<>(map.size());
+            for (Node node : map.values()) {
+                if (node.value != null && node != loaded) {
+                    candidates.add(new Candidate(node));
+                }
+            }
+
+            List<Candidate> evictions = new ArrayList<>();
+            long weightExcess = weight.get() - maxWeight;
+            long groupExcess = getGroupWeight(loaded.group) - groupQuota;
+            if (groupExcess > 0) {
+                candidates.sort(Comparator.comparingLong(candidate -> candidate.accessTime));
+                for (Candidate candidate : candidates) {
+                    if (groupExcess <= 0) {
+                        break;
+                    }
+                    if (loaded.group.equals(candidate.group)) {
+                        candidate.evicted = true;
+                        evictions.add(candidate);
+                        groupExcess -= candidate.weight;
+                        weightExcess -= candidate.weight;
+                    }
+                }
+            }
+
+            boolean maxWeightReached = weightExcess > 0;
+            if (maxWeightReached) {
+                candidates.sort(Comparator.<Candidate>comparingInt(candidate -> candidate.priority)
+                        .thenComparingLong(candidate -> candidate.accessTime));
+                for (Candidate candidate : candidates) {
+                    if (weightExcess <= 0) {
+                        break;
+                    }
+                    if (candidate.evicted) {
+                        continue;
+                    }
+                    if (candidate.priority > loaded.priority) {
+                        return Eviction.REJECTED;
+                    }
+                    evictions.add(candidate);
+                    weightExcess -= candidate.weight;
+                }
+            }
+
+            for (Candidate candidate : evictions) {
+                remove(candidate.node, RemovalCause.SIZE);
+            }
+            return maxWeightReached ? Eviction.MAX_WEIGHT : Eviction.NONE;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void remove(Node node, RemovalCause cause) {
+        if (!map.remove(node.key, node)) {
+            return;
+        }
+
+        NativeMemoryAllocation value;
+        synchronized (node) {
+            node.removed = true;
+            value = node.value;
+            if (value != null) {
+                weight.addAndGet(-node.weight);
+                addGroupWeight(node.group, -node.weight);
+            }
+        }
+
+        // An entry still loading is closed by its loader
+        if (value == null) {
+            return;
+        }
+        if (cause == RemovalCause.SIZE) {
+            evictionCount.increment();
+        }
+        removalListener.onRemoval(node.key, value, cause);
+    }
+
+    private void addGroupWeight(String group, long delta) {
+        if (group == null) {
+            return;
+        }
+        groupWeights.compute(group, (key, groupWeight) -> {
+            long newWeight = (groupWeight == null ? 0L : groupWeight) + delta;
+            return newWeight == 0 ? null : newWeight;
+        });
+    }
+
+    private boolean isExpired(Node node, long now) {
+        return expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos;
+    }
+
+    private static ExecutionException wrap(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw new UncheckedExecutionException(t);
+        }
+        if (t instanceof Error) {
+            throw new ExecutionError((Error) t);
+        }
+        return new ExecutionException(t);
+    }
+
+    /**
+     * What a load had to do to make room for its allocation
+     */
+    private enum Eviction {
+        // The cache has room for the allocation, possibly after evicting to enforce the quota of its group
+        NONE,
+        // Allocations were evicted to keep the cache within its maximum weight
+        MAX_WEIGHT,
+        // Only allocations of higher priority are left to evict, so the allocation is not admitted
+        REJECTED
+    }
+
+    /**
+     * Node considered for eviction, with the access time and priority it had when the eviction started
+     */
+    private static final class Candidate {
+        private final Node node;
+        private final long accessTime;
+        private final int priority;
+        private final int weight;
+        private final String group;
+        private boolean evicted;
+
+        private Candidate(Node node) {
+            this.node = node;
+            this.accessTime = node.accessTime;
+            this.priority = node.priority;
+            this.weight = node.weight;
+            this.group = node.group;
+        }
+    }
+
+    private static final class Node {
+        private final String key;
+        private final CompletableFuture<NativeMemoryAllocation> future = new CompletableFuture<>();
+        private final LongAdder accessCount = new LongAdder();
+        private volatile NativeMemoryAllocation value;
+        private volatile long accessTime;
+        private int weight;
+        private String group;
+        private int priority;
+        private boolean removed;
+
+        private Node(String key) {
+            this.key = key;
+        }
+    }
+}
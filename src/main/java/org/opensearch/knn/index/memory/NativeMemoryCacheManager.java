@@ -11,11 +11,8 @@
 
 package org.opensearch.knn.index.memory;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheStats;
 import com.google.common.cache.RemovalCause;
-import com.google.common.cache.RemovalNotification;
 import org.apache.commons.lang.Validate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -23,30 +20,72 @@ import org.opensearch.common.unit.TimeValue;
 import org.opensearch.knn.common.exception.OutOfNativeMemoryException;
 import org.opensearch.knn.index.KNNSettings;
 import org.opensearch.knn.plugin.stats.StatNames;
+import org.opensearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.opensearch.knn.common.KNNConstants.CACHE_PRIORITY_HIGH;
+import static org.opensearch.knn.common.KNNConstants.CACHE_PRIORITY_LOW;
+import static org.opensearch.knn.common.KNNConstants.CACHE_PRIORITY_NORMAL;
+import static org.opensearch.knn.common.KNNConstants.LOAD_THREAD_POOL;
 
 /**
- * Manages native memory allocations made by JNI.
+ * Manages native memory allocations made by JNI. Graphs served to queries and allocations made for training are
+ * cached in separate pools, limited by knn.memory.serving.limit and knn.memory.training.limit, so that a training job
+ * can never evict the graphs and cause them to be reloaded.
  */
 public class NativeMemoryCacheManager implements Closeable {
 
     public static String GRAPH_COUNT = "graph_count";
+    public static String GRAPH_MEMORY_QUOTA = "graph_memory_quota";
+    public static String GRAPH_MEMORY_QUOTA_USAGE_PERCENTAGE = "graph_memory_quota_usage_percentage";
+    public static String GRAPH_MEMORY_OVERHEAD = "graph_memory_overhead";
+
+    // Cache priorities from the first evicted to the last evicted
+    private static final List<String> CACHE_PRIORITIES = Arrays.asList(CACHE_PRIORITY_LOW, CACHE_PRIORITY_NORMAL,
+            CACHE_PRIORITY_HIGH);
 
     private static Logger logger = LogManager.getLogger(NativeMemoryCacheManager.class);
     private static NativeMemoryCacheManager INSTANCE;
+    private static ThreadPool threadPool;
 
-    private Cache<String, NativeMemoryAllocation> cache;
+    // Replaced when the cache is rebuilt, while other threads keep reading them
+    private volatile NativeMemoryCache cache;
+    private volatile NativeMemoryCache trainingCache;
     private ExecutorService executor;
     private AtomicBoolean cacheCapacityReached;
+    private volatile Consumer<Boolean> cacheCapacityListener = reached -> {};
     private long maxWeight;
+    private long servingMaxWeight;
+    private long trainingMaxWeight;
+
+    // Running totals updated as allocations enter and leave the cache, so that size lookups do not scan the entries
+    private final AtomicLong indicesSizeInKB = new AtomicLong();
+    private final AtomicLong trainingSizeInKB = new AtomicLong();
+    private final AtomicLong mappedSizeInKB = new AtomicLong();
+    private final Map<String, IndexUsage> indexUsages = new ConcurrentHashMap<>();
+    private final Map<String, EngineUsage> engineUsages = new ConcurrentHashMap<>();
+
+    // Thrash detection: when each graph was last evicted for space, and when graphs were loaded again shortly after
+    private final Map<String, Long> sizeEvictionTimes = new ConcurrentHashMap<>();
+    private final Deque<Long> recentReloadTimes = new ConcurrentLinkedDeque<>();
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final AtomicLong rejectedLoadCount = new AtomicLong();
 
     NativeMemoryCacheManager() {
         this.executor = Executors.newSingleThreadExecutor();
@@ -67,26 +106,48 @@ public class NativeMemoryCacheManager implements Closeable {
         return INSTANCE;
     }
 
-    private void initialize() {
-        CacheBuilder<String, NativeMemoryAllocation> cacheBuilder = CacheBuilder.newBuilder()
-                .recordStats()
-                .concurrencyLevel(1)
-                .removalListener(this::onRemoval);
+    /**
+     * Sets the thread pool whose knn_load executor runs asynchronous loads
+     *
+     * @param threadPool thread pool holding the executor graphs are loaded on
+     */
+    public static void initialize(ThreadPool threadPool) {
+        NativeMemoryCacheManager.threadPool = threadPool;
+    }
 
+    private void initialize() {
+        // A Guava cache can only enforce a maximum weight per segment, and a single graph can be larger than a
+        // segment's share. NativeMemoryCache enforces the weight across all entries without locking on hits.
+        maxWeight = Long.MAX_VALUE;
+        servingMaxWeight = Long.MAX_VALUE;
+        trainingMaxWeight = Long.MAX_VALUE;
         if(KNNSettings.state().getSettingValue(KNNSettings.KNN_MEMORY_CIRCUIT_BREAKER_ENABLED)) {
             maxWeight = KNNSettings.getCircuitBreakerLimit().getKb();
-            cacheBuilder.maximumWeight(maxWeight).weigher((k, v) -> v.getSizeInKB());
+            servingMaxWeight = Math.min(maxWeight, KNNSettings.getServingMemoryLimit().getKb());
+
+            // The pools share the circuit breaker limit, so the training pool only gets what the serving pool leaves
+            long trainingLimit = KNNSettings.getTrainingMemoryLimit().getKb();
+            trainingMaxWeight = Math.min(maxWeight - servingMaxWeight, trainingLimit);
+            if (trainingMaxWeight < trainingLimit) {
+                logger.warn("[KNN] {} and {} exceed {}. Limiting the training pool to {} KB.",
+                        KNNSettings.KNN_MEMORY_SERVING_LIMIT, KNNSettings.KNN_MEMORY_TRAINING_LIMIT,
+                        KNNSettings.KNN_MEMORY_CIRCUIT_BREAKER_LIMIT, trainingMaxWeight);
+            }
         }
 
+        long expireAfterAccessNanos = 0;
         if(KNNSettings.state().getSettingValue(KNNSettings.KNN_CACHE_ITEM_EXPIRY_ENABLED)) {
             long expiryTime = ((TimeValue) KNNSettings.state()
                     .getSettingValue(KNNSettings.KNN_CACHE_ITEM_EXPIRY_TIME_MINUTES)).getMinutes();
-            cacheBuilder.expireAfterAccess(expiryTime, TimeUnit.MINUTES);
+            expireAfterAccessNanos = TimeUnit.MINUTES.toNanos(expiryTime);
         }
 
-        cacheCapacityReached = new AtomicBoolean(false);
+        setCacheCapacityReached(false);
 
-        cache = cacheBuilder.build();
+        cache = new NativeMemoryCache(servingMaxWeight, expireAfterAccessNanos, this::onLoad, this::onRemoval,
+                this::onEvictionDone, new IndexEvictionPolicy());
+        trainingCache = new NativeMemoryCache(trainingMaxWeight, expireAfterAccessNanos, this::onLoad,
+                this::onTrainingRemoval, NativeMemoryCache.EvictionPolicy.NONE);
     }
 
     /**
@@ -95,12 +156,16 @@ public class NativeMemoryCacheManager implements Closeable {
     public synchronized void rebuildCache() {
         logger.info("KNN Cache rebuilding.");
 
-        //TODO: Does this really need to be executed with an executor? Also, does invalidateAll really need to be
-        // called?
         executor.execute(() -> {
-            cache.invalidateAll();
-            initialize(); }
-        );
+            NativeMemoryCache oldCache = cache;
+            NativeMemoryCache oldTrainingCache = trainingCache;
+            initialize();
+            // The old pools are only closed once the new ones are in place, so that nothing loads into them
+            // afterwards without being released. Closing them releases their allocations through the removal
+            // listeners, which keeps the usage counters in line with the new pools.
+            oldCache.close();
+            oldTrainingCache.close();
+        });
     }
 
     @Override
@@ -109,12 +174,21 @@ public class NativeMemoryCacheManager implements Closeable {
     }
 
     /**
-     * Getter for current cache size in Kilobytes.
+     * Getter for current cache size in Kilobytes, across the serving and training pools.
      *
      * @return current size of the cache
      */
     public long getCacheSizeInKilobytes() {
-        return cache.asMap().values().stream().mapToLong(NativeMemoryAllocation::getSizeInKB).sum();
+        return cache.getWeight() + trainingCache.getWeight();
+    }
+
+    /**
+     * Getter for current size of the serving pool in Kilobytes.
+     *
+     * @return current size of the serving pool
+     */
+    public long getServingCacheSizeInKilobytes() {
+        return cache.getWeight();
     }
 
     /**
@@ -132,10 +206,7 @@ public class NativeMemoryCacheManager implements Closeable {
      * @return current size of the cache
      */
     public long getIndicesSizeInKilobytes() {
-        return cache.asMap().values().stream()
-                .filter(nativeMemoryAllocation -> nativeMemoryAllocation instanceof NativeMemoryAllocation.IndexAllocation)
-                .mapToLong(NativeMemoryAllocation::getSizeInKB)
-                .sum();
+        return indicesSizeInKB.get();
     }
 
     /**
@@ -147,6 +218,16 @@ public class NativeMemoryCacheManager implements Closeable {
         return getSizeAsPercentage(getIndicesSizeInKilobytes());
     }
 
+    /**
+     * Getter for the size of the memory mapped parts of the indices in the cache in Kilobytes. They are backed by the
+     * OS page cache, so they are not included in the cache size.
+     *
+     * @return size of the memory mapped parts of the indices
+     */
+    public long getMappedSizeInKilobytes() {
+        return mappedSizeInKB.get();
+    }
+
     /**
      * Returns the current size of an index in the cache in KiloBytes.
      *
@@ -155,11 +236,8 @@ public class NativeMemoryCacheManager implements Closeable {
      */
     public Long getIndexSizeInKilobytes(final String indexName) {
         Validate.notNull(indexName, "Index name cannot be null");
-        return cache.asMap().values().stream()
-                .filter(nativeMemoryAllocation -> nativeMemoryAllocation instanceof NativeMemoryAllocation.IndexAllocation)
-                .filter(indexAllocation -> indexName.equals(((NativeMemoryAllocation.IndexAllocation) indexAllocation).getOpenSearchIndexName()))
-                .mapToLong(NativeMemoryAllocation::getSizeInKB)
-                .sum();
+        IndexUsage indexUsage = indexUsages.get(indexName);
+        return indexUsage == null ? 0L : indexUsage.sizeInKB;
     }
 
     /**
@@ -180,12 +258,7 @@ public class NativeMemoryCacheManager implements Closeable {
      */
     public long getTrainingSizeInKilobytes() {
         // Currently, all allocations that are not index allocations will be for training.
-        return cache.asMap().values().stream()
-                .filter(nativeMemoryAllocation ->
-                        nativeMemoryAllocation instanceof NativeMemoryAllocation.TrainingDataAllocation ||
-                                nativeMemoryAllocation instanceof NativeMemoryAllocation.AnonymousAllocation)
-                .mapToLong(NativeMemoryAllocation::getSizeInKB)
-                .sum();
+        return trainingSizeInKB.get();
     }
 
     /**
@@ -206,6 +279,24 @@ public class NativeMemoryCacheManager implements Closeable {
         return maxWeight;
     }
 
+    /**
+     * Getter for maximum weight of the serving pool.
+     *
+     * @return maximum serving pool weight
+     */
+    public long getServingMaxCacheSizeInKilobytes() {
+        return servingMaxWeight;
+    }
+
+    /**
+     * Getter for maximum weight of the training pool.
+     *
+     * @return maximum training pool weight
+     */
+    public long getTrainingMaxCacheSizeInKilobytes() {
+        return trainingMaxWeight;
+    }
+
     /**
      * Get graph count for a particular index
      *
@@ -214,16 +305,23 @@ public class NativeMemoryCacheManager implements Closeable {
      */
     public int getIndexGraphCount(String indexName) {
         Validate.notNull(indexName, "Index name cannot be null");
-        return Long.valueOf(cache.asMap().values().stream()
-                .filter(nativeMemoryAllocation ->
-                        nativeMemoryAllocation instanceof NativeMemoryAllocation.IndexAllocation)
-                .filter(indexAllocation -> indexName.equals(((NativeMemoryAllocation.IndexAllocation) indexAllocation)
-                        .getOpenSearchIndexName()))
-                .count()).intValue();
+        IndexUsage indexUsage = indexUsages.get(indexName);
+        return indexUsage == null ? 0 : indexUsage.graphCount;
+    }
+
+    /**
+     * Get how often each entry in the cache was accessed since it was loaded
+     *
+     * @return number of accesses of each entry, keyed by the entry's key
+     */
+    public Map<String, Long> getAccessCounts() {
+        Map<String, Long> accessCounts = new HashMap<>(cache.getAccessCounts());
+        accessCounts.putAll(trainingCache.getAccessCounts());
+        return accessCounts;
     }
 
     /**
-     * Getter for cache stats.
+     * Getter for cache stats of the serving pool.
      *
      * @return cache stats
      */
@@ -232,7 +330,70 @@ public class NativeMemoryCacheManager implements Closeable {
     }
 
     /**
-     * Retrieves NativeMemoryAllocation associated with the nativeMemoryEntryContext.
+     * Getter for cache stats of the training pool.
+     *
+     * @return training cache stats
+     */
+    public CacheStats getTrainingCacheStats() {
+        return trainingCache.stats();
+    }
+
+    /**
+     * Getter for the number of allocations evicted from the training pool.
+     *
+     * @return training eviction count
+     */
+    public long getTrainingEvictionCount() {
+        return trainingCache.stats().evictionCount();
+    }
+
+    /**
+     * Getter for the number of graphs loaded again within knn.cache.thrash.window of being evicted for space.
+     *
+     * @return reload count
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * Getter for the number of reloads during the last knn.cache.thrash.window.
+     *
+     * @return recent reload count
+     */
+    public long getRecentReloadCount() {
+        long windowStart = System.nanoTime() - KNNSettings.getCacheThrashWindow().nanos();
+        Long reloadTime;
+        while ((reloadTime = recentReloadTimes.peekFirst()) != null && reloadTime - windowStart < 0) {
+            recentReloadTimes.removeFirstOccurrence(reloadTime);
+        }
+        return recentReloadTimes.size();
+    }
+
+    /**
+     * Getter for the number of loads rejected because the cache was thrashing.
+     *
+     * @return rejected load count
+     */
+    public long getRejectedLoadCount() {
+        return rejectedLoadCount.get();
+    }
+
+    /**
+     * Returns whether the cache is thrashing, which is when more graphs were reloaded during the last
+     * knn.cache.thrash.window than knn.cache.thrash.reload_threshold. It never is when the threshold is 0.
+     *
+     * @return true if the cache is thrashing
+     */
+    public boolean isCacheThrashing() {
+        int threshold = KNNSettings.getCacheThrashReloadThreshold();
+        return threshold > 0 && getRecentReloadCount() >= threshold;
+    }
+
+    /**
+     * Retrieves NativeMemoryAllocation associated with the nativeMemoryEntryContext. Training data and anonymous
+     * allocations are cached in the training pool, and all other allocations in the serving pool. While the cache is
+     * thrashing, loads into the serving pool that would evict other entries are rejected.
      *
      * @param nativeMemoryEntryContext Context from which to get NativeMemoryAllocation
      * @param isAbleToTriggerEviction Determines if getting this allocation can evict other entries
@@ -241,18 +402,55 @@ public class NativeMemoryCacheManager implements Closeable {
      */
     public NativeMemoryAllocation get(NativeMemoryEntryContext<?> nativeMemoryEntryContext,
                                       boolean isAbleToTriggerEviction) throws ExecutionException {
+        NativeMemoryCache pool = getPool(nativeMemoryEntryContext);
+        long poolMaxWeight = pool == trainingCache ? trainingMaxWeight : servingMaxWeight;
+        checkIndexAdmission(nativeMemoryEntryContext, pool, poolMaxWeight);
+        checkAdmission(nativeMemoryEntryContext, pool, poolMaxWeight);
+
         if (!isAbleToTriggerEviction &&
-                !cache.asMap().containsKey(nativeMemoryEntryContext.getKey()) &&
-                maxWeight - getCacheSizeInKilobytes() - nativeMemoryEntryContext.calculateSizeInKB() <= 0
+                !pool.containsKey(nativeMemoryEntryContext.getKey()) &&
+                poolMaxWeight - pool.getWeight() - nativeMemoryEntryContext.calculateSizeInKB() <= 0
         ) {
             throw new OutOfNativeMemoryException(
                     "Entry cannot be loaded into cache because it would not fit. " +
                             "Entry size: " + nativeMemoryEntryContext.calculateSizeInKB() + " KB " +
-                            "Current Cache Size: " + getCacheSizeInKilobytes() + " KB " +
-                            "Max Cache Size: " + maxWeight);
+                            "Current Cache Size: " + pool.getWeight() + " KB " +
+                            "Max Cache Size: " + poolMaxWeight);
         }
 
-        return cache.get(nativeMemoryEntryContext.getKey(), nativeMemoryEntryContext::load);
+        return pool.get(nativeMemoryEntryContext.getKey(), nativeMemoryEntryContext::load);
+    }
+
+    /**
+     * Retrieves NativeMemoryAllocation associated with the nativeMemoryEntryContext without blocking. If it is not in
+     * the cache, it is loaded on the knn_load thread pool, and the returned future completes once it is loaded. Calls
+     * for an entry that is already loading share the same load. Loads are able to trigger eviction, unless the cache
+     * is thrashing.
+     *
+     * @param nativeMemoryEntryContext Context from which to get NativeMemoryAllocation
+     * @return future completed with the NativeMemoryAllocation associated with nativeMemoryEntryContext
+     * @throws OutOfNativeMemoryException if the cache is thrashing and the entry would evict other entries
+     */
+    public CompletableFuture<NativeMemoryAllocation> getAsync(NativeMemoryEntryContext<?> nativeMemoryEntryContext) {
+        NativeMemoryCache pool = getPool(nativeMemoryEntryContext);
+        long poolMaxWeight = pool == trainingCache ? trainingMaxWeight : servingMaxWeight;
+        checkIndexAdmission(nativeMemoryEntryContext, pool, poolMaxWeight);
+        checkAdmission(nativeMemoryEntryContext, pool, poolMaxWeight);
+
+        // Without a thread pool, such as in unit tests, the load runs on the calling thread
+        return pool.getAsync(nativeMemoryEntryContext.getKey(),
+                nativeMemoryEntryContext::load,
+                threadPool == null ? Runnable::run : threadPool.executor(LOAD_THREAD_POOL));
+    }
+
+    /**
+     * Returns whether an entry is in the cache or being loaded into it.
+     *
+     * @param key Identifier of the entry
+     * @return true if the entry is in the cache or being loaded into it
+     */
+    public boolean contains(String key) {
+        return cache.containsKey(key) || trainingCache.containsKey(key);
     }
 
     /**
@@ -262,6 +460,7 @@ public class NativeMemoryCacheManager implements Closeable {
      */
     public void invalidate(String key) {
         cache.invalidate(key);
+        trainingCache.invalidate(key);
     }
 
     /**
@@ -269,6 +468,7 @@ public class NativeMemoryCacheManager implements Closeable {
      */
     public void invalidateAll() {
         cache.invalidateAll();
+        trainingCache.invalidateAll();
     }
 
     /**
@@ -281,12 +481,34 @@ public class NativeMemoryCacheManager implements Closeable {
     }
 
     /**
-     * Sets cache capacity reached
+     * Sets cache capacity reached. The cache capacity listener is notified if the value changes.
      *
      * @param value Boolean value to set cache Capacity Reached to
      */
     public void setCacheCapacityReached(Boolean value) {
-        cacheCapacityReached.set(value);
+        if (cacheCapacityReached.getAndSet(value) != value) {
+            cacheCapacityListener.accept(value);
+        }
+    }
+
+    /**
+     * Sets the listener notified whenever the cache capacity is reached or freed again. It is called on the thread
+     * that loaded or removed the allocation causing the change, so it must not block.
+     *
+     * @param cacheCapacityListener listener called with whether the cache capacity is reached
+     */
+    public void setCacheCapacityListener(Consumer<Boolean> cacheCapacityListener) {
+        this.cacheCapacityListener = cacheCapacityListener;
+    }
+
+    /**
+     * Returns the size the serving pool has to go back down to, once its capacity was reached, for the capacity to no
+     * longer be considered reached. It is knn.circuit_breaker.unset.percentage of the serving pool limit.
+     *
+     * @return size below which the cache capacity is freed again in Kilobytes
+     */
+    public long getCacheCapacityUnsetSizeInKilobytes() {
+        return (long) ((KNNSettings.getCircuitBreakerUnsetPercentage() / 100) * servingMaxWeight);
     }
 
     /**
@@ -296,38 +518,237 @@ public class NativeMemoryCacheManager implements Closeable {
      */
     public Map<String, Map<String, Object>> getIndicesCacheStats() {
         Map<String, Map<String, Object>> statValues = new HashMap<>();
-        NativeMemoryAllocation.IndexAllocation indexAllocation;
 
-        for (Map.Entry<String, NativeMemoryAllocation> entry : cache.asMap().entrySet()) {
+        for (Map.Entry<String, IndexUsage> entry : indexUsages.entrySet()) {
+            IndexUsage indexUsage = entry.getValue();
+            Map<String, Object> indexMap = new HashMap<>();
+            indexMap.put(GRAPH_COUNT, indexUsage.graphCount);
+            indexMap.put(StatNames.GRAPH_MEMORY_USAGE.getName(), indexUsage.sizeInKB);
+            indexMap.put(StatNames.GRAPH_MEMORY_USAGE_PERCENTAGE.getName(), getSizeAsPercentage(indexUsage.sizeInKB));
+            long quota = getIndexMemoryQuotaInKilobytes(entry.getKey());
+            if (quota != Long.MAX_VALUE) {
+                indexMap.put(GRAPH_MEMORY_QUOTA, quota);
+                indexMap.put(GRAPH_MEMORY_QUOTA_USAGE_PERCENTAGE,
+                        quota == 0 ? 0.0F : 100 * indexUsage.sizeInKB / (float) quota);
+            }
+            statValues.put(entry.getKey(), indexMap);
+        }
+
+        return statValues;
+    }
 
-            if (entry.getValue() instanceof NativeMemoryAllocation.IndexAllocation) {
-                indexAllocation = (NativeMemoryAllocation.IndexAllocation) entry.getValue();
-                String indexName = indexAllocation.getOpenSearchIndexName();
 
-                Map<String, Object> indexMap = statValues.computeIfAbsent(indexName, name -> new HashMap<>());
-                indexMap.computeIfAbsent(GRAPH_COUNT, key -> getIndexGraphCount(indexName));
-                indexMap.computeIfAbsent(StatNames.GRAPH_MEMORY_USAGE.getName(), key ->
-                        getIndexSizeInKilobytes(indexName));
-                indexMap.computeIfAbsent(StatNames.GRAPH_MEMORY_USAGE_PERCENTAGE.getName(), key ->
-                        getIndexSizeAsPercentage(indexName));
-            }
+    /**
+     * Get the stats of the engines of the indices currently loaded into the cache. The overhead of an engine is the
+     * memory its graphs take beyond the size of their files, which is negative when they take less.
+     *
+     * @return Map containing the engines of the indices in the cache and their stats
+     */
+    public Map<String, Map<String, Object>> getEnginesCacheStats() {
+        Map<String, Map<String, Object>> statValues = new HashMap<>();
+
+        for (Map.Entry<String, EngineUsage> entry : engineUsages.entrySet()) {
+            EngineUsage engineUsage = entry.getValue();
+            Map<String, Object> engineMap = new HashMap<>();
+            engineMap.put(GRAPH_COUNT, engineUsage.graphCount);
+            engineMap.put(StatNames.GRAPH_MEMORY_USAGE.getName(), engineUsage.sizeInKB);
+            engineMap.put(GRAPH_MEMORY_OVERHEAD, engineUsage.overheadInKB);
+            statValues.put(entry.getKey(), engineMap);
         }
 
         return statValues;
     }
 
+    /**
+     * Returns the memory quota of an index in the cache in Kilobytes.
+     *
+     * @param indexName name of the index
+     * @return memory quota of the index, or Long.MAX_VALUE if it has none
+     */
+    public long getIndexMemoryQuotaInKilobytes(final String indexName) {
+        Validate.notNull(indexName, "Index name cannot be null");
+        long quota = KNNSettings.getMemoryQuota(indexName).getKb();
+        return quota < 0 ? Long.MAX_VALUE : quota;
+    }
 
-    private void onRemoval(RemovalNotification<String, NativeMemoryAllocation> removalNotification) {
-        NativeMemoryAllocation nativeMemoryAllocation = removalNotification.getValue();
+    private void onLoad(String key, NativeMemoryAllocation nativeMemoryAllocation) {
+        updateUsage(nativeMemoryAllocation, 1);
+
+        Long evictionTime = sizeEvictionTimes.remove(key);
+        if (evictionTime != null) {
+            long now = System.nanoTime();
+            if (now - evictionTime <= KNNSettings.getCacheThrashWindow().nanos()) {
+                reloadCount.incrementAndGet();
+                recentReloadTimes.addLast(now);
+                logger.debug("[KNN] Cache reloaded key {} {} ms after evicting it", key,
+                        TimeUnit.NANOSECONDS.toMillis(now - evictionTime));
+            }
+        }
+    }
+
+    private void onRemoval(String key, NativeMemoryAllocation nativeMemoryAllocation, RemovalCause cause) {
+        updateUsage(nativeMemoryAllocation, -1);
         nativeMemoryAllocation.close();
 
-        if (RemovalCause.SIZE == removalNotification.getCause()) {
-            KNNSettings.state().updateCircuitBreakerSettings(true);
+        // Evictions for size are part of a load, whose eviction round checks the capacity once it is done
+        if (RemovalCause.SIZE == cause) {
+            recordSizeEviction(key);
+        } else {
+            updateCacheCapacityReached(false);
+        }
+
+        logger.debug("[KNN] Cache evicted. Key {}, Reason: {}", key, cause);
+    }
+
+    private void onEvictionDone(boolean maxWeightReached) {
+        // Evictions that only enforce the memory quota of an index do not mean that the node is out of memory
+        updateCacheCapacityReached(maxWeightReached);
+    }
+
+    private void updateCacheCapacityReached(boolean maxWeightReached) {
+        // The capacity is reached once a load had to evict to stay within the pool limit, and only freed again once
+        // the pool went back down to the unset size, so that the circuit breaker does not flap around the limit
+        boolean belowUnsetSize = getServingCacheSizeInKilobytes() <= getCacheCapacityUnsetSizeInKilobytes();
+        if (maxWeightReached && !belowUnsetSize) {
             setCacheCapacityReached(true);
+        } else if (belowUnsetSize && isCacheCapacityReached()) {
+            setCacheCapacityReached(false);
+        }
+    }
+
+    private void onTrainingRemoval(String key, NativeMemoryAllocation nativeMemoryAllocation, RemovalCause cause) {
+        // Running out of training memory fails the training job, but does not affect search, so it does not reach
+        // the cache capacity
+        updateUsage(nativeMemoryAllocation, -1);
+        nativeMemoryAllocation.close();
+        logger.debug("[KNN] Training cache evicted. Key {}, Reason: {}", key, cause);
+    }
+
+    private void recordSizeEviction(String key) {
+        long now = System.nanoTime();
+        long windowNanos = KNNSettings.getCacheThrashWindow().nanos();
+        // Evictions older than the window can no longer lead to a reload, so only the recent ones are kept
+        sizeEvictionTimes.values().removeIf(evictionTime -> now - evictionTime > windowNanos);
+        if (windowNanos > 0) {
+            sizeEvictionTimes.put(key, now);
+        }
+    }
+
+    /**
+     * Rejects loading an index entry that the cache would reject once loaded, before it is read from disk: an entry
+     * larger than the memory quota of its index, or one that only fits by evicting entries of higher priority.
+     */
+    private void checkIndexAdmission(NativeMemoryEntryContext<?> nativeMemoryEntryContext, NativeMemoryCache pool,
+                                     long poolMaxWeight) {
+        if (!(nativeMemoryEntryContext instanceof NativeMemoryEntryContext.IndexEntryContext) ||
+                pool.containsKey(nativeMemoryEntryContext.getKey())) {
+            return;
+        }
+
+        String indexName = ((NativeMemoryEntryContext.IndexEntryContext) nativeMemoryEntryContext)
+                .getOpenSearchIndexName();
+        long sizeInKB = nativeMemoryEntryContext.calculateSizeInKB();
+        long quota = indexName == null ? Long.MAX_VALUE : getIndexMemoryQuotaInKilobytes(indexName);
+        if (sizeInKB > quota) {
+            throw new OutOfNativeMemoryException(
+                    "Entry cannot be loaded into cache because it is larger than the memory quota of its index. " +
+                            "Entry size: " + sizeInKB + " KB " +
+                            "Index: " + indexName + " " +
+                            "Index Memory Quota: " + quota + " KB");
         }
 
-        logger.debug("[KNN] Cache evicted. Key {}, Reason: {}", removalNotification.getKey(),
-                removalNotification.getCause());
+        long weightAbovePriority = pool.getWeightAbovePriority(getPriority(indexName));
+        if (weightAbovePriority > 0 && weightAbovePriority + sizeInKB > poolMaxWeight) {
+            throw new OutOfNativeMemoryException(
+                    "Entry cannot be loaded into cache because it would have to evict entries of higher priority. " +
+                            "Entry size: " + sizeInKB + " KB " +
+                            "Index: " + indexName + " " +
+                            "Size of Entries of Higher Priority: " + weightAbovePriority + " KB " +
+                            "Max Cache Size: " + poolMaxWeight + " KB");
+        }
+    }
+
+    /**
+     * Rejects loading an entry into the serving pool while the cache is thrashing, if it would evict other entries.
+     * Evicting hot graphs to make room would only make them be loaded again shortly after.
+     */
+    private void checkAdmission(NativeMemoryEntryContext<?> nativeMemoryEntryContext, NativeMemoryCache pool,
+                                long poolMaxWeight) {
+        if (pool != cache || pool.containsKey(nativeMemoryEntryContext.getKey()) || !isCacheThrashing()) {
+            return;
+        }
+
+        long sizeInKB = nativeMemoryEntryContext.calculateSizeInKB();
+        if (pool.getWeight() + sizeInKB <= poolMaxWeight) {
+            return;
+        }
+
+        rejectedLoadCount.incrementAndGet();
+        throw new OutOfNativeMemoryException(
+                "Entry cannot be loaded into cache because the cache is thrashing and it would evict other entries. " +
+                        "Reloads in the last " + KNNSettings.getCacheThrashWindow() + ": " +
+                        getRecentReloadCount() + " " +
+                        "Entry size: " + sizeInKB + " KB " +
+                        "Current Cache Size: " + pool.getWeight() + " KB " +
+                        "Max Cache Size: " + poolMaxWeight + " KB. " +
+                        "Increase " + KNNSettings.KNN_MEMORY_SERVING_LIMIT + " or search fewer graphs.");
+    }
+
+    /**
+     * @param indexName name of an OpenSearch index, or null for allocations that do not belong to one
+     * @return eviction priority of the allocations of the index
+     */
+    private static int getPriority(String indexName) {
+        if (indexName == null) {
+            return CACHE_PRIORITIES.indexOf(CACHE_PRIORITY_NORMAL);
+        }
+        return CACHE_PRIORITIES.indexOf(KNNSettings.getCachePriority(indexName));
+    }
+
+    private NativeMemoryCache getPool(NativeMemoryEntryContext<?> nativeMemoryEntryContext) {
+        if (nativeMemoryEntryContext instanceof NativeMemoryEntryContext.TrainingDataEntryContext ||
+                nativeMemoryEntryContext instanceof NativeMemoryEntryContext.AnonymousEntryContext) {
+            return trainingCache;
+        }
+        return cache;
+    }
+
+    private void updateUsage(NativeMemoryAllocation nativeMemoryAllocation, int delta) {
+        long sizeInKB = (long) delta * nativeMemoryAllocation.getSizeInKB();
+        if (!(nativeMemoryAllocation instanceof NativeMemoryAllocation.IndexAllocation)) {
+            trainingSizeInKB.addAndGet(sizeInKB);
+            return;
+        }
+
+        NativeMemoryAllocation.IndexAllocation indexAllocation =
+                (NativeMemoryAllocation.IndexAllocation) nativeMemoryAllocation;
+        indicesSizeInKB.addAndGet(sizeInKB);
+        mappedSizeInKB.addAndGet((long) delta * indexAllocation.getMappedSizeInKB());
+        if (indexAllocation.getKnnEngine() != null) {
+            long overheadInKB = (long) delta * (indexAllocation.getSizeInKB() + indexAllocation.getMappedSizeInKB()
+                    - indexAllocation.getFileSizeInKB());
+            engineUsages.compute(indexAllocation.getKnnEngine().getName(), (name, engineUsage) -> {
+                int graphCount = (engineUsage == null ? 0 : engineUsage.graphCount) + delta;
+                if (graphCount <= 0) {
+                    return null;
+                }
+                return new EngineUsage(graphCount, (engineUsage == null ? 0L : engineUsage.sizeInKB) + sizeInKB,
+                        (engineUsage == null ? 0L : engineUsage.overheadInKB) + overheadInKB);
+            });
+        }
+
+        // Allocations that do not belong to an OpenSearch index are only accounted for in the totals
+        String indexName = indexAllocation.getOpenSearchIndexName();
+        if (indexName == null) {
+            return;
+        }
+        indexUsages.compute(indexName, (name, indexUsage) -> {
+            int graphCount = (indexUsage == null ? 0 : indexUsage.graphCount) + delta;
+            if (graphCount <= 0) {
+                return null;
+            }
+            return new IndexUsage(graphCount, (indexUsage == null ? 0L : indexUsage.sizeInKB) + sizeInKB);
+        });
     }
 
     private Float getSizeAsPercentage(long size) {
@@ -337,4 +758,61 @@ public class NativeMemoryCacheManager implements Closeable {
         }
         return 100 * size / (float) cbLimit;
     }
+
+    /**
+     * Groups index allocations by their OpenSearch index, capped by the index's memory quota, and ranks them by the
+     * index's cache priority. Other allocations are not grouped and have the normal priority.
+     */
+    private class IndexEvictionPolicy implements NativeMemoryCache.EvictionPolicy {
+
+        @Override
+        public String getGroup(NativeMemoryAllocation allocation) {
+            if (!(allocation instanceof NativeMemoryAllocation.IndexAllocation)) {
+                return null;
+            }
+            return ((NativeMemoryAllocation.IndexAllocation) allocation).getOpenSearchIndexName();
+        }
+
+        @Override
+        public long getGroupQuota(String group) {
+            return getIndexMemoryQuotaInKilobytes(group);
+        }
+
+        @Override
+        public int getPriority(NativeMemoryAllocation allocation) {
+            if (!(allocation instanceof NativeMemoryAllocation.IndexAllocation)) {
+                return CACHE_PRIORITIES.indexOf(CACHE_PRIORITY_NORMAL);
+            }
+            return NativeMemoryCacheManager.getPriority(
+                    ((NativeMemoryAllocation.IndexAllocation) allocation).getOpenSearchIndexName());
+        }
+    }
+
+    /**
+     * Number of graphs and total size of the allocations of an OpenSearch index in the cache
+     */
+    private static final class IndexUsage {
+        private final int graphCount;
+        private final long sizeInKB;
+
+        private IndexUsage(int graphCount, long sizeInKB) {
+            this.graphCount = graphCount;
+            this.sizeInKB = sizeInKB;
+        }
+    }
+
+    /**
+     * Number of graphs, total size and total overhead of the allocations of an engine in the cache
+     */
+    private static final class EngineUsage {
+        private final int graphCount;
+        private final long sizeInKB;
+        private final long overheadInKB;
+
+        private EngineUsage(int graphCount, long sizeInKB, long overheadInKB) {
+            this.graphCount = graphCount;
+            this.sizeInKB = sizeInKB;
+            this.overheadInKB = overheadInKB;
+        }
+    }
 }
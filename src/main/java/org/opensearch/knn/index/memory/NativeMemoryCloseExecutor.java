@@ -0,0 +1,102 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index.memory;
+
+import org.opensearch.threadpool.ThreadPool;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.opensearch.knn.common.KNNConstants.CLOSE_THREAD_POOL;
+
+/**
+ * Executor every native memory allocation is closed and freed on. Closing an allocation waits for the searches
+ * holding it to release it, so closes run on the knn_close thread pool, where a slow close does not hold back the
+ * others. Without a thread pool, such as in unit tests, or once it is shut down, closes run on a single background
+ * thread instead.
+ */
+public class NativeMemoryCloseExecutor implements Executor {
+
+    private static NativeMemoryCloseExecutor INSTANCE;
+    private static ThreadPool threadPool;
+
+    private final AtomicLong pendingCloseCount = new AtomicLong();
+    private final LongAdder completedCloseCount = new LongAdder();
+    private ExecutorService fallbackExecutor;
+
+    NativeMemoryCloseExecutor() {}
+
+    /**
+     * Make sure we just have one instance of the executor
+     *
+     * @return NativeMemoryCloseExecutor instance
+     */
+    public static synchronized NativeMemoryCloseExecutor getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new NativeMemoryCloseExecutor();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @param threadPool thread pool holding the executor allocations are closed on
+     */
+    public static void initialize(ThreadPool threadPool) {
+        NativeMemoryCloseExecutor.threadPool = threadPool;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        pendingCloseCount.incrementAndGet();
+        Runnable close = () -> {
+            try {
+                command.run();
+            } finally {
+                pendingCloseCount.decrementAndGet();
+                completedCloseCount.increment();
+            }
+        };
+
+        if (threadPool != null) {
+            try {
+                threadPool.executor(CLOSE_THREAD_POOL).execute(close);
+                return;
+            } catch (RejectedExecutionException e) {
+                // The node is shutting down, and the allocation still has to be freed
+            }
+        }
+        getFallbackExecutor().execute(close);
+    }
+
+    /**
+     * @return number of allocations waiting to be closed or being closed
+     */
+    public long getPendingCloseCount() {
+        return pendingCloseCount.get();
+    }
+
+    /**
+     * @return number of allocations closed
+     */
+    public long getCompletedCloseCount() {
+        return completedCloseCount.sum();
+    }
+
+    private synchronized ExecutorService getFallbackExecutor() {
+        if (fallbackExecutor == null) {
+            fallbackExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "knn-close-fallback");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return fallbackExecutor;
+    }
+}
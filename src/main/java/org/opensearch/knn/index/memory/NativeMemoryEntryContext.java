@@ -81,6 +81,12 @@ public abstract class NativeMemoryEntryContext<T extends NativeMemoryAllocation>
             this.parameters = parameters;
         }
 
+        /**
+         * Size of the index file. When the index is loaded in mmap mode, this is an upper bound of its size in native
+         * memory, as the mapped parts are only known once loaded and are then excluded from the allocation's size.
+         *
+         * @return size of the index file in kilobytes
+         */
         @Override
         public Integer calculateSizeInKB() {
             return IndexSizeCalculator.INSTANCE.apply(this);
@@ -25,8 +25,8 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+
+import static org.opensearch.knn.common.KNNConstants.BYTES_PER_KILOBYTES;
 
 /**
  * Responsible for loading entries from native memory.
@@ -46,7 +46,6 @@ public interface NativeMemoryLoadStrategy<T extends NativeMemoryAllocation, U ex
 
         private static IndexLoadStrategy INSTANCE;
 
-        private final ExecutorService executor;
         private final FileChangesListener indexFileOnDeleteListener;
         private ResourceWatcherService resourceWatcherService;
 
@@ -72,7 +71,6 @@ public interface NativeMemoryLoadStrategy<T extends NativeMemoryAllocation, U ex
         }
 
         private IndexLoadStrategy() {
-            executor = Executors.newSingleThreadExecutor();
             indexFileOnDeleteListener = new FileChangesListener() {
                 @Override
                 public void onFileDeleted(Path indexFilePath) {
@@ -94,10 +92,22 @@ public interface NativeMemoryLoadStrategy<T extends NativeMemoryAllocation, U ex
                     knnEngine.getName());
             final WatcherHandle<FileWatcher> watcherHandle = resourceWatcherService.add(fileWatcher);
 
+            // Mapped parts of the index live in the page cache, so they are not charged to the cache. The rest is
+            // charged what the engine reports the index holds in memory, which can differ a lot from the file size,
+            // or the rest of the file when the engine cannot report it.
+            int fileSizeInKB = indexEntryContext.calculateSizeInKB();
+            int mappedSizeInKB = (int) (JNIService.getMappedSizeInBytes(memoryAddress, knnEngine.getName())
+                    / BYTES_PER_KILOBYTES);
+            long indexSizeInBytes = JNIService.getIndexSizeInBytes(memoryAddress, knnEngine.getName());
+            int sizeInKB = indexSizeInBytes < 0 ? Math.max(0, fileSizeInKB - mappedSizeInKB)
+                    : (int) (indexSizeInBytes / BYTES_PER_KILOBYTES);
+
             return new NativeMemoryAllocation.IndexAllocation(
-                    executor,
+                    NativeMemoryCloseExecutor.getInstance(),
                     memoryAddress,
-                    indexEntryContext.calculateSizeInKB(),
+                    sizeInKB,
+                    mappedSizeInKB,
+                    fileSizeInKB,
                     knnEngine,
                     indexPath.toString(),
                     indexEntryContext.getOpenSearchIndexName(),
@@ -106,7 +116,7 @@ public interface NativeMemoryLoadStrategy<T extends NativeMemoryAllocation, U ex
 
         @Override
         public void close() {
-            executor.shutdown();
+            // Allocations are closed on the shared NativeMemoryCloseExecutor, which this strategy does not own
         }
     }
 
@@ -115,7 +125,6 @@ public interface NativeMemoryLoadStrategy<T extends NativeMemoryAllocation, U ex
 
         private static TrainingLoadStrategy INSTANCE;
 
-        private final ExecutorService executor;
         private VectorReader vectorReader;
 
         /**
@@ -139,16 +148,15 @@ public interface NativeMemoryLoadStrategy<T extends NativeMemoryAllocation, U ex
             getInstance().vectorReader = vectorReader;
         }
 
-        private TrainingLoadStrategy() {
-            executor = Executors.newSingleThreadExecutor();
-        }
+        private TrainingLoadStrategy() {}
 
         @Override
         public NativeMemoryAllocation.TrainingDataAllocation load(NativeMemoryEntryContext.TrainingDataEntryContext
                                                                                   nativeMemoryEntryContext) {
             // Generate an empty training data allocation with the appropriate size
             NativeMemoryAllocation.TrainingDataAllocation trainingDataAllocation = new NativeMemoryAllocation
-                    .TrainingDataAllocation(executor, 0, nativeMemoryEntryContext.calculateSizeInKB());
+                    .TrainingDataAllocation(NativeMemoryCloseExecutor.getInstance(), 0,
+                    nativeMemoryEntryContext.calculateSizeInKB());
 
             // Start loading all training data. Once the data has been loaded, release the lock
             TrainingDataConsumer trainingDataConsumer = new TrainingDataConsumer(trainingDataAllocation);
@@ -182,7 +190,7 @@ public interface NativeMemoryLoadStrategy<T extends NativeMemoryAllocation, U ex
 
         @Override
         public void close() throws IOException {
-            executor.shutdown();
+            // Allocations are closed on the shared NativeMemoryCloseExecutor, which this strategy does not own
         }
     }
 
@@ -203,20 +211,17 @@ public interface NativeMemoryLoadStrategy<T extends NativeMemoryAllocation, U ex
             return INSTANCE;
         }
 
-        private final ExecutorService executor;
-
-        private AnonymousLoadStrategy() {
-            executor = Executors.newSingleThreadExecutor();
-        }
+        private AnonymousLoadStrategy() {}
 
         @Override
         public NativeMemoryAllocation.AnonymousAllocation load(NativeMemoryEntryContext.AnonymousEntryContext nativeMemoryEntryContext) {
-            return new NativeMemoryAllocation.AnonymousAllocation(executor, nativeMemoryEntryContext.calculateSizeInKB());
+            return new NativeMemoryAllocation.AnonymousAllocation(NativeMemoryCloseExecutor.getInstance(),
+                    nativeMemoryEntryContext.calculateSizeInKB());
         }
 
         @Override
         public void close() {
-            executor.shutdown();
+            // Allocations are closed on the shared NativeMemoryCloseExecutor, which this strategy does not own
         }
     }
 }
@@ -68,6 +68,31 @@ class FaissService {
      */
     public static native long loadIndex(String indexPath);
 
+    /**
+     * Load an index, memory mapping the inverted lists of IVF indices from the file instead of reading them. Other
+     * index types are read into memory as with {@link #loadIndex(String)}.
+     *
+     * @param indexPath path to index file
+     * @return pointer to location in memory the index resides in
+     */
+    public static native long loadIndexMmap(String indexPath);
+
+    /**
+     * Get the number of bytes of an index that are mapped from its file rather than held in memory
+     *
+     * @param indexPointer pointer to index in memory
+     * @return number of mapped bytes
+     */
+    public static native long getMappedSizeInBytes(long indexPointer);
+
+    /**
+     * Get the number of bytes an index holds in memory, not counting the bytes mapped from its file
+     *
+     * @param indexPointer pointer to index in memory
+     * @return number of bytes held in memory, or -1 if the index contains a type whose size is not known
+     */
+    public static native long getIndexSizeInBytes(long indexPointer);
+
     /**
      * Query an index
      *
@@ -78,6 +103,46 @@ class FaissService {
      */
     public static native KNNQueryResult[] queryIndex(long indexPointer, float[] queryVector, int k);
 
+    /**
+     * Query an index, writing the neighbors to the provided arrays instead of allocating a result object for each of
+     * them
+     *
+     * @param indexPointer pointer to index in memory
+     * @param queryVector vector to be used for query
+     * @param k neighbors to be returned
+     * @param filterBits words of a FixedBitSet where a set bit marks a document that can be returned, or null
+     * @param methodParameters ef_search and nprobes overrides applied to this query only, or null
+     * @param ids array of at least k elements the ids of the neighbors are written to
+     * @param distances array of at least k elements the distances of the neighbors are written to
+     * @return number of neighbors written
+     */
+    public static native int queryIndexInto(long indexPointer, float[] queryVector, int k, long[] filterBits,
+                                            Map<String, ?> methodParameters, int[] ids, float[] distances);
+
+    /**
+     * Find every neighbor within a radius of the query vector, writing them to the provided arrays
+     *
+     * @param indexPointer pointer to index in memory
+     * @param queryVector vector to be used for query
+     * @param radius squared l2 distance neighbors have to be closer than, or inner product they have to exceed
+     * @param filterBits words of a FixedBitSet where a set bit marks a document that can be returned, or null
+     * @param ids array the ids of the neighbors are written to. Its length caps the number of neighbors returned.
+     * @param distances array of the same length as ids the distances of the neighbors are written to
+     * @return number of neighbors written
+     */
+    public static native int rangeSearchIndexInto(long indexPointer, float[] queryVector, float radius,
+                                                  long[] filterBits, int[] ids, float[] distances);
+
+    /**
+     * Query an index with several vectors at once
+     *
+     * @param indexPointer pointer to index in memory
+     * @param queryVectors vectors to be used for query
+     * @param k neighbors to be returned for each vector
+     * @return KNNQueryResult array of k neighbors for each query vector, in the order of the query vectors
+     */
+    public static native KNNQueryResult[][] queryIndexBatch(long indexPointer, float[][] queryVectors, int k);
+
     /**
      * Free native memory pointer
      */
@@ -16,6 +16,9 @@ import org.opensearch.knn.index.util.KNNEngine;
 
 import java.util.Map;
 
+import static org.opensearch.knn.common.KNNConstants.LOAD_MODE;
+import static org.opensearch.knn.common.KNNConstants.LOAD_MODE_MMAP;
+
 /**
  * Service to distribute requests to the proper engine jni service
  */
@@ -79,12 +82,55 @@ public class JNIService {
         }
 
         if (KNNEngine.FAISS.getName().equals(engineName)) {
+            if (LOAD_MODE_MMAP.equals(parameters.get(LOAD_MODE))) {
+                return FaissService.loadIndexMmap(indexPath);
+            }
             return FaissService.loadIndex(indexPath);
         }
 
         throw new IllegalArgumentException("LoadIndex not supported for provided engine");
     }
 
+    /**
+     * Get the number of bytes of a loaded index that are mapped from its file rather than held in memory. Only faiss
+     * indices loaded in mmap mode have mapped bytes.
+     *
+     * @param indexPointer pointer to index in memory
+     * @param engineName name of engine the index was loaded with
+     * @return number of mapped bytes
+     */
+    public static long getMappedSizeInBytes(long indexPointer, String engineName) {
+        if (KNNEngine.NMSLIB.getName().equals(engineName)) {
+            return 0;
+        }
+
+        if (KNNEngine.FAISS.getName().equals(engineName)) {
+            return FaissService.getMappedSizeInBytes(indexPointer);
+        }
+
+        throw new IllegalArgumentException("GetMappedSizeInBytes not supported for provided engine");
+    }
+
+    /**
+     * Get the number of bytes a loaded index holds in native memory, not counting the bytes mapped from its file.
+     * nmslib does not report it, as it holds about its file's content.
+     *
+     * @param indexPointer pointer to index in memory
+     * @param engineName name of engine the index was loaded with
+     * @return number of bytes held in memory, or -1 if the engine cannot tell
+     */
+    public static long getIndexSizeInBytes(long indexPointer, String engineName) {
+        if (KNNEngine.NMSLIB.getName().equals(engineName)) {
+            return -1;
+        }
+
+        if (KNNEngine.FAISS.getName().equals(engineName)) {
+            return FaissService.getIndexSizeInBytes(indexPointer);
+        }
+
+        throw new IllegalArgumentException("GetIndexSizeInBytes not supported for provided engine");
+    }
+
     /**
      * Query an index
      *
@@ -106,6 +152,103 @@ public class JNIService {
         throw new IllegalArgumentException("QueryIndex not supported for provided engine");
     }
 
+    /**
+     * Query an index, writing the neighbors to the provided arrays. Unlike the queries returning KNNQueryResults, no
+     * object is allocated per neighbor, which matters for large k.
+     *
+     * @param indexPointer pointer to index in memory
+     * @param queryVector vector to be used for query
+     * @param k neighbors to be returned
+     * @param filterBits words of a FixedBitSet where a set bit marks a document that can be returned, or null to
+     *                   consider all documents
+     * @param methodParameters search time parameters, such as ef_search or nprobes, that override the ones the index
+     *                         was built with for this query only. Null or empty to use the index's own values.
+     * @param ids array of at least k elements the ids of the neighbors are written to
+     * @param distances array of at least k elements the distances of the neighbors are written to
+     * @param engineName name of engine to query index
+     * @return number of neighbors written to ids and distances
+     */
+    public static int queryIndex(long indexPointer, float[] queryVector, int k, long[] filterBits,
+                                 Map<String, ?> methodParameters, int[] ids, float[] distances, String engineName) {
+        if (KNNEngine.NMSLIB.getName().equals(engineName)) {
+            // ef is part of the shared nmslib index state, so it cannot be changed for a single query without
+            // affecting the queries running concurrently against the same graph
+            if (methodParameters != null && !methodParameters.isEmpty()) {
+                throw new IllegalArgumentException("Method parameters not supported for provided engine");
+            }
+            return NmslibService.queryIndexInto(indexPointer, queryVector, k, filterBits, ids, distances);
+        }
+
+        if (KNNEngine.FAISS.getName().equals(engineName)) {
+            return FaissService.queryIndexInto(indexPointer, queryVector, k, filterBits, methodParameters, ids,
+                    distances);
+        }
+
+        throw new IllegalArgumentException("QueryIndex not supported for provided engine");
+    }
+
+    /**
+     * Find every neighbor of the query vector within a radius. The radius follows the engine's distance convention,
+     * so for faiss it is a squared distance for l2 and a minimum inner product for inner product.
+     *
+     * nmslib's hnsw does not support range queries. For nmslib, the ids.length nearest neighbors are searched and the
+     * ones outside of the radius are dropped.
+     *
+     * @param indexPointer pointer to index in memory
+     * @param queryVector vector to be used for query
+     * @param radius distance neighbors have to be within
+     * @param filterBits words of a FixedBitSet where a set bit marks a document that can be returned, or null to
+     *                   consider all documents
+     * @param ids array the ids of the neighbors are written to. Its length caps the number of neighbors returned.
+     * @param distances array of the same length as ids the distances of the neighbors are written to
+     * @param engineName name of engine to query index
+     * @return number of neighbors written to ids and distances
+     */
+    public static int rangeSearchIndex(long indexPointer, float[] queryVector, float radius, long[] filterBits,
+                                       int[] ids, float[] distances, String engineName) {
+        if (KNNEngine.NMSLIB.getName().equals(engineName)) {
+            int resultSize = NmslibService.queryIndexInto(indexPointer, queryVector, ids.length, filterBits, ids,
+                    distances);
+            int withinRadius = 0;
+            for (int i = 0; i < resultSize; i++) {
+                if (distances[i] <= radius) {
+                    ids[withinRadius] = ids[i];
+                    distances[withinRadius] = distances[i];
+                    withinRadius++;
+                }
+            }
+            return withinRadius;
+        }
+
+        if (KNNEngine.FAISS.getName().equals(engineName)) {
+            return FaissService.rangeSearchIndexInto(indexPointer, queryVector, radius, filterBits, ids, distances);
+        }
+
+        throw new IllegalArgumentException("RangeSearchIndex not supported for provided engine");
+    }
+
+    /**
+     * Query an index with several vectors at once. This crosses the JNI boundary a single time for all of the vectors.
+     *
+     * @param indexPointer pointer to index in memory
+     * @param queryVectors vectors to be used for query
+     * @param k neighbors to be returned for each vector
+     * @param engineName name of engine to query index
+     * @return KNNQueryResult array of k neighbors for each query vector, in the order of the query vectors
+     */
+    public static KNNQueryResult[][] queryIndexBatch(long indexPointer, float[][] queryVectors, int k,
+                                                     String engineName) {
+        if (KNNEngine.NMSLIB.getName().equals(engineName)) {
+            return NmslibService.queryIndexBatch(indexPointer, queryVectors, k);
+        }
+
+        if (KNNEngine.FAISS.getName().equals(engineName)) {
+            return FaissService.queryIndexBatch(indexPointer, queryVectors, k);
+        }
+
+        throw new IllegalArgumentException("QueryIndexBatch not supported for provided engine");
+    }
+
     /**
      * Free native memory pointer
      *
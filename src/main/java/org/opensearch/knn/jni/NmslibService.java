@@ -67,6 +67,31 @@ class NmslibService {
      */
     public static native KNNQueryResult[] queryIndex(long indexPointer, float[] queryVector, int k);
 
+    /**
+     * Query an index, writing the neighbors to the provided arrays instead of allocating a result object for each of
+     * them
+     *
+     * @param indexPointer pointer to index in memory
+     * @param queryVector vector to be used for query
+     * @param k neighbors to be returned
+     * @param filterBits words of a FixedBitSet where a set bit marks a document that can be returned, or null
+     * @param ids array of at least k elements the ids of the neighbors are written to
+     * @param distances array of at least k elements the distances of the neighbors are written to
+     * @return number of neighbors written
+     */
+    public static native int queryIndexInto(long indexPointer, float[] queryVector, int k, long[] filterBits,
+                                            int[] ids, float[] distances);
+
+    /**
+     * Query an index with several vectors at once
+     *
+     * @param indexPointer pointer to index in memory
+     * @param queryVectors vectors to be used for query
+     * @param k neighbors to be returned for each vector
+     * @return KNNQueryResult array of k neighbors for each query vector, in the order of the query vectors
+     */
+    public static native KNNQueryResult[][] queryIndexBatch(long indexPointer, float[][] queryVectors, int k);
+
     /**
      * Free native memory pointer
      */
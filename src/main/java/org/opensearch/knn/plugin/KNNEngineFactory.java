@@ -9,9 +9,11 @@ import org.opensearch.index.engine.Engine;
 import org.opensearch.index.engine.EngineConfig;
 import org.opensearch.index.engine.EngineFactory;
 import org.opensearch.index.engine.InternalEngine;
+import org.opensearch.knn.index.KNNSegmentWarmer;
 
 /**
- * EngineFactory to inject the KNNCodecService to help segments write using the KNNCodec.
+ * EngineFactory to inject the KNNCodecService to help segments write using the KNNCodec, and the KNNSegmentWarmer to
+ * load the graphs of new segments.
  */
 class KNNEngineFactory implements EngineFactory {
 
@@ -21,7 +23,8 @@ class KNNEngineFactory implements EngineFactory {
     public Engine newReadWriteEngine(EngineConfig config) {
         codecService.setPostingsFormat(config.getCodec().postingsFormat());
         EngineConfig engineConfig = new EngineConfig(config.getShardId(),
-                config.getThreadPool(), config.getIndexSettings(), config.getWarmer(), config.getStore(),
+                config.getThreadPool(), config.getIndexSettings(),
+                new KNNSegmentWarmer(config.getWarmer(), config.getIndexSettings()), config.getStore(),
                 config.getMergePolicy(), config.getAnalyzer(), config.getSimilarity(), codecService,
                 config.getEventListener(), config.getQueryCache(), config.getQueryCachingPolicy(),
                 config.getTranslogConfig(), config.getFlushMergesAfter(), config.getExternalRefreshListener(),
@@ -5,12 +5,19 @@
 
 package org.opensearch.knn.plugin;
 
+import org.opensearch.knn.index.KNNCacheWarmer;
 import org.opensearch.knn.index.KNNCircuitBreaker;
+import org.opensearch.knn.index.KNNBatchQueryBuilder;
+import org.opensearch.knn.index.KNNQuery;
 import org.opensearch.knn.index.KNNQueryBuilder;
 import org.opensearch.knn.index.KNNSettings;
 import org.opensearch.knn.index.KNNVectorFieldMapper;
+import org.opensearch.knn.index.KNNSegmentWarmer;
+import org.opensearch.knn.index.KNNWarmupTask;
 
 import org.opensearch.knn.index.KNNWeight;
+import org.opensearch.knn.index.memory.NativeMemoryCacheManager;
+import org.opensearch.knn.index.memory.NativeMemoryCloseExecutor;
 import org.opensearch.knn.index.memory.NativeMemoryLoadStrategy;
 import org.opensearch.knn.indices.ModelCache;
 import org.opensearch.knn.indices.ModelDao;
@@ -22,6 +29,8 @@ import org.opensearch.knn.plugin.rest.RestSearchModelHandler;
 import org.opensearch.knn.plugin.rest.RestTrainModelHandler;
 import org.opensearch.knn.plugin.script.KNNScoringScriptEngine;
 import org.opensearch.knn.plugin.stats.KNNStats;
+import org.opensearch.knn.plugin.transport.CacheCapacityFreedAction;
+import org.opensearch.knn.plugin.transport.CacheCapacityFreedTransportAction;
 import org.opensearch.knn.plugin.transport.DeleteModelAction;
 import org.opensearch.knn.plugin.transport.DeleteModelTransportAction;
 import org.opensearch.knn.plugin.transport.GetModelAction;
@@ -29,6 +38,7 @@ import org.opensearch.knn.plugin.transport.GetModelTransportAction;
 import org.opensearch.knn.plugin.transport.KNNStatsAction;
 import org.opensearch.knn.plugin.transport.KNNStatsTransportAction;
 import org.opensearch.knn.plugin.transport.KNNWarmupAction;
+import org.opensearch.knn.plugin.transport.KNNWarmupShardTask;
 import org.opensearch.knn.plugin.transport.KNNWarmupTransportAction;
 import com.google.common.collect.ImmutableList;
 
@@ -44,6 +54,7 @@ import org.opensearch.common.settings.IndexScopedSettings;
 import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
 import org.opensearch.common.settings.SettingsFilter;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
 import org.opensearch.common.xcontent.NamedXContentRegistry;
 import org.opensearch.env.Environment;
 import org.opensearch.env.NodeEnvironment;
@@ -80,6 +91,7 @@ import org.opensearch.rest.RestHandler;
 import org.opensearch.script.ScriptContext;
 import org.opensearch.script.ScriptEngine;
 import org.opensearch.script.ScriptService;
+import org.opensearch.tasks.Task;
 import org.opensearch.threadpool.ExecutorBuilder;
 import org.opensearch.threadpool.FixedExecutorBuilder;
 import org.opensearch.threadpool.ThreadPool;
@@ -93,9 +105,16 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
-import static java.util.Collections.singletonList;
+import static org.opensearch.knn.common.KNNConstants.CLOSE_THREAD_POOL;
+import static org.opensearch.knn.common.KNNConstants.KNN_CLOSE_THREAD_POOL_PREFIX;
+import static org.opensearch.knn.common.KNNConstants.KNN_LOAD_THREAD_POOL_PREFIX;
+import static org.opensearch.knn.common.KNNConstants.KNN_SEARCH_THREAD_POOL_PREFIX;
+import static org.opensearch.knn.common.KNNConstants.KNN_WARMUP_THREAD_POOL_PREFIX;
+import static org.opensearch.knn.common.KNNConstants.LOAD_THREAD_POOL;
 import static org.opensearch.knn.common.KNNConstants.KNN_THREAD_POOL_PREFIX;
+import static org.opensearch.knn.common.KNNConstants.SEARCH_THREAD_POOL;
 import static org.opensearch.knn.common.KNNConstants.TRAIN_THREAD_POOL;
+import static org.opensearch.knn.common.KNNConstants.WARMUP_THREAD_POOL;
 
 /**
  * Entry point for the KNN plugin where we define mapper for knn_vector type
@@ -144,7 +163,10 @@ public class KNNPlugin extends Plugin implements MapperPlugin, SearchPlugin, Act
 
     @Override
     public List<QuerySpec<?>> getQueries() {
-        return singletonList(new QuerySpec<>(KNNQueryBuilder.NAME, KNNQueryBuilder::new, KNNQueryBuilder::fromXContent));
+        return Arrays.asList(
+                new QuerySpec<>(KNNQueryBuilder.NAME, KNNQueryBuilder::new, KNNQueryBuilder::fromXContent),
+                new QuerySpec<>(KNNBatchQueryBuilder.NAME, KNNBatchQueryBuilder::new, KNNBatchQueryBuilder::fromXContent)
+        );
     }
 
     @Override
@@ -168,6 +190,12 @@ public class KNNPlugin extends Plugin implements MapperPlugin, SearchPlugin, Act
         KNNCircuitBreaker.getInstance().initialize(threadPool, clusterService, client);
         KNNQueryBuilder.initialize(ModelDao.OpenSearchKNNModelDao.getInstance());
         KNNWeight.initialize(ModelDao.OpenSearchKNNModelDao.getInstance());
+        KNNQuery.initialize(threadPool);
+        NativeMemoryCacheManager.initialize(threadPool);
+        NativeMemoryCloseExecutor.initialize(threadPool);
+        KNNCacheWarmer.getInstance().initialize(threadPool, nodeEnvironment);
+        KNNWarmupTask.initialize(threadPool);
+        KNNSegmentWarmer.initialize(threadPool);
         TrainingModelRequest.initialize(ModelDao.OpenSearchKNNModelDao.getInstance(), clusterService);
         knnStats = new KNNStats(KNNStatsConfig.KNN_STATS);
         return ImmutableList.of(knnStats);
@@ -216,7 +244,8 @@ public class KNNPlugin extends Plugin implements MapperPlugin, SearchPlugin, Act
                 new ActionHandler<>(TrainingJobRouterAction.INSTANCE, TrainingJobRouterTransportAction.class),
                 new ActionHandler<>(TrainingModelAction.INSTANCE, TrainingModelTransportAction.class),
                 new ActionHandler<>(RemoveModelFromCacheAction.INSTANCE, RemoveModelFromCacheTransportAction.class),
-                new ActionHandler<>(SearchModelAction.INSTANCE, SearchModelTransportAction.class)
+                new ActionHandler<>(SearchModelAction.INSTANCE, SearchModelTransportAction.class),
+                new ActionHandler<>(CacheCapacityFreedAction.INSTANCE, CacheCapacityFreedTransportAction.class)
         );
     }
 
@@ -231,6 +260,7 @@ public class KNNPlugin extends Plugin implements MapperPlugin, SearchPlugin, Act
     @Override
     public void onIndexModule(IndexModule indexModule) {
         KNNSettings.state().onIndexModule(indexModule);
+        indexModule.addIndexEventListener(KNNCacheWarmer.getInstance());
     }
 
     /**
@@ -265,6 +295,14 @@ public class KNNPlugin extends Plugin implements MapperPlugin, SearchPlugin, Act
         return new KNNScoringScriptEngine();
     }
 
+    @Override
+    public List<NamedWriteableRegistry.Entry> getNamedWriteables() {
+        return ImmutableList.of(
+                new NamedWriteableRegistry.Entry(Task.Status.class, KNNWarmupShardTask.Status.NAME,
+                        KNNWarmupShardTask.Status::new)
+        );
+    }
+
     @Override
     public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
         return ImmutableList.of(
@@ -275,6 +313,46 @@ public class KNNPlugin extends Plugin implements MapperPlugin, SearchPlugin, Act
                         1,
                         KNN_THREAD_POOL_PREFIX,
                         false
+                ),
+                // Bounded to half of the processors so that concurrent segment searches cannot starve the search pool
+                new FixedExecutorBuilder(
+                        settings,
+                        SEARCH_THREAD_POOL,
+                        Math.max(1, OpenSearchExecutors.allocatedProcessors(settings) / 2),
+                        1000,
+                        KNN_SEARCH_THREAD_POOL_PREFIX,
+                        false
+                ),
+                // Loads are IO bound and deduplicated per graph, so a small pool with an unbounded queue is enough
+                new FixedExecutorBuilder(
+                        settings,
+                        LOAD_THREAD_POOL,
+                        Math.max(1, OpenSearchExecutors.allocatedProcessors(settings) / 4),
+                        -1,
+                        KNN_LOAD_THREAD_POOL_PREFIX,
+                        false
+                ),
+                // Warmups load whole indices in the background, so they get their own small pool instead of competing
+                // with the loads searches are waiting on. Its queue is bounded so that warming up many shards at once
+                // fails instead of piling up.
+                new FixedExecutorBuilder(
+                        settings,
+                        WARMUP_THREAD_POOL,
+                        Math.max(1, OpenSearchExecutors.allocatedProcessors(settings) / 8),
+                        1000,
+                        KNN_WARMUP_THREAD_POOL_PREFIX,
+                        false
+                ),
+                // Closes wait on the searches holding the allocation, so they run in parallel to keep one slow close
+                // from delaying the release of the memory of the others. Closes cannot be dropped, so the queue is
+                // unbounded.
+                new FixedExecutorBuilder(
+                        settings,
+                        CLOSE_THREAD_POOL,
+                        Math.max(1, OpenSearchExecutors.allocatedProcessors(settings) / 4),
+                        -1,
+                        KNN_CLOSE_THREAD_POOL_PREFIX,
+                        false
                 )
         );
     }
@@ -10,6 +10,7 @@ import org.opensearch.knn.plugin.KNNPlugin;
 import org.opensearch.knn.plugin.transport.KNNWarmupAction;
 import org.opensearch.knn.plugin.transport.KNNWarmupRequest;
 import com.google.common.collect.ImmutableList;
+import org.opensearch.action.ActionListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.client.node.NodeClient;
@@ -17,11 +18,16 @@ import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
 import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.Strings;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.common.xcontent.XContentBuilder;
 import org.opensearch.index.Index;
 import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.BytesRestResponse;
 import org.opensearch.rest.RestController;
 import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.RestStatus;
 import org.opensearch.rest.action.RestToXContentListener;
+import org.opensearch.tasks.Task;
+import org.opensearch.tasks.TaskId;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -32,12 +38,14 @@ import static org.opensearch.action.support.IndicesOptions.strictExpandOpen;
 
 /**
  * RestHandler for k-NN index warmup API. API provides the ability for a user to load specific indices' k-NN graphs
- * into memory.
+ * into memory. With wait_for_completion=false, the API returns the id of the warmup task right away, which can then
+ * be followed and cancelled through the tasks API.
  */
 public class RestKNNWarmupHandler extends BaseRestHandler {
     private static final Logger logger = LogManager.getLogger(RestKNNWarmupHandler.class);
     private static final String URL_PATH = "/warmup/{index}";
     public static String NAME = "knn_warmup_action";
+    private static final String WAIT_FOR_COMPLETION = "wait_for_completion";
     private IndexNameExpressionResolver indexNameExpressionResolver;
     private ClusterService clusterService;
 
@@ -72,7 +80,22 @@ public class RestKNNWarmupHandler extends BaseRestHandler {
         KNNWarmupRequest knnWarmupRequest = createKNNWarmupRequest(request);
         logger.info("[KNN] Warmup started for the following indices: "
             + String.join(",", knnWarmupRequest.indices()));
-        return channel -> client.execute(KNNWarmupAction.INSTANCE, knnWarmupRequest, new RestToXContentListener<>(channel));
+        if (request.paramAsBoolean(WAIT_FOR_COMPLETION, true)) {
+            return channel -> client.execute(KNNWarmupAction.INSTANCE, knnWarmupRequest,
+                new RestToXContentListener<>(channel));
+        }
+
+        Task task = client.executeLocally(KNNWarmupAction.INSTANCE, knnWarmupRequest, ActionListener.wrap(
+            response -> logger.info("[KNN] Warmup completed for the following indices: "
+                + String.join(",", knnWarmupRequest.indices())),
+            e -> logger.error("[KNN] Warmup failed for the following indices: "
+                + String.join(",", knnWarmupRequest.indices()), e)));
+        TaskId taskId = new TaskId(client.getLocalNodeId(), task.getId());
+        return channel -> {
+            XContentBuilder builder = channel.newBuilder();
+            builder.startObject().field("task", taskId.toString()).endObject();
+            channel.sendResponse(new BytesRestResponse(RestStatus.OK, builder));
+        };
     }
 
     private KNNWarmupRequest createKNNWarmupRequest(RestRequest request) {
@@ -13,6 +13,10 @@ import java.util.concurrent.atomic.AtomicLong;
 public enum KNNCounter {
     GRAPH_QUERY_ERRORS("graph_query_errors"),
     GRAPH_QUERY_REQUESTS("graph_query_requests"),
+    FILTERED_GRAPH_QUERY_REQUESTS("filtered_graph_query_requests"),
+    EXACT_SEARCH_REQUESTS("exact_search_requests"),
+    RESCORE_REQUESTS("rescore_requests"),
+    ASYNC_LOAD_FALLBACK_REQUESTS("async_load_fallback_requests"),
     GRAPH_INDEX_ERRORS("graph_index_errors"),
     GRAPH_INDEX_REQUESTS("graph_index_requests"),
     KNN_QUERY_REQUESTS("knn_query_requests"),
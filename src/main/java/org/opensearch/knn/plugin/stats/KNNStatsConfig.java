@@ -8,7 +8,9 @@ package org.opensearch.knn.plugin.stats;
 import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import org.opensearch.knn.common.KNNConstants;
+import org.opensearch.knn.index.KNNWarmupTask;
 import org.opensearch.knn.index.memory.NativeMemoryCacheManager;
+import org.opensearch.knn.index.memory.NativeMemoryCloseExecutor;
 import org.opensearch.knn.index.util.KNNEngine;
 import org.opensearch.knn.indices.ModelCache;
 import org.opensearch.knn.indices.ModelDao;
@@ -42,14 +44,40 @@ public class KNNStatsConfig {
                     new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getIndicesSizeInKilobytes)))
             .put(StatNames.GRAPH_MEMORY_USAGE_PERCENTAGE.getName(), new KNNStat<>(false,
                     new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getIndicesSizeAsPercentage)))
+            .put(StatNames.GRAPH_MAPPED_MEMORY_USAGE.getName(), new KNNStat<>(false,
+                    new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getMappedSizeInKilobytes)))
+            .put(StatNames.WARMUP_GRAPHS_REMAINING.getName(), new KNNStat<>(false,
+                    KNNWarmupTask::getRunningGraphsRemaining))
+            .put(StatNames.WARMUP_BYTES_LOADED.getName(), new KNNStat<>(false,
+                    KNNWarmupTask::getRunningBytesLoaded))
+            .put(StatNames.PENDING_CLOSE_COUNT.getName(), new KNNStat<>(false,
+                    () -> NativeMemoryCloseExecutor.getInstance().getPendingCloseCount()))
+            .put(StatNames.COMPLETED_CLOSE_COUNT.getName(), new KNNStat<>(false,
+                    () -> NativeMemoryCloseExecutor.getInstance().getCompletedCloseCount()))
             .put(StatNames.INDICES_IN_CACHE.getName(), new KNNStat<>(false,
                     new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getIndicesCacheStats)))
+            .put(StatNames.ENGINES_IN_CACHE.getName(), new KNNStat<>(false,
+                    new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getEnginesCacheStats)))
             .put(StatNames.CACHE_CAPACITY_REACHED.getName(), new KNNStat<>(false,
                     new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::isCacheCapacityReached)))
+            .put(StatNames.RELOAD_COUNT.getName(), new KNNStat<>(false,
+                    new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getReloadCount)))
+            .put(StatNames.RECENT_RELOAD_COUNT.getName(), new KNNStat<>(false,
+                    new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getRecentReloadCount)))
+            .put(StatNames.REJECTED_LOAD_COUNT.getName(), new KNNStat<>(false,
+                    new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getRejectedLoadCount)))
             .put(StatNames.GRAPH_QUERY_ERRORS.getName(), new KNNStat<>(false,
                     new KNNCounterSupplier(KNNCounter.GRAPH_QUERY_ERRORS)))
             .put(StatNames.GRAPH_QUERY_REQUESTS.getName(), new KNNStat<>(false,
                     new KNNCounterSupplier(KNNCounter.GRAPH_QUERY_REQUESTS)))
+            .put(StatNames.FILTERED_GRAPH_QUERY_REQUESTS.getName(), new KNNStat<>(false,
+                    new KNNCounterSupplier(KNNCounter.FILTERED_GRAPH_QUERY_REQUESTS)))
+            .put(StatNames.EXACT_SEARCH_REQUESTS.getName(), new KNNStat<>(false,
+                    new KNNCounterSupplier(KNNCounter.EXACT_SEARCH_REQUESTS)))
+            .put(StatNames.RESCORE_REQUESTS.getName(), new KNNStat<>(false,
+                    new KNNCounterSupplier(KNNCounter.RESCORE_REQUESTS)))
+            .put(StatNames.ASYNC_LOAD_FALLBACK_REQUESTS.getName(), new KNNStat<>(false,
+                    new KNNCounterSupplier(KNNCounter.ASYNC_LOAD_FALLBACK_REQUESTS)))
             .put(StatNames.GRAPH_INDEX_ERRORS.getName(), new KNNStat<>(false,
                     new KNNCounterSupplier(KNNCounter.GRAPH_INDEX_ERRORS)))
             .put(StatNames.GRAPH_INDEX_REQUESTS.getName(), new KNNStat<>(false,
@@ -85,5 +113,7 @@ public class KNNStatsConfig {
                     new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getTrainingSizeInKilobytes)))
             .put(StatNames.TRAINING_MEMORY_USAGE_PERCENTAGE.getName(), new KNNStat<>(false,
                     new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getTrainingSizeAsPercentage)))
+            .put(StatNames.TRAINING_EVICTION_COUNT.getName(), new KNNStat<>(false,
+                    new NativeMemoryCacheManagerSupplier<>(NativeMemoryCacheManager::getTrainingEvictionCount)))
             .build();
 }
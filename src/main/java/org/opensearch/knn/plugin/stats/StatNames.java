@@ -20,8 +20,17 @@ public enum StatNames {
     EVICTION_COUNT("eviction_count"),
     GRAPH_MEMORY_USAGE("graph_memory_usage"),
     GRAPH_MEMORY_USAGE_PERCENTAGE("graph_memory_usage_percentage"),
+    GRAPH_MAPPED_MEMORY_USAGE("graph_mapped_memory_usage"),
+    WARMUP_GRAPHS_REMAINING("warmup_graphs_remaining"),
+    WARMUP_BYTES_LOADED("warmup_bytes_loaded"),
+    PENDING_CLOSE_COUNT("pending_close_count"),
+    COMPLETED_CLOSE_COUNT("completed_close_count"),
     CACHE_CAPACITY_REACHED("cache_capacity_reached"),
+    RELOAD_COUNT("reload_count"),
+    RECENT_RELOAD_COUNT("recent_reload_count"),
+    REJECTED_LOAD_COUNT("rejected_load_count"),
     INDICES_IN_CACHE("indices_in_cache"),
+    ENGINES_IN_CACHE("engines_in_cache"),
     CIRCUIT_BREAKER_TRIGGERED("circuit_breaker_triggered"),
     MODEL_INDEX_STATUS("model_index_status"),
     FAISS_LOADED("faiss_initialized"),
@@ -29,6 +38,10 @@ public enum StatNames {
     INDEXING_FROM_MODEL_DEGRADED("indexing_from_model_degraded"),
     GRAPH_QUERY_ERRORS(KNNCounter.GRAPH_QUERY_ERRORS.getName()),
     GRAPH_QUERY_REQUESTS(KNNCounter.GRAPH_QUERY_REQUESTS.getName()),
+    FILTERED_GRAPH_QUERY_REQUESTS(KNNCounter.FILTERED_GRAPH_QUERY_REQUESTS.getName()),
+    EXACT_SEARCH_REQUESTS(KNNCounter.EXACT_SEARCH_REQUESTS.getName()),
+    RESCORE_REQUESTS(KNNCounter.RESCORE_REQUESTS.getName()),
+    ASYNC_LOAD_FALLBACK_REQUESTS(KNNCounter.ASYNC_LOAD_FALLBACK_REQUESTS.getName()),
     GRAPH_INDEX_ERRORS(KNNCounter.GRAPH_INDEX_ERRORS.getName()),
     GRAPH_INDEX_REQUESTS(KNNCounter.GRAPH_INDEX_REQUESTS.getName()),
     KNN_QUERY_REQUESTS(KNNCounter.KNN_QUERY_REQUESTS.getName()),
@@ -39,6 +52,7 @@ public enum StatNames {
     TRAINING_ERRORS(KNNCounter.TRAINING_ERRORS.getName()),
     TRAINING_MEMORY_USAGE("training_memory_usage"),
     TRAINING_MEMORY_USAGE_PERCENTAGE("training_memory_usage_percentage"),
+    TRAINING_EVICTION_COUNT("training_eviction_count"),
     SCRIPT_QUERY_ERRORS(KNNCounter.SCRIPT_QUERY_ERRORS.getName());
 
     private String name;
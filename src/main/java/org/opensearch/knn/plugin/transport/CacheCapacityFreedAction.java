@@ -0,0 +1,23 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.plugin.transport;
+
+import org.opensearch.action.ActionType;
+import org.opensearch.action.support.master.AcknowledgedResponse;
+
+/**
+ * Action a node sends to the elected master once its cache capacity is freed, so that the master checks right away
+ * whether the circuit breaker can be untripped.
+ */
+public class CacheCapacityFreedAction extends ActionType<AcknowledgedResponse> {
+
+    public static final CacheCapacityFreedAction INSTANCE = new CacheCapacityFreedAction();
+    public static final String NAME = "cluster:admin/knn_cache_capacity_freed_action";
+
+    private CacheCapacityFreedAction() {
+        super(NAME, AcknowledgedResponse::new);
+    }
+}
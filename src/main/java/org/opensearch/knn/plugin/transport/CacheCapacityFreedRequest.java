@@ -0,0 +1,70 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.plugin.transport;
+
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.action.support.master.MasterNodeRequest;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+import static org.opensearch.action.ValidateActions.addValidationError;
+
+/**
+ * Request telling the elected master that the cache capacity of a node was freed
+ */
+public class CacheCapacityFreedRequest extends MasterNodeRequest<CacheCapacityFreedRequest> {
+
+    private final String nodeId;
+
+    /**
+     * Constructor
+     *
+     * @param nodeId id of the node whose cache capacity was freed
+     */
+    public CacheCapacityFreedRequest(String nodeId) {
+        super();
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param in input stream
+     * @throws IOException if read from stream fails
+     */
+    public CacheCapacityFreedRequest(StreamInput in) throws IOException {
+        super(in);
+        this.nodeId = in.readString();
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = null;
+
+        if (nodeId == null || nodeId.isEmpty()) {
+            validationException = addValidationError("Missing node ID", validationException);
+        }
+
+        return validationException;
+    }
+
+    /**
+     * Getter for nodeId
+     *
+     * @return id of the node whose cache capacity was freed
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(nodeId);
+    }
+}
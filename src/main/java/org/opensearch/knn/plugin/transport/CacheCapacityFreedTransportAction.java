@@ -0,0 +1,62 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.plugin.transport;
+
+import org.opensearch.action.ActionListener;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.master.AcknowledgedResponse;
+import org.opensearch.action.support.master.TransportMasterNodeAction;
+import org.opensearch.cluster.ClusterState;
+import org.opensearch.cluster.block.ClusterBlockException;
+import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.knn.index.KNNCircuitBreaker;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+
+import java.io.IOException;
+
+/**
+ * Transport action run on the elected master when a node frees its cache capacity. It only starts an untrip check
+ * and acknowledges right away, the check itself gathers the capacity of all of the nodes.
+ */
+public class CacheCapacityFreedTransportAction
+        extends TransportMasterNodeAction<CacheCapacityFreedRequest, AcknowledgedResponse> {
+
+    @Inject
+    public CacheCapacityFreedTransportAction(TransportService transportService,
+                                             ClusterService clusterService,
+                                             ThreadPool threadPool,
+                                             ActionFilters actionFilters,
+                                             IndexNameExpressionResolver indexNameExpressionResolver) {
+        super(CacheCapacityFreedAction.NAME, transportService, clusterService, threadPool, actionFilters,
+                CacheCapacityFreedRequest::new, indexNameExpressionResolver);
+    }
+
+    @Override
+    protected String executor() {
+        return ThreadPool.Names.SAME;
+    }
+
+    @Override
+    protected AcknowledgedResponse read(StreamInput streamInput) throws IOException {
+        return new AcknowledgedResponse(streamInput);
+    }
+
+    @Override
+    protected void masterOperation(CacheCapacityFreedRequest request, ClusterState clusterState,
+                                   ActionListener<AcknowledgedResponse> actionListener) {
+        KNNCircuitBreaker.getInstance().onNodeCacheCapacityFreed(request.getNodeId());
+        actionListener.onResponse(new AcknowledgedResponse(true));
+    }
+
+    @Override
+    protected ClusterBlockException checkBlock(CacheCapacityFreedRequest request, ClusterState clusterState) {
+        return null;
+    }
+}
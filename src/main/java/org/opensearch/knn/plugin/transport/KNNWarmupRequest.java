@@ -7,19 +7,67 @@ package org.opensearch.knn.plugin.transport;
 
 import org.opensearch.action.support.broadcast.BroadcastRequest;
 import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.tasks.CancellableTask;
+import org.opensearch.tasks.Task;
+import org.opensearch.tasks.TaskId;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
- * k-NN Warmup Request. This request contains a list of indices for which warmup should be performed.
+ * k-NN Warmup Request. This request contains a list of indices for which warmup should be performed. Its task can be
+ * cancelled through the tasks API, which cancels the warmup of all of the shards.
  */
 public class KNNWarmupRequest extends BroadcastRequest<KNNWarmupRequest> {
 
+    private TaskId warmupTaskId = TaskId.EMPTY_TASK_ID;
+
     public KNNWarmupRequest(StreamInput in) throws IOException {
         super(in);
+        this.warmupTaskId = TaskId.readFromStream(in);
     }
 
     public KNNWarmupRequest(String... indices) {
         super(indices);
     }
+
+    /**
+     * Set the id of the task coordinating the warmup, which the warmup of each shard is registered under
+     *
+     * @param warmupTaskId id of the task coordinating the warmup
+     */
+    public void setWarmupTaskId(TaskId warmupTaskId) {
+        this.warmupTaskId = warmupTaskId;
+    }
+
+    /**
+     * Getter for warmupTaskId
+     *
+     * @return id of the task coordinating the warmup, or an empty id if it is not known
+     */
+    public TaskId getWarmupTaskId() {
+        return warmupTaskId;
+    }
+
+    @Override
+    public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
+        return new CancellableTask(id, type, action, getDescription(), parentTaskId, headers) {
+            @Override
+            public boolean shouldCancelChildrenOnCancellation() {
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public String getDescription() {
+        return "indices[" + String.join(",", indices()) + "]";
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        warmupTaskId.writeTo(out);
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.plugin.transport;
+
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.io.stream.StreamOutput;
+import org.opensearch.common.xcontent.XContentBuilder;
+import org.opensearch.knn.index.KNNWarmupTask;
+import org.opensearch.tasks.CancellableTask;
+import org.opensearch.tasks.Task;
+import org.opensearch.tasks.TaskId;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Task of the warmup of a single shard. It is registered under the task coordinating the warmup, so that it is listed
+ * with its progress by the tasks API, and cancelled along with it.
+ */
+public class KNNWarmupShardTask extends CancellableTask {
+
+    private volatile KNNWarmupTask warmupTask;
+
+    public KNNWarmupShardTask(long id, String type, String action, String description, TaskId parentTaskId,
+                              Map<String, String> headers) {
+        super(id, type, action, description, parentTaskId, headers);
+    }
+
+    /**
+     * Set the warmup this task tracks. If the task was cancelled in the meantime, the warmup is cancelled right away.
+     *
+     * @param warmupTask warmup of the shard
+     */
+    public void setWarmupTask(KNNWarmupTask warmupTask) {
+        this.warmupTask = warmupTask;
+        if (isCancelled()) {
+            warmupTask.cancel();
+        }
+    }
+
+    /**
+     * Getter for warmupTask
+     *
+     * @return warmup of the shard, or null if it has not started yet
+     */
+    public KNNWarmupTask getWarmupTask() {
+        return warmupTask;
+    }
+
+    @Override
+    public boolean shouldCancelChildrenOnCancellation() {
+        return false;
+    }
+
+    @Override
+    protected void onCancelled() {
+        KNNWarmupTask task = warmupTask;
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    @Override
+    public Status getStatus() {
+        KNNWarmupTask task = warmupTask;
+        if (task == null) {
+            return null;
+        }
+        return new Status(task.getTotalGraphs(), task.getGraphsRemaining(), task.getTotalBytes(),
+                task.getBytesLoaded());
+    }
+
+    /**
+     * Progress of the warmup of a shard
+     */
+    public static class Status implements Task.Status {
+        public static final String NAME = "knn_warmup_shard";
+
+        private final int totalGraphs;
+        private final int graphsRemaining;
+        private final long totalBytes;
+        private final long bytesLoaded;
+
+        public Status(int totalGraphs, int graphsRemaining, long totalBytes, long bytesLoaded) {
+            this.totalGraphs = totalGraphs;
+            this.graphsRemaining = graphsRemaining;
+            this.totalBytes = totalBytes;
+            this.bytesLoaded = bytesLoaded;
+        }
+
+        public Status(StreamInput in) throws IOException {
+            this.totalGraphs = in.readVInt();
+            this.graphsRemaining = in.readVInt();
+            this.totalBytes = in.readVLong();
+            this.bytesLoaded = in.readVLong();
+        }
+
+        public int getTotalGraphs() {
+            return totalGraphs;
+        }
+
+        public int getGraphsRemaining() {
+            return graphsRemaining;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getBytesLoaded() {
+            return bytesLoaded;
+        }
+
+        @Override
+        public String getWriteableName() {
+            return NAME;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVInt(totalGraphs);
+            out.writeVInt(graphsRemaining);
+            out.writeVLong(totalBytes);
+            out.writeVLong(bytesLoaded);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("total_graphs", totalGraphs);
+            builder.field("graphs_remaining", graphsRemaining);
+            builder.field("total_bytes", totalBytes);
+            builder.field("bytes_loaded", bytesLoaded);
+            return builder.endObject();
+        }
+    }
+}
@@ -5,6 +5,7 @@
 
 package org.opensearch.knn.plugin.transport;
 
+import org.opensearch.action.ActionListener;
 import org.opensearch.knn.index.KNNIndexShard;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -21,16 +22,24 @@ import org.opensearch.cluster.service.ClusterService;
 import org.opensearch.common.inject.Inject;
 import org.opensearch.common.io.stream.StreamInput;
 import org.opensearch.indices.IndicesService;
+import org.opensearch.tasks.Task;
+import org.opensearch.tasks.TaskAwareRequest;
+import org.opensearch.tasks.TaskCancelledException;
+import org.opensearch.tasks.TaskId;
+import org.opensearch.tasks.TaskManager;
 import org.opensearch.transport.TransportService;
 import org.opensearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 /**
  * Transport Action for warming up k-NN indices. TransportBroadcastByNodeAction will distribute the request to
  * all shards across the cluster for the given indices. For each shard, shardOperation will be called and the
- * warmup will take place.
+ * warmup will take place. The warmup of each shard is registered as a child task of the warmup, so that it can be
+ * followed and cancelled through the tasks API.
  */
 public class KNNWarmupTransportAction extends TransportBroadcastByNodeAction<KNNWarmupRequest, KNNWarmupResponse,
         TransportBroadcastByNodeAction.EmptyResult> {
@@ -38,6 +47,8 @@ public class KNNWarmupTransportAction extends TransportBroadcastByNodeAction<KNN
     public static Logger logger = LogManager.getLogger(KNNWarmupTransportAction.class);
 
     private IndicesService indicesService;
+    private ClusterService clusterService;
+    private TaskManager taskManager;
 
     @Inject
     public KNNWarmupTransportAction(ClusterService clusterService, TransportService transportService, IndicesService indicesService,
@@ -45,6 +56,14 @@ public class KNNWarmupTransportAction extends TransportBroadcastByNodeAction<KNN
         super(KNNWarmupAction.NAME, clusterService, transportService, actionFilters, indexNameExpressionResolver,
                 KNNWarmupRequest::new, ThreadPool.Names.SEARCH);
         this.indicesService = indicesService;
+        this.clusterService = clusterService;
+        this.taskManager = transportService.getTaskManager();
+    }
+
+    @Override
+    protected void doExecute(Task task, KNNWarmupRequest request, ActionListener<KNNWarmupResponse> listener) {
+        request.setWarmupTaskId(new TaskId(clusterService.localNode().getId(), task.getId()));
+        super.doExecute(task, request, listener);
     }
 
     @Override
@@ -69,10 +88,53 @@ public class KNNWarmupTransportAction extends TransportBroadcastByNodeAction<KNN
     protected EmptyResult shardOperation(KNNWarmupRequest request, ShardRouting shardRouting) throws IOException {
         KNNIndexShard knnIndexShard = new KNNIndexShard(indicesService.indexServiceSafe(shardRouting.shardId()
                 .getIndex()).getShard(shardRouting.shardId().id()));
-        knnIndexShard.warmup();
+        // Registering fails if the warmup was already cancelled
+        KNNWarmupShardTask shardTask = (KNNWarmupShardTask) taskManager.register("transport",
+                KNNWarmupAction.NAME + "[shard]", new ShardWarmupRequest(request.getWarmupTaskId(), shardRouting));
+        try {
+            shardTask.setWarmupTask(knnIndexShard.startWarmup());
+            shardTask.getWarmupTask().awaitCompletion();
+        } catch (CancellationException e) {
+            throw new TaskCancelledException(e.getMessage());
+        } finally {
+            taskManager.unregister(shardTask);
+        }
         return EmptyResult.INSTANCE;
     }
 
+    /**
+     * Registers the warmup of a shard as a child of the task coordinating the warmup
+     */
+    private static class ShardWarmupRequest implements TaskAwareRequest {
+        private TaskId parentTaskId;
+        private final ShardRouting shardRouting;
+
+        private ShardWarmupRequest(TaskId parentTaskId, ShardRouting shardRouting) {
+            this.parentTaskId = parentTaskId;
+            this.shardRouting = shardRouting;
+        }
+
+        @Override
+        public void setParentTask(TaskId taskId) {
+            this.parentTaskId = taskId;
+        }
+
+        @Override
+        public TaskId getParentTask() {
+            return parentTaskId;
+        }
+
+        @Override
+        public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
+            return new KNNWarmupShardTask(id, type, action, getDescription(), parentTaskId, headers);
+        }
+
+        @Override
+        public String getDescription() {
+            return "shard" + shardRouting.shardId();
+        }
+    }
+
     @Override
     protected ShardsIterator shards(ClusterState state, KNNWarmupRequest request, String[] concreteIndices) {
         return state.routingTable().allShards(concreteIndices);
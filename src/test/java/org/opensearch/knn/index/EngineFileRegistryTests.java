@@ -0,0 +1,84 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.store.Directory;
+import org.opensearch.knn.KNNTestCase;
+import org.opensearch.knn.index.util.KNNEngine;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EngineFileRegistryTests extends KNNTestCase {
+
+    public void testGet() throws IOException {
+        EngineFileRegistry registry = new EngineFileRegistry();
+        AtomicInteger resolutions = new AtomicInteger();
+        EngineFileRegistry.EngineFile expected = new EngineFileRegistry.EngineFile(KNNEngine.FAISS, SpaceType.L2,
+                Paths.get("_0_test-field.faiss"), 100);
+        assertEquals(Integer.valueOf(100), expected.getEfSearch());
+
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                Document document = new Document();
+                document.add(new StringField("id", "1", StringField.Store.NO));
+                writer.addDocument(document);
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                SegmentReader segmentReader = (SegmentReader) FilterLeafReader.unwrap(reader.leaves().get(0).reader());
+
+                // The resolver only runs the first time a segment and field are seen, including when it finds nothing
+                for (int i = 0; i < 3; i++) {
+                    assertSame(expected, registry.get(segmentReader, "test-field", r -> {
+                        resolutions.incrementAndGet();
+                        return expected;
+                    }));
+                    assertNull(registry.get(segmentReader, "other-field", r -> {
+                        resolutions.incrementAndGet();
+                        return null;
+                    }));
+                }
+                assertEquals(2, resolutions.get());
+                assertEquals(1, registry.getSegmentCount());
+            }
+
+            // Closing the segment drops its entries
+            assertEquals(0, registry.getSegmentCount());
+        }
+    }
+
+    public void testGet_resolverFailure() throws IOException {
+        EngineFileRegistry registry = new EngineFileRegistry();
+
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                writer.addDocument(new Document());
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                SegmentReader segmentReader = (SegmentReader) FilterLeafReader.unwrap(reader.leaves().get(0).reader());
+                expectThrows(RuntimeException.class, () -> registry.get(segmentReader, "test-field", r -> {
+                    throw new RuntimeException("Model does not exist");
+                }));
+
+                // Failures are not registered, so the next call resolves again
+                EngineFileRegistry.EngineFile engineFile = new EngineFileRegistry.EngineFile(KNNEngine.NMSLIB,
+                        SpaceType.L2, Paths.get("_0_test-field.hnsw"));
+                assertNull(engineFile.getEfSearch());
+                assertSame(engineFile, registry.get(segmentReader, "test-field", r -> engineFile));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.opensearch.knn.KNNTestCase;
+import org.opensearch.knn.index.codec.util.KNNVectorSerializerFactory;
+import org.opensearch.knn.index.util.KNNEngine;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class ExactSearcherTests extends KNNTestCase {
+
+    private static final String FIELD_NAME = "test-field";
+
+    public void testRawScore_l2() {
+        float[] queryVector = {0.0f, 0.0f};
+        float[] docVector = {3.0f, 4.0f};
+
+        assertEquals(25.0f, ExactSearcher.rawScore(KNNEngine.FAISS, SpaceType.L2, queryVector, docVector), 0.0001f);
+        assertEquals(5.0f, ExactSearcher.rawScore(KNNEngine.NMSLIB, SpaceType.L2, queryVector, docVector), 0.0001f);
+    }
+
+    public void testRawScore_innerProduct() {
+        float[] queryVector = {1.0f, 2.0f};
+        float[] docVector = {3.0f, 4.0f};
+
+        assertEquals(11.0f, ExactSearcher.rawScore(KNNEngine.FAISS, SpaceType.INNER_PRODUCT, queryVector, docVector),
+                0.0001f);
+        assertEquals(-11.0f, ExactSearcher.rawScore(KNNEngine.NMSLIB, SpaceType.INNER_PRODUCT, queryVector, docVector),
+                0.0001f);
+
+        // Both conventions have to translate to the same Lucene score
+        assertEquals(
+                KNNEngine.FAISS.score(ExactSearcher.rawScore(KNNEngine.FAISS, SpaceType.INNER_PRODUCT, queryVector,
+                        docVector), SpaceType.INNER_PRODUCT),
+                KNNEngine.NMSLIB.score(ExactSearcher.rawScore(KNNEngine.NMSLIB, SpaceType.INNER_PRODUCT, queryVector,
+                        docVector), SpaceType.INNER_PRODUCT),
+                0.0001f);
+    }
+
+    public void testRawScore_unsupportedSpace() {
+        float[] vector = {1.0f, 2.0f};
+        expectThrows(IllegalArgumentException.class, () -> ExactSearcher.rawScore(KNNEngine.NMSLIB,
+                SpaceType.HAMMING_BIT, vector, vector));
+    }
+
+    public void testSearchLeaf() throws IOException {
+        float[][] vectors = {{10.0f, 10.0f}, {1.0f, 1.0f}, {2.0f, 2.0f}, {0.0f, 0.0f}, {5.0f, 5.0f}};
+        float[] queryVector = {0.0f, 0.0f};
+
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                for (float[] vector : vectors) {
+                    Document document = new Document();
+                    document.add(new BinaryDocValuesField(FIELD_NAME, new BytesRef(
+                            KNNVectorSerializerFactory.getDefaultSerializer().floatToByteArray(vector))));
+                    writer.addDocument(document);
+                }
+                writer.forceMerge(1);
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                LeafReader leafReader = reader.leaves().get(0).reader();
+                Map<Integer, Float> scores = ExactSearcher.searchLeaf(leafReader, FIELD_NAME,
+                        DocIdSetIterator.all(leafReader.maxDoc()), queryVector, 2, KNNEngine.FAISS, SpaceType.L2);
+
+                assertEquals(2, scores.size());
+                assertEquals(1.0f, scores.get(3), 0.0001f);
+                assertEquals(1 / 3.0f, scores.get(1), 0.0001f);
+            }
+        }
+    }
+}
@@ -26,16 +26,30 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.opensearch.knn.common.KNNConstants.HNSW_ALGO_EF_SEARCH;
+import static org.opensearch.knn.common.KNNConstants.LOAD_MODE;
+import static org.opensearch.knn.common.KNNConstants.LOAD_MODE_MMAP;
 import static org.opensearch.knn.common.KNNConstants.SPACE_TYPE;
 import static org.opensearch.knn.index.IndexUtil.getParametersAtLoading;
 import static org.opensearch.knn.index.KNNSettings.KNN_ALGO_PARAM_EF_SEARCH;
+import static org.opensearch.knn.index.KNNSettings.KNN_LOAD_MODE;
 
 public class IndexUtilTests extends KNNTestCase {
     public void testGetLoadParameters() {
+        String indexName = "my-test-index";
+        int efSearchValue = 413;
+
+        // We use the constant for the setting here as opposed to the identifier of efSearch in nmslib jni
+        Map<String, Object> indexSettings = ImmutableMap.of(
+                KNN_ALGO_PARAM_EF_SEARCH, efSearchValue
+        );
+
+        // Because ef search comes from an index setting, we need to mock the long line of calls to get those
+        // index settings
+        mockIndexSettings(Settings.builder().loadFromMap(indexSettings).build());
+
         // Test faiss to ensure that space type gets set properly
         SpaceType spaceType1 = SpaceType.COSINESIMIL;
         KNNEngine knnEngine1 = KNNEngine.FAISS;
-        String indexName = "my-test-index";
 
         Map<String, Object> loadParameters = getParametersAtLoading(spaceType1, knnEngine1, indexName);
         assertEquals(1, loadParameters.size());
@@ -44,16 +58,26 @@ public class IndexUtilTests extends KNNTestCase {
         // Test nmslib to ensure both space type and ef search are properly set
         SpaceType spaceType2 = SpaceType.L1;
         KNNEngine knnEngine2 = KNNEngine.NMSLIB;
-        int efSearchValue = 413;
 
-        // We use the constant for the setting here as opposed to the identifier of efSearch in nmslib jni
-        Map<String, Object> indexSettings = ImmutableMap.of(
-                KNN_ALGO_PARAM_EF_SEARCH, efSearchValue
-        );
+        loadParameters = getParametersAtLoading(spaceType2, knnEngine2, indexName);
+        assertEquals(2, loadParameters.size());
+        assertEquals(spaceType2.getValue(), loadParameters.get(SPACE_TYPE));
+        assertEquals(efSearchValue, loadParameters.get(HNSW_ALGO_EF_SEARCH));
+    }
 
-        // Because ef search comes from an index setting, we need to mock the long line of calls to get those
-        // index settings
-        Settings settings = Settings.builder().loadFromMap(indexSettings).build();
+    public void testGetLoadParameters_mmap() {
+        String indexName = "my-test-index";
+        mockIndexSettings(Settings.builder().put(KNN_LOAD_MODE, LOAD_MODE_MMAP).build());
+
+        Map<String, Object> loadParameters = getParametersAtLoading(SpaceType.L2, KNNEngine.FAISS, indexName);
+        assertEquals(LOAD_MODE_MMAP, loadParameters.get(LOAD_MODE));
+
+        // nmslib indices cannot be mapped
+        loadParameters = getParametersAtLoading(SpaceType.L2, KNNEngine.NMSLIB, indexName);
+        assertFalse(loadParameters.containsKey(LOAD_MODE));
+    }
+
+    private void mockIndexSettings(Settings settings) {
         IndexMetadata indexMetadata = mock(IndexMetadata.class);
         when(indexMetadata.getSettings()).thenReturn(settings);
         Metadata metadata = mock(Metadata.class);
@@ -63,10 +87,5 @@ public class IndexUtilTests extends KNNTestCase {
         ClusterService clusterService = mock(ClusterService.class);
         when(clusterService.state()).thenReturn(clusterState);
         KNNSettings.state().setClusterService(clusterService);
-
-        loadParameters = getParametersAtLoading(spaceType2, knnEngine2, indexName);
-        assertEquals(2, loadParameters.size());
-        assertEquals(spaceType2.getValue(), loadParameters.get(SPACE_TYPE));
-        assertEquals(efSearchValue, loadParameters.get(HNSW_ALGO_EF_SEARCH));
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.Query;
+import org.opensearch.common.ParsingException;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.xcontent.XContentBuilder;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.XContentParser;
+import org.opensearch.index.Index;
+import org.opensearch.index.mapper.ObjectMapper;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.index.query.QueryShardContext;
+import org.opensearch.index.query.support.NestedScope;
+import org.opensearch.knn.KNNTestCase;
+
+import java.util.List;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KNNBatchQueryBuilderTests extends KNNTestCase {
+
+    public void testInvalidArguments() {
+        float[][] queryVectors = { { 1.0f, 1.0f }, { 2.0f, 2.0f } };
+
+        expectThrows(IllegalArgumentException.class, () -> new KNNBatchQueryBuilder("myvector", queryVectors, 0));
+        expectThrows(IllegalArgumentException.class, () -> new KNNBatchQueryBuilder("myvector", queryVectors,
+                KNNQueryBuilder.K_MAX + 1));
+        expectThrows(IllegalArgumentException.class, () -> new KNNBatchQueryBuilder("myvector", null, 1));
+        expectThrows(IllegalArgumentException.class, () -> new KNNBatchQueryBuilder("myvector", new float[][]{}, 1));
+        expectThrows(IllegalArgumentException.class, () -> new KNNBatchQueryBuilder("myvector",
+                new float[][]{ { 1.0f, 1.0f }, { 1.0f } }, 1));
+        expectThrows(IllegalArgumentException.class, () -> new KNNBatchQueryBuilder("myvector",
+                new float[KNNBatchQueryBuilder.VECTORS_MAX + 1][2], 1));
+    }
+
+    public void testFromXcontent() throws Exception {
+        float[][] queryVectors = { { 1.0f, 2.0f }, { 3.0f, 4.0f } };
+        KNNBatchQueryBuilder knnBatchQueryBuilder = new KNNBatchQueryBuilder("myvector", queryVectors, 3);
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        builder.startObject(knnBatchQueryBuilder.fieldName());
+        builder.startArray(KNNBatchQueryBuilder.VECTORS_FIELD.getPreferredName());
+        for (float[] queryVector : queryVectors) {
+            builder.value(queryVector);
+        }
+        builder.endArray();
+        builder.field(KNNBatchQueryBuilder.K_FIELD.getPreferredName(), knnBatchQueryBuilder.getK());
+        builder.endObject();
+        builder.endObject();
+        XContentParser contentParser = createParser(builder);
+        contentParser.nextToken();
+        KNNBatchQueryBuilder actualBuilder = KNNBatchQueryBuilder.fromXContent(contentParser);
+        assertEquals(knnBatchQueryBuilder, actualBuilder);
+    }
+
+    public void testSerialization() throws Exception {
+        float[][] queryVectors = { { 1.0f, 2.0f }, { 3.0f, 4.0f } };
+        KNNBatchQueryBuilder knnBatchQueryBuilder = new KNNBatchQueryBuilder("myvector", queryVectors, 3);
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        knnBatchQueryBuilder.writeTo(output);
+        KNNBatchQueryBuilder actualBuilder = new KNNBatchQueryBuilder(output.bytes().streamInput());
+
+        assertEquals(knnBatchQueryBuilder, actualBuilder);
+    }
+
+    public void testDoToQuery() throws Exception {
+        float[][] queryVectors = { { 1.0f, 2.0f }, { 3.0f, 4.0f } };
+        KNNBatchQueryBuilder knnBatchQueryBuilder = new KNNBatchQueryBuilder("myvector", queryVectors, 3);
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(2);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        when(mockQueryShardContext.nestedScope()).thenReturn(new NestedScope());
+
+        Query query = knnBatchQueryBuilder.doToQuery(mockQueryShardContext);
+        assertTrue(query instanceof DisjunctionMaxQuery);
+
+        List<Query> disjuncts = ((DisjunctionMaxQuery) query).getDisjuncts();
+        assertEquals(queryVectors.length, disjuncts.size());
+
+        KNNBatchContext batchContext = ((KNNQuery) disjuncts.get(0)).getBatchContext();
+        for (int i = 0; i < disjuncts.size(); i++) {
+            KNNQuery knnQuery = (KNNQuery) disjuncts.get(i);
+            assertSame(batchContext, knnQuery.getBatchContext());
+            assertEquals(i, knnQuery.getBatchIndex());
+            assertEquals(knnBatchQueryBuilder.getK(), knnQuery.getK());
+            verify(mockQueryShardContext).addNamedQuery(eq("myvector_" + i), any(Query.class));
+        }
+    }
+
+    public void testDoToQuery_InvalidDimensions() {
+        float[][] queryVectors = { { 1.0f, 2.0f }, { 3.0f, 4.0f } };
+        KNNBatchQueryBuilder knnBatchQueryBuilder = new KNNBatchQueryBuilder("myvector", queryVectors, 3);
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(4);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        expectThrows(IllegalArgumentException.class, () -> knnBatchQueryBuilder.doToQuery(mockQueryShardContext));
+    }
+
+    public void testDoToQuery_Nested() {
+        float[][] queryVectors = { { 1.0f, 2.0f }, { 3.0f, 4.0f } };
+        KNNBatchQueryBuilder knnBatchQueryBuilder = new KNNBatchQueryBuilder("myvector", queryVectors, 3);
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(2);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        NestedScope nestedScope = new NestedScope();
+        nestedScope.nextLevel(mock(ObjectMapper.class));
+        when(mockQueryShardContext.nestedScope()).thenReturn(nestedScope);
+        expectThrows(IllegalArgumentException.class, () -> knnBatchQueryBuilder.doToQuery(mockQueryShardContext));
+    }
+
+    public void testFromXcontent_Filter() throws Exception {
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        builder.startObject("myvector");
+        builder.startArray(KNNBatchQueryBuilder.VECTORS_FIELD.getPreferredName());
+        builder.value(new float[] { 1.0f, 2.0f });
+        builder.endArray();
+        builder.field(KNNBatchQueryBuilder.K_FIELD.getPreferredName(), 3);
+        builder.field(KNNQueryBuilder.FILTER_FIELD.getPreferredName(), QueryBuilders.matchAllQuery());
+        builder.endObject();
+        builder.endObject();
+        XContentParser contentParser = createParser(builder);
+        contentParser.nextToken();
+        expectThrows(ParsingException.class, () -> KNNBatchQueryBuilder.fromXContent(contentParser));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.opensearch.knn.KNNTestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+public class KNNCacheWarmerTests extends KNNTestCase {
+
+    public void testWriteAndReadHotSet() throws IOException {
+        Path file = createTempDir().resolve(KNNCacheWarmer.HOT_SET_FILE_NAME);
+        assertTrue(KNNCacheWarmer.readHotSet(file).isEmpty());
+
+        Map<String, Long> hotSet = new HashMap<>();
+        hotSet.put("/data/nodes/0/indices/abc/0/index/_0_165_test-field.hnsw", 10L);
+        hotSet.put("/data/with space/_1_165_test-field.faiss", 0L);
+        KNNCacheWarmer.writeHotSet(file, hotSet);
+        assertEquals(hotSet, KNNCacheWarmer.readHotSet(file));
+
+        // Writing again replaces the previous hot set
+        hotSet.remove("/data/with space/_1_165_test-field.faiss");
+        KNNCacheWarmer.writeHotSet(file, hotSet);
+        assertEquals(hotSet, KNNCacheWarmer.readHotSet(file));
+    }
+
+    public void testReadHotSet_malformedEntries() throws IOException {
+        Path file = createTempDir().resolve(KNNCacheWarmer.HOT_SET_FILE_NAME);
+        Files.write(file, "5 /path/a\nnot-a-count /path/b\n\n/path/c\n".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, Long> hotSet = KNNCacheWarmer.readHotSet(file);
+        assertEquals(1, hotSet.size());
+        assertEquals(5L, hotSet.get("/path/a").longValue());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.opensearch.knn.KNNTestCase;
+
+import java.io.IOException;
+
+public class KNNDocAndScoreQueryTests extends KNNTestCase {
+
+    public void testSearch_acrossSegments() throws IOException {
+        try (Directory directory = newDirectory()) {
+            // Three segments of three documents each
+            IndexWriterConfig config = new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+            try (IndexWriter writer = new IndexWriter(directory, config)) {
+                for (int i = 0; i < 9; i++) {
+                    Document document = new Document();
+                    document.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+                    writer.addDocument(document);
+                    if (i % 3 == 2) {
+                        writer.commit();
+                    }
+                }
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                assertEquals(3, reader.leaves().size());
+                IndexSearcher searcher = newSearcher(reader, false, false);
+
+                int[] docIds = {1, 4, 5, 8};
+                float[] scores = {0.4f, 0.9f, 0.1f, 0.6f};
+                KNNDocAndScoreQuery query = new KNNDocAndScoreQuery(docIds, scores, reader.getContext());
+
+                TopDocs topDocs = searcher.search(query, 10);
+                assertEquals(docIds.length, topDocs.scoreDocs.length);
+                assertEquals(4, topDocs.scoreDocs[0].doc);
+                assertEquals(0.9f, topDocs.scoreDocs[0].score, 0.0f);
+                assertEquals(8, topDocs.scoreDocs[1].doc);
+                assertEquals(1, topDocs.scoreDocs[2].doc);
+                assertEquals(5, topDocs.scoreDocs[3].doc);
+
+                assertTrue(searcher.explain(query, 4).isMatch());
+                assertFalse(searcher.explain(query, 3).isMatch());
+            }
+        }
+    }
+
+    public void testSearch_differentReader() throws IOException {
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                writer.addDocument(new Document());
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory);
+                 DirectoryReader otherReader = DirectoryReader.open(directory)) {
+                KNNDocAndScoreQuery query = new KNNDocAndScoreQuery(new int[]{0}, new float[]{1.0f},
+                        reader.getContext());
+                IndexSearcher searcher = newSearcher(otherReader, false, false);
+                assertEquals(0, searcher.search(query, 10).scoreDocs.length);
+            }
+        }
+    }
+
+    public void testExplain_differentReader() throws IOException {
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                writer.addDocument(new Document());
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory);
+                 DirectoryReader otherReader = DirectoryReader.open(directory)) {
+                // The query a KNNQuery rewrites into against one reader is explained by a searcher over another
+                Query query = new KNNDocAndScoreQuery(new int[]{0}, new float[]{1.0f}, reader.getContext())
+                        .rewrite(reader);
+                assertTrue(newSearcher(reader, false, false).explain(query, 0).isMatch());
+
+                Explanation explanation = newSearcher(otherReader, false, false).explain(query, 0);
+                assertFalse(explanation.isMatch());
+            }
+        }
+    }
+}
@@ -5,7 +5,18 @@
 
 package org.opensearch.knn.index;
 
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.opensearch.Version;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.opensearch.common.io.stream.NamedWriteableRegistry;
+import org.opensearch.common.io.stream.StreamInput;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.xcontent.NamedXContentRegistry;
+import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.knn.KNNTestCase;
+import org.opensearch.knn.common.KNNConstants;
+import org.opensearch.knn.index.util.KNNEngine;
 import org.opensearch.common.xcontent.XContentBuilder;
 import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.common.xcontent.XContentParser;
@@ -14,8 +25,10 @@ import org.opensearch.index.mapper.NumberFieldMapper;
 import org.opensearch.index.query.QueryShardContext;
 import org.opensearch.knn.indices.ModelDao;
 import org.opensearch.knn.indices.ModelMetadata;
+import org.opensearch.search.SearchModule;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.mock;
@@ -23,6 +36,13 @@ import static org.mockito.Mockito.when;
 
 public class KNNQueryBuilderTests extends KNNTestCase {
 
+    private static final SearchModule SEARCH_MODULE = new SearchModule(Settings.EMPTY, Collections.emptyList());
+
+    @Override
+    protected NamedXContentRegistry xContentRegistry() {
+        return new NamedXContentRegistry(SEARCH_MODULE.getNamedXContents());
+    }
+
     public void testInvalidK() {
         float[] queryVector = { 1.0f, 1.0f };
 
@@ -72,6 +92,380 @@ public class KNNQueryBuilderTests extends KNNTestCase {
         actualBuilder.equals(knnQueryBuilder);
     }
 
+    public void testFromXcontent_WithFilter() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .filter(QueryBuilders.termQuery("color", "red"));
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        builder.startObject(knnQueryBuilder.fieldName());
+        builder.field(KNNQueryBuilder.VECTOR_FIELD.getPreferredName(), knnQueryBuilder.vector());
+        builder.field(KNNQueryBuilder.K_FIELD.getPreferredName(), knnQueryBuilder.getK());
+        builder.field(KNNQueryBuilder.FILTER_FIELD.getPreferredName(), knnQueryBuilder.getFilter());
+        builder.endObject();
+        builder.endObject();
+        XContentParser contentParser = createParser(builder);
+        contentParser.nextToken();
+        KNNQueryBuilder actualBuilder = KNNQueryBuilder.fromXContent(contentParser);
+        assertEquals(knnQueryBuilder.getFilter(), actualBuilder.getFilter());
+    }
+
+    public void testSerialization_WithFilter() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .filter(QueryBuilders.termQuery("color", "red"));
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        knnQueryBuilder.writeTo(output);
+        StreamInput input = new NamedWriteableAwareStreamInput(output.bytes().streamInput(),
+                new NamedWriteableRegistry(SEARCH_MODULE.getNamedWriteables()));
+        KNNQueryBuilder actualBuilder = new KNNQueryBuilder(input);
+
+        assertEquals(knnQueryBuilder.fieldName(), actualBuilder.fieldName());
+        assertEquals(knnQueryBuilder.getK(), actualBuilder.getK());
+        assertEquals(knnQueryBuilder.getFilter(), actualBuilder.getFilter());
+    }
+
+    public void testSerialization_olderVersion() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        output.setVersion(Version.V_1_0_0);
+        new KNNQueryBuilder("myvector", queryVector, 1).writeTo(output);
+        StreamInput input = output.bytes().streamInput();
+        input.setVersion(Version.V_1_0_0);
+        KNNQueryBuilder actualBuilder = new KNNQueryBuilder(input);
+        assertEquals("myvector", actualBuilder.fieldName());
+        assertEquals(1, actualBuilder.getK());
+
+        // Fields older nodes do not know about cannot be dropped without changing the results
+        KNNQueryBuilder[] unsupportedBuilders = {
+                new KNNQueryBuilder("myvector", queryVector, 1).filter(QueryBuilders.termQuery("color", "red")),
+                new KNNQueryBuilder("myvector", queryVector, 1).methodParameters(
+                        Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_EF_SEARCH, 256)),
+                new KNNQueryBuilder("myvector", queryVector, 1).rescore(2.0f),
+                new KNNQueryBuilder("myvector", queryVector).maxDistance(10.0f),
+                new KNNQueryBuilder("myvector", queryVector).minScore(0.5f)
+        };
+        for (KNNQueryBuilder unsupportedBuilder : unsupportedBuilders) {
+            BytesStreamOutput olderOutput = new BytesStreamOutput();
+            olderOutput.setVersion(Version.V_1_0_0);
+            expectThrows(IllegalArgumentException.class, () -> unsupportedBuilder.writeTo(olderOutput));
+        }
+    }
+
+    public void testFromXcontent_WithMethodParameters() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .methodParameters(Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_EF_SEARCH, 256));
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        builder.startObject(knnQueryBuilder.fieldName());
+        builder.field(KNNQueryBuilder.VECTOR_FIELD.getPreferredName(), knnQueryBuilder.vector());
+        builder.field(KNNQueryBuilder.K_FIELD.getPreferredName(), knnQueryBuilder.getK());
+        builder.field(KNNQueryBuilder.METHOD_PARAMS_FIELD.getPreferredName(), knnQueryBuilder.getMethodParameters());
+        builder.endObject();
+        builder.endObject();
+        XContentParser contentParser = createParser(builder);
+        contentParser.nextToken();
+        KNNQueryBuilder actualBuilder = KNNQueryBuilder.fromXContent(contentParser);
+        assertEquals(knnQueryBuilder.getMethodParameters(), actualBuilder.getMethodParameters());
+    }
+
+    public void testMethodParameters_invalid() {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1);
+        expectThrows(IllegalArgumentException.class, () -> knnQueryBuilder.methodParameters(
+                Collections.<String, Object>singletonMap("m", 16)));
+        expectThrows(IllegalArgumentException.class, () -> knnQueryBuilder.methodParameters(
+                Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_NPROBES, 0)));
+        expectThrows(IllegalArgumentException.class, () -> knnQueryBuilder.methodParameters(
+                Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_EF_SEARCH, "100")));
+    }
+
+    public void testSerialization_WithMethodParameters() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .methodParameters(Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_NPROBES, 8));
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        knnQueryBuilder.writeTo(output);
+        StreamInput input = new NamedWriteableAwareStreamInput(output.bytes().streamInput(),
+                new NamedWriteableRegistry(SEARCH_MODULE.getNamedWriteables()));
+        KNNQueryBuilder actualBuilder = new KNNQueryBuilder(input);
+
+        assertEquals(knnQueryBuilder.getMethodParameters(), actualBuilder.getMethodParameters());
+    }
+
+    public void testDoToQuery_WithMethodParameters() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .methodParameters(Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_EF_SEARCH, 256));
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(4);
+        when(mockKNNVectorField.getKnnMethodContext()).thenReturn(getKnnMethodContext(KNNEngine.FAISS,
+                KNNConstants.METHOD_HNSW));
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        KNNQuery query = (KNNQuery) knnQueryBuilder.doToQuery(mockQueryShardContext);
+        assertEquals(knnQueryBuilder.getMethodParameters(), query.getMethodParameters());
+    }
+
+    public void testDoToQuery_WithMethodParameters_invalidMethod() {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(4);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+
+        KNNQueryBuilder efSearchQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .methodParameters(Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_EF_SEARCH, 256));
+        KNNQueryBuilder nprobesQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .methodParameters(Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_NPROBES, 8));
+
+        // Fields built from the index settings use nmslib, which reads no parameters at search time
+        expectThrows(IllegalArgumentException.class, () -> efSearchQueryBuilder.doToQuery(mockQueryShardContext));
+
+        when(mockKNNVectorField.getKnnMethodContext()).thenReturn(getKnnMethodContext(KNNEngine.NMSLIB,
+                KNNConstants.METHOD_HNSW));
+        expectThrows(IllegalArgumentException.class, () -> efSearchQueryBuilder.doToQuery(mockQueryShardContext));
+        expectThrows(IllegalArgumentException.class, () -> nprobesQueryBuilder.doToQuery(mockQueryShardContext));
+
+        when(mockKNNVectorField.getKnnMethodContext()).thenReturn(getKnnMethodContext(KNNEngine.FAISS,
+                KNNConstants.METHOD_HNSW));
+        expectThrows(IllegalArgumentException.class, () -> nprobesQueryBuilder.doToQuery(mockQueryShardContext));
+
+        when(mockKNNVectorField.getKnnMethodContext()).thenReturn(getKnnMethodContext(KNNEngine.FAISS,
+                KNNConstants.METHOD_IVF));
+        expectThrows(IllegalArgumentException.class, () -> efSearchQueryBuilder.doToQuery(mockQueryShardContext));
+    }
+
+    public void testDoToQuery_WithMethodParameters_modelDeleted() {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .methodParameters(Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_NPROBES, 8));
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(-1);
+        String modelId = "test-model-id";
+        when(mockKNNVectorField.getModelId()).thenReturn(modelId);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+
+        // The model is deleted after the dimension of the field was resolved
+        ModelMetadata modelMetadata = mock(ModelMetadata.class);
+        when(modelMetadata.getDimension()).thenReturn(4);
+        ModelDao modelDao = mock(ModelDao.class);
+        when(modelDao.getMetadata(modelId)).thenReturn(modelMetadata, (ModelMetadata) null);
+        KNNQueryBuilder.initialize(modelDao);
+
+        expectThrows(IllegalArgumentException.class, () -> knnQueryBuilder.doToQuery(mockQueryShardContext));
+    }
+
+    public void testDoToQuery_WithMethodParameters_ivf() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .methodParameters(Collections.<String, Object>singletonMap(KNNConstants.METHOD_PARAMETER_NPROBES, 8));
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(4);
+        when(mockKNNVectorField.getKnnMethodContext()).thenReturn(getKnnMethodContext(KNNEngine.FAISS,
+                KNNConstants.METHOD_IVF));
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        KNNQuery query = (KNNQuery) knnQueryBuilder.doToQuery(mockQueryShardContext);
+        assertEquals(knnQueryBuilder.getMethodParameters(), query.getMethodParameters());
+    }
+
+    private static KNNMethodContext getKnnMethodContext(KNNEngine knnEngine, String methodName) {
+        return new KNNMethodContext(knnEngine, SpaceType.L2, new MethodComponentContext(methodName,
+                Collections.emptyMap()));
+    }
+
+    public void testFromXcontent_WithRescore() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1).rescore(3.0f);
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        builder.startObject(knnQueryBuilder.fieldName());
+        builder.field(KNNQueryBuilder.VECTOR_FIELD.getPreferredName(), knnQueryBuilder.vector());
+        builder.field(KNNQueryBuilder.K_FIELD.getPreferredName(), knnQueryBuilder.getK());
+        builder.startObject(KNNQueryBuilder.RESCORE_FIELD.getPreferredName());
+        builder.field(KNNQueryBuilder.OVERSAMPLE_FACTOR_FIELD.getPreferredName(), knnQueryBuilder.getOversampleFactor());
+        builder.endObject();
+        builder.endObject();
+        builder.endObject();
+        XContentParser contentParser = createParser(builder);
+        contentParser.nextToken();
+        KNNQueryBuilder actualBuilder = KNNQueryBuilder.fromXContent(contentParser);
+        assertEquals(knnQueryBuilder.getOversampleFactor(), actualBuilder.getOversampleFactor());
+    }
+
+    public void testFromXcontent_WithRescoreDefault() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        builder.startObject("myvector");
+        builder.field(KNNQueryBuilder.VECTOR_FIELD.getPreferredName(), queryVector);
+        builder.field(KNNQueryBuilder.K_FIELD.getPreferredName(), 1);
+        builder.startObject(KNNQueryBuilder.RESCORE_FIELD.getPreferredName());
+        builder.endObject();
+        builder.endObject();
+        builder.endObject();
+        XContentParser contentParser = createParser(builder);
+        contentParser.nextToken();
+        KNNQueryBuilder actualBuilder = KNNQueryBuilder.fromXContent(contentParser);
+        assertEquals(KNNQueryBuilder.OVERSAMPLE_FACTOR_DEFAULT, actualBuilder.getOversampleFactor(), 0.0f);
+    }
+
+    public void testRescore_invalid() {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1);
+        expectThrows(IllegalArgumentException.class, () -> knnQueryBuilder.rescore(0.5f));
+        expectThrows(IllegalArgumentException.class, () -> knnQueryBuilder.rescore(
+                KNNQueryBuilder.OVERSAMPLE_FACTOR_MAX + 1));
+    }
+
+    public void testSerialization_WithRescore() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1).rescore(1.5f);
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        knnQueryBuilder.writeTo(output);
+        StreamInput input = new NamedWriteableAwareStreamInput(output.bytes().streamInput(),
+                new NamedWriteableRegistry(SEARCH_MODULE.getNamedWriteables()));
+        KNNQueryBuilder actualBuilder = new KNNQueryBuilder(input);
+
+        assertEquals(knnQueryBuilder.getOversampleFactor(), actualBuilder.getOversampleFactor());
+    }
+
+    public void testDoToQuery_WithRescore() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 10).rescore(2.5f);
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(4);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        KNNQuery query = (KNNQuery) knnQueryBuilder.doToQuery(mockQueryShardContext);
+        assertEquals(knnQueryBuilder.getOversampleFactor(), query.getOversampleFactor());
+        assertEquals(25, KNNWeight.getCandidateK(query));
+    }
+
+    public void testFromXcontent_WithMaxDistance() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector).maxDistance(2.5f);
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        builder.startObject(knnQueryBuilder.fieldName());
+        builder.field(KNNQueryBuilder.VECTOR_FIELD.getPreferredName(), knnQueryBuilder.vector());
+        builder.field(KNNQueryBuilder.MAX_DISTANCE_FIELD.getPreferredName(), knnQueryBuilder.getMaxDistance());
+        builder.endObject();
+        builder.endObject();
+        XContentParser contentParser = createParser(builder);
+        contentParser.nextToken();
+        KNNQueryBuilder actualBuilder = KNNQueryBuilder.fromXContent(contentParser);
+        assertEquals(knnQueryBuilder.getMaxDistance(), actualBuilder.getMaxDistance());
+        assertEquals(knnQueryBuilder.getMinScore(), actualBuilder.getMinScore());
+        assertEquals(0, actualBuilder.getK());
+    }
+
+    public void testFromXcontent_WithMinScore() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector).minScore(0.8f);
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        builder.startObject(knnQueryBuilder.fieldName());
+        builder.field(KNNQueryBuilder.VECTOR_FIELD.getPreferredName(), knnQueryBuilder.vector());
+        builder.field(KNNQueryBuilder.MIN_SCORE_FIELD.getPreferredName(), knnQueryBuilder.getMinScore());
+        builder.endObject();
+        builder.endObject();
+        XContentParser contentParser = createParser(builder);
+        contentParser.nextToken();
+        KNNQueryBuilder actualBuilder = KNNQueryBuilder.fromXContent(contentParser);
+        assertEquals(knnQueryBuilder.getMaxDistance(), actualBuilder.getMaxDistance());
+        assertEquals(knnQueryBuilder.getMinScore(), actualBuilder.getMinScore());
+        assertEquals(0, actualBuilder.getK());
+    }
+
+    public void testRadialSearch_invalid() {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        expectThrows(IllegalArgumentException.class, () -> new KNNQueryBuilder("myvector", queryVector, 1)
+                .maxDistance(1.0f));
+        expectThrows(IllegalArgumentException.class, () -> new KNNQueryBuilder("myvector", queryVector)
+                .maxDistance(1.0f).minScore(0.5f));
+        expectThrows(IllegalArgumentException.class, () -> new KNNQueryBuilder("myvector", queryVector)
+                .maxDistance(-1.0f));
+        expectThrows(IllegalArgumentException.class, () -> new KNNQueryBuilder("myvector", queryVector)
+                .minScore(0.0f));
+    }
+
+    public void testSerialization_WithMinScore() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector).minScore(0.5f);
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        knnQueryBuilder.writeTo(output);
+        StreamInput input = new NamedWriteableAwareStreamInput(output.bytes().streamInput(),
+                new NamedWriteableRegistry(SEARCH_MODULE.getNamedWriteables()));
+        KNNQueryBuilder actualBuilder = new KNNQueryBuilder(input);
+
+        assertEquals(knnQueryBuilder.getMinScore(), actualBuilder.getMinScore());
+        assertNull(actualBuilder.getMaxDistance());
+    }
+
+    public void testDoToQuery_WithMaxDistance() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector).maxDistance(3.0f);
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(4);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        KNNQuery query = (KNNQuery) knnQueryBuilder.doToQuery(mockQueryShardContext);
+        assertTrue(query.isRadialSearch());
+        assertEquals(knnQueryBuilder.getMaxDistance(), query.getMaxDistance());
+
+        // faiss reports squared l2 distances
+        assertEquals(9.0f, KNNWeight.getRadius(query, KNNEngine.FAISS, SpaceType.L2), 0.0001f);
+        assertEquals(3.0f, KNNWeight.getRadius(query, KNNEngine.NMSLIB, SpaceType.L2), 0.0001f);
+        expectThrows(IllegalArgumentException.class, () -> KNNWeight.getRadius(query, KNNEngine.FAISS,
+                SpaceType.INNER_PRODUCT));
+
+        KNNQueryBuilder rescoredBuilder = new KNNQueryBuilder("myvector", queryVector).maxDistance(3.0f)
+                .rescore(2.0f);
+        expectThrows(IllegalArgumentException.class, () -> rescoredBuilder.doToQuery(mockQueryShardContext));
+    }
+
+    public void testDoToQuery_WithMinScore() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector).minScore(0.5f);
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(4);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        KNNQuery query = (KNNQuery) knnQueryBuilder.doToQuery(mockQueryShardContext);
+        assertEquals(knnQueryBuilder.getMinScore(), query.getMinScore());
+
+        // The radius has to translate back to the minimum score
+        for (KNNEngine knnEngine : new KNNEngine[] { KNNEngine.FAISS, KNNEngine.NMSLIB }) {
+            for (SpaceType spaceType : new SpaceType[] { SpaceType.L2, SpaceType.INNER_PRODUCT }) {
+                float radius = KNNWeight.getRadius(query, knnEngine, spaceType);
+                assertEquals(0.5f, knnEngine.score(radius, spaceType), 0.0001f);
+            }
+        }
+    }
+
     public void testDoToQuery_Normal() throws Exception {
         float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
         KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1);
@@ -87,6 +481,21 @@ public class KNNQueryBuilderTests extends KNNTestCase {
         assertEquals(knnQueryBuilder.vector(), query.getQueryVector());
     }
 
+    public void testDoToQuery_WithFilter() throws Exception {
+        float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
+        KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1)
+                .filter(QueryBuilders.matchAllQuery());
+        Index dummyIndex = new Index("dummy", "dummy");
+        QueryShardContext mockQueryShardContext = mock(QueryShardContext.class);
+        KNNVectorFieldMapper.KNNVectorFieldType mockKNNVectorField = mock(KNNVectorFieldMapper.KNNVectorFieldType.class);
+        when(mockQueryShardContext.index()).thenReturn(dummyIndex);
+        when(mockKNNVectorField.getDimension()).thenReturn(4);
+        when(mockQueryShardContext.fieldMapper(anyString())).thenReturn(mockKNNVectorField);
+        KNNQuery query = (KNNQuery) knnQueryBuilder.doToQuery(mockQueryShardContext);
+        assertEquals(knnQueryBuilder.getK(), query.getK());
+        assertTrue(query.getFilterQuery() instanceof MatchAllDocsQuery);
+    }
+
     public void testDoToQuery_FromModel() throws Exception {
         float[] queryVector = { 1.0f, 2.0f, 3.0f, 4.0f };
         KNNQueryBuilder knnQueryBuilder = new KNNQueryBuilder("myvector", queryVector, 1);
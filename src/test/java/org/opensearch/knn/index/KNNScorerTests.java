@@ -0,0 +1,73 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Weight;
+import org.opensearch.knn.KNNTestCase;
+
+import java.io.IOException;
+
+import static org.mockito.Mockito.mock;
+
+public class KNNScorerTests extends KNNTestCase {
+
+    private static final int[] DOC_IDS = {2, 5, 9, 14};
+    private static final float[] SCORES = {0.5f, 0.9f, 0.2f, 0.7f};
+
+    public void testNextDoc() throws IOException {
+        KNNScorer scorer = new KNNScorer(mock(Weight.class), DOC_IDS, SCORES, DOC_IDS.length, 1.0f);
+        DocIdSetIterator iterator = scorer.iterator();
+
+        assertEquals(-1, scorer.docID());
+        for (int i = 0; i < DOC_IDS.length; i++) {
+            assertEquals(DOC_IDS[i], iterator.nextDoc());
+            assertEquals(SCORES[i], scorer.score(), 0.0f);
+        }
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, iterator.nextDoc());
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, scorer.docID());
+    }
+
+    public void testAdvance() throws IOException {
+        KNNScorer scorer = new KNNScorer(mock(Weight.class), DOC_IDS, SCORES, DOC_IDS.length, 1.0f);
+        DocIdSetIterator iterator = scorer.iterator();
+
+        assertEquals(5, iterator.advance(3));
+        assertEquals(0.9f, scorer.score(), 0.0f);
+        assertEquals(9, iterator.advance(9));
+        assertEquals(14, iterator.nextDoc());
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, iterator.advance(15));
+    }
+
+    public void testGetMaxScore() throws IOException {
+        KNNScorer scorer = new KNNScorer(mock(Weight.class), DOC_IDS, SCORES, DOC_IDS.length, 1.0f);
+
+        assertEquals(0.9f, scorer.getMaxScore(DocIdSetIterator.NO_MORE_DOCS), 0.0f);
+        assertEquals(0.9f, scorer.getMaxScore(4), 0.0f);
+
+        // Documents before the current one no longer count
+        scorer.iterator().advance(9);
+        assertEquals(0.7f, scorer.getMaxScore(DocIdSetIterator.NO_MORE_DOCS), 0.0f);
+        assertEquals(0.7f, scorer.getMaxScore(10), 0.0f);
+
+        // A range without documents has no score
+        assertEquals(0.0f, scorer.getMaxScore(8), 0.0f);
+        scorer.iterator().advance(15);
+        assertEquals(0.0f, scorer.getMaxScore(DocIdSetIterator.NO_MORE_DOCS), 0.0f);
+    }
+
+    public void testSize() throws IOException {
+        // Only the first size entries of the arrays belong to the scorer
+        KNNScorer scorer = new KNNScorer(mock(Weight.class), DOC_IDS, SCORES, 2, 1.0f);
+        DocIdSetIterator iterator = scorer.iterator();
+
+        assertEquals(2, iterator.cost());
+        assertEquals(2, iterator.nextDoc());
+        assertEquals(5, iterator.nextDoc());
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, iterator.nextDoc());
+        assertEquals(0.9f, scorer.getMaxScore(DocIdSetIterator.NO_MORE_DOCS), 0.0f);
+    }
+}
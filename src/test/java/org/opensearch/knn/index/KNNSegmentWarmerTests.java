@@ -0,0 +1,53 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.knn.KNNSingleNodeTestCase;
+import org.opensearch.knn.index.memory.NativeMemoryCacheManager;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.opensearch.knn.index.memory.NativeMemoryCacheManager.GRAPH_COUNT;
+
+public class KNNSegmentWarmerTests extends KNNSingleNodeTestCase {
+
+    private final String testIndexName = "test-index";
+    private final String testFieldName = "test-field";
+    private final int dimensions = 2;
+
+    public void testWarm_autoWarmDisabled() throws InterruptedException, ExecutionException, IOException {
+        createKNNIndex(testIndexName);
+        createKnnIndexMapping(testIndexName, testFieldName, dimensions);
+        addKnnDoc(testIndexName, "1", testFieldName, new Float[] { 2.5F, 3.5F });
+
+        assertNull(NativeMemoryCacheManager.getInstance().getIndicesCacheStats().get(testIndexName));
+    }
+
+    public void testWarm_autoWarmEnabled() throws Exception {
+        Settings settings = Settings.builder()
+            .put(getKNNDefaultIndexSettings())
+            .put(KNNSettings.KNN_AUTO_WARM, true)
+            .build();
+        createIndex(testIndexName, settings, null);
+        createKnnIndexMapping(testIndexName, testFieldName, dimensions);
+
+        // Each refresh creates a segment, whose graph is loaded in the background
+        addKnnDoc(testIndexName, "1", testFieldName, new Float[] { 2.5F, 3.5F });
+        assertBusy(() -> assertGraphCount(1));
+        addKnnDoc(testIndexName, "2", testFieldName, new Float[] { 2.5F, 3.5F });
+        assertBusy(() -> assertGraphCount(2));
+    }
+
+    private void assertGraphCount(int graphCount) {
+        Map<String, Object> indexCacheStats = NativeMemoryCacheManager.getInstance().getIndicesCacheStats()
+            .get(testIndexName);
+        assertNotNull(indexCacheStats);
+        assertEquals(graphCount, indexCacheStats.get(GRAPH_COUNT));
+    }
+}
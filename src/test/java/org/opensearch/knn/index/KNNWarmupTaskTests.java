@@ -0,0 +1,87 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index;
+
+import org.opensearch.knn.KNNTestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+public class KNNWarmupTaskTests extends KNNTestCase {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        // Load the graphs on the calling thread
+        KNNWarmupTask.initialize(null);
+    }
+
+    public void testStart() {
+        Map<String, Long> graphSizes = new HashMap<>();
+        graphSizes.put("graph-1", 100L);
+        graphSizes.put("graph-2", 200L);
+        List<String> loaded = new ArrayList<>();
+
+        KNNWarmupTask task = new KNNWarmupTask("test-index", graphSizes, loaded::add);
+        assertEquals(2, task.getTotalGraphs());
+        assertEquals(2, task.getGraphsRemaining());
+        assertEquals(300L, task.getTotalBytes());
+        assertEquals(0L, task.getBytesLoaded());
+
+        task.start();
+        task.awaitCompletion();
+        assertTrue(task.isDone());
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.containsAll(graphSizes.keySet()));
+        assertEquals(0, task.getGraphsRemaining());
+        assertEquals(300L, task.getBytesLoaded());
+        assertEquals(0L, KNNWarmupTask.getRunningGraphsRemaining());
+    }
+
+    public void testStart_noGraphs() {
+        KNNWarmupTask task = new KNNWarmupTask("test-index", new HashMap<>(), enginePath -> fail("Nothing to load"));
+        task.start();
+        task.awaitCompletion();
+        assertTrue(task.isDone());
+    }
+
+    public void testStart_loadFailure() {
+        Map<String, Long> graphSizes = new HashMap<>();
+        graphSizes.put("graph-1", 100L);
+
+        KNNWarmupTask task = new KNNWarmupTask("test-index", graphSizes, enginePath -> {
+            throw new ExecutionException(new IllegalStateException("Unable to load"));
+        });
+        task.start();
+        RuntimeException e = expectThrows(RuntimeException.class, task::awaitCompletion);
+        assertTrue(e.getCause() instanceof ExecutionException);
+        assertEquals(1, task.getGraphsRemaining());
+    }
+
+    public void testCancel() {
+        Map<String, Long> graphSizes = new HashMap<>();
+        graphSizes.put("graph-1", 100L);
+        graphSizes.put("graph-2", 200L);
+        List<String> loaded = new ArrayList<>();
+
+        KNNWarmupTask[] task = new KNNWarmupTask[1];
+        task[0] = new KNNWarmupTask("test-index", graphSizes, enginePath -> {
+            loaded.add(enginePath);
+            task[0].cancel();
+        });
+        task[0].start();
+
+        // The graph being loaded when the task was cancelled finishes loading, and the other one is skipped
+        expectThrows(CancellationException.class, task[0]::awaitCompletion);
+        assertTrue(task[0].isCancelled());
+        assertEquals(1, loaded.size());
+        assertEquals(1, task[0].getGraphsRemaining());
+    }
+}
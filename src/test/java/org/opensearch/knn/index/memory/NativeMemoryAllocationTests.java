@@ -29,10 +29,12 @@ import java.util.concurrent.Executors;
 
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class NativeMemoryAllocationTests extends KNNTestCase {
 
-    private int testLockValue1;
     private int testLockValue2;
     private int testLockValue3;
     private int testLockValue4;
@@ -104,39 +106,37 @@ public class NativeMemoryAllocationTests extends KNNTestCase {
         assertEquals(memoryAddress, indexAllocation.getMemoryAddress());
     }
 
-    public void testIndexAllocation_readLock() throws InterruptedException {
-        // To test the readLock, we grab the readLock in the main thread and then start a thread that grabs the write
-        // lock and updates testLockValue1. We ensure that the value is not updated until after we release the readLock
+    public void testIndexAllocation_refCount() {
+        // The index is only freed once both the cache's reference and the search's reference are released, and
+        // neither release waits for the other
+        @SuppressWarnings("unchecked")
+        WatcherHandle<FileWatcher> watcherHandle = (WatcherHandle<FileWatcher>) mock(WatcherHandle.class);
         NativeMemoryAllocation.IndexAllocation indexAllocation = new NativeMemoryAllocation.IndexAllocation(
-                null,
+                Runnable::run,
                 0,
                 0,
                 null,
                 "test",
                 "test",
-                null
+                watcherHandle
         );
 
-        int initialValue = 10;
-        int finalValue = 16;
-        testLockValue1 = initialValue;
-
         indexAllocation.readLock();
+        assertFalse(indexAllocation.isClosed());
 
-        Thread thread = new Thread(() -> {
-            indexAllocation.writeLock();
-            testLockValue1 = finalValue;
-            indexAllocation.writeUnlock();
-        });
-
-        thread.start();
-        Thread.sleep(1000);
+        indexAllocation.close();
+        assertTrue(indexAllocation.isClosed());
+        verify(watcherHandle, never()).stop();
 
-        assertEquals(initialValue, testLockValue1);
         indexAllocation.readUnlock();
+        verify(watcherHandle, times(1)).stop();
 
-        Thread.sleep(1000);
-        assertEquals(finalValue, testLockValue1);
+        // A reference acquired after the index is freed does not free it again
+        indexAllocation.readLock();
+        assertTrue(indexAllocation.isClosed());
+        indexAllocation.readUnlock();
+        indexAllocation.close();
+        verify(watcherHandle, times(1)).stop();
     }
 
     public void testIndexAllocation_writeLock() throws InterruptedException {
@@ -14,21 +14,30 @@ package org.opensearch.knn.index.memory;
 import com.google.common.cache.CacheStats;
 import org.opensearch.action.admin.cluster.settings.ClusterUpdateSettingsRequest;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.knn.common.KNNConstants;
 import org.opensearch.knn.common.exception.OutOfNativeMemoryException;
 import org.opensearch.knn.index.KNNSettings;
+import org.opensearch.knn.index.util.KNNEngine;
 import org.opensearch.knn.plugin.KNNPlugin;
 import org.opensearch.plugins.Plugin;
 import org.opensearch.test.OpenSearchSingleNodeTestCase;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.opensearch.knn.index.memory.NativeMemoryCacheManager.GRAPH_COUNT;
+import static org.opensearch.knn.index.memory.NativeMemoryCacheManager.GRAPH_MEMORY_OVERHEAD;
 import static org.opensearch.knn.plugin.stats.StatNames.GRAPH_MEMORY_USAGE;
 
 public class NativeMemoryCacheManagerTests extends OpenSearchSingleNodeTestCase {
@@ -50,15 +59,17 @@ public class NativeMemoryCacheManagerTests extends OpenSearchSingleNodeTestCase
         return Collections.singletonList(KNNPlugin.class);
     }
 
-    public void testRebuildCache() throws ExecutionException, InterruptedException {
+    public void testRebuildCache() throws ExecutionException, InterruptedException, IOException {
         NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
 
         // Put entry in cache and check that the weight matches
         int size = 10;
         TestNativeMemoryEntryContent testNativeMemoryEntryContent = new TestNativeMemoryEntryContent("test", size);
         nativeMemoryCacheManager.get(testNativeMemoryEntryContent, true);
+        nativeMemoryCacheManager.get(indexEntryContext("test-graph", "test-index", size), true);
 
-        assertEquals(size, nativeMemoryCacheManager.getCacheSizeInKilobytes());
+        assertEquals(2 * size, nativeMemoryCacheManager.getCacheSizeInKilobytes());
+        assertEquals(size, nativeMemoryCacheManager.getIndicesSizeInKilobytes());
 
         // Call rebuild and check total weight is at 0
         nativeMemoryCacheManager.rebuildCache();
@@ -67,6 +78,8 @@ public class NativeMemoryCacheManagerTests extends OpenSearchSingleNodeTestCase
         Thread.sleep(2000);
 
         assertEquals(0, nativeMemoryCacheManager.getCacheSizeInKilobytes());
+        assertEquals(0, nativeMemoryCacheManager.getIndicesSizeInKilobytes());
+        assertEquals(0, nativeMemoryCacheManager.getIndexGraphCount("test-index"));
         nativeMemoryCacheManager.close();
     }
 
@@ -207,6 +220,73 @@ public class NativeMemoryCacheManagerTests extends OpenSearchSingleNodeTestCase
         nativeMemoryCacheManager.close();
     }
 
+    public void testTrainingPool() throws ExecutionException {
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        long servingMaxWeight = nativeMemoryCacheManager.getServingMaxCacheSizeInKilobytes();
+        long trainingMaxWeight = nativeMemoryCacheManager.getTrainingMaxCacheSizeInKilobytes();
+        assertTrue(servingMaxWeight + trainingMaxWeight <= nativeMemoryCacheManager.getMaxCacheSizeInKilobytes());
+
+        int servingEntryWeight = (int) (servingMaxWeight / 2);
+        int trainingEntryWeight = (int) (trainingMaxWeight * 2 / 3);
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-1", servingEntryWeight), true);
+
+        // Training allocations only evict each other, and never the serving graphs
+        for (String key : new String[] {"training-1", "training-2"}) {
+            NativeMemoryEntryContext.TrainingDataEntryContext trainingDataEntryContext =
+                    mock(NativeMemoryEntryContext.TrainingDataEntryContext.class);
+            when(trainingDataEntryContext.load()).thenReturn(new NativeMemoryAllocation.TrainingDataAllocation(
+                    mock(ExecutorService.class), 0, trainingEntryWeight));
+            when(trainingDataEntryContext.getKey()).thenReturn(key);
+            nativeMemoryCacheManager.get(trainingDataEntryContext, true);
+        }
+
+        assertTrue(nativeMemoryCacheManager.contains("test-1"));
+        assertFalse(nativeMemoryCacheManager.contains("training-1"));
+        assertTrue(nativeMemoryCacheManager.contains("training-2"));
+        assertEquals(servingEntryWeight, nativeMemoryCacheManager.getServingCacheSizeInKilobytes());
+        assertEquals(trainingEntryWeight, nativeMemoryCacheManager.getTrainingSizeInKilobytes());
+        assertEquals(servingEntryWeight + trainingEntryWeight, nativeMemoryCacheManager.getCacheSizeInKilobytes());
+        assertEquals(1, nativeMemoryCacheManager.getTrainingEvictionCount());
+        assertEquals(0, nativeMemoryCacheManager.getCacheStats().evictionCount());
+        assertFalse(nativeMemoryCacheManager.isCacheCapacityReached());
+
+        // An allocation that cannot evict fails when it does not fit in the training pool, even with serving room
+        NativeMemoryEntryContext.AnonymousEntryContext anonymousEntryContext =
+                mock(NativeMemoryEntryContext.AnonymousEntryContext.class);
+        when(anonymousEntryContext.getKey()).thenReturn("model-1");
+        when(anonymousEntryContext.calculateSizeInKB()).thenReturn(trainingEntryWeight);
+        expectThrows(OutOfNativeMemoryException.class,
+                () -> nativeMemoryCacheManager.get(anonymousEntryContext, false));
+
+        nativeMemoryCacheManager.close();
+    }
+
+    public void testTrainingPool_limitedByServingPool() throws ExecutionException, InterruptedException {
+        ClusterUpdateSettingsRequest clusterUpdateSettingsRequest = new ClusterUpdateSettingsRequest();
+        clusterUpdateSettingsRequest.transientSettings(Settings.builder()
+                .put(KNNSettings.KNN_MEMORY_SERVING_LIMIT, "95%")
+                .put(KNNSettings.KNN_MEMORY_TRAINING_LIMIT, "20%")
+                .build());
+        client().admin().cluster().updateSettings(clusterUpdateSettingsRequest).get();
+
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        try {
+            // The pools together never exceed the circuit breaker limit
+            long maxWeight = nativeMemoryCacheManager.getMaxCacheSizeInKilobytes();
+            long servingMaxWeight = nativeMemoryCacheManager.getServingMaxCacheSizeInKilobytes();
+            assertEquals(KNNSettings.getServingMemoryLimit().getKb(), servingMaxWeight);
+            assertEquals(maxWeight - servingMaxWeight, nativeMemoryCacheManager.getTrainingMaxCacheSizeInKilobytes());
+        } finally {
+            clusterUpdateSettingsRequest = new ClusterUpdateSettingsRequest();
+            clusterUpdateSettingsRequest.transientSettings(Settings.builder()
+                    .putNull(KNNSettings.KNN_MEMORY_SERVING_LIMIT)
+                    .putNull(KNNSettings.KNN_MEMORY_TRAINING_LIMIT)
+                    .build());
+            client().admin().cluster().updateSettings(clusterUpdateSettingsRequest).get();
+            nativeMemoryCacheManager.close();
+        }
+    }
+
     public void testGetIndexGraphCount() throws ExecutionException, IOException {
         NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
         long maxWeight = nativeMemoryCacheManager.getMaxCacheSizeInKilobytes();
@@ -278,6 +358,84 @@ public class NativeMemoryCacheManagerTests extends OpenSearchSingleNodeTestCase
         nativeMemoryCacheManager.close();
     }
 
+    public void testSizeCounters_invalidate() throws ExecutionException, IOException {
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        int trainingEntryWeight = 10;
+        int indexEntryWeight = 20;
+        String indexName = "test-index";
+        String key1 = "test-key-1";
+        String key2 = "test-key-2";
+
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-1", trainingEntryWeight), true);
+
+        for (String key : new String[] {key1, key2}) {
+            NativeMemoryAllocation.IndexAllocation indexAllocation = new NativeMemoryAllocation.IndexAllocation(
+                    mock(ExecutorService.class),
+                    0,
+                    indexEntryWeight,
+                    null,
+                    key,
+                    indexName,
+                    null
+            );
+
+            NativeMemoryEntryContext.IndexEntryContext indexEntryContext =
+                    mock(NativeMemoryEntryContext.IndexEntryContext.class);
+            when(indexEntryContext.load()).thenReturn(indexAllocation);
+            when(indexEntryContext.getKey()).thenReturn(key);
+            nativeMemoryCacheManager.get(indexEntryContext, true);
+        }
+
+        assertEquals(2 * indexEntryWeight, nativeMemoryCacheManager.getIndicesSizeInKilobytes());
+        assertEquals(trainingEntryWeight, nativeMemoryCacheManager.getTrainingSizeInKilobytes());
+        assertEquals(2, nativeMemoryCacheManager.getIndexGraphCount(indexName));
+
+        nativeMemoryCacheManager.invalidate(key1);
+        assertEquals(indexEntryWeight, nativeMemoryCacheManager.getIndicesSizeInKilobytes());
+        assertEquals(indexEntryWeight, nativeMemoryCacheManager.getIndexSizeInKilobytes(indexName).longValue());
+        assertEquals(1, nativeMemoryCacheManager.getIndexGraphCount(indexName));
+
+        nativeMemoryCacheManager.invalidateAll();
+        assertEquals(0, nativeMemoryCacheManager.getIndicesSizeInKilobytes());
+        assertEquals(0, nativeMemoryCacheManager.getTrainingSizeInKilobytes());
+        assertEquals(0, nativeMemoryCacheManager.getIndexGraphCount(indexName));
+        assertTrue(nativeMemoryCacheManager.getIndicesCacheStats().isEmpty());
+
+        nativeMemoryCacheManager.close();
+    }
+
+    public void testSizeCounters_noIndexName() throws ExecutionException {
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        int indexEntryWeight = 20;
+        String key = "test-key";
+
+        // Allocations without an OpenSearch index only count towards the totals
+        NativeMemoryAllocation.IndexAllocation indexAllocation = new NativeMemoryAllocation.IndexAllocation(
+                mock(ExecutorService.class),
+                0,
+                indexEntryWeight,
+                null,
+                key,
+                null,
+                null
+        );
+
+        NativeMemoryEntryContext.IndexEntryContext indexEntryContext =
+                mock(NativeMemoryEntryContext.IndexEntryContext.class);
+        when(indexEntryContext.load()).thenReturn(indexAllocation);
+        when(indexEntryContext.getKey()).thenReturn(key);
+        nativeMemoryCacheManager.get(indexEntryContext, true);
+
+        assertEquals(indexEntryWeight, nativeMemoryCacheManager.getIndicesSizeInKilobytes());
+        assertTrue(nativeMemoryCacheManager.getIndicesCacheStats().isEmpty());
+
+        nativeMemoryCacheManager.invalidate(key);
+        assertEquals(0, nativeMemoryCacheManager.getIndicesSizeInKilobytes());
+        assertFalse(nativeMemoryCacheManager.contains(key));
+
+        nativeMemoryCacheManager.close();
+    }
+
     public void testGetMaxCacheSizeInKB() {
         NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
         assertEquals(KNNSettings.getCircuitBreakerLimit().getKb(), nativeMemoryCacheManager.getMaxCacheSizeInKilobytes());
@@ -334,6 +492,43 @@ public class NativeMemoryCacheManagerTests extends OpenSearchSingleNodeTestCase
         nativeMemoryCacheManager.close();
     }
 
+    public void testGetAsync_higherPriorityNotEvicted() throws ExecutionException {
+        String highPriorityIndex = "high-priority-index";
+        createIndex(highPriorityIndex, Settings.builder()
+                .put(KNNSettings.KNN_INDEX, true)
+                .put(KNNSettings.KNN_CACHE_PRIORITY, KNNConstants.CACHE_PRIORITY_HIGH)
+                .build());
+
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        int servingMaxWeight = (int) nativeMemoryCacheManager.getServingMaxCacheSizeInKilobytes();
+        NativeMemoryEntryContext.IndexEntryContext highPriorityContext = indexEntryContext("high-key",
+                highPriorityIndex, servingMaxWeight * 2 / 3);
+        nativeMemoryCacheManager.get(highPriorityContext, true);
+
+        // A normal priority graph that could only fit by evicting the high priority one is rejected before it is read
+        NativeMemoryEntryContext.IndexEntryContext normalPriorityContext = indexEntryContext("normal-key", null,
+                servingMaxWeight / 2);
+        expectThrows(OutOfNativeMemoryException.class, () -> nativeMemoryCacheManager.getAsync(normalPriorityContext));
+        expectThrows(OutOfNativeMemoryException.class, () -> nativeMemoryCacheManager.get(normalPriorityContext, true));
+        verify(normalPriorityContext, never()).load();
+        assertTrue(nativeMemoryCacheManager.contains("high-key"));
+        assertFalse(nativeMemoryCacheManager.isCacheCapacityReached());
+
+        nativeMemoryCacheManager.close();
+    }
+
+    private NativeMemoryEntryContext.IndexEntryContext indexEntryContext(String key, String indexName, int sizeInKB)
+            throws IOException {
+        NativeMemoryEntryContext.IndexEntryContext indexEntryContext =
+                mock(NativeMemoryEntryContext.IndexEntryContext.class);
+        when(indexEntryContext.getKey()).thenReturn(key);
+        when(indexEntryContext.getOpenSearchIndexName()).thenReturn(indexName);
+        when(indexEntryContext.calculateSizeInKB()).thenReturn(sizeInKB);
+        when(indexEntryContext.load()).thenReturn(new NativeMemoryAllocation.IndexAllocation(
+                mock(ExecutorService.class), 0, sizeInKB, null, key, indexName, null));
+        return indexEntryContext;
+    }
+
     public void testInvalidate() throws ExecutionException {
         NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
 
@@ -385,6 +580,96 @@ public class NativeMemoryCacheManagerTests extends OpenSearchSingleNodeTestCase
         assertFalse(nativeMemoryCacheManager.isCacheCapacityReached());
     }
 
+    public void testCacheCapacity_hysteresis() throws ExecutionException {
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        List<Boolean> notifications = new ArrayList<>();
+        nativeMemoryCacheManager.setCacheCapacityListener(notifications::add);
+        int maxWeight = (int) nativeMemoryCacheManager.getMaxCacheSizeInKilobytes();
+        int unsetWeight = (int) nativeMemoryCacheManager.getCacheCapacityUnsetSizeInKilobytes();
+
+        // Loading an entry that does not fit evicts the other one, which reaches the capacity
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-1", maxWeight / 2), true);
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-2", unsetWeight + 1), true);
+        assertTrue(nativeMemoryCacheManager.isCacheCapacityReached());
+        assertEquals(Collections.singletonList(true), notifications);
+
+        // The capacity stays reached while the cache is above the unset size
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-3", 1), true);
+        nativeMemoryCacheManager.invalidate("test-3");
+        assertEquals(unsetWeight + 1, nativeMemoryCacheManager.getCacheSizeInKilobytes());
+        assertTrue(nativeMemoryCacheManager.isCacheCapacityReached());
+
+        // and is freed as soon as the cache goes below it
+        nativeMemoryCacheManager.invalidateAll();
+        assertFalse(nativeMemoryCacheManager.isCacheCapacityReached());
+        assertEquals(Arrays.asList(true, false), notifications);
+
+        nativeMemoryCacheManager.close();
+    }
+
+    public void testCacheCapacity_freedByEviction() throws ExecutionException {
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        List<Boolean> notifications = new ArrayList<>();
+        nativeMemoryCacheManager.setCacheCapacityListener(notifications::add);
+        int servingMaxWeight = (int) nativeMemoryCacheManager.getServingMaxCacheSizeInKilobytes();
+        int unsetWeight = (int) nativeMemoryCacheManager.getCacheCapacityUnsetSizeInKilobytes();
+
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-1", servingMaxWeight / 2), true);
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-2", unsetWeight + 1), true);
+        assertTrue(nativeMemoryCacheManager.isCacheCapacityReached());
+
+        // A load whose eviction round leaves the cache at the unset size frees the capacity
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-3", unsetWeight), true);
+        assertFalse(nativeMemoryCacheManager.contains("test-2"));
+        assertEquals(unsetWeight, nativeMemoryCacheManager.getServingCacheSizeInKilobytes());
+        assertFalse(nativeMemoryCacheManager.isCacheCapacityReached());
+        assertEquals(Arrays.asList(true, false), notifications);
+
+        nativeMemoryCacheManager.close();
+    }
+
+    public void testCacheThrashing() throws ExecutionException, InterruptedException {
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        int servingMaxWeight = (int) nativeMemoryCacheManager.getServingMaxCacheSizeInKilobytes();
+        int entryWeight = servingMaxWeight * 3 / 5;
+
+        // Each entry evicts the other one, so loading the first one again is a reload
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-1", entryWeight), true);
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-2", entryWeight), true);
+        nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-1", entryWeight), true);
+        assertEquals(1, nativeMemoryCacheManager.getReloadCount());
+        assertEquals(1, nativeMemoryCacheManager.getRecentReloadCount());
+        assertFalse(nativeMemoryCacheManager.isCacheThrashing());
+
+        ClusterUpdateSettingsRequest clusterUpdateSettingsRequest = new ClusterUpdateSettingsRequest();
+        clusterUpdateSettingsRequest.transientSettings(Settings.builder()
+                .put(KNNSettings.KNN_CACHE_THRASH_RELOAD_THRESHOLD, 1)
+                .build());
+        client().admin().cluster().updateSettings(clusterUpdateSettingsRequest).get();
+
+        try {
+            assertTrue(nativeMemoryCacheManager.isCacheThrashing());
+
+            // Loads that would evict another entry are rejected, while cached entries and loads that fit are not
+            expectThrows(OutOfNativeMemoryException.class, () -> nativeMemoryCacheManager.get(
+                    new TestNativeMemoryEntryContent("test-2", entryWeight), true));
+            assertEquals(1, nativeMemoryCacheManager.getRejectedLoadCount());
+            assertTrue(nativeMemoryCacheManager.contains("test-1"));
+
+            nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-1", entryWeight), true);
+            nativeMemoryCacheManager.get(new TestNativeMemoryEntryContent("test-3", 1), true);
+            assertTrue(nativeMemoryCacheManager.contains("test-3"));
+            assertEquals(1, nativeMemoryCacheManager.getRejectedLoadCount());
+        } finally {
+            clusterUpdateSettingsRequest = new ClusterUpdateSettingsRequest();
+            clusterUpdateSettingsRequest.transientSettings(Settings.builder()
+                    .putNull(KNNSettings.KNN_CACHE_THRASH_RELOAD_THRESHOLD)
+                    .build());
+            client().admin().cluster().updateSettings(clusterUpdateSettingsRequest).get();
+            nativeMemoryCacheManager.close();
+        }
+    }
+
     public void testGetIndicesCacheStats() throws IOException, ExecutionException {
         NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
         Map<String, Map<String, Object>> indicesStats = nativeMemoryCacheManager.getIndicesCacheStats();
@@ -473,6 +758,39 @@ public class NativeMemoryCacheManagerTests extends OpenSearchSingleNodeTestCase
         nativeMemoryCacheManager.close();
     }
 
+    public void testGetEnginesCacheStats() throws ExecutionException {
+        NativeMemoryCacheManager nativeMemoryCacheManager = new NativeMemoryCacheManager();
+        assertTrue(nativeMemoryCacheManager.getEnginesCacheStats().isEmpty());
+
+        // Faiss graphs taking 2 KB more and 1 KB less than their files, and a nmslib graph taking its file size
+        getIndexAllocation(nativeMemoryCacheManager, "test-1", 10, 0, 8, KNNEngine.FAISS);
+        getIndexAllocation(nativeMemoryCacheManager, "test-2", 4, 6, 11, KNNEngine.FAISS);
+        getIndexAllocation(nativeMemoryCacheManager, "test-3", 5, 0, 5, KNNEngine.NMSLIB);
+
+        Map<String, Map<String, Object>> enginesStats = nativeMemoryCacheManager.getEnginesCacheStats();
+        Map<String, Object> faissStats = enginesStats.get(KNNEngine.FAISS.getName());
+        assertEquals(2, faissStats.get(GRAPH_COUNT));
+        assertEquals(14L, faissStats.get(GRAPH_MEMORY_USAGE.getName()));
+        assertEquals(1L, faissStats.get(GRAPH_MEMORY_OVERHEAD));
+        Map<String, Object> nmslibStats = enginesStats.get(KNNEngine.NMSLIB.getName());
+        assertEquals(1, nmslibStats.get(GRAPH_COUNT));
+        assertEquals(5L, nmslibStats.get(GRAPH_MEMORY_USAGE.getName()));
+        assertEquals(0L, nmslibStats.get(GRAPH_MEMORY_OVERHEAD));
+
+        nativeMemoryCacheManager.close();
+    }
+
+    private void getIndexAllocation(NativeMemoryCacheManager nativeMemoryCacheManager, String key, int size,
+                                    int mappedSize, int fileSize, KNNEngine knnEngine) throws ExecutionException {
+        NativeMemoryAllocation.IndexAllocation indexAllocation = new NativeMemoryAllocation.IndexAllocation(null, 0,
+                size, mappedSize, fileSize, knnEngine, key, "test-index", null);
+        NativeMemoryEntryContext.IndexEntryContext indexEntryContext =
+                mock(NativeMemoryEntryContext.IndexEntryContext.class);
+        when(indexEntryContext.load()).thenReturn(indexAllocation);
+        when(indexEntryContext.getKey()).thenReturn(key);
+        nativeMemoryCacheManager.get(indexEntryContext, true);
+    }
+
     private static class TestNativeMemoryAllocation implements NativeMemoryAllocation {
 
         int size;
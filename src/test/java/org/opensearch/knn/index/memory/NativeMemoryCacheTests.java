@@ -0,0 +1,432 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index.memory;
+
+import com.google.common.cache.RemovalCause;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.opensearch.knn.KNNTestCase;
+import org.opensearch.knn.common.exception.OutOfNativeMemoryException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NativeMemoryCacheTests extends KNNTestCase {
+
+    public void testGet_singleFlight() throws Exception {
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation, cause) -> {});
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NativeMemoryAllocation allocation = allocation(10);
+
+        int numThreads = 4;
+        List<Thread> threads = new ArrayList<>();
+        Map<Integer, NativeMemoryAllocation> results = new ConcurrentHashMap<>();
+        for (int i = 0; i < numThreads; i++) {
+            final int threadId = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    results.put(threadId, cache.get("key", () -> {
+                        loads.incrementAndGet();
+                        loading.countDown();
+                        release.await();
+                        return allocation;
+                    }));
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(numThreads, results.size());
+        results.values().forEach(result -> assertSame(allocation, result));
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(numThreads - 1, cache.stats().hitCount());
+    }
+
+    public void testGet_evictsLeastRecentlyUsed() throws ExecutionException {
+        AtomicLong time = new AtomicLong();
+        Map<String, RemovalCause> removals = new ConcurrentHashMap<>();
+        NativeMemoryCache cache = new NativeMemoryCache(25, 0, (key, allocation, cause) -> {
+            allocation.close();
+            removals.put(key, cause);
+        }, time::incrementAndGet);
+
+        NativeMemoryAllocation allocation1 = allocation(10);
+        NativeMemoryAllocation allocation2 = allocation(10);
+        cache.get("test-1", () -> allocation1);
+        cache.get("test-2", () -> allocation2);
+
+        // Access the first entry so that the second one is the least recently used
+        cache.get("test-1", () -> allocation(10));
+        cache.get("test-3", () -> allocation(10));
+
+        assertEquals(20, cache.getWeight());
+        assertTrue(cache.containsKey("test-1"));
+        assertFalse(cache.containsKey("test-2"));
+        assertEquals(RemovalCause.SIZE, removals.get("test-2"));
+        verify(allocation2).close();
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    public void testGet_evictsLowerPriorityFirst() throws ExecutionException {
+        AtomicLong time = new AtomicLong();
+        Map<NativeMemoryAllocation, Integer> priorities = new ConcurrentHashMap<>();
+        NativeMemoryCache cache = new NativeMemoryCache(25, 0, (key, allocation) -> {},
+                (key, allocation, cause) -> {}, policy(priorities, Collections.emptyMap(), Long.MAX_VALUE),
+                time::incrementAndGet);
+
+        NativeMemoryAllocation lowPriority = allocation(10);
+        priorities.put(lowPriority, 0);
+        cache.get("test-1", () -> allocation(10));
+        cache.get("test-2", () -> lowPriority);
+        cache.get("test-3", () -> allocation(10));
+
+        // test-1 is the least recently used, but test-2 has a lower priority
+        assertTrue(cache.containsKey("test-1"));
+        assertFalse(cache.containsKey("test-2"));
+        assertTrue(cache.containsKey("test-3"));
+        assertEquals(20, cache.getWeight());
+    }
+
+    public void testGet_doesNotEvictHigherPriority() throws ExecutionException {
+        AtomicLong time = new AtomicLong();
+        Map<NativeMemoryAllocation, Integer> priorities = new ConcurrentHashMap<>();
+        Map<String, RemovalCause> removals = new ConcurrentHashMap<>();
+        NativeMemoryCache cache = new NativeMemoryCache(25, 0, (key, allocation) -> {},
+                (key, allocation, cause) -> {
+                    allocation.close();
+                    removals.put(key, cause);
+                }, policy(priorities, Collections.emptyMap(), Long.MAX_VALUE), time::incrementAndGet);
+
+        NativeMemoryAllocation lowPriority = allocation(10);
+        priorities.put(lowPriority, 0);
+        cache.get("test-1", () -> allocation(10));
+        cache.get("test-2", () -> allocation(10));
+
+        // Making room would evict an entry of higher priority, so the load is rejected and its allocation released
+        expectThrows(OutOfNativeMemoryException.class, () -> cache.get("test-3", () -> lowPriority));
+        assertTrue(cache.containsKey("test-1"));
+        assertTrue(cache.containsKey("test-2"));
+        assertFalse(cache.containsKey("test-3"));
+        assertEquals(RemovalCause.SIZE, removals.get("test-3"));
+        verify(lowPriority).close();
+        assertEquals(20, cache.getWeight());
+
+        // Waiting on a rejected load fails the same way
+        NativeMemoryAllocation otherLowPriority = allocation(10);
+        priorities.put(otherLowPriority, 0);
+        CompletableFuture<NativeMemoryAllocation> future = cache.getAsync("test-3", () -> otherLowPriority,
+                Runnable::run);
+        ExecutionException e = expectThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof OutOfNativeMemoryException);
+    }
+
+    public void testGet_rejectedLoadEvictsNothing() throws ExecutionException {
+        AtomicLong time = new AtomicLong();
+        Map<NativeMemoryAllocation, Integer> priorities = new ConcurrentHashMap<>();
+        NativeMemoryCache cache = new NativeMemoryCache(25, 0, (key, allocation) -> {},
+                (key, allocation, cause) -> allocation.close(), policy(priorities, Collections.emptyMap(),
+                Long.MAX_VALUE), time::incrementAndGet);
+
+        NativeMemoryAllocation lowPriority = allocation(10);
+        NativeMemoryAllocation otherLowPriority = allocation(20);
+        priorities.put(lowPriority, 0);
+        priorities.put(otherLowPriority, 0);
+        cache.get("test-1", () -> lowPriority);
+        cache.get("test-2", () -> allocation(10));
+
+        // Evicting test-1 would not be enough, so it is kept
+        expectThrows(OutOfNativeMemoryException.class, () -> cache.get("test-3", () -> otherLowPriority));
+        assertTrue(cache.containsKey("test-1"));
+        assertTrue(cache.containsKey("test-2"));
+        assertEquals(20, cache.getWeight());
+        assertEquals(10, cache.getWeightAbovePriority(0));
+    }
+
+    public void testGet_evictionListener() throws ExecutionException {
+        AtomicLong time = new AtomicLong();
+        Map<NativeMemoryAllocation, String> groups = new ConcurrentHashMap<>();
+        List<Boolean> notifications = new ArrayList<>();
+        NativeMemoryCache cache = new NativeMemoryCache(25, 0, (key, allocation) -> {},
+                (key, allocation, cause) -> {}, notifications::add, policy(Collections.emptyMap(), groups, 15),
+                time::incrementAndGet);
+
+        NativeMemoryAllocation allocation1 = allocation(10);
+        NativeMemoryAllocation allocation2 = allocation(10);
+        groups.put(allocation1, "index-1");
+        groups.put(allocation2, "index-1");
+        cache.get("test-1", () -> allocation1);
+        cache.get("test-2", () -> allocation2);
+
+        // Enforcing the quota of a group does not reach the maximum weight, evicting for the cache does
+        assertFalse(cache.containsKey("test-1"));
+        assertEquals(Arrays.asList(false, false), notifications);
+        cache.get("test-3", () -> allocation(20));
+        assertFalse(cache.containsKey("test-2"));
+        assertEquals(Arrays.asList(false, false, true), notifications);
+    }
+
+    public void testClose() throws ExecutionException {
+        AtomicInteger loads = new AtomicInteger();
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation) -> loads.incrementAndGet(),
+                (key, allocation, cause) -> {
+                    loads.decrementAndGet();
+                    allocation.close();
+                }, NativeMemoryCache.EvictionPolicy.NONE);
+
+        NativeMemoryAllocation allocation = allocation(10);
+        cache.get("test-1", () -> allocation);
+        cache.close();
+        verify(allocation).close();
+        assertFalse(cache.containsKey("test-1"));
+
+        // A load into a closed cache releases its allocation instead of caching it
+        NativeMemoryAllocation lateAllocation = allocation(10);
+        assertSame(lateAllocation, cache.get("test-2", () -> lateAllocation));
+        verify(lateAllocation).close();
+        assertFalse(cache.containsKey("test-2"));
+        assertEquals(0, cache.getWeight());
+        assertEquals(0, loads.get());
+    }
+
+    public void testGet_largerThanCache() throws ExecutionException {
+        AtomicLong time = new AtomicLong();
+        NativeMemoryCache cache = new NativeMemoryCache(25, 0, (key, allocation, cause) -> allocation.close(),
+                time::incrementAndGet);
+
+        // An allocation that does not fit on its own is still admitted, and is evicted by the next load
+        cache.get("test-1", () -> allocation(30));
+        assertEquals(30, cache.getWeight());
+        cache.get("test-2", () -> allocation(10));
+        assertFalse(cache.containsKey("test-1"));
+        assertEquals(10, cache.getWeight());
+    }
+
+    public void testGet_groupQuota() throws ExecutionException {
+        AtomicLong time = new AtomicLong();
+        Map<NativeMemoryAllocation, String> groups = new ConcurrentHashMap<>();
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation) -> {},
+                (key, allocation, cause) -> {}, policy(Collections.emptyMap(), groups, 25), time::incrementAndGet);
+
+        NativeMemoryAllocation allocation1 = allocation(10);
+        NativeMemoryAllocation allocation2 = allocation(10);
+        NativeMemoryAllocation allocation3 = allocation(10);
+        groups.put(allocation1, "index-1");
+        groups.put(allocation2, "index-2");
+        groups.put(allocation3, "index-1");
+        cache.get("test-1", () -> allocation1);
+        cache.get("test-2", () -> allocation2);
+        assertEquals(10, cache.getGroupWeight("index-1"));
+
+        NativeMemoryAllocation allocation4 = allocation(10);
+        groups.put(allocation4, "index-1");
+        cache.get("test-3", () -> allocation3);
+        cache.get("test-4", () -> allocation4);
+
+        // Only the least recently used entry of the group over its quota is evicted
+        assertFalse(cache.containsKey("test-1"));
+        assertTrue(cache.containsKey("test-2"));
+        assertTrue(cache.containsKey("test-3"));
+        assertTrue(cache.containsKey("test-4"));
+        assertEquals(20, cache.getGroupWeight("index-1"));
+        assertEquals(10, cache.getGroupWeight("index-2"));
+        assertEquals(1, cache.stats().evictionCount());
+    }
+
+    public void testGet_expired() throws ExecutionException {
+        AtomicLong time = new AtomicLong();
+        Map<String, RemovalCause> removals = new ConcurrentHashMap<>();
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 100,
+                (key, allocation, cause) -> removals.put(key, cause), time::get);
+
+        NativeMemoryAllocation allocation1 = allocation(10);
+        cache.get("test-1", () -> allocation1);
+        time.addAndGet(50);
+        assertSame(allocation1, cache.get("test-1", () -> allocation(10)));
+
+        // The access reset the expiry, so the entry only expires 100 after it
+        time.addAndGet(99);
+        cache.cleanUp();
+        assertTrue(cache.containsKey("test-1"));
+        time.addAndGet(1);
+        NativeMemoryAllocation allocation2 = allocation(10);
+        assertSame(allocation2, cache.get("test-1", () -> allocation2));
+        assertEquals(RemovalCause.EXPIRED, removals.get("test-1"));
+        assertEquals(10, cache.getWeight());
+    }
+
+    public void testGet_loadFailure() throws ExecutionException {
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation, cause) -> {});
+
+        expectThrows(ExecutionException.class, () -> cache.get("test-1", () -> {
+            throw new IOException("Unable to load");
+        }));
+        expectThrows(UncheckedExecutionException.class, () -> cache.get("test-1", () -> {
+            throw new IllegalStateException("Unable to load");
+        }));
+        assertFalse(cache.containsKey("test-1"));
+        assertEquals(2, cache.stats().loadExceptionCount());
+
+        // Failed loads are not cached
+        NativeMemoryAllocation allocation = allocation(10);
+        assertSame(allocation, cache.get("test-1", () -> allocation));
+    }
+
+    public void testGetAsync() throws Exception {
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation, cause) -> {});
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger loads = new AtomicInteger();
+        NativeMemoryAllocation allocation = allocation(10);
+        Callable<NativeMemoryAllocation> loader = () -> {
+            loads.incrementAndGet();
+            return allocation;
+        };
+
+        CompletableFuture<NativeMemoryAllocation> future1 = cache.getAsync("test-1", loader, tasks::add);
+        CompletableFuture<NativeMemoryAllocation> future2 = cache.getAsync("test-1", loader, tasks::add);
+
+        // Nothing is loaded until the executor runs the single load task
+        assertEquals(1, tasks.size());
+        assertFalse(future1.isDone());
+        assertFalse(future2.isDone());
+        assertEquals(0, cache.getWeight());
+
+        tasks.get(0).run();
+        assertSame(allocation, future1.get());
+        assertSame(allocation, future2.get());
+        assertEquals(1, loads.get());
+        assertEquals(10, cache.getWeight());
+
+        // Once loaded, the allocation is returned without going through the executor
+        CompletableFuture<NativeMemoryAllocation> future3 = cache.getAsync("test-1", loader,
+                task -> fail("Loaded allocations are not loaded again"));
+        assertSame(allocation, future3.get());
+        assertSame(allocation, cache.get("test-1", loader));
+    }
+
+    public void testGetAsync_failure() {
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation, cause) -> {});
+
+        CompletableFuture<NativeMemoryAllocation> failed = cache.getAsync("test-1", () -> {
+            throw new IOException("Unable to load");
+        }, Runnable::run);
+        ExecutionException e = expectThrows(ExecutionException.class, failed::get);
+        assertTrue(e.getCause() instanceof IOException);
+        assertFalse(cache.containsKey("test-1"));
+
+        CompletableFuture<NativeMemoryAllocation> rejected = cache.getAsync("test-1", () -> allocation(10), task -> {
+            throw new RejectedExecutionException("Queue is full");
+        });
+        e = expectThrows(ExecutionException.class, rejected::get);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertFalse(cache.containsKey("test-1"));
+    }
+
+    public void testGetAccessCounts() throws ExecutionException {
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation, cause) -> {});
+        cache.get("test-1", () -> allocation(10));
+        cache.get("test-2", () -> allocation(10));
+        cache.get("test-1", () -> allocation(10));
+        cache.get("test-1", () -> allocation(10));
+
+        // The load itself is not counted as an access
+        Map<String, Long> accessCounts = cache.getAccessCounts();
+        assertEquals(2, accessCounts.size());
+        assertEquals(2L, accessCounts.get("test-1").longValue());
+        assertEquals(0L, accessCounts.get("test-2").longValue());
+    }
+
+    public void testInvalidate() throws ExecutionException {
+        List<String> removed = new ArrayList<>();
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation, cause) -> {
+            assertEquals(RemovalCause.EXPLICIT, cause);
+            removed.add(key);
+        });
+
+        cache.get("test-1", () -> allocation(10));
+        cache.get("test-2", () -> allocation(20));
+        assertEquals(30, cache.getWeight());
+
+        cache.invalidate("test-1");
+        assertEquals(20, cache.getWeight());
+        assertEquals(1, cache.asMap().size());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getWeight());
+        assertTrue(cache.asMap().isEmpty());
+        assertEquals(2, removed.size());
+    }
+
+    public void testInvalidate_whileLoading() throws ExecutionException {
+        NativeMemoryCache cache = new NativeMemoryCache(Long.MAX_VALUE, 0, (key, allocation, cause) ->
+                fail("Allocations still loading are not passed to the listener"));
+        NativeMemoryAllocation allocation = allocation(10);
+
+        NativeMemoryAllocation result = cache.get("test-1", () -> {
+            cache.invalidate("test-1");
+            return allocation;
+        });
+
+        // The loader's caller still gets the allocation, but nothing can reach it anymore so it is closed
+        assertSame(allocation, result);
+        verify(allocation).close();
+        assertFalse(cache.containsKey("test-1"));
+        assertEquals(0, cache.getWeight());
+    }
+
+    private NativeMemoryCache.EvictionPolicy policy(Map<NativeMemoryAllocation, Integer> priorities,
+                                                    Map<NativeMemoryAllocation, String> groups, long groupQuota) {
+        return new NativeMemoryCache.EvictionPolicy() {
+            @Override
+            public String getGroup(NativeMemoryAllocation allocation) {
+                return groups.get(allocation);
+            }
+
+            @Override
+            public long getGroupQuota(String group) {
+                return groupQuota;
+            }
+
+            @Override
+            public int getPriority(NativeMemoryAllocation allocation) {
+                return priorities.getOrDefault(allocation, 1);
+            }
+        };
+    }
+
+    private NativeMemoryAllocation allocation(int sizeInKB) {
+        NativeMemoryAllocation allocation = mock(NativeMemoryAllocation.class);
+        when(allocation.getSizeInKB()).thenReturn(sizeInKB);
+        return allocation;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.index.memory;
+
+import org.opensearch.knn.KNNTestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class NativeMemoryCloseExecutorTests extends KNNTestCase {
+
+    public void testExecute() throws Exception {
+        NativeMemoryCloseExecutor.initialize(null);
+        NativeMemoryCloseExecutor closeExecutor = new NativeMemoryCloseExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(2);
+
+        closeExecutor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            closed.countDown();
+        });
+        closeExecutor.execute(closed::countDown);
+        assertEquals(2, closeExecutor.getPendingCloseCount());
+        assertEquals(0, closeExecutor.getCompletedCloseCount());
+
+        release.countDown();
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertBusy(() -> {
+            assertEquals(0, closeExecutor.getPendingCloseCount());
+            assertEquals(2, closeExecutor.getCompletedCloseCount());
+        });
+    }
+}
@@ -13,6 +13,7 @@ package org.opensearch.knn.jni;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import org.apache.lucene.util.FixedBitSet;
 import org.junit.BeforeClass;
 import org.opensearch.knn.KNNTestCase;
 import org.opensearch.knn.TestUtils;
@@ -26,6 +27,7 @@ import org.opensearch.knn.index.util.KNNEngine;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -364,6 +366,60 @@ public class JNIServiceTests extends KNNTestCase {
         assertNotEquals(0, pointer);
     }
 
+    public void testLoadIndex_faiss_mmap() throws IOException {
+
+        Path tmpFile = createTempFile();
+
+        JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors, tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(
+                        INDEX_DESCRIPTION_PARAMETER, faissMethod,
+                        KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()
+                ),
+                FAISS_NAME);
+
+        long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(KNNConstants.LOAD_MODE, KNNConstants.LOAD_MODE_MMAP), FAISS_NAME);
+        assertNotEquals(0, pointer);
+
+        // HNSW graphs cannot be mapped, so the whole index is still held in memory
+        assertEquals(0, JNIService.getMappedSizeInBytes(pointer, FAISS_NAME));
+        JNIService.free(pointer, FAISS_NAME);
+    }
+
+    public void testGetMappedSizeInBytes_invalidEngine() {
+        expectThrows(IllegalArgumentException.class, () -> JNIService.getMappedSizeInBytes(0L, "invalid-engine"));
+    }
+
+    public void testGetIndexSizeInBytes_faiss() throws IOException {
+
+        Path tmpFile = createTempFile();
+
+        JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors, tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(
+                        INDEX_DESCRIPTION_PARAMETER, faissMethod,
+                        KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()
+                ),
+                FAISS_NAME);
+
+        long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(), Collections.emptyMap(),
+                FAISS_NAME);
+        assertNotEquals(0, pointer);
+
+        // The graph holds at least the vectors
+        long vectorsSizeInBytes = (long) testData.indexData.vectors.length * testData.indexData.vectors[0].length
+                * Float.BYTES;
+        assertTrue(JNIService.getIndexSizeInBytes(pointer, FAISS_NAME) >= vectorsSizeInBytes);
+        JNIService.free(pointer, FAISS_NAME);
+    }
+
+    public void testGetIndexSizeInBytes_nmslib() {
+        assertEquals(-1, JNIService.getIndexSizeInBytes(0L, KNNEngine.NMSLIB.getName()));
+    }
+
+    public void testGetIndexSizeInBytes_invalidEngine() {
+        expectThrows(IllegalArgumentException.class, () -> JNIService.getIndexSizeInBytes(0L, "invalid-engine"));
+    }
+
     public void testQueryIndex_invalidEngine() {
         expectThrows(IllegalArgumentException.class, () -> JNIService.queryIndex(0L,
                 new float[]{}, 0, "invalid-engine"));
@@ -466,6 +522,288 @@ public class JNIServiceTests extends KNNTestCase {
         }
     }
 
+    public void testQueryIndexInto_nmslib_withFilter_valid() throws IOException {
+
+        int k = 10;
+        FixedBitSet filter = evenDocsFilter(testData.indexData.docs);
+        for (SpaceType spaceType : KNNEngine.NMSLIB.getMethod(KNNConstants.METHOD_HNSW).getSpaces()) {
+            Path tmpFile = createTempFile();
+
+            JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors,
+                    tmpFile.toAbsolutePath().toString(), ImmutableMap.of(KNNConstants.SPACE_TYPE, spaceType.getValue()),
+                    KNNEngine.NMSLIB.getName());
+            assertTrue(tmpFile.toFile().length() > 0);
+
+            long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                    ImmutableMap.of(KNNConstants.SPACE_TYPE, spaceType.getValue()), KNNEngine.NMSLIB.getName());
+            assertNotEquals(0, pointer);
+
+            for (float[] query : testData.queries) {
+                int[] ids = new int[k];
+                float[] distances = new float[k];
+                int resultSize = JNIService.queryIndex(pointer, query, k, filter.getBits(), null, ids, distances,
+                        KNNEngine.NMSLIB.getName());
+                assertTrue(resultSize <= k);
+                for (int i = 0; i < resultSize; i++) {
+                    assertTrue(filter.get(ids[i]));
+                }
+            }
+        }
+    }
+
+    public void testQueryIndexInto_faiss_withFilter_valid() throws IOException {
+
+        int k = 10;
+        FixedBitSet filter = evenDocsFilter(testData.indexData.docs);
+        List<SpaceType> spaces = ImmutableList.of(SpaceType.L2, SpaceType.INNER_PRODUCT);
+        for (SpaceType spaceType : spaces) {
+            Path tmpFile = createTempFile();
+            JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors,
+                    tmpFile.toAbsolutePath().toString(),
+                    ImmutableMap.of(
+                            INDEX_DESCRIPTION_PARAMETER, faissMethod,
+                            KNNConstants.SPACE_TYPE, spaceType.getValue()
+                    ),
+                    FAISS_NAME);
+            assertTrue(tmpFile.toFile().length() > 0);
+
+            long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                    ImmutableMap.of(KNNConstants.SPACE_TYPE, spaceType.getValue()), FAISS_NAME);
+            assertNotEquals(0, pointer);
+
+            for (float[] query : testData.queries) {
+                int[] ids = new int[k];
+                float[] distances = new float[k];
+                int resultSize = JNIService.queryIndex(pointer, query, k, filter.getBits(), null, ids, distances,
+                        FAISS_NAME);
+                assertEquals(k, resultSize);
+                for (int i = 0; i < resultSize; i++) {
+                    assertTrue(filter.get(ids[i]));
+                }
+            }
+        }
+    }
+
+    private FixedBitSet evenDocsFilter(int[] docs) {
+        int maxDoc = Arrays.stream(docs).max().orElse(0) + 1;
+        FixedBitSet filter = new FixedBitSet(maxDoc);
+        for (int doc : docs) {
+            if (doc % 2 == 0) {
+                filter.set(doc);
+            }
+        }
+        return filter;
+    }
+
+    public void testQueryIndexInto_invalidEngine() {
+        expectThrows(IllegalArgumentException.class, () -> JNIService.queryIndex(0L, new float[]{}, 0, null,
+                null, new int[0], new float[0], "invalid-engine"));
+    }
+
+    public void testQueryIndexInto_nmslib_valid() throws IOException {
+
+        int k = 10;
+        Path tmpFile = createTempFile();
+
+        JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors,
+                tmpFile.toAbsolutePath().toString(), ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()),
+                KNNEngine.NMSLIB.getName());
+        assertTrue(tmpFile.toFile().length() > 0);
+
+        long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()), KNNEngine.NMSLIB.getName());
+        assertNotEquals(0, pointer);
+
+        for (float[] query : testData.queries) {
+            int[] ids = new int[k];
+            float[] distances = new float[k];
+            int resultSize = JNIService.queryIndex(pointer, query, k, null, null, ids, distances,
+                    KNNEngine.NMSLIB.getName());
+            assertEquals(k, resultSize);
+            assertQueryResultsMatch(JNIService.queryIndex(pointer, query, k, KNNEngine.NMSLIB.getName()), ids,
+                    distances, resultSize);
+        }
+
+        expectThrows(Exception.class, () -> JNIService.queryIndex(pointer, testData.queries[0], k, null, null,
+                new int[k - 1], new float[k], KNNEngine.NMSLIB.getName()));
+        expectThrows(IllegalArgumentException.class, () -> JNIService.queryIndex(pointer, testData.queries[0], k,
+                null, ImmutableMap.of(KNNConstants.METHOD_PARAMETER_EF_SEARCH, 100), new int[k], new float[k],
+                KNNEngine.NMSLIB.getName()));
+    }
+
+    public void testQueryIndexInto_faiss_valid() throws IOException {
+
+        int k = 10;
+        Path tmpFile = createTempFile();
+        JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors,
+                tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(
+                        INDEX_DESCRIPTION_PARAMETER, faissMethod,
+                        KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()
+                ),
+                FAISS_NAME);
+        assertTrue(tmpFile.toFile().length() > 0);
+
+        long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()), FAISS_NAME);
+        assertNotEquals(0, pointer);
+
+        FixedBitSet filter = evenDocsFilter(testData.indexData.docs);
+        for (float[] query : testData.queries) {
+            int[] ids = new int[k];
+            float[] distances = new float[k];
+            int resultSize = JNIService.queryIndex(pointer, query, k, null, null, ids, distances, FAISS_NAME);
+            assertEquals(k, resultSize);
+            assertQueryResultsMatch(JNIService.queryIndex(pointer, query, k, FAISS_NAME), ids, distances, resultSize);
+
+            resultSize = JNIService.queryIndex(pointer, query, k, filter.getBits(), null, ids, distances,
+                    FAISS_NAME);
+            for (int i = 0; i < resultSize; i++) {
+                assertTrue(filter.get(ids[i]));
+            }
+
+            resultSize = JNIService.queryIndex(pointer, query, k, null,
+                    ImmutableMap.of(KNNConstants.METHOD_PARAMETER_EF_SEARCH, testData.indexData.docs.length), ids,
+                    distances, FAISS_NAME);
+            assertEquals(k, resultSize);
+        }
+    }
+
+    public void testRangeSearchIndex_invalidEngine() {
+        expectThrows(IllegalArgumentException.class, () -> JNIService.rangeSearchIndex(0L, new float[]{}, 1.0f, null,
+                new int[0], new float[0], "invalid-engine"));
+    }
+
+    public void testRangeSearchIndex_nmslib_valid() throws IOException {
+
+        Path tmpFile = createTempFile();
+
+        JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors,
+                tmpFile.toAbsolutePath().toString(), ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()),
+                KNNEngine.NMSLIB.getName());
+        assertTrue(tmpFile.toFile().length() > 0);
+
+        long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()), KNNEngine.NMSLIB.getName());
+        assertNotEquals(0, pointer);
+
+        int maxResults = testData.indexData.docs.length;
+        for (float[] query : testData.queries) {
+            // Use the distance of the 5th nearest neighbor as the radius
+            KNNQueryResult[] nearest = JNIService.queryIndex(pointer, query, 5, KNNEngine.NMSLIB.getName());
+            float radius = Arrays.stream(nearest).map(KNNQueryResult::getScore).max(Float::compare).get();
+
+            int[] ids = new int[maxResults];
+            float[] distances = new float[maxResults];
+            int resultSize = JNIService.rangeSearchIndex(pointer, query, radius, null, ids, distances,
+                    KNNEngine.NMSLIB.getName());
+            assertTrue(resultSize >= nearest.length);
+            for (int i = 0; i < resultSize; i++) {
+                assertTrue(distances[i] <= radius);
+            }
+        }
+    }
+
+    public void testRangeSearchIndex_faiss_valid() throws IOException {
+
+        Path tmpFile = createTempFile();
+        JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors,
+                tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(
+                        INDEX_DESCRIPTION_PARAMETER, faissMethod,
+                        KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()
+                ),
+                FAISS_NAME);
+        assertTrue(tmpFile.toFile().length() > 0);
+
+        long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()), FAISS_NAME);
+        assertNotEquals(0, pointer);
+
+        int maxResults = testData.indexData.docs.length;
+        FixedBitSet filter = evenDocsFilter(testData.indexData.docs);
+        for (float[] query : testData.queries) {
+            KNNQueryResult[] nearest = JNIService.queryIndex(pointer, query, 5, FAISS_NAME);
+            float radius = Arrays.stream(nearest).map(KNNQueryResult::getScore).max(Float::compare).get() + 1;
+
+            int[] ids = new int[maxResults];
+            float[] distances = new float[maxResults];
+            int resultSize = JNIService.rangeSearchIndex(pointer, query, radius, null, ids, distances, FAISS_NAME);
+            assertTrue(resultSize > 0);
+            for (int i = 0; i < resultSize; i++) {
+                assertTrue(distances[i] < radius);
+            }
+
+            resultSize = JNIService.rangeSearchIndex(pointer, query, radius, filter.getBits(), ids, distances,
+                    FAISS_NAME);
+            for (int i = 0; i < resultSize; i++) {
+                assertTrue(filter.get(ids[i]));
+                assertTrue(distances[i] < radius);
+            }
+        }
+    }
+
+    private void assertQueryResultsMatch(KNNQueryResult[] expected, int[] ids, float[] distances, int resultSize) {
+        assertEquals(expected.length, resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            assertEquals(expected[i].getId(), ids[i]);
+            assertEquals(expected[i].getScore(), distances[i], 0.0001f);
+        }
+    }
+
+    public void testQueryIndexBatch_invalidEngine() {
+        expectThrows(IllegalArgumentException.class, () -> JNIService.queryIndexBatch(0L,
+                new float[][]{}, 0, "invalid-engine"));
+    }
+
+    public void testQueryIndexBatch_nmslib_valid() throws IOException {
+
+        int k = 10;
+        Path tmpFile = createTempFile();
+
+        JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors,
+                tmpFile.toAbsolutePath().toString(), ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()),
+                KNNEngine.NMSLIB.getName());
+        assertTrue(tmpFile.toFile().length() > 0);
+
+        long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()), KNNEngine.NMSLIB.getName());
+        assertNotEquals(0, pointer);
+
+        KNNQueryResult[][] batchResults = JNIService.queryIndexBatch(pointer, testData.queries, k,
+                KNNEngine.NMSLIB.getName());
+        assertEquals(testData.queries.length, batchResults.length);
+        for (int i = 0; i < testData.queries.length; i++) {
+            KNNQueryResult[] results = JNIService.queryIndex(pointer, testData.queries[i], k,
+                    KNNEngine.NMSLIB.getName());
+            assertEquals(results.length, batchResults[i].length);
+        }
+    }
+
+    public void testQueryIndexBatch_faiss_valid() throws IOException {
+
+        int k = 10;
+        Path tmpFile = createTempFile();
+        JNIService.createIndex(testData.indexData.docs, testData.indexData.vectors,
+                tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(
+                        INDEX_DESCRIPTION_PARAMETER, faissMethod,
+                        KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()
+                ),
+                FAISS_NAME);
+        assertTrue(tmpFile.toFile().length() > 0);
+
+        long pointer = JNIService.loadIndex(tmpFile.toAbsolutePath().toString(),
+                ImmutableMap.of(KNNConstants.SPACE_TYPE, SpaceType.L2.getValue()), FAISS_NAME);
+        assertNotEquals(0, pointer);
+
+        KNNQueryResult[][] batchResults = JNIService.queryIndexBatch(pointer, testData.queries, k, FAISS_NAME);
+        assertEquals(testData.queries.length, batchResults.length);
+        for (KNNQueryResult[] results : batchResults) {
+            assertEquals(k, results.length);
+        }
+    }
+
     public void testFree_invalidEngine() {
         expectThrows(IllegalArgumentException.class, () -> JNIService.free(0L, "invalid-engine"));
     }
@@ -0,0 +1,28 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.plugin.transport;
+
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.knn.KNNTestCase;
+
+import java.io.IOException;
+
+public class CacheCapacityFreedRequestTests extends KNNTestCase {
+    public void testStreams() throws IOException {
+        String nodeId = "test-node";
+        CacheCapacityFreedRequest cacheCapacityFreedRequest = new CacheCapacityFreedRequest(nodeId);
+        BytesStreamOutput streamOutput = new BytesStreamOutput();
+        cacheCapacityFreedRequest.writeTo(streamOutput);
+        CacheCapacityFreedRequest cacheCapacityFreedRequestCopy = new CacheCapacityFreedRequest(
+                streamOutput.bytes().streamInput());
+        assertEquals(nodeId, cacheCapacityFreedRequestCopy.getNodeId());
+    }
+
+    public void testValidate() {
+        assertNull(new CacheCapacityFreedRequest("test-node").validate());
+        assertNotNull(new CacheCapacityFreedRequest("").validate());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright OpenSearch Contributors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.opensearch.knn.plugin.transport;
+
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.knn.KNNTestCase;
+import org.opensearch.knn.index.KNNWarmupTask;
+import org.opensearch.tasks.TaskCancelHelper;
+import org.opensearch.tasks.TaskId;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KNNWarmupShardTaskTests extends KNNTestCase {
+
+    public void testCancel() {
+        KNNWarmupShardTask shardTask = shardTask();
+        KNNWarmupTask warmupTask = mock(KNNWarmupTask.class);
+        shardTask.setWarmupTask(warmupTask);
+
+        TaskCancelHelper.cancel(shardTask, "test");
+        verify(warmupTask).cancel();
+    }
+
+    public void testSetWarmupTask_alreadyCancelled() {
+        KNNWarmupShardTask shardTask = shardTask();
+        TaskCancelHelper.cancel(shardTask, "test");
+
+        KNNWarmupTask warmupTask = mock(KNNWarmupTask.class);
+        shardTask.setWarmupTask(warmupTask);
+        verify(warmupTask).cancel();
+    }
+
+    public void testGetStatus() throws IOException {
+        KNNWarmupShardTask shardTask = shardTask();
+        assertNull(shardTask.getStatus());
+
+        KNNWarmupTask warmupTask = mock(KNNWarmupTask.class);
+        when(warmupTask.getTotalGraphs()).thenReturn(3);
+        when(warmupTask.getGraphsRemaining()).thenReturn(1);
+        when(warmupTask.getTotalBytes()).thenReturn(300L);
+        when(warmupTask.getBytesLoaded()).thenReturn(200L);
+        shardTask.setWarmupTask(warmupTask);
+
+        KNNWarmupShardTask.Status status = (KNNWarmupShardTask.Status) shardTask.getStatus();
+        BytesStreamOutput streamOutput = new BytesStreamOutput();
+        status.writeTo(streamOutput);
+        KNNWarmupShardTask.Status statusCopy = new KNNWarmupShardTask.Status(streamOutput.bytes().streamInput());
+        assertEquals(3, statusCopy.getTotalGraphs());
+        assertEquals(1, statusCopy.getGraphsRemaining());
+        assertEquals(300L, statusCopy.getTotalBytes());
+        assertEquals(200L, statusCopy.getBytesLoaded());
+    }
+
+    private KNNWarmupShardTask shardTask() {
+        return new KNNWarmupShardTask(1, "transport", KNNWarmupAction.NAME + "[shard]", "shard[test-index][0]",
+                TaskId.EMPTY_TASK_ID, Collections.emptyMap());
+    }
+}